@@ -0,0 +1,100 @@
+package com.pricecompare.cluster;
+
+import java.util.SplittableRandom;
+
+/**
+ * 标题MinHash签名与LSH分桶
+ * 标题归一化后按字符三元组切分，用numHashes个独立哈希函数取最小值得到签名，
+ * 两个签名对应位置相等的比例即标题三元组集合Jaccard相似度的估计。
+ * 签名按每bands段、每段rows个值分段哈希，任一段相同的商品进入同一候选桶，
+ * 相似度为s的两个商品成为候选的概率为 1 - (1 - s^rows)^bands。
+ * 
+ * @author AutoValuePilot
+ */
+public class MinHashLsh {
+
+    private static final int SHINGLE_SIZE = 3;
+
+    private final int numHashes;
+    private final int bands;
+    private final int rows;
+    private final long[] multipliers;
+    private final long[] offsets;
+
+    public MinHashLsh(int numHashes, int bands, long seed) {
+        if (bands <= 0 || numHashes % bands != 0) {
+            throw new IllegalArgumentException("签名长度必须是分段数的整数倍: " + numHashes + "/" + bands);
+        }
+        this.numHashes = numHashes;
+        this.bands = bands;
+        this.rows = numHashes / bands;
+        this.multipliers = new long[numHashes];
+        this.offsets = new long[numHashes];
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < numHashes; i++) {
+            multipliers[i] = random.nextLong() | 1;
+            offsets[i] = random.nextLong();
+        }
+    }
+
+    public int getNumHashes() {
+        return numHashes;
+    }
+
+    public int getBands() {
+        return bands;
+    }
+
+    /**
+     * 计算标题签名，写入out[offset, offset + numHashes)
+     * @param normalizedTitle 已归一化的标题
+     * @return 标题过短、没有三元组时返回false
+     */
+    public boolean signature(String normalizedTitle, int[] out, int offset) {
+        int length = normalizedTitle.length();
+        if (length < SHINGLE_SIZE) {
+            return false;
+        }
+        for (int i = 0; i < numHashes; i++) {
+            out[offset + i] = Integer.MAX_VALUE;
+        }
+        for (int start = 0; start + SHINGLE_SIZE <= length; start++) {
+            long shingle = ((long) normalizedTitle.charAt(start) << 32)
+                    | ((long) normalizedTitle.charAt(start + 1) << 16)
+                    | normalizedTitle.charAt(start + 2);
+            for (int i = 0; i < numHashes; i++) {
+                // 乘法哈希取高31位，作为第i个哈希函数
+                int hash = (int) ((multipliers[i] * shingle + offsets[i]) >>> 33);
+                if (hash < out[offset + i]) {
+                    out[offset + i] = hash;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 签名第band段的分桶哈希，不同段即使取值相同也落在不同的桶
+     */
+    public int bandHash(int[] signatures, int offset, int band) {
+        int hash = band * 0x9E3779B9;
+        int base = offset + band * rows;
+        for (int i = 0; i < rows; i++) {
+            hash = (hash ^ signatures[base + i]) * 0x01000193;
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * 两个签名估计的Jaccard相似度
+     */
+    public double similarity(int[] signatures, int offsetA, int offsetB) {
+        int equal = 0;
+        for (int i = 0; i < numHashes; i++) {
+            if (signatures[offsetA + i] == signatures[offsetB + i]) {
+                equal++;
+            }
+        }
+        return (double) equal / numHashes;
+    }
+}
@@ -0,0 +1,218 @@
+package com.pricecompare.cluster;
+
+import java.util.Arrays;
+
+/**
+ * 商品聚类（实体解析）
+ * 商品按ID升序加入，只在内存中保留ID、匹配键哈希、品牌哈希和标题签名。
+ * 候选分块：同一匹配键的商品、任一LSH分段相同的商品各自进入同一个桶，
+ * 每个桶按（桶哈希，商品下标）排序后顺序扫描，不做全量两两比较。
+ * 桶内用"锚点"比较：商品与桶内已有的锚点逐个比较，没有匹配上的成为新锚点（有上限），超大桶的代价是线性的。
+ * 匹配规则：品牌不同不匹配；双方都有匹配键时以匹配键是否相同为准；否则标题相似度达到阈值才匹配。
+ * 匹配结果用并查集合并，合并时检查两个簇已有的匹配键和品牌，避免通过无型号商品把不同型号串成一个簇。
+ * 簇ID取簇内最小的商品ID。
+ * 
+ * @author AutoValuePilot
+ */
+public class ProductClusterBuilder {
+
+    /** 每个桶最多保留的锚点数 */
+    private static final int MAX_ANCHORS = 32;
+
+    private final MinHashLsh lsh;
+    private final double threshold;
+    private final int numHashes;
+
+    private int size;
+    private long[] ids = new long[1024];
+    private long[] keyHashes = new long[1024];
+    private int[] brandHashes = new int[1024];
+    private boolean[] hasSignature = new boolean[1024];
+    private int[] signatures;
+
+    private int[] parent;
+    private long[] rootKeys;
+    private int[] rootBrands;
+    private boolean built;
+
+    public ProductClusterBuilder(MinHashLsh lsh, double threshold) {
+        this.lsh = lsh;
+        this.threshold = threshold;
+        this.numHashes = lsh.getNumHashes();
+        this.signatures = new int[1024 * numHashes];
+    }
+
+    /**
+     * 加入商品，ID必须递增
+     * @param matchKey 归一化匹配键，可为空
+     * @return 商品下标
+     */
+    public int add(long id, String title, String brand, String matchKey) {
+        if (built) {
+            throw new IllegalStateException("聚类已完成，不能再加入商品");
+        }
+        if (size > 0 && id <= ids[size - 1]) {
+            throw new IllegalArgumentException("商品ID必须递增: " + id);
+        }
+        ensureCapacity(size + 1);
+        int index = size++;
+        ids[index] = id;
+        keyHashes[index] = matchKey == null ? 0 : hash64(matchKey);
+        String normalizedBrand = ProductKeyNormalizer.normalizeBrand(brand);
+        brandHashes[index] = normalizedBrand.isEmpty() ? 0 : normalizedBrand.hashCode() | 1;
+        hasSignature[index] = lsh.signature(ProductKeyNormalizer.normalizeText(title), signatures, index * numHashes);
+        return index;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getId(int index) {
+        return ids[index];
+    }
+
+    /**
+     * 分块、比较并合并，之后可以读取簇ID
+     */
+    public void build() {
+        parent = new int[size];
+        rootKeys = new long[size];
+        rootBrands = new int[size];
+        for (int i = 0; i < size; i++) {
+            parent[i] = i;
+            rootKeys[i] = keyHashes[i];
+            rootBrands[i] = brandHashes[i];
+        }
+
+        // 桶条目编码为（桶哈希 << 32 | 商品下标），排序后同一个桶的条目相邻且按下标升序
+        long[] entries = new long[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (keyHashes[i] != 0) {
+                entries[count++] = ((long) (int) (keyHashes[i] ^ (keyHashes[i] >>> 32)) << 32) | i;
+            }
+        }
+        mergeBuckets(entries, count);
+        for (int band = 0; band < lsh.getBands(); band++) {
+            count = 0;
+            for (int i = 0; i < size; i++) {
+                if (hasSignature[i]) {
+                    entries[count++] = ((long) lsh.bandHash(signatures, i * numHashes, band) << 32) | i;
+                }
+            }
+            mergeBuckets(entries, count);
+        }
+        built = true;
+    }
+
+    /**
+     * 商品所属簇的ID（簇内最小商品ID）
+     */
+    public long getClusterId(int index) {
+        if (!built) {
+            throw new IllegalStateException("聚类尚未完成");
+        }
+        return ids[find(index)];
+    }
+
+    private void mergeBuckets(long[] entries, int count) {
+        Arrays.sort(entries, 0, count);
+        int[] anchors = new int[MAX_ANCHORS];
+        int start = 0;
+        while (start < count) {
+            int bucket = (int) (entries[start] >>> 32);
+            int end = start + 1;
+            while (end < count && (int) (entries[end] >>> 32) == bucket) {
+                end++;
+            }
+            if (end - start > 1) {
+                int anchorCount = 0;
+                for (int e = start; e < end; e++) {
+                    int member = (int) entries[e];
+                    boolean matched = false;
+                    for (int a = 0; a < anchorCount && !matched; a++) {
+                        int anchor = anchors[a];
+                        matched = find(anchor) == find(member) || (matches(anchor, member) && union(anchor, member));
+                    }
+                    if (!matched && anchorCount < MAX_ANCHORS) {
+                        anchors[anchorCount++] = member;
+                    }
+                }
+            }
+            start = end;
+        }
+    }
+
+    private boolean matches(int a, int b) {
+        if (brandHashes[a] != 0 && brandHashes[b] != 0 && brandHashes[a] != brandHashes[b]) {
+            return false;
+        }
+        if (keyHashes[a] != 0 && keyHashes[b] != 0) {
+            return keyHashes[a] == keyHashes[b];
+        }
+        return hasSignature[a] && hasSignature[b]
+                && lsh.similarity(signatures, a * numHashes, b * numHashes) >= threshold;
+    }
+
+    /**
+     * 合并两个簇，两个簇的匹配键或品牌冲突时不合并
+     */
+    private boolean union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA == rootB) {
+            return true;
+        }
+        if (conflicts(rootKeys[rootA], rootKeys[rootB]) || conflicts(rootBrands[rootA], rootBrands[rootB])) {
+            return false;
+        }
+        // 下标小的为根，簇ID即最小商品ID
+        int root = Math.min(rootA, rootB);
+        int child = Math.max(rootA, rootB);
+        parent[child] = root;
+        if (rootKeys[root] == 0) {
+            rootKeys[root] = rootKeys[child];
+        }
+        if (rootBrands[root] == 0) {
+            rootBrands[root] = rootBrands[child];
+        }
+        return true;
+    }
+
+    private static boolean conflicts(long a, long b) {
+        return a != 0 && b != 0 && a != b;
+    }
+
+    private int find(int index) {
+        while (parent[index] != index) {
+            parent[index] = parent[parent[index]];
+            index = parent[index];
+        }
+        return index;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, ids.length + (ids.length >> 1));
+        ids = Arrays.copyOf(ids, newCapacity);
+        keyHashes = Arrays.copyOf(keyHashes, newCapacity);
+        brandHashes = Arrays.copyOf(brandHashes, newCapacity);
+        hasSignature = Arrays.copyOf(hasSignature, newCapacity);
+        signatures = Arrays.copyOf(signatures, newCapacity * numHashes);
+    }
+
+    /**
+     * 64位FNV-1a哈希，0保留表示"没有匹配键"
+     */
+    private static long hash64(String text) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < text.length(); i++) {
+            hash ^= text.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+}
@@ -0,0 +1,198 @@
+package com.pricecompare.cluster;
+
+import com.pricecompare.crawler.CrawlLease;
+import com.pricecompare.entity.Product;
+import com.pricecompare.mapper.ProductMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 商品聚类任务
+ * 离线全量：定时按ID顺序分批读取全部商品，用ProductClusterBuilder分块聚类，只回写簇ID或匹配键有变化的商品；
+ * 多节点通过Redis租约保证同一时间只有一个节点执行。
+ * 增量：定期为尚未分配簇的新商品按匹配键（已建索引）查找已有的簇，找不到时自成一簇，
+ * 标题相似但没有型号的商品在下一次全量聚类时合并。
+ * 
+ * @author AutoValuePilot
+ */
+@Slf4j
+@Component
+public class ProductClusterJob {
+
+    private static final String REBUILD_LEASE_KEY = "cluster:rebuild";
+
+    private final ProductMapper productMapper;
+    private final CrawlLease crawlLease;
+    private final MinHashLsh lsh;
+
+    @Value("${app.cluster.enabled:true}")
+    private boolean enabled;
+
+    /** 读取和回写的批大小 */
+    @Value("${app.cluster.batch-size:1000}")
+    private int batchSize;
+
+    /** 标题相似度（估计的三元组Jaccard）达到该值视为同一商品 */
+    @Value("${app.cluster.threshold:0.7}")
+    private double threshold;
+
+    /** 全量聚类租约时长（毫秒），应长于一次全量聚类的耗时 */
+    @Value("${app.cluster.rebuild-lease:3600000}")
+    private long rebuildLease;
+
+    public ProductClusterJob(ProductMapper productMapper, CrawlLease crawlLease,
+                             @Value("${app.cluster.num-hashes:32}") int numHashes,
+                             @Value("${app.cluster.bands:8}") int bands) {
+        this.productMapper = productMapper;
+        this.crawlLease = crawlLease;
+        this.lsh = new MinHashLsh(numHashes, bands, 42);
+    }
+
+    @Scheduled(cron = "${app.cluster.rebuild-cron:0 30 3 * * ?}")
+    public void scheduledRebuild() {
+        if (!enabled) {
+            return;
+        }
+        String token = crawlLease.tryAcquire(REBUILD_LEASE_KEY, rebuildLease);
+        if (token == null) {
+            log.info("其他节点正在执行商品全量聚类，跳过");
+            return;
+        }
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.error("商品全量聚类失败", e);
+        } finally {
+            crawlLease.release(REBUILD_LEASE_KEY, token);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.cluster.assign-interval:60000}", initialDelayString = "${app.cluster.assign-interval:60000}")
+    public void scheduledAssign() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            int count = assignUnclustered();
+            if (count > 0) {
+                log.info("新商品分配簇完成：{}", count);
+            }
+        } catch (Exception e) {
+            log.warn("新商品分配簇失败：{}", e.getMessage());
+        }
+    }
+
+    /**
+     * 全量聚类，扫描时回写有变化的匹配键，聚类后回写有变化的簇ID
+     * @return 簇ID有变化的商品数
+     */
+    public int rebuild() {
+        long start = System.currentTimeMillis();
+        ProductClusterBuilder builder = new ProductClusterBuilder(lsh, threshold);
+        List<Long> currentClusterIds = new ArrayList<>();
+        List<Product> changes = new ArrayList<>();
+        long lastId = 0;
+        while (true) {
+            List<Product> batch = productMapper.selectClusterBatch(lastId, batchSize);
+            if (batch.isEmpty()) {
+                break;
+            }
+            for (Product product : batch) {
+                String matchKey = ProductKeyNormalizer.matchKey(product.getBrand(), product.getModel());
+                builder.add(product.getId(), product.getTitle(), product.getBrand(), matchKey);
+                currentClusterIds.add(product.getClusterId());
+                if (!Objects.equals(matchKey, product.getMatchKey())) {
+                    product.setMatchKey(matchKey);
+                    changes.add(product);
+                }
+            }
+            if (!changes.isEmpty()) {
+                productMapper.updateMatchKeys(changes);
+                changes.clear();
+            }
+            lastId = batch.get(batch.size() - 1).getId();
+        }
+        builder.build();
+        long built = System.currentTimeMillis();
+
+        int changed = 0;
+        int clusters = 0;
+        for (int i = 0; i < builder.size(); i++) {
+            long clusterId = builder.getClusterId(i);
+            if (clusterId == builder.getId(i)) {
+                clusters++;
+            }
+            if (Objects.equals(currentClusterIds.get(i), clusterId)) {
+                continue;
+            }
+            Product change = new Product();
+            change.setId(builder.getId(i));
+            change.setClusterId(clusterId);
+            changes.add(change);
+            changed++;
+            if (changes.size() >= batchSize) {
+                productMapper.updateClusterIds(changes);
+                changes.clear();
+            }
+        }
+        if (!changes.isEmpty()) {
+            productMapper.updateClusterIds(changes);
+        }
+        log.info("商品全量聚类完成，商品数：{}，簇数：{}，簇ID变化：{}，聚类耗时：{}ms，总耗时：{}ms",
+                builder.size(), clusters, changed, built - start, System.currentTimeMillis() - start);
+        return changed;
+    }
+
+    /**
+     * 为尚未分配簇的商品分配簇：匹配键已有簇的加入该簇，同一批内匹配键相同的归为一簇，其余自成一簇
+     * @return 分配的商品数
+     */
+    public int assignUnclustered() {
+        int total = 0;
+        while (true) {
+            List<Product> batch = productMapper.selectUnclustered(batchSize);
+            if (batch.isEmpty()) {
+                return total;
+            }
+            Set<String> keys = new LinkedHashSet<>();
+            for (Product product : batch) {
+                product.setMatchKey(ProductKeyNormalizer.matchKey(product.getBrand(), product.getModel()));
+                if (product.getMatchKey() != null) {
+                    keys.add(product.getMatchKey());
+                }
+            }
+            Map<String, Long> clusterIds = new HashMap<>();
+            if (!keys.isEmpty()) {
+                for (Product row : productMapper.selectClusterIdsByMatchKeys(keys)) {
+                    clusterIds.put(row.getMatchKey(), row.getClusterId());
+                }
+            }
+            for (Product product : batch) {
+                Long clusterId = product.getMatchKey() == null ? null : clusterIds.get(product.getMatchKey());
+                if (clusterId == null) {
+                    clusterId = product.getId();
+                    if (product.getMatchKey() != null) {
+                        clusterIds.put(product.getMatchKey(), clusterId);
+                    }
+                }
+                product.setClusterId(clusterId);
+            }
+            productMapper.updateMatchKeys(batch);
+            productMapper.updateClusterIds(batch);
+            total += batch.size();
+            if (batch.size() < batchSize) {
+                return total;
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.pricecompare.cluster;
+
+import com.pricecompare.entity.Product;
+import com.pricecompare.entity.ProductPrice;
+import com.pricecompare.mapper.ProductMapper;
+import com.pricecompare.mapper.ProductPriceMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按商品簇查询各平台价格
+ * 比价源商品已分配簇时，按cluster_id索引取出同簇商品，再取各商品在有效期内的最近价格，
+ * 有价格的平台直接使用这些价格，不需要再按关键词搜索
+ * 
+ * @author AutoValuePilot
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductClusterLookup {
+
+    private final ProductMapper productMapper;
+    private final ProductPriceMapper productPriceMapper;
+
+    @Value("${app.cluster.enabled:true}")
+    private boolean enabled;
+
+    /** 同簇商品价格的有效期（毫秒），超过的平台仍实时搜索 */
+    @Value("${app.cluster.price-max-age:1800000}")
+    private long priceMaxAge;
+
+    /**
+     * 与指定商品同簇的商品在有效期内的最近价格，按平台代码分组
+     * @return 商品不存在、未分配簇或没有有效价格时返回空Map
+     */
+    public Map<String, List<ProductPrice>> freshPrices(Long productId) {
+        if (!enabled || productId == null) {
+            return Map.of();
+        }
+        List<Product> members = productMapper.selectClusterMembers(productId);
+        if (members.isEmpty()) {
+            return Map.of();
+        }
+        LocalDateTime since = LocalDateTime.now().minus(Duration.ofMillis(priceMaxAge));
+        Map<String, List<ProductPrice>> prices = new HashMap<>();
+        for (ProductPrice price : productPriceMapper.selectLatestSince(members, since)) {
+            prices.computeIfAbsent(price.getPlatformCode(), code -> new ArrayList<>()).add(price);
+        }
+        return prices;
+    }
+}
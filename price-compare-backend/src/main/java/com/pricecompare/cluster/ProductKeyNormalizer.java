@@ -0,0 +1,118 @@
+package com.pricecompare.cluster;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 商品匹配键归一化
+ * 全角转半角、转小写、去掉空白和标点；品牌取英文名（"Apple/苹果"取apple，常见中文品牌名映射为英文），
+ * 型号去掉重复的品牌前缀。品牌和型号都不为空时组成匹配键，同一匹配键视为同一商品。
+ * 
+ * @author AutoValuePilot
+ */
+public final class ProductKeyNormalizer {
+
+    private static final Map<String, String> BRAND_ALIASES = Map.ofEntries(
+            Map.entry("苹果", "apple"),
+            Map.entry("华为", "huawei"),
+            Map.entry("荣耀", "honor"),
+            Map.entry("小米", "xiaomi"),
+            Map.entry("红米", "redmi"),
+            Map.entry("联想", "lenovo"),
+            Map.entry("三星", "samsung"),
+            Map.entry("索尼", "sony"),
+            Map.entry("戴森", "dyson"),
+            Map.entry("美的", "midea"),
+            Map.entry("海尔", "haier"),
+            Map.entry("格力", "gree"),
+            Map.entry("大疆", "dji"),
+            Map.entry("耐克", "nike"),
+            Map.entry("阿迪达斯", "adidas"));
+
+    private ProductKeyNormalizer() {
+    }
+
+    /**
+     * 归一化文本：全角转半角、转小写，只保留字母、数字和汉字
+     * @return 没有有效字符时返回空字符串
+     */
+    public static String normalizeText(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        StringBuilder sb = new StringBuilder(folded.length());
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 归一化品牌
+     * @return 品牌为空时返回空字符串
+     */
+    public static String normalizeBrand(String brand) {
+        if (brand == null || brand.isBlank()) {
+            return "";
+        }
+        // "Apple/苹果"、"华为（HUAWEI）"等中英文并列写法优先取英文名
+        String first = "";
+        for (String part : Normalizer.normalize(brand, Normalizer.Form.NFKC).split("[/()|]")) {
+            String normalized = normalizeText(part);
+            if (normalized.isEmpty()) {
+                continue;
+            }
+            if (containsLatin(normalized)) {
+                return normalized;
+            }
+            if (first.isEmpty()) {
+                first = normalized;
+            }
+        }
+        return BRAND_ALIASES.getOrDefault(first, first);
+    }
+
+    /**
+     * 归一化型号，去掉型号中重复的品牌前缀
+     * @param normalizedBrand 已归一化的品牌
+     */
+    public static String normalizeModel(String model, String normalizedBrand) {
+        String normalized = normalizeText(model);
+        if (!normalizedBrand.isEmpty() && normalized.startsWith(normalizedBrand)
+                && normalized.length() > normalizedBrand.length()) {
+            normalized = normalized.substring(normalizedBrand.length());
+        }
+        return normalized;
+    }
+
+    /**
+     * 商品匹配键：归一化品牌|归一化型号
+     * @return 品牌或型号为空时返回null
+     */
+    public static String matchKey(String brand, String model) {
+        String normalizedBrand = normalizeBrand(brand);
+        if (normalizedBrand.isEmpty()) {
+            return null;
+        }
+        String normalizedModel = normalizeModel(model, normalizedBrand);
+        if (normalizedModel.isEmpty()) {
+            return null;
+        }
+        return normalizedBrand + '|' + normalizedModel;
+    }
+
+    private static boolean containsLatin(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 'a' && c <= 'z') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
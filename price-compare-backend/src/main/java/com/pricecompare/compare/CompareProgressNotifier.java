@@ -0,0 +1,91 @@
+package com.pricecompare.compare;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pricecompare.dto.response.CompareTaskProgress;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * 比价任务进度通知
+ * 执行子任务的节点把进度发布到Redis频道；每个节点只订阅一次该频道，
+ * 再分发给本节点上订阅了对应任务的客户端连接
+ * 
+ * @author AutoValuePilot
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CompareProgressNotifier implements MessageListener {
+
+    public static final String PROGRESS_CHANNEL = "compare:task:progress";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Map<Long, Set<Consumer<CompareTaskProgress>>> listeners = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(PROGRESS_CHANNEL));
+    }
+
+    /**
+     * 发布任务进度，发布失败只影响推送，不影响任务执行
+     */
+    public void publish(CompareTaskProgress progress) {
+        try {
+            stringRedisTemplate.convertAndSend(PROGRESS_CHANNEL, objectMapper.writeValueAsString(progress));
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("发布比价任务进度失败：{}，原因：{}", progress.getTaskId(), e.getMessage());
+        }
+    }
+
+    /**
+     * 订阅任务进度
+     * @return 取消订阅的回调
+     */
+    public Runnable subscribe(Long taskId, Consumer<CompareTaskProgress> listener) {
+        listeners.computeIfAbsent(taskId, id -> ConcurrentHashMap.newKeySet()).add(listener);
+        return () -> listeners.computeIfPresent(taskId, (id, set) -> {
+            set.remove(listener);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        CompareTaskProgress progress;
+        try {
+            progress = objectMapper.readValue(message.getBody(), CompareTaskProgress.class);
+        } catch (IOException e) {
+            log.warn("无法解析比价任务进度消息：{}", e.getMessage());
+            return;
+        }
+        Set<Consumer<CompareTaskProgress>> taskListeners = listeners.get(progress.getTaskId());
+        if (taskListeners == null) {
+            return;
+        }
+        for (Consumer<CompareTaskProgress> listener : taskListeners) {
+            try {
+                listener.accept(progress);
+            } catch (RuntimeException e) {
+                log.debug("推送比价任务进度失败：{}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.pricecompare.compare;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pricecompare.dto.response.ApiResponse;
+import com.pricecompare.dto.response.CompareRanking;
+import com.pricecompare.dto.response.CompareResultItem;
+import com.pricecompare.dto.response.SimilarProduct;
+import com.pricecompare.entity.CompareTask;
+import com.pricecompare.entity.ProductPrice;
+import com.pricecompare.exception.BusinessException;
+import com.pricecompare.mapper.CompareTaskMapper;
+import com.pricecompare.similar.SimilarProductIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 比价结果快照
+ * 任务结束时一次性生成完整结果（按价格排序的商品、最优选择、最低价和性价比排名、各平台最低价、价格分布、图表数据、相似商品），
+ * 序列化为完整的ApiResponse并gzip压缩，保存到compare_task.compare_result和Redis；
+ * 读取时直接返回压缩字节，不再查询结果行或重新序列化。
+ * 快照中的商品明细最多max-items条，超出部分通过结果分页接口读取；
+ * 快照在任务状态更新之后单独写入数据库，超过max-bytes或写入失败只影响快照，不影响任务结束
+ * 
+ * @author AutoValuePilot
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CompareResultSnapshot {
+
+    private static final String SNAPSHOT_PREFIX = "compare:result:snapshot:";
+
+    private final CompareResultStore compareResultStore;
+    private final CompareTaskMapper compareTaskMapper;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+    private final SimilarProductIndex similarProductIndex;
+
+    /** Redis中快照的保留时间（毫秒），过期后从数据库重新加载 */
+    @Value("${app.compare.snapshot-ttl:86400000}")
+    private long snapshotTtl;
+
+    /** 快照中商品明细的最大条数，排名和统计仍基于全部结果 */
+    @Value("${app.compare.snapshot-max-items:5000}")
+    private int maxItems;
+
+    /** 写入数据库的压缩快照最大字节数，Base64编码后须小于compare_result列（MEDIUMTEXT，16MB） */
+    @Value("${app.compare.snapshot-max-bytes:4194304}")
+    private int maxBytes;
+
+    /** 结果中最低价、性价比排名各取的条数 */
+    @Value("${app.compare.ranking-size:10}")
+    private int rankingSize;
+
+    /** 结果中附带的相似商品数 */
+    @Value("${app.similar.recommend-size:10}")
+    private int similarSize;
+
+    /**
+     * 生成任务结果快照，填充task的chartData和similarProducts，由调用方随任务状态一起写入数据库；
+     * 快照本身在任务状态更新之后调用{@link #save}保存
+     * @return gzip压缩的ApiResponse JSON
+     */
+    public byte[] build(CompareTask task) {
+        List<ProductPrice> prices = compareResultStore.listAll(task.getId());
+        BigDecimal lowestPrice = prices.isEmpty() ? null : prices.get(0).getPrice();
+
+        // 结果已按价格升序读出；排名与统计在基本类型数组上一次遍历完成
+        CompareRanking ranking = PriceRanking.of(prices).rank(rankingSize);
+        int itemCount = Math.min(prices.size(), maxItems);
+        List<CompareResultItem> items = new ArrayList<>(itemCount);
+        for (ProductPrice price : prices.subList(0, itemCount)) {
+            items.add(CompareResultStore.toResultItem(price, lowestPrice));
+        }
+        CompareRanking.Chart chart = ranking.getChart();
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("taskId", task.getId());
+        snapshot.put("productName", task.getProductName());
+        snapshot.put("status", task.getStatus());
+        snapshot.put("resultCount", prices.size());
+        snapshot.put("truncated", itemCount < prices.size());
+        snapshot.put("bestChoice", ranking.getBestChoice());
+        snapshot.put("cheapest", ranking.getCheapest());
+        snapshot.put("bestValue", ranking.getBestValue());
+        snapshot.put("platformLowest", ranking.getPlatformLowest());
+        snapshot.put("priceDistribution", ranking.getDistribution());
+        snapshot.put("chartData", chart);
+        List<SimilarProduct> similarProducts = similarProducts(task, prices);
+        snapshot.put("similarProducts", similarProducts);
+        snapshot.put("items", items);
+
+        try {
+            byte[] compressed = gzip(objectMapper.writeValueAsBytes(ApiResponse.success(snapshot)));
+            task.setChartData(objectMapper.writeValueAsString(chart));
+            task.setSimilarProducts(objectMapper.writeValueAsString(similarProducts));
+            return compressed;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("序列化比价结果失败: " + task.getId(), e);
+        }
+    }
+
+    /**
+     * 保存任务已结束后的快照：写入数据库并缓存到Redis。
+     * 超过max-bytes时只缓存不写库，缓存过期后读取时重新生成；写库失败同样只记录日志
+     */
+    public void save(Long taskId, byte[] compressed) {
+        if (compressed.length > maxBytes) {
+            log.warn("比价结果快照过大，不写入数据库：{}，{} 字节", taskId, compressed.length);
+        } else {
+            try {
+                compareTaskMapper.updateCompareResult(taskId, Base64.getEncoder().encodeToString(compressed));
+            } catch (RuntimeException e) {
+                log.warn("保存比价结果快照失败，读取时重新生成：{}，原因：{}", taskId, e.getMessage());
+            }
+        }
+        cache(taskId, compressed);
+    }
+
+    /**
+     * 缓存快照
+     */
+    public void cache(Long taskId, byte[] compressed) {
+        byte[] key = (SNAPSHOT_PREFIX + taskId).getBytes(StandardCharsets.UTF_8);
+        stringRedisTemplate.execute((RedisCallback<Object>) connection -> connection.stringCommands()
+                .set(key, compressed, Expiration.milliseconds(snapshotTtl), RedisStringCommands.SetOption.upsert()));
+    }
+
+    /**
+     * 读取任务结果快照，依次查找Redis、数据库；已结束但没有快照的任务（如本功能上线前完成的任务）现场生成
+     * @return gzip压缩的ApiResponse JSON
+     */
+    public byte[] get(Long taskId) {
+        byte[] key = (SNAPSHOT_PREFIX + taskId).getBytes(StandardCharsets.UTF_8);
+        byte[] cached = stringRedisTemplate.execute((RedisCallback<byte[]>) connection -> connection.stringCommands().get(key));
+        if (cached != null) {
+            return cached;
+        }
+
+        String stored = compareTaskMapper.selectCompareResult(taskId);
+        byte[] compressed;
+        if (stored != null && !stored.isEmpty()) {
+            compressed = Base64.getDecoder().decode(stored);
+        } else {
+            CompareTask task = compareTaskMapper.selectById(taskId);
+            if (task == null) {
+                throw new BusinessException(404, "比价任务不存在: " + taskId);
+            }
+            if (task.getStatus() == null || task.getStatus() < 2) {
+                throw new BusinessException(409, "比价任务尚未结束: " + taskId);
+            }
+            compressed = build(task);
+            CompareTask update = new CompareTask();
+            update.setId(taskId);
+            update.setChartData(task.getChartData());
+            compareTaskMapper.updateById(update);
+            save(taskId, compressed);
+            return compressed;
+        }
+        cache(taskId, compressed);
+        return compressed;
+    }
+
+    /**
+     * 删除缓存的快照
+     */
+    public void evict(Long taskId) {
+        stringRedisTemplate.delete(SNAPSHOT_PREFIX + taskId);
+    }
+
+    /**
+     * 与任务商品名称相似的商品，以结果中位价为参考价划分升级版、经济版
+     */
+    private List<SimilarProduct> similarProducts(CompareTask task, List<ProductPrice> prices) {
+        if (task.getProductName() == null) {
+            return List.of();
+        }
+        BigDecimal referencePrice = prices.isEmpty() ? null : prices.get(prices.size() / 2).getPrice();
+        try {
+            return similarProductIndex.recommend(task.getProductName(), referencePrice, similarSize);
+        } catch (RuntimeException e) {
+            log.warn("查询相似商品失败：{}，原因：{}", task.getId(), e.getMessage());
+            return List.of();
+        }
+    }
+
+    static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 解压快照，供不支持gzip的客户端使用
+     */
+    public static byte[] gunzip(byte[] compressed) {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.pricecompare.compare;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.pricecompare.dto.response.CompareResultItem;
+import com.pricecompare.dto.response.CursorPage;
+import com.pricecompare.entity.CompareTaskPrice;
+import com.pricecompare.entity.ProductPrice;
+import com.pricecompare.exception.BusinessException;
+import com.pricecompare.mapper.CompareTaskPriceMapper;
+import com.pricecompare.mapper.ProductPriceMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 比价任务结果
+ * 子任务写入价格后把价格记录关联到任务；查询时按（价格，价格ID）键集分页，
+ * 只扫描本任务的结果，与product_price表的总行数无关
+ * 
+ * @author AutoValuePilot
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CompareResultStore {
+
+    private final CompareTaskPriceMapper compareTaskPriceMapper;
+    private final ProductPriceMapper productPriceMapper;
+
+    /** 每页最大条数 */
+    @Value("${app.compare.results.max-limit:200}")
+    private int maxLimit;
+
+    /**
+     * 关联任务结果
+     * @param prices 本次观测到的价格；已写入的记录带有ID，价格未变化未写入的记录关联到该商品最近一条价格记录；
+     *               没有价格的记录无法参与按价格排序和分页，不关联
+     */
+    public void link(Long taskId, Collection<ProductPrice> prices) {
+        List<ProductPrice> priced = new ArrayList<>(prices.size());
+        List<ProductPrice> unresolved = new ArrayList<>();
+        for (ProductPrice price : prices) {
+            if (price.getPrice() == null) {
+                log.warn("价格为空，跳过关联：{} {}", price.getPlatformCode(), price.getPlatformProductId());
+                continue;
+            }
+            priced.add(price);
+            if (price.getId() == null) {
+                unresolved.add(price);
+            }
+        }
+        if (priced.isEmpty()) {
+            return;
+        }
+        Map<String, Long> latestIds = new HashMap<>();
+        if (!unresolved.isEmpty()) {
+            for (ProductPrice row : productPriceMapper.selectLatestIds(unresolved)) {
+                latestIds.put(row.getPlatformCode() + ':' + row.getPlatformProductId(), row.getId());
+            }
+        }
+
+        List<CompareTaskPrice> links = new ArrayList<>(priced.size());
+        for (ProductPrice price : priced) {
+            Long priceId = price.getId() != null ? price.getId()
+                    : latestIds.get(price.getPlatformCode() + ':' + price.getPlatformProductId());
+            if (priceId == null) {
+                log.warn("未找到价格记录，跳过关联：{} {}", price.getPlatformCode(), price.getPlatformProductId());
+                continue;
+            }
+            CompareTaskPrice link = new CompareTaskPrice();
+            link.setTaskId(taskId);
+            link.setPriceId(priceId);
+            link.setPrice(price.getPrice());
+            links.add(link);
+        }
+        if (!links.isEmpty()) {
+            compareTaskPriceMapper.insertIgnoreBatch(links);
+        }
+    }
+
+    /**
+     * 按价格升序分页查询任务结果
+     * @param cursor 上一页返回的游标，为空时查询第一页
+     */
+    public CursorPage<ProductPrice> page(Long taskId, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, maxLimit));
+        BigDecimal afterPrice = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            int separator = cursor.indexOf('_');
+            try {
+                afterPrice = new BigDecimal(cursor.substring(0, separator));
+                afterId = Long.parseLong(cursor.substring(separator + 1));
+            } catch (RuntimeException e) {
+                throw new BusinessException(400, "无效的分页游标: " + cursor);
+            }
+        }
+
+        // 多取一条判断是否还有下一页
+        List<ProductPrice> rows = compareTaskPriceMapper.selectTaskPage(taskId, afterPrice, afterId, pageSize + 1);
+        if (rows.size() <= pageSize) {
+            return CursorPage.of(rows, null);
+        }
+        List<ProductPrice> items = new ArrayList<>(rows.subList(0, pageSize));
+        ProductPrice last = items.get(pageSize - 1);
+        return CursorPage.of(items, encodeCursor(last));
+    }
+
+    /**
+     * 按价格升序读取任务的全部结果
+     */
+    public List<ProductPrice> listAll(Long taskId) {
+        List<ProductPrice> all = new ArrayList<>();
+        BigDecimal afterPrice = null;
+        Long afterId = null;
+        while (true) {
+            List<ProductPrice> rows = compareTaskPriceMapper.selectTaskPage(taskId, afterPrice, afterId, maxLimit);
+            all.addAll(rows);
+            if (rows.size() < maxLimit) {
+                return all;
+            }
+            ProductPrice last = rows.get(rows.size() - 1);
+            afterPrice = last.getPrice();
+            afterId = last.getId();
+        }
+    }
+
+    /**
+     * 转换为比价结果格式
+     * @param lowestPrice 任务结果中的最低价，用于标记最低价商品
+     */
+    public static CompareResultItem toResultItem(ProductPrice price, BigDecimal lowestPrice) {
+        // 标记是否为最低价
+        boolean isLowest = lowestPrice != null && price.getPrice() != null && price.getPrice().compareTo(lowestPrice) == 0;
+        return CompareResultItem.of(price, isLowest);
+    }
+
+    /**
+     * 任务结果中的最低价，没有结果时为空
+     */
+    public BigDecimal lowestPrice(Long taskId) {
+        return compareTaskPriceMapper.selectLowestPrice(taskId);
+    }
+
+    /**
+     * 删除任务结果关联
+     */
+    public void delete(Long taskId) {
+        compareTaskPriceMapper.delete(new LambdaQueryWrapper<CompareTaskPrice>()
+                .eq(CompareTaskPrice::getTaskId, taskId));
+    }
+
+    static String encodeCursor(ProductPrice price) {
+        return price.getPrice().toPlainString() + '_' + price.getId();
+    }
+}
@@ -0,0 +1,132 @@
+package com.pricecompare.compare;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 比价任务中断
+ * 子任务搜索平台期间登记执行线程；任务被取消或超时结束时把任务ID发布到Redis频道，
+ * 每个节点中断本节点上该任务正在搜索的线程，进行中的平台调用随之取消，执行线程立即释放。
+ * 登记、注销和中断在同一把锁内完成，注销之后不会再收到该任务的中断。
+ *
+ * @author AutoValuePilot
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CompareTaskCancellation implements MessageListener {
+
+    public static final String CANCEL_CHANNEL = "compare:task:cancel";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+
+    private final Map<Long, Set<Registration>> running = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(CANCEL_CHANNEL));
+    }
+
+    /**
+     * 登记当前线程正在执行任务的子任务，执行结束后关闭返回的登记
+     */
+    public Registration register(Long taskId) {
+        Registration registration = new Registration(taskId, Thread.currentThread());
+        running.compute(taskId, (id, registrations) -> {
+            Set<Registration> set = registrations != null ? registrations : ConcurrentHashMap.newKeySet();
+            set.add(registration);
+            return set;
+        });
+        return registration;
+    }
+
+    /**
+     * 通知所有节点中断该任务正在执行的子任务；发布失败时只中断本节点，其他节点的子任务在截止时间前结束
+     */
+    public void interrupt(Long taskId) {
+        try {
+            stringRedisTemplate.convertAndSend(CANCEL_CHANNEL, taskId.toString());
+        } catch (RuntimeException e) {
+            log.warn("发布比价任务中断通知失败：{}，原因：{}", taskId, e.getMessage());
+            interruptLocal(taskId);
+        }
+    }
+
+    /**
+     * 中断本节点上该任务正在执行的子任务
+     * @return 被中断的线程数
+     */
+    public int interruptLocal(Long taskId) {
+        int[] interrupted = new int[1];
+        running.computeIfPresent(taskId, (id, registrations) -> {
+            for (Registration registration : registrations) {
+                registration.interrupted = true;
+                registration.thread.interrupt();
+                interrupted[0]++;
+            }
+            return registrations;
+        });
+        if (interrupted[0] > 0) {
+            log.info("中断比价任务{}的{}个子任务", taskId, interrupted[0]);
+        }
+        return interrupted[0];
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            interruptLocal(Long.parseLong(new String(message.getBody(), StandardCharsets.UTF_8)));
+        } catch (NumberFormatException e) {
+            log.warn("无法解析比价任务中断消息：{}", e.getMessage());
+        }
+    }
+
+    /**
+     * 子任务执行线程的登记
+     */
+    public final class Registration implements AutoCloseable {
+
+        private final Long taskId;
+        private final Thread thread;
+        private volatile boolean interrupted;
+
+        private Registration(Long taskId, Thread thread) {
+            this.taskId = taskId;
+            this.thread = thread;
+        }
+
+        /**
+         * 是否因任务取消或超时被中断
+         */
+        public boolean isInterrupted() {
+            return interrupted;
+        }
+
+        /**
+         * 注销登记；被本登记中断过时清除线程的中断标记，执行线程回到线程池后可继续执行其他子任务
+         */
+        @Override
+        public void close() {
+            running.computeIfPresent(taskId, (id, registrations) -> {
+                registrations.remove(this);
+                return registrations.isEmpty() ? null : registrations;
+            });
+            if (interrupted && thread == Thread.currentThread()) {
+                Thread.interrupted();
+            }
+        }
+    }
+}
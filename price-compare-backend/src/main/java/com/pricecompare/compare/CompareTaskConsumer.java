@@ -0,0 +1,161 @@
+package com.pricecompare.compare;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pricecompare.crawler.PlatformConfigRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.config.RetryInterceptorBuilder;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.amqp.rabbit.retry.RejectAndDontRequeueRecoverer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.interceptor.RetryOperationsInterceptor;
+import org.springframework.retry.support.RetrySynchronizationManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RabbitMQ比价任务消费
+ * 每个平台队列一个独立的监听容器（独立的消费线程和预取数），慢平台只会占满自己的消费者。
+ * 失败的消息按app.compare.max-retries重试，重试间隔见app.compare.retry，重试耗尽后记为失败并转入死信队列。
+ * 只负责API的节点可通过app.compare.consumer.enabled=false关闭消费。
+ * 
+ * @author AutoValuePilot
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.compare.dispatcher", havingValue = "rabbit")
+public class CompareTaskConsumer implements SmartLifecycle {
+
+    private final ConnectionFactory connectionFactory;
+    private final CompareTaskQueues compareTaskQueues;
+    private final CompareTaskRunner compareTaskRunner;
+    private final PlatformConfigRegistry platformConfigRegistry;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Map<String, SimpleMessageListenerContainer> containers = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+
+    /** 每个消费者预取的消息数，子任务耗时较长，默认每次只取一条 */
+    @Value("${app.compare.consumer.prefetch:1}")
+    private int prefetch;
+
+    /** 每个平台队列的消费者数 */
+    @Value("${app.compare.consumer.concurrency:2}")
+    private int concurrency;
+
+    @Value("${app.compare.max-retries:3}")
+    private int maxRetries;
+
+    @Value("${app.compare.retry.initial-interval:1000}")
+    private long retryInitialInterval;
+
+    @Value("${app.compare.retry.multiplier:2.0}")
+    private double retryMultiplier;
+
+    @Value("${app.compare.retry.max-interval:10000}")
+    private long retryMaxInterval;
+
+    @Value("${app.compare.consumer.enabled:true}")
+    private boolean enabled;
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            log.info("本节点未启用比价任务消费");
+            return;
+        }
+        running = true;
+        syncContainers();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        containers.values().forEach(SimpleMessageListenerContainer::stop);
+        containers.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 为新启用的平台创建监听容器
+     */
+    @Scheduled(fixedDelayString = "${app.compare.consumer.sync-interval:60000}")
+    public void syncContainers() {
+        if (!running) {
+            return;
+        }
+        for (String platformCode : platformConfigRegistry.getEnabledPlatformCodes()) {
+            containers.computeIfAbsent(platformCode, this::createContainer);
+        }
+    }
+
+    private SimpleMessageListenerContainer createContainer(String platformCode) {
+        compareTaskQueues.ensureDeclared(platformCode);
+        SimpleMessageListenerContainer container = new SimpleMessageListenerContainer(connectionFactory);
+        container.setQueueNames(CompareTaskQueues.queueName(platformCode));
+        container.setPrefetchCount(prefetch);
+        container.setConcurrentConsumers(concurrency);
+        container.setDefaultRequeueRejected(false);
+        container.setAdviceChain(retryInterceptor());
+        container.setMessageListener(message -> handle(platformCode, message));
+        container.start();
+        log.info("启动比价任务消费者：{}，消费者数：{}，预取数：{}", platformCode, concurrency, prefetch);
+        return container;
+    }
+
+    /**
+     * 重试拦截器：按退避间隔重试，重试耗尽后记为失败，并拒绝消息（不重新入队），由队列转入死信队列
+     */
+    RetryOperationsInterceptor retryInterceptor() {
+        return RetryInterceptorBuilder.stateless()
+                .maxAttempts(maxRetries + 1)
+                .backOffOptions(retryInitialInterval, retryMultiplier, retryMaxInterval)
+                .recoverer((message, cause) -> {
+                    compareTaskRunner.fail(readMessage(message), cause);
+                    new RejectAndDontRequeueRecoverer().recover(message, cause);
+                })
+                .build();
+    }
+
+    /**
+     * 处理一条子任务消息，只在首次投递时记录排队等待时间
+     */
+    void handle(String platformCode, Message message) {
+        CompareTaskMessage taskMessage = readMessage(message);
+        RetryContext retryContext = RetrySynchronizationManager.getContext();
+        if (taskMessage.getDispatchedAt() != null && (retryContext == null || retryContext.getRetryCount() == 0)) {
+            Timer.builder("compare.task.wait")
+                    .tag("platform", platformCode)
+                    .register(meterRegistry)
+                    .record(System.currentTimeMillis() - taskMessage.getDispatchedAt(), TimeUnit.MILLISECONDS);
+        }
+        compareTaskRunner.run(taskMessage);
+    }
+
+    private CompareTaskMessage readMessage(Message message) {
+        try {
+            return objectMapper.readValue(message.getBody(), CompareTaskMessage.class);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("无法解析比价任务消息", e);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.pricecompare.compare;
+
+import com.pricecompare.cluster.ProductKeyNormalizer;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.TreeSet;
+
+/**
+ * 比价任务去重
+ * 等价任务（归一化商品名称、源商品和平台集合都相同）在Redis中用SET NX登记为同一个任务ID，所有节点共享：
+ * 任务执行期间和成功结束后的新鲜期内，相同的比价请求直接返回已有任务，不再创建任务和爬取；
+ * 任务失败、取消或被删除时释放登记，下一次请求重新比价。Redis不可用时不去重。
+ *
+ * @author AutoValuePilot
+ */
+@Slf4j
+@Component
+public class CompareTaskDeduplicator {
+
+    private static final String KEY_PREFIX = "compare:task:dedupe:";
+    /** 任务ID到去重键的反向索引，用于任务结束或删除时找到登记 */
+    private static final String TASK_KEY_PREFIX = "compare:task:dedupe-key:";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final DefaultRedisScript<Long> releaseScript;
+
+    @Value("${app.compare.dedupe.enabled:true}")
+    private boolean enabled;
+
+    /** 任务成功结束后仍直接复用的时间（毫秒） */
+    @Value("${app.compare.dedupe.fresh-window:300000}")
+    private long freshWindow;
+
+    /** 任务最长执行时间（毫秒），执行中的登记按该时间加新鲜期过期，兜底进程崩溃未释放的登记 */
+    @Value("${app.compare.timeout:300000}")
+    private long taskTimeout;
+
+    public CompareTaskDeduplicator(StringRedisTemplate stringRedisTemplate, MeterRegistry meterRegistry) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.releaseScript = new DefaultRedisScript<>();
+        this.releaseScript.setScriptSource(new ResourceScriptSource(new ClassPathResource("scripts/release_lease.lua")));
+        this.releaseScript.setResultType(Long.class);
+    }
+
+    /**
+     * 等价任务的去重键：平台代码排序后拼接，商品名称全角转半角、转小写并去掉空白和标点；
+     * 源商品不同的任务复用的同簇价格不同，不视为等价任务
+     * @param sourceProductId 源商品ID，可为空
+     * @return 未开启去重或名称归一化后为空时返回null
+     */
+    public String key(String productName, Long sourceProductId, Collection<String> platformCodes) {
+        String normalizedName = ProductKeyNormalizer.normalizeText(productName);
+        if (!enabled || normalizedName.isEmpty()) {
+            return null;
+        }
+        return KEY_PREFIX + String.join(",", new TreeSet<>(platformCodes)) + ':'
+                + (sourceProductId == null ? "" : sourceProductId) + ':' + normalizedName;
+    }
+
+    /**
+     * 查询已登记的等价任务
+     * @return 任务ID，没有登记或Redis不可用时返回null
+     */
+    public Long find(String key) {
+        if (key == null) {
+            return null;
+        }
+        try {
+            return parseTaskId(stringRedisTemplate.opsForValue().get(key));
+        } catch (Exception e) {
+            log.warn("查询等价比价任务失败，按新任务处理：{}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 把任务登记为等价任务的执行者
+     * @return 登记成功或Redis不可用时返回null；已被其他任务登记时返回该任务ID
+     */
+    public Long claim(String key, Long taskId) {
+        if (key == null) {
+            return null;
+        }
+        Duration ttl = Duration.ofMillis(taskTimeout + freshWindow);
+        try {
+            Boolean claimed = stringRedisTemplate.opsForValue().setIfAbsent(key, taskId.toString(), ttl);
+            if (Boolean.FALSE.equals(claimed)) {
+                Long existing = parseTaskId(stringRedisTemplate.opsForValue().get(key));
+                // 登记在两次调用之间过期时按新任务处理，不再重新登记
+                return existing != null && !existing.equals(taskId) ? existing : null;
+            }
+            stringRedisTemplate.opsForValue().set(TASK_KEY_PREFIX + taskId, key, ttl);
+            return null;
+        } catch (Exception e) {
+            log.warn("登记比价任务失败，不做去重：{}，原因：{}", taskId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 删除指向已不存在任务的登记，之后可以重新登记
+     */
+    public void evictStale(String key, Long staleTaskId) {
+        if (key == null) {
+            return;
+        }
+        try {
+            stringRedisTemplate.execute(releaseScript, Collections.singletonList(key), staleTaskId.toString());
+        } catch (Exception e) {
+            log.warn("删除失效的比价任务登记失败：{}，原因：{}", key, e.getMessage());
+        }
+    }
+
+    /**
+     * 记录一次被合并的请求
+     */
+    public void recordHit() {
+        meterRegistry.counter("compare.task.deduplicated").increment();
+    }
+
+    /**
+     * 任务结束：成功时登记保留新鲜期，失败时释放
+     */
+    public void finished(Long taskId, boolean succeeded) {
+        if (!succeeded) {
+            release(taskId);
+            return;
+        }
+        try {
+            String key = stringRedisTemplate.opsForValue().get(TASK_KEY_PREFIX + taskId);
+            if (key != null && taskId.equals(parseTaskId(stringRedisTemplate.opsForValue().get(key)))) {
+                stringRedisTemplate.expire(key, Duration.ofMillis(freshWindow));
+                stringRedisTemplate.expire(TASK_KEY_PREFIX + taskId, Duration.ofMillis(freshWindow));
+            }
+        } catch (Exception e) {
+            log.warn("更新比价任务登记失败：{}，原因：{}", taskId, e.getMessage());
+        }
+    }
+
+    /**
+     * 释放任务的登记，只删除仍指向该任务的登记
+     */
+    public void release(Long taskId) {
+        try {
+            String key = stringRedisTemplate.opsForValue().get(TASK_KEY_PREFIX + taskId);
+            if (key != null) {
+                stringRedisTemplate.execute(releaseScript, Collections.singletonList(key), taskId.toString());
+                stringRedisTemplate.delete(TASK_KEY_PREFIX + taskId);
+            }
+        } catch (Exception e) {
+            log.warn("释放比价任务登记失败，等待登记自然过期：{}，原因：{}", taskId, e.getMessage());
+        }
+    }
+
+    private static Long parseTaskId(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.pricecompare.compare;
+
+import java.util.List;
+
+/**
+ * 比价任务分发
+ * 
+ * @author AutoValuePilot
+ */
+public interface CompareTaskDispatcher {
+
+    /**
+     * 分发比价任务的各平台子任务，子任务由CompareTaskRunner执行
+     * @param messages 各平台子任务
+     */
+    void dispatch(List<CompareTaskMessage> messages);
+}
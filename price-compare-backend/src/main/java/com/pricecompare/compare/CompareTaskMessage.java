@@ -0,0 +1,45 @@
+package com.pricecompare.compare;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 比价任务消息
+ * 一个比价任务按平台拆分为多条消息，每条消息只爬取一个平台
+ * 
+ * @author AutoValuePilot
+ */
+@Data
+@NoArgsConstructor
+public class CompareTaskMessage implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** 比价任务ID */
+    private Long taskId;
+
+    /** 商品名称 */
+    private String productName;
+
+    /** 平台代码 */
+    private String platformCode;
+
+    /** 投递时间（毫秒时间戳），用于统计排队等待时间 */
+    private Long dispatchedAt;
+
+    /** 任务截止时间（毫秒时间戳），超过后不再搜索，进行中的平台调用被中断 */
+    private Long deadline;
+
+    public CompareTaskMessage(Long taskId, String productName, String platformCode) {
+        this.taskId = taskId;
+        this.productName = productName;
+        this.platformCode = platformCode;
+    }
+
+    public CompareTaskMessage(Long taskId, String productName, String platformCode, Long deadline) {
+        this(taskId, productName, platformCode);
+        this.deadline = deadline;
+    }
+}
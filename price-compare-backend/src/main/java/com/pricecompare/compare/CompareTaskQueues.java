@@ -0,0 +1,77 @@
+package com.pricecompare.compare;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.DirectExchange;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 比价任务队列声明
+ * 每个平台一个工作队列，通过直连交换机按平台代码路由；处理失败的消息转入死信队列。
+ * 平台队列在首次使用时声明，新增平台无需修改配置。
+ * 
+ * @author AutoValuePilot
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.compare.dispatcher", havingValue = "rabbit")
+public class CompareTaskQueues {
+
+    public static final String EXCHANGE = "compare.task";
+    public static final String DEAD_LETTER_EXCHANGE = "compare.task.dlx";
+    public static final String DEAD_LETTER_QUEUE = "compare.task.dlq";
+    private static final String QUEUE_PREFIX = "compare.task.";
+
+    private final AmqpAdmin amqpAdmin;
+
+    private final Set<String> declaredPlatforms = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean infrastructureDeclared;
+
+    public static String queueName(String platformCode) {
+        return QUEUE_PREFIX + platformCode;
+    }
+
+    /**
+     * 确保平台队列已声明
+     */
+    public void ensureDeclared(String platformCode) {
+        if (declaredPlatforms.contains(platformCode)) {
+            return;
+        }
+        declareInfrastructure();
+        Queue queue = QueueBuilder.durable(queueName(platformCode))
+                .deadLetterExchange(DEAD_LETTER_EXCHANGE)
+                .deadLetterRoutingKey(DEAD_LETTER_QUEUE)
+                .build();
+        amqpAdmin.declareQueue(queue);
+        amqpAdmin.declareBinding(BindingBuilder.bind(queue).to(new DirectExchange(EXCHANGE)).with(platformCode));
+        declaredPlatforms.add(platformCode);
+        log.info("声明比价任务队列：{}", queue.getName());
+    }
+
+    private synchronized void declareInfrastructure() {
+        if (infrastructureDeclared) {
+            return;
+        }
+        DirectExchange exchange = new DirectExchange(EXCHANGE, true, false);
+        DirectExchange deadLetterExchange = new DirectExchange(DEAD_LETTER_EXCHANGE, true, false);
+        Queue deadLetterQueue = QueueBuilder.durable(DEAD_LETTER_QUEUE).build();
+        amqpAdmin.declareExchange(exchange);
+        amqpAdmin.declareExchange(deadLetterExchange);
+        amqpAdmin.declareQueue(deadLetterQueue);
+        Binding binding = BindingBuilder.bind(deadLetterQueue).to(deadLetterExchange).with(DEAD_LETTER_QUEUE);
+        amqpAdmin.declareBinding(binding);
+        infrastructureDeclared = true;
+    }
+}
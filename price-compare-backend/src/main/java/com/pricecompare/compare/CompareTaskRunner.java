@@ -0,0 +1,364 @@
+package com.pricecompare.compare;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.pricecompare.dto.response.BatchSearchResult;
+import com.pricecompare.dto.response.CompareTaskProgress;
+import com.pricecompare.dto.response.PlatformSearchResult;
+import com.pricecompare.entity.CompareTask;
+import com.pricecompare.entity.ProductPrice;
+import com.pricecompare.exception.PlatformAccessException;
+import com.pricecompare.mapper.CompareTaskMapper;
+import com.pricecompare.price.PriceRefreshQueue;
+import com.pricecompare.price.ProductPriceWriter;
+import com.pricecompare.service.CrawlerService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 比价任务执行
+ * 每次执行一个平台子任务：爬取该平台、写入价格；各平台完成情况记录在Redis哈希中，
+ * 最后一个平台完成时汇总结果并结束任务。重复投递的子任务只统计一次。
+ * 任务超过截止时间或被取消时提前结束，保留已写入的结果：进行中的平台调用被中断，尚未执行的子任务不再搜索。
+ * 
+ * @author AutoValuePilot
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CompareTaskRunner {
+
+    private static final String STATE_PREFIX = "compare:task:state:";
+    private static final String FIELD_TOTAL = "total";
+    private static final String FIELD_DONE = "done";
+    private static final String FIELD_FAILED = "failed";
+    private static final String FIELD_RESULTS = "results";
+    /** 任务提前结束（超时或取消）的标记，值为结束状态 */
+    private static final String FIELD_TERMINATED = "terminated";
+    private static final String FIELD_PLATFORM_PREFIX = "platform:";
+
+    /** 任务状态保留时间（小时） */
+    private static final long STATE_TTL_HOURS = 24;
+
+    /** 任务状态：已完成 */
+    public static final int STATUS_SUCCEEDED = 2;
+    /** 任务状态：失败 */
+    public static final int STATUS_FAILED = 3;
+    /** 任务状态：超时 */
+    public static final int STATUS_TIMEOUT = 4;
+    /** 任务状态：已取消 */
+    public static final int STATUS_CANCELLED = 5;
+
+    /** 单次查询的超时任务数 */
+    private static final int OVERDUE_BATCH_SIZE = 100;
+
+    private final CrawlerService crawlerService;
+    private final ProductPriceWriter productPriceWriter;
+    private final CompareResultStore compareResultStore;
+    private final CompareProgressNotifier compareProgressNotifier;
+    private final CompareResultSnapshot compareResultSnapshot;
+    private final CompareTaskDeduplicator compareTaskDeduplicator;
+    private final CompareTaskCancellation compareTaskCancellation;
+    private final PriceRefreshQueue priceRefreshQueue;
+    private final CompareTaskMapper compareTaskMapper;
+    private final StringRedisTemplate stringRedisTemplate;
+
+    /** 任务最长执行时间（毫秒） */
+    @Value("${app.compare.timeout:300000}")
+    private long taskTimeout;
+
+    /**
+     * 登记任务的平台数，必须在分发子任务之前调用
+     */
+    public void begin(Long taskId, int platformCount) {
+        if (platformCount == 0) {
+            finish(taskId, 0, STATUS_SUCCEEDED, null);
+            return;
+        }
+        String key = STATE_PREFIX + taskId;
+        stringRedisTemplate.opsForHash().put(key, FIELD_TOTAL, String.valueOf(platformCount));
+        stringRedisTemplate.expire(key, STATE_TTL_HOURS, TimeUnit.HOURS);
+    }
+
+    /**
+     * 丢弃未能分发的任务状态
+     */
+    public void abandon(Long taskId) {
+        stringRedisTemplate.delete(STATE_PREFIX + taskId);
+    }
+
+    /**
+     * 执行平台子任务，失败时抛出异常由分发方重试；任务已超过截止时间时结束任务，不再重试
+     */
+    public void run(CompareTaskMessage message) {
+        Long taskId = message.getTaskId();
+        String platformCode = message.getPlatformCode();
+        if (isCompleted(message)) {
+            log.info("比价子任务已完成，忽略重复消息：{} {}", taskId, platformCode);
+            return;
+        }
+        long deadline = message.getDeadline() != null ? message.getDeadline() : Long.MAX_VALUE;
+        if (System.currentTimeMillis() >= deadline) {
+            expire(taskId, platformCode);
+            return;
+        }
+
+        // 先登记执行线程再检查结束标记：检查之后才结束的任务一定能中断本线程
+        BatchSearchResult searchResult;
+        try (CompareTaskCancellation.Registration registration = compareTaskCancellation.register(taskId)) {
+            if (isTerminated(taskId)) {
+                log.info("比价任务已结束，跳过子任务：{} {}", taskId, platformCode);
+                return;
+            }
+            markProcessing(taskId);
+            try {
+                // 在平台线程池中执行，受平台超时、任务截止时间、限流和并发上限约束
+                searchResult = crawlerService.batchSearch(message.getProductName(),
+                        Collections.singletonList(platformCode), deadline);
+            } catch (CancellationException e) {
+                if (!registration.isInterrupted()) {
+                    throw e;
+                }
+                log.info("比价任务已结束，中断子任务：{} {}", taskId, platformCode);
+                return;
+            }
+        }
+        if (isTerminated(taskId)) {
+            log.info("比价任务已结束，丢弃子任务结果：{} {}", taskId, platformCode);
+            return;
+        }
+
+        PlatformSearchResult platformResult = searchResult.getPlatforms().get(0);
+        switch (platformResult.getStatus()) {
+            case SUCCESS -> {
+                productPriceWriter.write(platformResult.getProducts());
+                compareResultStore.link(taskId, platformResult.getProducts());
+                priceRefreshQueue.enqueue(platformResult.getProducts());
+                complete(message, platformResult.getResultCount(), false, null);
+            }
+            case DISABLED -> complete(message, 0, false, null);
+            default -> {
+                if (System.currentTimeMillis() >= deadline) {
+                    expire(taskId, platformCode);
+                    return;
+                }
+                throw new PlatformAccessException(platformCode, 0,
+                        "平台" + platformCode + "搜索失败：" + platformResult.getStatus() + " " + platformResult.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 使用已有价格完成平台子任务（同簇商品在有效期内的价格），不再搜索该平台
+     */
+    public void resolve(CompareTaskMessage message, List<ProductPrice> prices) {
+        markProcessing(message.getTaskId());
+        compareResultStore.link(message.getTaskId(), prices);
+        complete(message, prices.size(), false, null);
+    }
+
+    /**
+     * 子任务重试耗尽，记为失败
+     */
+    public void fail(CompareTaskMessage message, Throwable error) {
+        log.error("比价子任务失败：{} {}，原因：{}", message.getTaskId(), message.getPlatformCode(), error.getMessage());
+        complete(message, 0, true, error.getMessage());
+    }
+
+    /**
+     * 取消任务：保留已写入的结果，中断各节点上正在执行的子任务
+     * @return 本次调用结束了任务时返回true，任务已经结束时返回false
+     */
+    public boolean cancel(Long taskId) {
+        return terminate(taskId, STATUS_CANCELLED, "比价任务已取消");
+    }
+
+    /**
+     * 停止执行任务但不更新任务（任务即将被删除）
+     */
+    public void discard(Long taskId) {
+        markTerminated(taskId, STATUS_CANCELLED);
+    }
+
+    /**
+     * 结束超过执行时间仍未结束的任务；正常情况下子任务在截止时间自行结束任务，
+     * 这里兜底子任务一直排队未被执行、执行节点崩溃等情况。多个节点同时执行时只有一个节点生效。
+     */
+    @Scheduled(fixedDelayString = "${app.compare.timeout-check-interval:60000}")
+    public void expireOverdueTasks() {
+        LocalDateTime startedBefore = LocalDateTime.now().minus(Duration.ofMillis(taskTimeout));
+        List<CompareTask> overdue = compareTaskMapper.selectList(new LambdaQueryWrapper<CompareTask>()
+                .select(CompareTask::getId)
+                .in(CompareTask::getStatus, 0, 1)
+                .lt(CompareTask::getStartTime, startedBefore)
+                .last("LIMIT " + OVERDUE_BATCH_SIZE));
+        for (CompareTask task : overdue) {
+            try {
+                terminate(task.getId(), STATUS_TIMEOUT, "比价任务超时，超过" + taskTimeout + "ms未完成");
+            } catch (RuntimeException e) {
+                log.warn("结束超时比价任务失败：{}，原因：{}", task.getId(), e.getMessage());
+            }
+        }
+    }
+
+    private void expire(Long taskId, String platformCode) {
+        if (terminate(taskId, STATUS_TIMEOUT, "比价任务超时，平台" + platformCode + "未在截止时间前完成")) {
+            log.warn("比价任务超时：{}，未完成的平台：{}", taskId, platformCode);
+        }
+    }
+
+    /**
+     * 提前结束任务，以结束时已写入的结果生成结果快照
+     */
+    private boolean terminate(Long taskId, int status, String reason) {
+        if (!markTerminated(taskId, status)) {
+            return false;
+        }
+        Object results = stringRedisTemplate.opsForHash().get(STATE_PREFIX + taskId, FIELD_RESULTS);
+        return finish(taskId, (int) parseLong(results), status, reason);
+    }
+
+    /**
+     * 写入结束标记并中断正在执行的子任务，只有第一次调用生效
+     */
+    private boolean markTerminated(Long taskId, int status) {
+        String key = STATE_PREFIX + taskId;
+        if (!stringRedisTemplate.opsForHash().putIfAbsent(key, FIELD_TERMINATED, String.valueOf(status))) {
+            return false;
+        }
+        stringRedisTemplate.expire(key, STATE_TTL_HOURS, TimeUnit.HOURS);
+        compareTaskCancellation.interrupt(taskId);
+        return true;
+    }
+
+    private boolean isTerminated(Long taskId) {
+        return stringRedisTemplate.opsForHash().hasKey(STATE_PREFIX + taskId, FIELD_TERMINATED);
+    }
+
+    private boolean isCompleted(CompareTaskMessage message) {
+        return stringRedisTemplate.opsForHash().hasKey(STATE_PREFIX + message.getTaskId(),
+                FIELD_PLATFORM_PREFIX + message.getPlatformCode());
+    }
+
+    private void markProcessing(Long taskId) {
+        compareTaskMapper.update(null, new LambdaUpdateWrapper<CompareTask>()
+                .eq(CompareTask::getId, taskId)
+                .eq(CompareTask::getStatus, 0)
+                .set(CompareTask::getStatus, 1));
+    }
+
+    private void complete(CompareTaskMessage message, int resultCount, boolean failed, String errorMessage) {
+        String key = STATE_PREFIX + message.getTaskId();
+        HashOperations<String, Object, Object> hashOps = stringRedisTemplate.opsForHash();
+        if (!hashOps.putIfAbsent(key, FIELD_PLATFORM_PREFIX + message.getPlatformCode(), failed ? "failed" : "done")) {
+            return;
+        }
+        hashOps.increment(key, FIELD_RESULTS, resultCount);
+        if (failed) {
+            hashOps.increment(key, FIELD_FAILED, 1);
+        }
+        // 各平台先累加结果与失败数再累加done，done之后读取才能看到已完成平台的全部计数
+        long done = hashOps.increment(key, FIELD_DONE, 1);
+        long results = parseLong(hashOps.get(key, FIELD_RESULTS));
+        long failedCount = parseLong(hashOps.get(key, FIELD_FAILED));
+        long total = parseLong(hashOps.get(key, FIELD_TOTAL));
+        if (done >= total) {
+            // 提前结束的任务已在结束时生成结果
+            if (!hashOps.hasKey(key, FIELD_TERMINATED)) {
+                finish(message.getTaskId(), (int) results, failedCount >= total ? STATUS_FAILED : STATUS_SUCCEEDED, errorMessage);
+            }
+        } else {
+            updateProgress(message.getTaskId(), (int) done, (int) failedCount, (int) total, (int) results);
+        }
+    }
+
+    /**
+     * 每完成一个平台更新一次进度；各平台并发完成，只允许进度增大
+     */
+    private void updateProgress(Long taskId, int done, int failedCount, int total, int resultCount) {
+        int progress = done * 100 / total;
+        compareTaskMapper.update(null, new LambdaUpdateWrapper<CompareTask>()
+                .eq(CompareTask::getId, taskId)
+                .lt(CompareTask::getProgress, progress)
+                .set(CompareTask::getProgress, progress)
+                .set(CompareTask::getResultCount, resultCount));
+        stringRedisTemplate.delete("compare:task:" + taskId);
+
+        CompareTaskProgress event = new CompareTaskProgress();
+        event.setTaskId(taskId);
+        event.setStatus(1);
+        event.setProgress(progress);
+        event.setCompletedPlatforms(done);
+        event.setFailedPlatforms(failedCount);
+        event.setTotalPlatforms(total);
+        event.setResultCount(resultCount);
+        compareProgressNotifier.publish(event);
+    }
+
+    /**
+     * 结束任务，只更新尚未结束的任务
+     * @return 任务已经结束时返回false
+     */
+    private boolean finish(Long taskId, int resultCount, int status, String errorMessage) {
+        LocalDateTime now = LocalDateTime.now();
+        CompareTask task = new CompareTask();
+        task.setId(taskId);
+        task.setStatus(status);
+        task.setProgress(100);
+        task.setResultCount(resultCount);
+        task.setEndTime(now);
+        task.setFinishTime(now);
+        if (status != STATUS_SUCCEEDED) {
+            task.setErrorMessage(errorMessage);
+        }
+        // 图表和相似商品随任务状态一起写入；体积较大的结果快照在状态更新之后单独保存，不影响任务结束
+        byte[] snapshot = null;
+        try {
+            CompareTask stored = compareTaskMapper.selectById(taskId);
+            task.setProductName(stored != null ? stored.getProductName() : null);
+            snapshot = compareResultSnapshot.build(task);
+        } catch (RuntimeException e) {
+            log.warn("生成比价结果快照失败，读取时重新生成：{}，原因：{}", taskId, e.getMessage());
+        }
+        int updated = compareTaskMapper.update(task, new LambdaUpdateWrapper<CompareTask>()
+                .eq(CompareTask::getId, taskId)
+                .in(CompareTask::getStatus, 0, 1));
+        if (updated == 0) {
+            log.info("比价任务已经结束，忽略本次结束：{}", taskId);
+            return false;
+        }
+        if (snapshot != null) {
+            compareResultSnapshot.save(taskId, snapshot);
+        }
+        stringRedisTemplate.delete("compare:task:" + taskId);
+        compareTaskDeduplicator.finished(taskId, status == STATUS_SUCCEEDED);
+        compareProgressNotifier.publish(CompareTaskProgress.of(task));
+        log.info("比价任务{}: {}, 找到 {} 个结果", statusName(status), taskId, resultCount);
+        return true;
+    }
+
+    private static String statusName(int status) {
+        return switch (status) {
+            case STATUS_SUCCEEDED -> "完成";
+            case STATUS_FAILED -> "失败";
+            case STATUS_TIMEOUT -> "超时";
+            default -> "取消";
+        };
+    }
+
+    private static long parseLong(Object value) {
+        return value == null ? 0 : Long.parseLong(value.toString());
+    }
+}
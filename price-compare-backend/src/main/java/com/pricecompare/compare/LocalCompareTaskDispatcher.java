@@ -0,0 +1,163 @@
+package com.pricecompare.compare;
+
+import com.pricecompare.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 本机比价任务分发
+ * 每个平台一个有界线程池执行子任务，失败时按app.compare.max-retries重试，
+ * 重试间隔与RabbitMQ消费者相同（app.compare.retry，默认1秒起每次翻倍，最长10秒）；
+ * 用于单机部署和测试，行为与RabbitMQ工作队列一致。
+ * 任一平台队列容纳不下本次任务时整个任务被拒绝（HTTP 429），不会只执行一部分平台。
+ * 
+ * @author AutoValuePilot
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.compare.dispatcher", havingValue = "local", matchIfMissing = true)
+public class LocalCompareTaskDispatcher implements CompareTaskDispatcher {
+
+    private final CompareTaskRunner compareTaskRunner;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, ThreadPoolExecutor> executors = new ConcurrentHashMap<>();
+
+    @Value("${app.compare.local.concurrency:2}")
+    private int concurrency;
+
+    @Value("${app.compare.local.queue-capacity:100}")
+    private int queueCapacity;
+
+    /** 队列已满时建议客户端的重试等待时间（毫秒） */
+    @Value("${app.compare.local.retry-after:5000}")
+    private long retryAfterMillis;
+
+    @Value("${app.compare.max-retries:3}")
+    private int maxRetries;
+
+    @Value("${app.compare.retry.initial-interval:1000}")
+    private long retryInitialInterval;
+
+    @Value("${app.compare.retry.multiplier:2.0}")
+    private double retryMultiplier;
+
+    @Value("${app.compare.retry.max-interval:10000}")
+    private long retryMaxInterval;
+
+    /**
+     * 分发子任务；检查容量和提交在同一把锁内完成，队列只会被消费者缩短，检查通过后提交不会被拒绝
+     */
+    @Override
+    public synchronized void dispatch(List<CompareTaskMessage> messages) {
+        Map<String, Long> demand = messages.stream()
+                .collect(Collectors.groupingBy(CompareTaskMessage::getPlatformCode, Collectors.counting()));
+        for (Map.Entry<String, Long> entry : demand.entrySet()) {
+            ThreadPoolExecutor executor = executors.computeIfAbsent(entry.getKey(), this::createExecutor);
+            if (executor.getQueue().remainingCapacity() < entry.getValue()) {
+                rejectedCounter().increment();
+                log.warn("平台{}比价任务队列已满，拒绝任务", entry.getKey());
+                throw new RateLimitExceededException("比价任务繁忙，请稍后重试", retryAfterMillis);
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        for (CompareTaskMessage message : messages) {
+            message.setDispatchedAt(now);
+            try {
+                executors.get(message.getPlatformCode()).execute(() -> execute(message));
+            } catch (RejectedExecutionException e) {
+                // 只会在关闭过程中发生
+                compareTaskRunner.fail(message, e);
+            }
+        }
+    }
+
+    private void execute(CompareTaskMessage message) {
+        waitTimer(message.getPlatformCode())
+                .record(System.currentTimeMillis() - message.getDispatchedAt(), TimeUnit.MILLISECONDS);
+        for (int attempt = 0; ; attempt++) {
+            try {
+                compareTaskRunner.run(message);
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= maxRetries || Thread.currentThread().isInterrupted()) {
+                    compareTaskRunner.fail(message, e);
+                    return;
+                }
+                long delay = retryDelay(attempt);
+                log.warn("比价子任务失败，{}毫秒后第{}次重试：{} {}，原因：{}",
+                        delay, attempt + 1, message.getTaskId(), message.getPlatformCode(), e.getMessage());
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    compareTaskRunner.fail(message, e);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * 第attempt次失败后的重试间隔：initialInterval * multiplier^attempt，不超过maxInterval
+     */
+    long retryDelay(int attempt) {
+        return (long) Math.min(retryMaxInterval, retryInitialInterval * Math.pow(retryMultiplier, attempt));
+    }
+
+    private ThreadPoolExecutor createExecutor(String platformCode) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                concurrency, concurrency,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("compare-" + platformCode + "-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        registerGauge("compare.executor.queue.size", platformCode, executor, e -> e.getQueue().size());
+        registerGauge("compare.executor.active", platformCode, executor, ThreadPoolExecutor::getActiveCount);
+        return executor;
+    }
+
+    private void registerGauge(String name, String platformCode, ThreadPoolExecutor executor,
+                               Function<ThreadPoolExecutor, Number> value) {
+        Gauge.builder(name, executor, e -> value.apply(e).doubleValue())
+                .tag("platform", platformCode)
+                .register(meterRegistry);
+    }
+
+    private Timer waitTimer(String platformCode) {
+        return Timer.builder("compare.task.wait")
+                .tag("platform", platformCode)
+                .register(meterRegistry);
+    }
+
+    private Counter rejectedCounter() {
+        return meterRegistry.counter("compare.executor.rejected");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executors.values().forEach(ThreadPoolExecutor::shutdownNow);
+    }
+}
@@ -0,0 +1,344 @@
+package com.pricecompare.compare;
+
+import com.pricecompare.dto.response.CompareRanking;
+import com.pricecompare.dto.response.CompareResultItem;
+import com.pricecompare.entity.ProductPrice;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 比价结果排名
+ * 把价格记录转为列式的基本类型数组（价格为分、评分×100、销量、平台序号），
+ * 一次遍历用有界堆得到最低价前N、性价比前N，同时得到最优选择、各平台最低价和价格统计，
+ * 不对全部结果排序，也不为每条记录创建中间对象；只有入选的记录才转换为结果条目。
+ *
+ * @author AutoValuePilot
+ */
+public final class PriceRanking {
+
+    private static final int HISTOGRAM_BUCKETS = 10;
+
+    /** 性价比 = 评分×100 × VALUE_SCALE / 价格（分），放大后用整数比较 */
+    private static final long VALUE_SCALE = 1_000_000_000L;
+
+    private final List<ProductPrice> prices;
+    private final int size;
+    private final long[] cents;
+    private final int[] ratings;
+    private final int[] sales;
+    private final int[] platforms;
+    private final String[] platformCodes;
+
+    private PriceRanking(List<ProductPrice> prices) {
+        this.prices = prices;
+        this.size = prices.size();
+        this.cents = new long[size];
+        this.ratings = new int[size];
+        this.sales = new int[size];
+        this.platforms = new int[size];
+        Map<String, Integer> platformIndex = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            ProductPrice price = prices.get(i);
+            cents[i] = toCents(price.getPrice());
+            ratings[i] = price.getRating() == null ? 0 : (int) toCents(price.getRating());
+            sales[i] = price.getSales() == null ? 0 : price.getSales();
+            platforms[i] = platformIndex.computeIfAbsent(price.getPlatformCode(), code -> platformIndex.size());
+        }
+        this.platformCodes = new String[platformIndex.size()];
+        platformIndex.forEach((code, index) -> platformCodes[index] = code);
+    }
+
+    /**
+     * 转换价格记录，记录中的价格不能为空
+     */
+    public static PriceRanking of(List<ProductPrice> prices) {
+        return new PriceRanking(prices);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 计算排名与统计
+     * @param topN 最低价、性价比各取的条数
+     */
+    public CompareRanking rank(int topN) {
+        CompareRanking ranking = new CompareRanking();
+        if (size == 0) {
+            ranking.setCheapest(List.of());
+            ranking.setBestValue(List.of());
+            ranking.setPlatformLowest(List.of());
+            CompareRanking.Chart chart = new CompareRanking.Chart();
+            chart.setPlatforms(List.of());
+            chart.setMinPrices(List.of());
+            chart.setAvgPrices(List.of());
+            chart.setCounts(List.of());
+            ranking.setChart(chart);
+            return ranking;
+        }
+
+        int limit = Math.max(0, Math.min(topN, size));
+        // 最低价前N：堆顶为已入选中最贵的；性价比前N：堆顶为已入选中性价比最低的
+        IndexHeap cheapest = new IndexHeap(limit, (a, b) -> compareCheapest(b, a));
+        IndexHeap bestValue = new IndexHeap(limit, this::compareValue);
+        int platformCount = platformCodes.length;
+        int[] platformBest = new int[platformCount];
+        long[] platformSum = new long[platformCount];
+        int[] platformCounts = new int[platformCount];
+        Arrays.fill(platformBest, -1);
+        int best = 0;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        long sum = 0;
+
+        for (int i = 0; i < size; i++) {
+            long price = cents[i];
+            min = Math.min(min, price);
+            max = Math.max(max, price);
+            sum += price;
+            if (compareCheapest(i, best) < 0) {
+                best = i;
+            }
+            int platform = platforms[i];
+            if (platformBest[platform] < 0 || compareCheapest(i, platformBest[platform]) < 0) {
+                platformBest[platform] = i;
+            }
+            platformSum[platform] += price;
+            platformCounts[platform]++;
+            cheapest.offer(i);
+            if (ratings[i] > 0) {
+                bestValue.offer(i);
+            }
+        }
+
+        ranking.setBestChoice(item(best, min));
+        ranking.setCheapest(items(cheapest.drainBestFirst(), min));
+        ranking.setBestValue(items(bestValue.drainBestFirst(), min));
+
+        // 平台按代码排序输出
+        Integer[] platformOrder = new Integer[platformCount];
+        for (int p = 0; p < platformCount; p++) {
+            platformOrder[p] = p;
+        }
+        Arrays.sort(platformOrder, (a, b) -> platformCodes[a].compareTo(platformCodes[b]));
+        List<CompareResultItem> platformLowest = new ArrayList<>(platformCount);
+        CompareRanking.Chart chart = new CompareRanking.Chart();
+        chart.setPlatforms(new ArrayList<>(platformCount));
+        chart.setMinPrices(new ArrayList<>(platformCount));
+        chart.setAvgPrices(new ArrayList<>(platformCount));
+        chart.setCounts(new ArrayList<>(platformCount));
+        for (int p : platformOrder) {
+            platformLowest.add(item(platformBest[p], min));
+            chart.getPlatforms().add(platformCodes[p]);
+            chart.getMinPrices().add(BigDecimal.valueOf(cents[platformBest[p]], 2));
+            chart.getAvgPrices().add(average(platformSum[p], platformCounts[p]));
+            chart.getCounts().add(platformCounts[p]);
+        }
+        ranking.setPlatformLowest(platformLowest);
+        ranking.setChart(chart);
+        ranking.setDistribution(distribution(min, max, sum));
+        return ranking;
+    }
+
+    /**
+     * 价格分布：最小、最大、平均、中位价和等宽直方图；中位价用快速选择求得
+     */
+    private CompareRanking.Distribution distribution(long min, long max, long sum) {
+        CompareRanking.Distribution distribution = new CompareRanking.Distribution();
+        distribution.setMin(BigDecimal.valueOf(min, 2));
+        distribution.setMax(BigDecimal.valueOf(max, 2));
+        distribution.setAvg(average(sum, size));
+        distribution.setMedian(BigDecimal.valueOf(select(cents.clone(), size / 2), 2));
+
+        int bucketCount = min == max ? 1 : HISTOGRAM_BUCKETS;
+        long width = (max - min + bucketCount - 1) / bucketCount;
+        int[] counts = new int[bucketCount];
+        for (int i = 0; i < size; i++) {
+            int bucket = width == 0 ? 0 : (int) ((cents[i] - min) / width);
+            counts[Math.min(bucket, bucketCount - 1)]++;
+        }
+        List<CompareRanking.Bucket> buckets = new ArrayList<>(bucketCount);
+        for (int i = 0; i < bucketCount; i++) {
+            CompareRanking.Bucket bucket = new CompareRanking.Bucket();
+            bucket.setFrom(BigDecimal.valueOf(min + width * i, 2));
+            bucket.setTo(i == bucketCount - 1 ? BigDecimal.valueOf(max, 2) : BigDecimal.valueOf(min + width * (i + 1), 2));
+            bucket.setCount(counts[i]);
+            buckets.add(bucket);
+        }
+        distribution.setBuckets(buckets);
+        return distribution;
+    }
+
+    /**
+     * 价格低者在前；同价时评分高、销量高者在前；再按原始顺序
+     */
+    private int compareCheapest(int a, int b) {
+        if (cents[a] != cents[b]) {
+            return cents[a] < cents[b] ? -1 : 1;
+        }
+        if (ratings[a] != ratings[b]) {
+            return ratings[a] > ratings[b] ? -1 : 1;
+        }
+        if (sales[a] != sales[b]) {
+            return sales[a] > sales[b] ? -1 : 1;
+        }
+        return Integer.compare(a, b);
+    }
+
+    /**
+     * 性价比低者在前（堆顶淘汰）；同性价比时价格高者在前
+     */
+    private int compareValue(int a, int b) {
+        long valueA = ratings[a] * VALUE_SCALE / Math.max(cents[a], 1);
+        long valueB = ratings[b] * VALUE_SCALE / Math.max(cents[b], 1);
+        if (valueA != valueB) {
+            return valueA < valueB ? -1 : 1;
+        }
+        return compareCheapest(b, a);
+    }
+
+    private CompareResultItem item(int index, long lowest) {
+        return CompareResultItem.of(prices.get(index), cents[index] == lowest);
+    }
+
+    private List<CompareResultItem> items(int[] indexes, long lowest) {
+        List<CompareResultItem> items = new ArrayList<>(indexes.length);
+        for (int index : indexes) {
+            items.add(item(index, lowest));
+        }
+        return items;
+    }
+
+    private static BigDecimal average(long sum, int count) {
+        return BigDecimal.valueOf(sum, 2).divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * 按两位小数取整数（价格为分，评分为×100）
+     */
+    private static long toCents(BigDecimal value) {
+        // 小数点右移两位不改变内部的long表示，避免unscaledValue()创建BigInteger
+        return value.scaleByPowerOfTen(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    /**
+     * 快速选择第k小的值（会打乱数组）
+     */
+    private static long select(long[] values, int k) {
+        int left = 0;
+        int right = values.length - 1;
+        while (left < right) {
+            long pivot = values[(left + right) >>> 1];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (values[i] < pivot) {
+                    i++;
+                }
+                while (values[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    long tmp = values[i];
+                    values[i++] = values[j];
+                    values[j--] = tmp;
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return values[k];
+            }
+        }
+        return values[k];
+    }
+
+    @FunctionalInterface
+    private interface IndexComparator {
+        int compare(int a, int b);
+    }
+
+    /**
+     * 容量固定的下标堆，保留"最好"的capacity个下标；comparator认为较小的为较差，位于堆顶
+     */
+    private static final class IndexHeap {
+
+        private final int[] heap;
+        private final IndexComparator comparator;
+        private int count;
+
+        IndexHeap(int capacity, IndexComparator comparator) {
+            this.heap = new int[capacity];
+            this.comparator = comparator;
+        }
+
+        void offer(int index) {
+            if (heap.length == 0) {
+                return;
+            }
+            if (count < heap.length) {
+                heap[count] = index;
+                siftUp(count++);
+            } else if (comparator.compare(index, heap[0]) > 0) {
+                heap[0] = index;
+                siftDown(0);
+            }
+        }
+
+        /**
+         * 依次取出全部下标，最好的在前
+         */
+        int[] drainBestFirst() {
+            int[] result = new int[count];
+            for (int i = count - 1; i >= 0; i--) {
+                result[i] = heap[0];
+                heap[0] = heap[--count];
+                siftDown(0);
+            }
+            return result;
+        }
+
+        private void siftUp(int position) {
+            int index = heap[position];
+            while (position > 0) {
+                int parent = (position - 1) >>> 1;
+                if (comparator.compare(index, heap[parent]) >= 0) {
+                    break;
+                }
+                heap[position] = heap[parent];
+                position = parent;
+            }
+            heap[position] = index;
+        }
+
+        private void siftDown(int position) {
+            if (count == 0) {
+                return;
+            }
+            int index = heap[position];
+            int half = count >>> 1;
+            while (position < half) {
+                int child = 2 * position + 1;
+                int right = child + 1;
+                if (right < count && comparator.compare(heap[right], heap[child]) < 0) {
+                    child = right;
+                }
+                if (comparator.compare(index, heap[child]) <= 0) {
+                    break;
+                }
+                heap[position] = heap[child];
+                position = child;
+            }
+            heap[position] = index;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.pricecompare.compare;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * RabbitMQ比价任务分发
+ * 子任务按平台代码路由到各平台工作队列，由任意节点上的CompareTaskConsumer消费
+ * 
+ * @author AutoValuePilot
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.compare.dispatcher", havingValue = "rabbit")
+public class RabbitCompareTaskDispatcher implements CompareTaskDispatcher {
+
+    private final RabbitTemplate rabbitTemplate;
+    private final CompareTaskQueues compareTaskQueues;
+
+    @Override
+    public void dispatch(List<CompareTaskMessage> messages) {
+        long now = System.currentTimeMillis();
+        for (CompareTaskMessage message : messages) {
+            message.setDispatchedAt(now);
+            compareTaskQueues.ensureDeclared(message.getPlatformCode());
+            rabbitTemplate.convertAndSend(CompareTaskQueues.EXCHANGE, message.getPlatformCode(), message);
+        }
+        log.info("比价任务已发布：{}，子任务数：{}", messages.isEmpty() ? null : messages.get(0).getTaskId(), messages.size());
+    }
+}
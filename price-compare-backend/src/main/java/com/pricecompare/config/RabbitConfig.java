@@ -0,0 +1,25 @@
+package com.pricecompare.config;
+
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * RabbitMQ配置类
+ * 
+ * @author AutoValuePilot
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.compare.dispatcher", havingValue = "rabbit")
+public class RabbitConfig {
+
+    /**
+     * 消息使用JSON序列化，便于在管理界面和死信队列中查看
+     */
+    @Bean
+    public MessageConverter rabbitMessageConverter() {
+        return new Jackson2JsonMessageConverter();
+    }
+}
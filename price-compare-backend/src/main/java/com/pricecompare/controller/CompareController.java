@@ -1,33 +1,91 @@
 package com.pricecompare.controller;
 
+import com.pricecompare.compare.CompareProgressNotifier;
+import com.pricecompare.compare.CompareResultSnapshot;
 import com.pricecompare.dto.request.CompareRequest;
 import com.pricecompare.dto.response.ApiResponse;
+import com.pricecompare.dto.response.CompareResultItem;
+import com.pricecompare.dto.response.CompareTaskProgress;
+import com.pricecompare.dto.response.CursorPage;
 import com.pricecompare.entity.CompareTask;
+import com.pricecompare.exception.BusinessException;
 import com.pricecompare.service.CompareService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 /**
  * 比价任务控制器
  * 
  * @author AutoValuePilot
  */
+@Slf4j
 @RestController
 @RequestMapping("/api/v1/compare")
 @RequiredArgsConstructor
 @Tag(name = "比价管理", description = "比价任务管理接口")
 public class CompareController {
 
+    /** result事件中携带的结果条数 */
+    private static final int RESULT_PAGE_SIZE = 50;
+
     private final CompareService compareService;
+    private final CompareProgressNotifier compareProgressNotifier;
+    private final CompareResultSnapshot compareResultSnapshot;
+
+    @Value("${app.compare.stream-timeout:300000}")
+    private long streamTimeout;
+
+    /** 查询并推送result事件的线程数：进度由Redis订阅线程分发，查询数据库不能占用该线程 */
+    @Value("${app.compare.stream-result.threads:4}")
+    private int resultThreads;
+
+    @Value("${app.compare.stream-result.queue-capacity:200}")
+    private int resultQueueCapacity;
+
+    private ThreadPoolExecutor resultExecutor;
+
+    @PostConstruct
+    public void init() {
+        resultExecutor = new ThreadPoolExecutor(
+                resultThreads, resultThreads,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(resultQueueCapacity),
+                new CustomizableThreadFactory("compare-stream-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        resultExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        resultExecutor.shutdownNow();
+    }
 
     @PostMapping("/start")
     @Operation(summary = "启动比价任务", description = "根据商品名称启动比价任务")
     public ApiResponse<CompareTask> startCompareTask(@RequestBody CompareRequest request) {
-        CompareTask task = compareService.startCompareTask(request.getProductName());
+        CompareTask task = compareService.startCompareTask(request.getProductName(), request.getProductId());
         return ApiResponse.success(task);
     }
 
@@ -47,17 +105,151 @@ public class CompareController {
         return ApiResponse.success(task);
     }
 
+    @GetMapping(value = "/tasks/{taskId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "订阅比价任务进度",
+            description = "以SSE推送任务进度：先推送当前进度，此后每完成一个平台推送progress事件，任务结束时推送result事件（任务详情与第一页结果）并关闭连接")
+    public SseEmitter streamCompareTask(@PathVariable Long taskId) {
+        SseEmitter emitter = new SseEmitter(streamTimeout);
+        AtomicBoolean closed = new AtomicBoolean();
+        Consumer<CompareTaskProgress> listener = progress -> {
+            if (closed.get()) {
+                return;
+            }
+            sendEvent(emitter, "progress", progress);
+            if (progress.isFinished() && closed.compareAndSet(false, true)) {
+                submitResult(emitter, taskId);
+            }
+        };
+
+        // 先订阅再读取当前状态，避免错过两者之间发布的进度
+        Runnable unsubscribe = compareProgressNotifier.subscribe(taskId, listener);
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> unsubscribe.run());
+
+        CompareTask task = compareService.getCompareTaskById(taskId);
+        if (task == null) {
+            unsubscribe.run();
+            throw new BusinessException(404, "比价任务不存在: " + taskId);
+        }
+        listener.accept(CompareTaskProgress.of(task));
+        return emitter;
+    }
+
     @GetMapping("/tasks/{taskId}/products")
-    @Operation(summary = "获取比价结果", description = "获取比价任务中的商品列表")
-    public ApiResponse<List<Object>> getCompareResults(@PathVariable Long taskId) {
-        List<Object> results = compareService.getCompareResults(taskId);
+    @Operation(summary = "获取比价结果", description = "获取比价任务中的商品列表，按价格升序，使用上一页返回的nextCursor翻页")
+    public ApiResponse<CursorPage<CompareResultItem>> getCompareResults(
+            @PathVariable Long taskId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") Integer limit) {
+        CursorPage<CompareResultItem> results = compareService.getCompareResults(taskId, cursor, limit);
         return ApiResponse.success(results);
     }
 
+    @GetMapping("/tasks/{taskId}/result")
+    @Operation(summary = "获取完整比价结果",
+            description = "返回任务结束时生成的完整结果（全部商品、最优选择、价格分布、图表数据）；客户端支持gzip时直接返回压缩内容")
+    public ResponseEntity<byte[]> getCompareResultSnapshot(
+            @PathVariable Long taskId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        byte[] compressed = compareResultSnapshot.get(taskId);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptsGzip(acceptEncoding)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(compressed);
+        }
+        return response.body(CompareResultSnapshot.gunzip(compressed));
+    }
+
+    @PostMapping("/tasks/{taskId}/cancel")
+    @Operation(summary = "取消比价任务", description = "中断正在执行的平台搜索，任务以已找到的部分结果结束（状态为已取消）；任务已结束时返回任务当前状态")
+    public ApiResponse<CompareTask> cancelCompareTask(@PathVariable Long taskId) {
+        CompareTask task = compareService.cancelCompareTask(taskId);
+        return ApiResponse.success(task);
+    }
+
     @DeleteMapping("/tasks/{taskId}")
     @Operation(summary = "删除比价任务", description = "删除指定的比价任务")
     public ApiResponse<Void> deleteCompareTask(@PathVariable Long taskId) {
         compareService.deleteCompareTask(taskId);
         return ApiResponse.success();
     }
-}
\ No newline at end of file
+
+    /**
+     * 按编码与q值判断客户端是否接受gzip：gzip明确给出时以其q值为准，否则看通配符*；q=0表示不接受
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean wildcard = null;
+        for (String token : acceptEncoding.split(",")) {
+            String[] parts = token.split(";");
+            String coding = parts[0].trim();
+            if (!coding.equalsIgnoreCase("gzip") && !coding.equals("*")) {
+                continue;
+            }
+            boolean accepted = qValue(parts) > 0;
+            if (coding.equals("*")) {
+                wildcard = accepted;
+            } else {
+                return accepted;
+            }
+        }
+        return Boolean.TRUE.equals(wildcard);
+    }
+
+    /**
+     * 编码项的q值，未给出时为1，无法解析时视为0
+     */
+    private static double qValue(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String param = parts[i].trim();
+            if (param.regionMatches(true, 0, "q=", 0, 2)) {
+                try {
+                    return Double.parseDouble(param.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * 在结果线程池中查询任务详情和第一页结果并关闭连接；线程池已满时推送error事件
+     */
+    private void submitResult(SseEmitter emitter, Long taskId) {
+        try {
+            resultExecutor.execute(() -> {
+                sendResult(emitter, taskId);
+                emitter.complete();
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("比价结果推送繁忙，放弃推送：{}", taskId);
+            sendEvent(emitter, "error", ApiResponse.error(503, "比价结果推送繁忙，请通过结果接口查询"));
+            emitter.complete();
+        }
+    }
+
+    private void sendResult(SseEmitter emitter, Long taskId) {
+        try {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("task", compareService.getCompareTaskById(taskId));
+            result.put("results", compareService.getCompareResults(taskId, null, RESULT_PAGE_SIZE));
+            sendEvent(emitter, "result", result);
+        } catch (RuntimeException e) {
+            log.warn("查询比价结果失败：{}，原因：{}", taskId, e.getMessage());
+            sendEvent(emitter, "error", ApiResponse.error(500, "查询比价结果失败：" + e.getMessage()));
+        }
+    }
+
+    private static void sendEvent(SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            log.debug("SSE推送失败，客户端可能已断开：{}", e.getMessage());
+        }
+    }
+}
@@ -1,20 +1,37 @@
 package com.pricecompare.controller;
 
+import com.pricecompare.crawler.PlatformConfigRegistry;
+import com.pricecompare.crawler.limit.PlatformConcurrencyLimiter;
+import com.pricecompare.crawler.resilience.CircuitBreaker;
+import com.pricecompare.crawler.resilience.PlatformResilience;
+import com.pricecompare.dto.request.ProductDetailBatchRequest;
 import com.pricecompare.dto.response.ApiResponse;
+import com.pricecompare.dto.response.BatchSearchResult;
+import com.pricecompare.dto.response.PlatformLimitStatus;
+import com.pricecompare.dto.response.ProductDetailBatchResult;
 import com.pricecompare.entity.ProductPrice;
+import com.pricecompare.exception.RateLimitExceededException;
 import com.pricecompare.service.CrawlerService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 爬虫控制器
  * 
  * @author AutoValuePilot
  */
+@Slf4j
 @Tag(name = "爬虫管理", description = "电商平台数据爬取接口")
 @RestController
 @RequestMapping("/api/crawler")
@@ -22,6 +39,13 @@ import java.util.List;
 public class CrawlerController {
 
     private final CrawlerService crawlerService;
+    private final PlatformConfigRegistry platformConfigRegistry;
+    private final PlatformResilience platformResilience;
+    private final PlatformConcurrencyLimiter platformConcurrencyLimiter;
+
+    /** 流式搜索连接的最长保持时间（毫秒） */
+    @Value("${app.crawler.stream-timeout:30000}")
+    private long streamTimeout;
 
     @GetMapping("/search")
     @Operation(summary = "搜索商品", description = "在指定平台搜索商品")
@@ -41,11 +65,51 @@ public class CrawlerController {
             }
             
             return ApiResponse.success(results);
+        } catch (RateLimitExceededException e) {
+            throw e;
         } catch (Exception e) {
             return ApiResponse.error(500, "搜索失败：" + e.getMessage());
         }
     }
 
+    @GetMapping("/search/batch")
+    @Operation(summary = "多平台并发搜索", description = "并发搜索所有可用平台，返回各平台结果及状态，超时平台单独标记")
+    public ApiResponse<BatchSearchResult> batchSearch(@RequestParam String keyword) {
+        try {
+            List<String> supportedPlatforms = crawlerService.getSupportedPlatforms();
+            return ApiResponse.success(crawlerService.batchSearch(keyword, supportedPlatforms));
+        } catch (Exception e) {
+            return ApiResponse.error(500, "搜索失败：" + e.getMessage());
+        }
+    }
+
+    @GetMapping(value = "/search/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "流式多平台搜索",
+            description = "以SSE推送搜索结果：每个平台完成后立即推送platform事件，全部完成后推送summary事件并关闭连接")
+    public SseEmitter streamSearch(
+            @RequestParam String keyword,
+            @RequestParam(required = false) String platformCode) {
+        
+        List<String> platforms = platformCode != null && !platformCode.isEmpty()
+                ? List.of(platformCode)
+                : crawlerService.getSupportedPlatforms();
+        
+        SseEmitter emitter = new SseEmitter(streamTimeout);
+        emitter.onTimeout(emitter::complete);
+        
+        crawlerService.batchSearchAsync(keyword, platforms,
+                        platformResult -> sendEvent(emitter, "platform", platformResult.getPlatformCode(), platformResult))
+                .whenComplete((result, error) -> {
+                    if (error != null) {
+                        sendEvent(emitter, "error", null, ApiResponse.error(500, "搜索失败：" + error.getMessage()));
+                    } else {
+                        sendEvent(emitter, "summary", null, result.toSummary());
+                    }
+                    emitter.complete();
+                });
+        return emitter;
+    }
+
     @GetMapping("/detail")
     @Operation(summary = "获取商品详情", description = "获取指定商品的详细信息")
     public ApiResponse<ProductPrice> getProductDetail(
@@ -58,11 +122,26 @@ public class CrawlerController {
                 return ApiResponse.error(404, "商品不存在");
             }
             return ApiResponse.success(detail);
+        } catch (RateLimitExceededException e) {
+            throw e;
         } catch (Exception e) {
             return ApiResponse.error(500, "获取详情失败：" + e.getMessage());
         }
     }
 
+    @PostMapping("/details")
+    @Operation(summary = "批量获取商品详情", description = "批量获取同一平台的商品详情，一次读取缓存，仅爬取未命中的商品")
+    public ApiResponse<ProductDetailBatchResult> getProductDetails(@Validated @RequestBody ProductDetailBatchRequest request) {
+        try {
+            return ApiResponse.success(crawlerService.getProductDetails(
+                    request.getPlatformProductIds(), request.getPlatformCode()));
+        } catch (RateLimitExceededException e) {
+            throw e;
+        } catch (Exception e) {
+            return ApiResponse.error(500, "批量获取详情失败：" + e.getMessage());
+        }
+    }
+
     @GetMapping("/platforms")
     @Operation(summary = "获取支持的平台", description = "获取当前可用的电商平台列表")
     public ApiResponse<List<String>> getSupportedPlatforms() {
@@ -74,6 +153,17 @@ public class CrawlerController {
         }
     }
 
+    @PostMapping("/platforms/reload")
+    @Operation(summary = "重新加载平台配置", description = "修改platform_config后重新加载内存中的平台配置，并通知其他节点")
+    public ApiResponse<List<String>> reloadPlatforms() {
+        try {
+            platformConfigRegistry.reloadAll();
+            return ApiResponse.success(platformConfigRegistry.getEnabledPlatformCodes());
+        } catch (Exception e) {
+            return ApiResponse.error(500, "重新加载平台配置失败：" + e.getMessage());
+        }
+    }
+
     @GetMapping("/platform/status")
     @Operation(summary = "检查平台状态", description = "检查指定平台是否可用")
     public ApiResponse<Boolean> checkPlatformStatus(@RequestParam String platformCode) {
@@ -84,4 +174,31 @@ public class CrawlerController {
             return ApiResponse.error(500, "检查平台状态失败：" + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    @GetMapping("/platform/circuits")
+    @Operation(summary = "平台熔断状态", description = "查看各平台熔断器当前状态")
+    public ApiResponse<Map<String, CircuitBreaker.State>> getCircuitStates() {
+        return ApiResponse.success(platformResilience.getStates());
+    }
+
+    @GetMapping("/platform/limits")
+    @Operation(summary = "平台并发上限", description = "查看各平台自适应并发上限、当前并发数和延迟均值")
+    public ApiResponse<Map<String, PlatformLimitStatus>> getConcurrencyLimits() {
+        return ApiResponse.success(platformConcurrencyLimiter.getStatuses());
+    }
+
+    /**
+     * 推送SSE事件；客户端已断开时忽略，剩余平台仍会完成并写入缓存
+     */
+    private static void sendEvent(SseEmitter emitter, String name, String id, Object data) {
+        try {
+            SseEmitter.SseEventBuilder event = SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON);
+            if (id != null) {
+                event.id(id);
+            }
+            emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            log.debug("SSE推送失败，客户端可能已断开：{}", e.getMessage());
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.pricecompare.controller;
 
 import com.pricecompare.dto.response.ApiResponse;
+import com.pricecompare.dto.response.SimilarProduct;
 import com.pricecompare.entity.Product;
 import com.pricecompare.service.ProductService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -56,4 +57,13 @@ public class ProductController {
         List<Product> products = productService.getHotProducts(limit);
         return ApiResponse.success(products);
     }
-}
\ No newline at end of file
+
+    @GetMapping("/{id}/similar")
+    @Operation(summary = "获取相似商品", description = "基于标题、品牌、型号、特征和规格参数推荐相似商品，并按价格标记升级版/经济版")
+    public ApiResponse<List<SimilarProduct>> getSimilarProducts(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "10") Integer limit) {
+        List<SimilarProduct> products = productService.getSimilarProducts(id, limit);
+        return ApiResponse.success(products);
+    }
+}
@@ -0,0 +1,36 @@
+package com.pricecompare.crawler;
+
+import com.pricecompare.entity.ProductPrice;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 搜索结果缓存项
+ * 记录写入时间，用于判断是否超过软过期时间
+ * 
+ * @author AutoValuePilot
+ */
+@Data
+public class CachedSearch {
+
+    /** 搜索结果 */
+    private List<ProductPrice> products;
+
+    /** 写入缓存的时间戳（毫秒） */
+    private long cachedAt;
+
+    public static CachedSearch of(List<ProductPrice> products) {
+        CachedSearch cachedSearch = new CachedSearch();
+        cachedSearch.setProducts(products);
+        cachedSearch.setCachedAt(System.currentTimeMillis());
+        return cachedSearch;
+    }
+
+    /**
+     * 是否超过软过期时间，超过后仍可返回但需要刷新
+     */
+    public boolean isStale(long softTtlMillis) {
+        return System.currentTimeMillis() - cachedAt >= softTtlMillis;
+    }
+}
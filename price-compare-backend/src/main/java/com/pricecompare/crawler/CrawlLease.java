@@ -0,0 +1,61 @@
+package com.pricecompare.crawler;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.UUID;
+
+/**
+ * 基于Redis的爬取租约，用于多节点间合并相同的爬取请求
+ * 
+ * @author AutoValuePilot
+ */
+@Slf4j
+@Component
+public class CrawlLease {
+
+    private static final String KEY_PREFIX = "crawler:lease:";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final DefaultRedisScript<Long> releaseScript;
+
+    public CrawlLease(StringRedisTemplate stringRedisTemplate) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.releaseScript = new DefaultRedisScript<>();
+        this.releaseScript.setScriptSource(new ResourceScriptSource(new ClassPathResource("scripts/release_lease.lua")));
+        this.releaseScript.setResultType(Long.class);
+    }
+
+    /**
+     * 尝试获取租约
+     * @return 租约令牌，已被其他节点持有时返回null；Redis不可用时视为获取成功
+     */
+    public String tryAcquire(String key, long leaseMillis) {
+        String token = UUID.randomUUID().toString();
+        try {
+            Boolean acquired = stringRedisTemplate.opsForValue()
+                    .setIfAbsent(KEY_PREFIX + key, token, Duration.ofMillis(leaseMillis));
+            return Boolean.FALSE.equals(acquired) ? null : token;
+        } catch (Exception e) {
+            log.warn("获取爬取租约失败，按本节点独立爬取处理：{}", e.getMessage());
+            return token;
+        }
+    }
+
+    /**
+     * 释放租约，只有持有者才能释放
+     */
+    public void release(String key, String token) {
+        try {
+            stringRedisTemplate.execute(releaseScript, Collections.singletonList(KEY_PREFIX + key), token);
+        } catch (Exception e) {
+            log.warn("释放爬取租约失败，等待租约自然过期：{}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.pricecompare.crawler;
+
+import com.pricecompare.entity.PlatformConfig;
+import com.pricecompare.mapper.PlatformConfigMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 平台配置注册表
+ * 启动时从platform_config加载不可变快照，热路径上只读取volatile引用，无锁、无数据库访问。
+ * 配置变更后通过管理接口触发重新加载，并经Redis频道通知其他节点；另有定时全量刷新兜底。
+ * 注意：返回的PlatformConfig为共享快照，调用方不得修改。
+ * 
+ * @author AutoValuePilot
+ */
+@Slf4j
+@Component
+public class PlatformConfigRegistry implements MessageListener {
+
+    public static final String RELOAD_CHANNEL = "crawler:platform-config:reload";
+
+    private final PlatformConfigMapper platformConfigMapper;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), List.of());
+
+    public PlatformConfigRegistry(PlatformConfigMapper platformConfigMapper,
+                                  StringRedisTemplate stringRedisTemplate,
+                                  RedisMessageListenerContainer redisMessageListenerContainer) {
+        this.platformConfigMapper = platformConfigMapper;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.redisMessageListenerContainer = redisMessageListenerContainer;
+    }
+
+    @PostConstruct
+    public void init() {
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(RELOAD_CHANNEL));
+        try {
+            reload();
+        } catch (Exception e) {
+            log.error("加载平台配置失败，等待定时刷新重试", e);
+        }
+    }
+
+    /**
+     * 获取平台配置
+     * @return 平台配置，不存在时返回null
+     */
+    public PlatformConfig get(String platformCode) {
+        return snapshot.configs().get(platformCode);
+    }
+
+    /**
+     * 获取已启用的平台代码列表
+     */
+    public List<String> getEnabledPlatformCodes() {
+        return snapshot.enabledCodes();
+    }
+
+    /**
+     * 从数据库重新加载并原子替换快照
+     */
+    public void reload() {
+        List<PlatformConfig> configs = platformConfigMapper.selectList(null);
+        Map<String, PlatformConfig> byCode = configs.stream()
+                .collect(Collectors.toUnmodifiableMap(PlatformConfig::getPlatformCode, Function.identity(), (a, b) -> a));
+        List<String> enabledCodes = configs.stream()
+                .filter(config -> config.getEnabled() != null && config.getEnabled() == 1)
+                .sorted(Comparator.comparing(PlatformConfig::getId))
+                .map(PlatformConfig::getPlatformCode)
+                .toList();
+        snapshot = new Snapshot(byCode, enabledCodes);
+        log.info("平台配置已加载，共{}个平台，已启用：{}", byCode.size(), enabledCodes);
+    }
+
+    /**
+     * 重新加载本节点配置，并通知其他节点重新加载
+     */
+    public void reloadAll() {
+        reload();
+        try {
+            stringRedisTemplate.convertAndSend(RELOAD_CHANNEL, "reload");
+        } catch (Exception e) {
+            log.warn("发送平台配置重新加载通知失败：{}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        log.info("收到平台配置重新加载通知");
+        try {
+            reload();
+        } catch (Exception e) {
+            log.error("重新加载平台配置失败", e);
+        }
+    }
+
+    /**
+     * 定时全量刷新，兜底丢失的通知
+     */
+    @Scheduled(fixedDelayString = "${app.crawler.platform-config.refresh-interval:300000}",
+            initialDelayString = "${app.crawler.platform-config.refresh-interval:300000}")
+    public void scheduledReload() {
+        try {
+            reload();
+        } catch (Exception e) {
+            log.error("定时刷新平台配置失败", e);
+        }
+    }
+
+    private record Snapshot(Map<String, PlatformConfig> configs, List<String> enabledCodes) {
+    }
+}
@@ -0,0 +1,101 @@
+package com.pricecompare.crawler;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 平台爬取线程池
+ * 每个平台独享一个有界线程池，慢平台只会占满自己的线程，不会拖累其他平台；
+ * 开启自适应并发时线程数随平台并发上限调整
+ * 
+ * @author AutoValuePilot
+ */
+@Slf4j
+@Component
+public class PlatformExecutors {
+
+    private static final String THREAD_NAME_PREFIX = "crawler-";
+
+    /** 平台爬取线程的标记，由本类创建的线程在启动时设置 */
+    private static final ThreadLocal<Boolean> WORKER = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    @Value("${app.crawler.platform-pool-size:4}")
+    private int poolSize;
+
+    @Value("${app.crawler.platform-queue-capacity:100}")
+    private int queueCapacity;
+
+    private final ConcurrentMap<String, ExecutorService> executors = new ConcurrentHashMap<>();
+
+    /**
+     * 获取平台线程池，队列满时提交会抛出RejectedExecutionException
+     */
+    public ExecutorService get(String platformCode) {
+        return executors.computeIfAbsent(platformCode, this::createExecutor);
+    }
+
+    /**
+     * 调整平台线程池的线程数，排队中的任务在新增的线程上执行
+     */
+    public void resize(String platformCode, int threads) {
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) get(platformCode);
+        int size = Math.max(1, threads);
+        synchronized (executor) {
+            if (size == executor.getCorePoolSize()) {
+                return;
+            }
+            // 核心线程数不能大于最大线程数：扩容先调最大值，缩容先调核心数
+            if (size > executor.getMaximumPoolSize()) {
+                executor.setMaximumPoolSize(size);
+                executor.setCorePoolSize(size);
+            } else {
+                executor.setCorePoolSize(size);
+                executor.setMaximumPoolSize(size);
+            }
+        }
+        log.debug("平台{}爬取线程数调整为：{}", platformCode, size);
+    }
+
+    /**
+     * 当前线程是否为平台爬取线程
+     */
+    public static boolean isWorkerThread() {
+        return WORKER.get();
+    }
+
+    private ExecutorService createExecutor(String platformCode) {
+        log.info("创建平台爬取线程池：{}，线程数：{}，队列容量：{}", platformCode, poolSize, queueCapacity);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                workerThreadFactory(platformCode),
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static ThreadFactory workerThreadFactory(String platformCode) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(THREAD_NAME_PREFIX + platformCode + "-");
+        return runnable -> threadFactory.newThread(() -> {
+            WORKER.set(Boolean.TRUE);
+            runnable.run();
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executors.values().forEach(ExecutorService::shutdownNow);
+    }
+}
@@ -0,0 +1,116 @@
+package com.pricecompare.crawler.limit;
+
+/**
+ * 自适应并发上限（AIMD）
+ * 延迟稳定且并发接近上限时，每完成一轮请求上限加1；近期延迟均值明显高于长期均值时小幅下调，
+ * 每轮请求最多下调一次，单个慢请求不会触发下调；超时或平台限流时上限减半。
+ * 
+ * @author AutoValuePilot
+ */
+public class AdaptiveConcurrencyLimit {
+
+    /** 长期延迟均值的平滑系数，约反映最近100个请求 */
+    private static final double RTT_SMOOTHING = 0.01;
+
+    /** 近期延迟均值的平滑系数，约反映最近10个请求 */
+    private static final double SHORT_RTT_SMOOTHING = 0.1;
+
+    /** 延迟上升时上限的缩减比例 */
+    private static final double LATENCY_BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double latencyTolerance;
+    private final double backoffRatio;
+
+    private double limit;
+    private int inFlight;
+    private double longRtt;
+    private double shortRtt;
+    /** 上次因延迟下调后完成的请求数 */
+    private int samplesSinceDecrease;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit,
+                                    double latencyTolerance, double backoffRatio) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTolerance = latencyTolerance;
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * 在等待时间内获取并发许可
+     * @return 是否获得许可，获得后必须以onSuccess/onDropped/onIgnored之一结束
+     */
+    public synchronized boolean tryAcquire(long maxWaitMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + maxWaitMillis;
+        while (inFlight >= (int) limit) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return false;
+            }
+            wait(remaining);
+        }
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * 请求成功，按延迟调整上限
+     */
+    public synchronized void onSuccess(long rttMillis) {
+        int inFlightBefore = inFlight;
+        release();
+        if (longRtt == 0) {
+            longRtt = Math.max(1, rttMillis);
+            shortRtt = longRtt;
+            return;
+        }
+        shortRtt = shortRtt * (1 - SHORT_RTT_SMOOTHING) + rttMillis * SHORT_RTT_SMOOTHING;
+        samplesSinceDecrease++;
+        if (shortRtt > longRtt * latencyTolerance) {
+            // 近期延迟持续上升，平台可能开始排队；下调后等一轮请求完成再看效果
+            if (samplesSinceDecrease >= limit) {
+                limit = Math.max(minLimit, limit * LATENCY_BACKOFF);
+                samplesSinceDecrease = 0;
+            }
+        } else if (inFlightBefore * 2 >= limit) {
+            // 只有并发确实用到一半以上时才加，避免空闲时上限无限增长
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+        longRtt = longRtt * (1 - RTT_SMOOTHING) + rttMillis * RTT_SMOOTHING;
+    }
+
+    /**
+     * 请求超时或被平台限流，上限按比例下调
+     */
+    public synchronized void onDropped() {
+        release();
+        limit = Math.max(minLimit, limit * backoffRatio);
+    }
+
+    /**
+     * 请求结果与平台容量无关（例如商品不存在），只归还许可
+     */
+    public synchronized void onIgnored() {
+        release();
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized long getRttMillis() {
+        return Math.round(longRtt);
+    }
+
+    private void release() {
+        inFlight = Math.max(0, inFlight - 1);
+        notifyAll();
+    }
+}
@@ -0,0 +1,58 @@
+package com.pricecompare.crawler.limit;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+
+/**
+ * 本地令牌桶，在当前JVM的所有请求线程间共享
+ * 
+ * @author AutoValuePilot
+ */
+@Component
+@ConditionalOnProperty(name = "app.crawler.rate-limit.distributed", havingValue = "false", matchIfMissing = true)
+public class LocalRateLimitBackend implements RateLimitBackend {
+
+    private final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final LongSupplier nanoClock;
+
+    public LocalRateLimitBackend() {
+        this(System::nanoTime);
+    }
+
+    LocalRateLimitBackend(LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public long tryAcquire(String key, double permitsPerSecond, int burst) {
+        TokenBucket bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(burst, nanoClock.getAsLong()));
+        return bucket.tryAcquire(permitsPerSecond, burst, nanoClock.getAsLong());
+    }
+
+    private static final class TokenBucket {
+
+        private double tokens;
+        private long lastRefillNanos;
+
+        private TokenBucket(int burst, long now) {
+            this.tokens = burst;
+            this.lastRefillNanos = now;
+        }
+
+        private synchronized long tryAcquire(double permitsPerSecond, int burst, long now) {
+            if (now > lastRefillNanos) {
+                tokens = Math.min(burst, tokens + (now - lastRefillNanos) * permitsPerSecond / 1_000_000_000d);
+                lastRefillNanos = now;
+            }
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return Math.max(1, (long) Math.ceil((1 - tokens) / permitsPerSecond * 1000));
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.pricecompare.crawler.limit;
+
+import com.pricecompare.crawler.PlatformExecutors;
+import com.pricecompare.dto.response.PlatformLimitStatus;
+import com.pricecompare.exception.PlatformAccessException;
+import com.pricecompare.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.http.HttpTimeoutException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 平台自适应并发控制
+ * 每个平台一个AIMD并发上限，根据请求延迟和超时/限流情况自动调整。
+ * 与限流器一致：只在平台爬取线程上排队等待，请求线程（Tomcat）上达到上限时立即失败。
+ * 平台线程池的线程数跟随并发上限调整，并发上限不会被固定的线程数卡住，线程数也不会超过max-limit。
+ * 
+ * @author AutoValuePilot
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PlatformConcurrencyLimiter {
+
+    private final MeterRegistry meterRegistry;
+    private final PlatformExecutors platformExecutors;
+
+    private final Map<String, AdaptiveConcurrencyLimit> limits = new ConcurrentHashMap<>();
+
+    @Value("${app.crawler.adaptive-concurrency.enabled:true}")
+    private boolean enabled;
+
+    /** 初始并发上限，即平台线程池的初始线程数 */
+    @Value("${app.crawler.adaptive-concurrency.initial-limit:4}")
+    private int initialLimit;
+
+    @Value("${app.crawler.adaptive-concurrency.min-limit:1}")
+    private int minLimit;
+
+    /** 并发上限的最大值，同时也是平台线程池线程数的上限 */
+    @Value("${app.crawler.adaptive-concurrency.max-limit:32}")
+    private int maxLimit;
+
+    /** 延迟超过长期均值的倍数时视为平台开始排队 */
+    @Value("${app.crawler.adaptive-concurrency.latency-tolerance:2.0}")
+    private double latencyTolerance;
+
+    /** 超时或被限流时上限的缩减比例 */
+    @Value("${app.crawler.adaptive-concurrency.backoff-ratio:0.5}")
+    private double backoffRatio;
+
+    /** 平台爬取线程上等待并发许可的最长时间（毫秒） */
+    @Value("${app.crawler.adaptive-concurrency.max-wait:2000}")
+    private long maxWaitMillis;
+
+    /**
+     * 在平台并发上限内执行调用，延迟只统计call本身
+     */
+    public <T> T execute(String platformCode, Supplier<T> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        AdaptiveConcurrencyLimit limit = limits.computeIfAbsent(platformCode, this::createLimit);
+        long maxWait = PlatformExecutors.isWorkerThread() ? maxWaitMillis : 0;
+        boolean acquired;
+        try {
+            acquired = limit.tryAcquire(maxWait);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RateLimitExceededException("等待平台并发许可被中断：" + platformCode, maxWaitMillis);
+        }
+        if (!acquired) {
+            log.warn("平台{}并发已达上限：{}", platformCode, limit.getLimit());
+            throw new RateLimitExceededException("平台并发请求过多：" + platformCode, Math.max(100, limit.getRttMillis()));
+        }
+
+        long startTime = System.nanoTime();
+        int before = limit.getLimit();
+        try {
+            T result = call.get();
+            limit.onSuccess((System.nanoTime() - startTime) / 1_000_000);
+            return result;
+        } catch (RuntimeException e) {
+            if (isOverload(e)) {
+                limit.onDropped();
+                log.info("平台{}超时或限流，并发上限下调为：{}", platformCode, limit.getLimit());
+            } else {
+                limit.onIgnored();
+            }
+            throw e;
+        } catch (Error e) {
+            limit.onIgnored();
+            throw e;
+        } finally {
+            int after = limit.getLimit();
+            if (after != before) {
+                platformExecutors.resize(platformCode, after);
+            }
+        }
+    }
+
+    /**
+     * 各平台当前并发上限
+     */
+    public Map<String, PlatformLimitStatus> getStatuses() {
+        Map<String, PlatformLimitStatus> statuses = new TreeMap<>();
+        limits.forEach((platformCode, limit) -> {
+            PlatformLimitStatus status = new PlatformLimitStatus();
+            status.setPlatformCode(platformCode);
+            status.setLimit(limit.getLimit());
+            status.setInFlight(limit.getInFlight());
+            status.setRttMillis(limit.getRttMillis());
+            statuses.put(platformCode, status);
+        });
+        return statuses;
+    }
+
+    /**
+     * 平台过载的信号：平台返回429/503，或请求超时/因超时被中断
+     */
+    private static boolean isOverload(RuntimeException e) {
+        if (!(e instanceof PlatformAccessException)) {
+            return false;
+        }
+        PlatformAccessException accessException = (PlatformAccessException) e;
+        if (accessException.isThrottled()) {
+            return true;
+        }
+        Throwable cause = accessException.getCause();
+        return cause instanceof HttpTimeoutException || cause instanceof InterruptedException;
+    }
+
+    private AdaptiveConcurrencyLimit createLimit(String platformCode) {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(
+                initialLimit, minLimit, maxLimit, latencyTolerance, backoffRatio);
+        platformExecutors.resize(platformCode, limit.getLimit());
+        Gauge.builder("crawler.concurrency.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                .tag("platform", platformCode)
+                .register(meterRegistry);
+        Gauge.builder("crawler.concurrency.in-flight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                .tag("platform", platformCode)
+                .register(meterRegistry);
+        return limit;
+    }
+}
@@ -0,0 +1,78 @@
+package com.pricecompare.crawler.limit;
+
+import com.pricecompare.crawler.PlatformExecutors;
+import com.pricecompare.entity.PlatformConfig;
+import com.pricecompare.exception.RateLimitExceededException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 平台请求限流器
+ * 按PlatformConfig.rateLimit（每秒请求数）控制每个平台的请求速率，速率换算只在permitsPerSecond中进行。
+ * 排队模式下只在平台爬取线程上等待令牌，请求线程（Tomcat）上总是快速失败。
+ * 
+ * @author AutoValuePilot
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PlatformRateLimiter {
+
+    private static final String MODE_FAIL_FAST = "fail-fast";
+
+    private final RateLimitBackend rateLimitBackend;
+
+    /** 限流模式：queue-排队等待，fail-fast-立即失败 */
+    @Value("${app.crawler.rate-limit.mode:queue}")
+    private String mode;
+
+    /** 排队模式下的最长等待时间（毫秒） */
+    @Value("${app.crawler.rate-limit.max-wait:2000}")
+    private long maxWaitMillis;
+
+    /** 令牌桶容量，允许的突发请求数 */
+    @Value("${app.crawler.rate-limit.burst:1}")
+    private int burst;
+
+    /**
+     * 获取平台请求许可
+     * @throws RateLimitExceededException 无法在允许的等待时间内获得许可
+     */
+    public void acquire(PlatformConfig platformConfig) {
+        double permitsPerSecond = permitsPerSecond(platformConfig);
+        if (permitsPerSecond <= 0) {
+            return;
+        }
+        String platformCode = platformConfig.getPlatformCode();
+        boolean queue = !MODE_FAIL_FAST.equals(mode) && PlatformExecutors.isWorkerThread();
+        long deadline = System.currentTimeMillis() + (queue ? maxWaitMillis : 0);
+
+        while (true) {
+            long wait = rateLimitBackend.tryAcquire(platformCode, permitsPerSecond, burst);
+            if (wait <= 0) {
+                return;
+            }
+            if (System.currentTimeMillis() + wait > deadline) {
+                log.warn("平台{}请求被限流，需等待{}ms", platformCode, wait);
+                throw new RateLimitExceededException("平台请求过于频繁：" + platformCode, wait);
+            }
+            try {
+                Thread.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RateLimitExceededException("等待平台请求许可被中断：" + platformCode, wait);
+            }
+        }
+    }
+
+    /**
+     * 平台每秒允许的请求数，取自platform_config.rate_limit（次/秒）
+     * @return 未配置或不大于0时返回0，表示不限流
+     */
+    public static double permitsPerSecond(PlatformConfig platformConfig) {
+        Integer rateLimit = platformConfig.getRateLimit();
+        return rateLimit == null || rateLimit <= 0 ? 0 : rateLimit;
+    }
+}
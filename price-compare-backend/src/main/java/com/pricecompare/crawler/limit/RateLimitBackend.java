@@ -0,0 +1,18 @@
+package com.pricecompare.crawler.limit;
+
+/**
+ * 令牌桶存储
+ * 
+ * @author AutoValuePilot
+ */
+public interface RateLimitBackend {
+
+    /**
+     * 尝试从令牌桶获取一个令牌
+     * @param key 令牌桶标识（平台代码）
+     * @param permitsPerSecond 每秒产生的令牌数
+     * @param burst 令牌桶容量
+     * @return 0表示获取成功，否则为下一个令牌可用前需要等待的毫秒数
+     */
+    long tryAcquire(String key, double permitsPerSecond, int burst);
+}
@@ -0,0 +1,144 @@
+package com.pricecompare.crawler.resilience;
+
+import java.util.function.LongSupplier;
+
+/**
+ * 平台熔断器
+ * 基于最近N次调用的失败率熔断；熔断期结束后进入半开状态，放行有限的探测请求，
+ * 探测全部成功则恢复，任一失败则重新熔断。
+ * 
+ * @author AutoValuePilot
+ */
+public class CircuitBreaker {
+
+    /**
+     * 熔断器状态
+     */
+    public enum State {
+        /** 正常放行 */
+        CLOSED,
+        /** 熔断，拒绝所有调用 */
+        OPEN,
+        /** 半开，放行探测调用 */
+        HALF_OPEN
+    }
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openDurationMillis;
+    private final int halfOpenProbes;
+    private final LongSupplier clock;
+
+    /** 最近调用结果的环形缓冲，true表示失败 */
+    private final boolean[] outcomes;
+    private int outcomeCount;
+    private int outcomeIndex;
+    private int failureCount;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int probesInFlight;
+    private int probesSucceeded;
+
+    public CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold,
+                          long openDurationMillis, int halfOpenProbes, LongSupplier clock) {
+        this.windowSize = windowSize;
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDurationMillis = openDurationMillis;
+        this.halfOpenProbes = halfOpenProbes;
+        this.clock = clock;
+        this.outcomes = new boolean[windowSize];
+    }
+
+    /**
+     * 申请调用许可，获得许可后必须以onSuccess/onFailure/onIgnored之一结束
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (clock.getAsLong() - openedAt < openDurationMillis) {
+                return false;
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesInFlight + probesSucceeded >= halfOpenProbes) {
+                return false;
+            }
+            probesInFlight++;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            probesInFlight = Math.max(0, probesInFlight - 1);
+            if (++probesSucceeded >= halfOpenProbes) {
+                transitionTo(State.CLOSED);
+            }
+            return;
+        }
+        record(false);
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            transitionTo(State.OPEN);
+            return;
+        }
+        record(true);
+        if (state == State.CLOSED && outcomeCount >= minimumCalls
+                && (double) failureCount / outcomeCount >= failureRateThreshold) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    /**
+     * 调用未真正到达平台（例如被本地限流），归还许可且不计入统计
+     */
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN) {
+            probesInFlight = Math.max(0, probesInFlight - 1);
+        }
+    }
+
+    /**
+     * 当前状态；熔断期已过但尚未有调用时报告为半开
+     */
+    public synchronized State getState() {
+        if (state == State.OPEN && clock.getAsLong() - openedAt >= openDurationMillis) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    private void record(boolean failure) {
+        if (outcomeCount == windowSize) {
+            if (outcomes[outcomeIndex]) {
+                failureCount--;
+            }
+        } else {
+            outcomeCount++;
+        }
+        outcomes[outcomeIndex] = failure;
+        if (failure) {
+            failureCount++;
+        }
+        outcomeIndex = (outcomeIndex + 1) % windowSize;
+    }
+
+    private void transitionTo(State newState) {
+        state = newState;
+        probesInFlight = 0;
+        probesSucceeded = 0;
+        if (newState == State.OPEN) {
+            openedAt = clock.getAsLong();
+        }
+        if (newState == State.CLOSED) {
+            outcomeCount = 0;
+            outcomeIndex = 0;
+            failureCount = 0;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.pricecompare.crawler.resilience;
+
+import java.util.Arrays;
+
+/**
+ * 平台延迟统计
+ * 保留最近N次成功调用的耗时，按需计算分位数；分位数结果缓存到新增一定数量样本后再重新排序。
+ * 
+ * @author AutoValuePilot
+ */
+public class LatencyTracker {
+
+    /** 每新增多少个样本重新计算一次分位数 */
+    private static final int RECOMPUTE_INTERVAL = 16;
+
+    private final long[] samples;
+    private int count;
+    private int index;
+
+    private double cachedQuantile = -1;
+    private long cachedValue = -1;
+    private int recordedSinceCompute;
+
+    public LatencyTracker(int windowSize) {
+        this.samples = new long[windowSize];
+    }
+
+    public synchronized void record(long latencyMillis) {
+        samples[index] = latencyMillis;
+        index = (index + 1) % samples.length;
+        if (count < samples.length) {
+            count++;
+        }
+        recordedSinceCompute++;
+    }
+
+    /**
+     * 计算分位数，样本不足minSamples时返回-1
+     */
+    public synchronized long percentile(double quantile, int minSamples) {
+        if (count == 0 || count < minSamples) {
+            return -1;
+        }
+        if (cachedQuantile == quantile && recordedSinceCompute < RECOMPUTE_INTERVAL) {
+            return cachedValue;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(quantile * count) - 1;
+        cachedQuantile = quantile;
+        cachedValue = sorted[Math.max(0, Math.min(count - 1, rank))];
+        recordedSinceCompute = 0;
+        return cachedValue;
+    }
+
+    public synchronized int getSampleCount() {
+        return count;
+    }
+}
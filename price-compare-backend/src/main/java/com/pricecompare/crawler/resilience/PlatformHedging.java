@@ -0,0 +1,235 @@
+package com.pricecompare.crawler.resilience;
+
+import com.pricecompare.crawler.PlatformExecutors;
+import com.pricecompare.entity.PlatformConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 平台请求对冲
+ * 请求超过平台近期P95耗时仍未返回时，再发起一次相同请求，取先成功返回的结果并取消另一个。
+ * 对冲请求受预算约束：每个请求积累budgetRatio个对冲额度，默认最多增加5%的平台请求量。
+ * 延迟样本由measure记录，只统计访问平台本身的耗时，不含限流等待和重试退避。
+ * 
+ * @author AutoValuePilot
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PlatformHedging {
+
+    private static final String PROPERTY_PREFIX = "app.crawler.hedging.";
+
+    private final Environment environment;
+    private final PlatformExecutors platformExecutors;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, LatencyTracker> trackers = new ConcurrentHashMap<>();
+    private final Map<String, HedgeBudget> budgets = new ConcurrentHashMap<>();
+
+    /** 触发对冲的延迟分位数 */
+    @Value("${app.crawler.hedging.quantile:0.95}")
+    private double quantile;
+
+    /** 统计分位数所需的最少样本数，样本不足时不对冲 */
+    @Value("${app.crawler.hedging.min-samples:20}")
+    private int minSamples;
+
+    /** 对冲延迟下限（毫秒），避免平台很快时几乎每个请求都对冲 */
+    @Value("${app.crawler.hedging.min-delay:10}")
+    private long minDelay;
+
+    /** 对冲预算：额外请求量占总请求量的比例上限 */
+    @Value("${app.crawler.hedging.budget-ratio:0.05}")
+    private double budgetRatio;
+
+    /** 可累积的对冲额度上限，限制突发对冲数量 */
+    @Value("${app.crawler.hedging.max-burst:10}")
+    private double maxBurst;
+
+    @Value("${app.crawler.hedging.window-size:512}")
+    private int windowSize;
+
+    /**
+     * 执行平台调用，平台启用对冲时按P95延迟发起对冲请求
+     */
+    public <T> T execute(PlatformConfig platformConfig, Supplier<T> call) {
+        String platformCode = platformConfig.getPlatformCode();
+        LatencyTracker tracker = tracker(platformCode);
+
+        // 平台线程内不对冲：向自己所在的线程池提交并等待可能导致线程池耗尽
+        if (!isEnabled(platformCode) || PlatformExecutors.isWorkerThread()) {
+            return call.get();
+        }
+        HedgeBudget budget = budgets.computeIfAbsent(platformCode, code -> new HedgeBudget());
+        budget.deposit(budgetRatio, maxBurst);
+        meterRegistry.counter("crawler.hedging.requests", "platform", platformCode).increment();
+
+        long p95 = tracker.percentile(quantile, minSamples);
+        if (p95 < 0) {
+            return call.get();
+        }
+        long hedgeDelay = Math.max(minDelay, p95);
+
+        Attempt<T> primary;
+        try {
+            primary = submit(platformCode, call);
+        } catch (RejectedExecutionException e) {
+            return call.get();
+        }
+
+        try {
+            return primary.result.get(hedgeDelay, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // 超过P95仍未返回，继续往下尝试对冲
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        } catch (InterruptedException e) {
+            primary.task.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+
+        if (!budget.tryWithdraw()) {
+            meterRegistry.counter("crawler.hedging.budget.exhausted", "platform", platformCode).increment();
+            return await(primary.result, primary);
+        }
+
+        Attempt<T> hedge;
+        try {
+            hedge = submit(platformCode, call);
+        } catch (RejectedExecutionException e) {
+            return await(primary.result, primary);
+        }
+        meterRegistry.counter("crawler.hedging.hedges", "platform", platformCode).increment();
+        log.debug("平台{}请求超过{}ms未返回，发起对冲请求", platformCode, hedgeDelay);
+
+        // 任一成功即返回，两个都失败时抛出后失败的异常
+        CompletableFuture<T> winner = new CompletableFuture<>();
+        AtomicInteger remaining = new AtomicInteger(2);
+        primary.result.whenComplete((value, error) -> complete(winner, remaining, value, error));
+        hedge.result.whenComplete((value, error) -> {
+            if (complete(winner, remaining, value, error)) {
+                meterRegistry.counter("crawler.hedging.wins", "platform", platformCode).increment();
+            }
+        });
+        try {
+            return await(winner, primary, hedge);
+        } finally {
+            primary.task.cancel(true);
+            hedge.task.cancel(true);
+        }
+    }
+
+    /**
+     * 执行一次访问平台的调用并记录耗时，作为对冲延迟的样本；
+     * 应只包裹连接器调用本身，限流等待和重试退避计入样本会抬高对冲延迟
+     */
+    public <T> T measure(String platformCode, Supplier<T> upstreamCall) {
+        long startTime = System.nanoTime();
+        T value = upstreamCall.get();
+        tracker(platformCode).record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+        return value;
+    }
+
+    private LatencyTracker tracker(String platformCode) {
+        return trackers.computeIfAbsent(platformCode, code -> new LatencyTracker(windowSize));
+    }
+
+    private boolean isEnabled(String platformCode) {
+        Boolean enabled = environment.getProperty(PROPERTY_PREFIX + platformCode + ".enabled", Boolean.class);
+        return enabled != null ? enabled : environment.getProperty(PROPERTY_PREFIX + "enabled", Boolean.class, false);
+    }
+
+    private <T> Attempt<T> submit(String platformCode, Supplier<T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task = platformExecutors.get(platformCode).submit(() -> {
+            try {
+                result.complete(call.get());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return new Attempt<>(result, task);
+    }
+
+    /**
+     * @return 本次调用的结果是否被采用
+     */
+    private static <T> boolean complete(CompletableFuture<T> winner, AtomicInteger remaining, T value, Throwable error) {
+        if (error == null) {
+            return winner.complete(value);
+        }
+        if (remaining.decrementAndGet() == 0) {
+            winner.completeExceptionally(error);
+        }
+        return false;
+    }
+
+    @SafeVarargs
+    private static <T> T await(CompletableFuture<T> future, Attempt<T>... attempts) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        } catch (InterruptedException e) {
+            for (Attempt<T> attempt : attempts) {
+                attempt.task.cancel(true);
+            }
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+    }
+
+    private static RuntimeException unwrap(Throwable error) {
+        if (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        if (error instanceof RuntimeException) {
+            return (RuntimeException) error;
+        }
+        if (error instanceof Error) {
+            throw (Error) error;
+        }
+        return new CompletionException(error);
+    }
+
+    private record Attempt<T>(CompletableFuture<T> result, Future<?> task) {
+    }
+
+    /**
+     * 对冲额度：每个请求存入ratio个额度，每次对冲消耗1个
+     */
+    private static final class HedgeBudget {
+
+        private double balance;
+
+        synchronized void deposit(double ratio, double maxBalance) {
+            balance = Math.min(maxBalance, balance + ratio);
+        }
+
+        synchronized boolean tryWithdraw() {
+            if (balance < 1) {
+                return false;
+            }
+            balance -= 1;
+            return true;
+        }
+    }
+}
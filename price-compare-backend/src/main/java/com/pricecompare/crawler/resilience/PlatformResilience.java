@@ -0,0 +1,158 @@
+package com.pricecompare.crawler.resilience;
+
+import com.pricecompare.entity.PlatformConfig;
+import com.pricecompare.exception.CircuitOpenException;
+import com.pricecompare.exception.PlatformAccessException;
+import com.pricecompare.exception.RateLimitExceededException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * 平台调用容错
+ * 每个平台一个熔断器；调用失败时按PlatformConfig.maxRetries重试，
+ * 重试间隔为带全抖动的指数退避，避免所有请求在同一时刻重试冲击平台。
+ * 
+ * @author AutoValuePilot
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PlatformResilience {
+
+    private static final String PROPERTY_PREFIX = "app.crawler.circuit-breaker.";
+
+    private final Environment environment;
+
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    @Value("${app.crawler.retry.base-delay:100}")
+    private long retryBaseDelay;
+
+    @Value("${app.crawler.retry.max-delay:2000}")
+    private long retryMaxDelay;
+
+    /**
+     * 在熔断与重试保护下调用平台，每次重试都会重新执行call（包括其中的限流）
+     */
+    public <T> T execute(PlatformConfig platformConfig, Supplier<T> call) {
+        String platformCode = platformConfig.getPlatformCode();
+        CircuitBreaker breaker = getBreaker(platformCode);
+        int maxRetries = platformConfig.getMaxRetries() != null ? Math.max(0, platformConfig.getMaxRetries()) : 0;
+
+        for (int attempt = 0; ; attempt++) {
+            if (!breaker.tryAcquirePermission()) {
+                throw new CircuitOpenException(platformCode);
+            }
+            // 许可必须归还：未按成功或失败记录的结束（包括Error）一律按未访问平台处理
+            boolean recorded = false;
+            try {
+                T result = call.get();
+                breaker.onSuccess();
+                recorded = true;
+                return result;
+            } catch (RateLimitExceededException e) {
+                // 本地限流未访问平台，不影响熔断统计，也不重试
+                throw e;
+            } catch (RuntimeException e) {
+                if (isCancellation(e)) {
+                    // 调用方取消或中断，不代表平台故障，不计入熔断统计，也不重试
+                    throw e;
+                }
+                breaker.onFailure();
+                recorded = true;
+                if (attempt >= maxRetries || !isRetryable(e) || Thread.currentThread().isInterrupted()) {
+                    throw e;
+                }
+                long delay = backoffDelay(attempt);
+                log.warn("平台调用失败，{}ms后第{}次重试: platform={}, error={}",
+                        delay, attempt + 1, platformCode, e.getMessage());
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            } finally {
+                if (!recorded) {
+                    breaker.onIgnored();
+                }
+            }
+        }
+    }
+
+    /**
+     * 平台当前是否可调用（熔断器未处于熔断期）
+     */
+    public boolean isAvailable(String platformCode) {
+        CircuitBreaker breaker = breakers.get(platformCode);
+        return breaker == null || breaker.getState() != CircuitBreaker.State.OPEN;
+    }
+
+    /**
+     * 各平台熔断器状态
+     */
+    public Map<String, CircuitBreaker.State> getStates() {
+        Map<String, CircuitBreaker.State> states = new TreeMap<>();
+        breakers.forEach((code, breaker) -> states.put(code, breaker.getState()));
+        return states;
+    }
+
+    /**
+     * 全抖动指数退避：在[0, min(maxDelay, baseDelay * 2^attempt)]内均匀取值
+     */
+    long backoffDelay(int attempt) {
+        long ceiling = retryBaseDelay << Math.min(attempt, 20);
+        ceiling = Math.min(retryMaxDelay, ceiling);
+        return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * 调用是否因取消或线程中断而结束
+     */
+    static boolean isCancellation(Throwable e) {
+        if (Thread.currentThread().isInterrupted()) {
+            return true;
+        }
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof CancellationException || cause instanceof InterruptedException
+                    || cause instanceof InterruptedIOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isRetryable(RuntimeException e) {
+        if (e instanceof PlatformAccessException) {
+            return ((PlatformAccessException) e).isRetryable();
+        }
+        // 解析错误等非平台异常属于确定性失败，重试无意义
+        return false;
+    }
+
+    private CircuitBreaker getBreaker(String platformCode) {
+        return breakers.computeIfAbsent(platformCode, code -> new CircuitBreaker(
+                property(code, "window-size", Integer.class, 20),
+                property(code, "minimum-calls", Integer.class, 10),
+                property(code, "failure-rate-threshold", Double.class, 0.5),
+                property(code, "open-duration", Long.class, 30000L),
+                property(code, "half-open-probes", Integer.class, 1),
+                System::currentTimeMillis));
+    }
+
+    private <V> V property(String platformCode, String name, Class<V> type, V defaultValue) {
+        V value = environment.getProperty(PROPERTY_PREFIX + platformCode + "." + name, type);
+        return value != null ? value : environment.getProperty(PROPERTY_PREFIX + name, type, defaultValue);
+    }
+}
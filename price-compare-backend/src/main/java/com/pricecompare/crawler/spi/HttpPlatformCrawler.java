@@ -0,0 +1,124 @@
+package com.pricecompare.crawler.spi;
+
+import com.pricecompare.entity.PlatformConfig;
+import com.pricecompare.entity.ProductPrice;
+import com.pricecompare.exception.PlatformAccessException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * HTTP平台连接器
+ * 按 PlatformConfig.apiBaseUrl + searchApiPath/detailApiPath 调用平台接口，
+ * 每个平台复用一个HttpClient（连接池 + keep-alive），响应体以流的方式直接解析为ProductPrice
+ * 
+ * @author AutoValuePilot
+ */
+@Slf4j
+@Component
+public class HttpPlatformCrawler implements PlatformCrawler {
+
+    public static final String NAME = "http";
+
+    private final ConcurrentMap<String, HttpClient> clients = new ConcurrentHashMap<>();
+
+    @Value("${app.crawler.user-agent:Mozilla/5.0}")
+    private String userAgent;
+
+    @Value("${app.crawler.timeout:10000}")
+    private long defaultTimeout;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean supports(PlatformConfig platformConfig) {
+        return StringUtils.hasText(platformConfig.getApiBaseUrl());
+    }
+
+    @Override
+    public List<ProductPrice> search(PlatformConfig platformConfig, String keyword) {
+        String url = platformConfig.getApiBaseUrl() + nullToEmpty(platformConfig.getSearchApiPath())
+                + "?keyword=" + URLEncoder.encode(keyword, StandardCharsets.UTF_8);
+        return execute(platformConfig, url, input -> ProductPriceJsonReader.readList(input, platformConfig.getPlatformCode()));
+    }
+
+    @Override
+    public ProductPrice getDetail(PlatformConfig platformConfig, String platformProductId) {
+        String url = platformConfig.getApiBaseUrl() + nullToEmpty(platformConfig.getDetailApiPath())
+                + "?id=" + URLEncoder.encode(platformProductId, StandardCharsets.UTF_8);
+        ProductPrice detail = execute(platformConfig, url, input -> ProductPriceJsonReader.readOne(input, platformConfig.getPlatformCode()));
+        if (detail != null && detail.getPlatformProductId() == null) {
+            detail.setPlatformProductId(platformProductId);
+        }
+        return detail;
+    }
+
+    private <T> T execute(PlatformConfig platformConfig, String url, ResponseReader<T> reader) {
+        String platformCode = platformConfig.getPlatformCode();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(timeoutOf(platformConfig))
+                .header("User-Agent", userAgent)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+        try {
+            HttpResponse<InputStream> response = clientOf(platformConfig).send(request, HttpResponse.BodyHandlers.ofInputStream());
+            try (InputStream body = response.body()) {
+                if (response.statusCode() == 404) {
+                    return null;
+                }
+                if (response.statusCode() / 100 != 2) {
+                    throw new PlatformAccessException(platformCode, response.statusCode(),
+                            "平台接口返回异常状态：" + platformCode + " " + response.statusCode());
+                }
+                return reader.read(body);
+            }
+        } catch (IOException e) {
+            throw new PlatformAccessException(platformCode, "平台接口调用失败：" + platformCode + " " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PlatformAccessException(platformCode, "平台接口调用被中断：" + platformCode, e);
+        }
+    }
+
+    private HttpClient clientOf(PlatformConfig platformConfig) {
+        return clients.computeIfAbsent(platformConfig.getPlatformCode(), platformCode -> {
+            log.info("创建平台HTTP客户端：{}，地址：{}", platformCode, platformConfig.getApiBaseUrl());
+            return HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(timeoutOf(platformConfig))
+                    .followRedirects(HttpClient.Redirect.NORMAL)
+                    .build();
+        });
+    }
+
+    private Duration timeoutOf(PlatformConfig platformConfig) {
+        return Duration.ofMillis(platformConfig.getTimeout() != null ? platformConfig.getTimeout() : defaultTimeout);
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    @FunctionalInterface
+    private interface ResponseReader<T> {
+        T read(InputStream input) throws IOException;
+    }
+}
@@ -0,0 +1,217 @@
+package com.pricecompare.crawler.spi;
+
+import com.pricecompare.entity.PlatformConfig;
+import com.pricecompare.entity.ProductPrice;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 模拟平台连接器
+ * 不访问网络，按平台生成固定规则的模拟数据，可作为本地开发和离线压测的替身
+ * 
+ * @author AutoValuePilot
+ */
+@Slf4j
+@Component
+public class MockPlatformCrawler implements PlatformCrawler {
+
+    public static final String NAME = "mock";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean supports(PlatformConfig platformConfig) {
+        return true;
+    }
+
+    @Override
+    public List<ProductPrice> search(PlatformConfig platformConfig, String keyword) {
+        String platformCode = platformConfig.getPlatformCode();
+        List<ProductPrice> results = new ArrayList<>();
+        
+        // 模拟不同平台的数据
+        switch (platformCode) {
+            case "taobao":
+                results.addAll(mockTaobaoData(keyword));
+                break;
+            case "jd":
+                results.addAll(mockJdData(keyword));
+                break;
+            case "pdd":
+                results.addAll(mockPddData(keyword));
+                break;
+            case "suning":
+                results.addAll(mockSuningData(keyword));
+                break;
+            case "vip":
+                results.addAll(mockVipData(keyword));
+                break;
+            default:
+                log.warn("不支持的平台：{}", platformCode);
+        }
+        
+        return results;
+    }
+
+    @Override
+    public ProductPrice getDetail(PlatformConfig platformConfig, String platformProductId) {
+        String platformCode = platformConfig.getPlatformCode();
+        // 模拟商品详情数据
+        ProductPrice detail = new ProductPrice();
+        detail.setPlatformProductId(platformProductId);
+        detail.setPlatformCode(platformCode);
+        detail.setCrawlTime(LocalDateTime.now());
+        detail.setCreateTime(LocalDateTime.now());
+        detail.setUpdateTime(LocalDateTime.now());
+        detail.setProductUrl("https://" + platformCode + ".com/product/" + platformProductId);
+        
+        // 根据平台设置不同的价格和详情
+        switch (platformCode) {
+            case "taobao":
+                detail.setPrice(new BigDecimal("299.00"));
+                detail.setOriginalPrice(new BigDecimal("399.00"));
+                detail.setDiscount("7.5折");
+                detail.setSales(1500);
+                detail.setRating(new BigDecimal("4.8"));
+                detail.setShopName("天猫旗舰店");
+                detail.setShopRating(new BigDecimal("4.9"));
+                detail.setDelivery("快递 免运费");
+                break;
+            case "jd":
+                detail.setPrice(new BigDecimal("289.00"));
+                detail.setOriginalPrice(new BigDecimal("389.00"));
+                detail.setDiscount("7.4折");
+                detail.setSales(2000);
+                detail.setRating(new BigDecimal("4.9"));
+                detail.setShopName("京东自营");
+                detail.setShopRating(new BigDecimal("4.8"));
+                detail.setDelivery("京东物流 次日达");
+                break;
+            case "pdd":
+                detail.setPrice(new BigDecimal("259.00"));
+                detail.setOriginalPrice(new BigDecimal("359.00"));
+                detail.setDiscount("7.2折");
+                detail.setSales(5000);
+                detail.setRating(new BigDecimal("4.7"));
+                detail.setShopName("拼多多官方店");
+                detail.setShopRating(new BigDecimal("4.6"));
+                detail.setDelivery("快递 免运费");
+                break;
+            case "suning":
+                detail.setPrice(new BigDecimal("299.00"));
+                detail.setSales(1000);
+                detail.setRating(new BigDecimal("4.5"));
+                detail.setShopName("苏宁易购官方店");
+                detail.setDelivery("快递");
+                break;
+            case "vip":
+                detail.setPrice(new BigDecimal("299.00"));
+                detail.setSales(1000);
+                detail.setRating(new BigDecimal("4.5"));
+                detail.setShopName("唯品会官方店");
+                detail.setDelivery("快递");
+                break;
+            default:
+                detail.setPrice(new BigDecimal("299.00"));
+                detail.setSales(1000);
+                detail.setRating(new BigDecimal("4.5"));
+                detail.setShopName("官方旗舰店");
+                detail.setDelivery("快递");
+        }
+        
+        return detail;
+    }
+
+    // 模拟各平台数据的方法
+    private List<ProductPrice> mockTaobaoData(String keyword) {
+        List<ProductPrice> results = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            ProductPrice item = createMockProduct(keyword, "taobao", i);
+            item.setPrice(new BigDecimal(299 + i * 10));
+            item.setSales(1000 + i * 200);
+            results.add(item);
+        }
+        return results;
+    }
+
+    private List<ProductPrice> mockJdData(String keyword) {
+        List<ProductPrice> results = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            ProductPrice item = createMockProduct(keyword, "jd", i);
+            item.setPrice(new BigDecimal(289 + i * 15));
+            item.setSales(1500 + i * 300);
+            results.add(item);
+        }
+        return results;
+    }
+
+    private List<ProductPrice> mockPddData(String keyword) {
+        List<ProductPrice> results = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            ProductPrice item = createMockProduct(keyword, "pdd", i);
+            item.setPrice(new BigDecimal(259 + i * 8));
+            item.setSales(2000 + i * 500);
+            results.add(item);
+        }
+        return results;
+    }
+
+    private List<ProductPrice> mockSuningData(String keyword) {
+        List<ProductPrice> results = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            ProductPrice item = createMockProduct(keyword, "suning", i);
+            item.setPrice(new BigDecimal(279 + i * 12));
+            item.setSales(800 + i * 150);
+            results.add(item);
+        }
+        return results;
+    }
+
+    private List<ProductPrice> mockVipData(String keyword) {
+        List<ProductPrice> results = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            ProductPrice item = createMockProduct(keyword, "vip", i);
+            item.setPrice(new BigDecimal(269 + i * 20));
+            item.setSales(600 + i * 100);
+            results.add(item);
+        }
+        return results;
+    }
+
+    private ProductPrice createMockProduct(String keyword, String platform, int index) {
+        ProductPrice item = new ProductPrice();
+        item.setPlatformProductId(platform + "_" + keyword.hashCode() + "_" + index);
+        item.setPlatformCode(platform);
+        item.setCrawlTime(LocalDateTime.now());
+        item.setCreateTime(LocalDateTime.now());
+        item.setUpdateTime(LocalDateTime.now());
+        item.setRating(new BigDecimal("4." + (5 + index % 5)));
+        item.setShopName(getMockShopName(platform, index));
+        item.setShopRating(new BigDecimal("4." + (6 + index % 4)));
+        item.setDelivery(getMockDelivery(platform));
+        item.setProductUrl("https://" + platform + ".com/product/" + keyword.hashCode() + "_" + index);
+        return item;
+    }
+
+    private String getMockShopName(String platform, int index) {
+        String[] shops = {"官方旗舰店", "品牌专卖店", "优质商家", "金牌卖家", "认证店铺"};
+        return platform.toUpperCase() + " " + shops[index % shops.length];
+    }
+
+    private String getMockDelivery(String platform) {
+        switch (platform) {
+            case "jd": return "京东物流 次日达";
+            case "taobao": return "快递 免运费";
+            case "pdd": return "快递 包邮";
+            default: return "快递";
+        }
+    }
+}
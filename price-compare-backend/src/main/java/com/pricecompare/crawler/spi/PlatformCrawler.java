@@ -0,0 +1,43 @@
+package com.pricecompare.crawler.spi;
+
+import com.pricecompare.entity.PlatformConfig;
+import com.pricecompare.entity.ProductPrice;
+
+import java.util.List;
+
+/**
+ * 平台连接器
+ * 实现类注册为Spring Bean后由PlatformCrawlerRegistry按名称发现，
+ * 平台使用哪个连接器由 app.crawler.connector / app.crawler.connectors.{platformCode} 决定
+ * 
+ * @author AutoValuePilot
+ */
+public interface PlatformCrawler {
+
+    /**
+     * 连接器名称
+     */
+    String getName();
+
+    /**
+     * 是否支持该平台
+     * @param platformConfig 平台配置
+     */
+    boolean supports(PlatformConfig platformConfig);
+
+    /**
+     * 搜索商品
+     * @param platformConfig 平台配置
+     * @param keyword 搜索关键词
+     * @return 商品价格列表
+     */
+    List<ProductPrice> search(PlatformConfig platformConfig, String keyword);
+
+    /**
+     * 获取商品详情
+     * @param platformConfig 平台配置
+     * @param platformProductId 平台商品ID
+     * @return 商品价格信息，商品不存在时返回null
+     */
+    ProductPrice getDetail(PlatformConfig platformConfig, String platformProductId);
+}
@@ -0,0 +1,48 @@
+package com.pricecompare.crawler.spi;
+
+import com.pricecompare.entity.PlatformConfig;
+import com.pricecompare.exception.PlatformAccessException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 平台连接器注册表
+ * 
+ * @author AutoValuePilot
+ */
+@Slf4j
+@Component
+public class PlatformCrawlerRegistry {
+
+    private static final String CONNECTOR_PROPERTY_PREFIX = "app.crawler.connectors.";
+
+    private final Map<String, PlatformCrawler> crawlers;
+    private final Environment environment;
+
+    public PlatformCrawlerRegistry(List<PlatformCrawler> crawlers, Environment environment) {
+        this.crawlers = crawlers.stream()
+                .collect(Collectors.toUnmodifiableMap(PlatformCrawler::getName, Function.identity()));
+        this.environment = environment;
+        log.info("已注册平台连接器：{}", this.crawlers.keySet());
+    }
+
+    /**
+     * 获取平台使用的连接器
+     */
+    public PlatformCrawler resolve(PlatformConfig platformConfig) {
+        String platformCode = platformConfig.getPlatformCode();
+        String name = environment.getProperty(CONNECTOR_PROPERTY_PREFIX + platformCode,
+                environment.getProperty("app.crawler.connector", MockPlatformCrawler.NAME));
+        PlatformCrawler crawler = crawlers.get(name);
+        if (crawler == null || !crawler.supports(platformConfig)) {
+            throw new PlatformAccessException(platformCode, 0, "平台连接器不可用：" + name);
+        }
+        return crawler;
+    }
+}
@@ -0,0 +1,163 @@
+package com.pricecompare.crawler.spi;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.pricecompare.entity.ProductPrice;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 平台响应流式解析器
+ * 直接在token流上把商品字段写入ProductPrice，不构建中间JSON树。
+ * 支持顶层数组，或包裹在 items/products/data/result/list 字段中的数组/对象，未知字段整体跳过。
+ * 
+ * @author AutoValuePilot
+ */
+public final class ProductPriceJsonReader {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private static final Set<String> CONTAINER_FIELDS = Set.of("items", "products", "data", "result", "list", "item");
+
+    private ProductPriceJsonReader() {
+    }
+
+    /**
+     * 解析商品列表
+     */
+    public static List<ProductPrice> readList(InputStream input, String platformCode) throws IOException {
+        List<ProductPrice> results = new ArrayList<>();
+        try (JsonParser parser = JSON_FACTORY.createParser(input)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_ARRAY) {
+                readArray(parser, platformCode, results);
+            } else if (token == JsonToken.START_OBJECT) {
+                findArray(parser, platformCode, results);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * 解析单个商品，未找到商品字段时返回null
+     */
+    public static ProductPrice readOne(InputStream input, String platformCode) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(input)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            return readObject(parser, platformCode);
+        }
+    }
+
+    /**
+     * 在对象中查找商品数组，parser位于START_OBJECT
+     */
+    private static void findArray(JsonParser parser, String platformCode, List<ProductPrice> results) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (CONTAINER_FIELDS.contains(field) && value == JsonToken.START_ARRAY) {
+                readArray(parser, platformCode, results);
+            } else if (CONTAINER_FIELDS.contains(field) && value == JsonToken.START_OBJECT) {
+                findArray(parser, platformCode, results);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * 读取商品数组，parser位于START_ARRAY
+     */
+    private static void readArray(JsonParser parser, String platformCode, List<ProductPrice> results) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            if (token == JsonToken.START_OBJECT) {
+                ProductPrice item = readObject(parser, platformCode);
+                if (item != null) {
+                    results.add(item);
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * 读取单个商品对象，parser位于START_OBJECT；包装对象中的商品会被展开
+     */
+    private static ProductPrice readObject(JsonParser parser, String platformCode) throws IOException {
+        ProductPrice item = newItem(platformCode);
+        ProductPrice nested = null;
+        boolean matched = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.START_OBJECT && CONTAINER_FIELDS.contains(field)) {
+                ProductPrice candidate = readObject(parser, platformCode);
+                if (nested == null) {
+                    nested = candidate;
+                }
+            } else if (value == JsonToken.START_OBJECT || value == JsonToken.START_ARRAY) {
+                parser.skipChildren();
+            } else if (value != JsonToken.VALUE_NULL) {
+                matched |= readField(parser, field, item);
+            }
+        }
+        return matched ? item : nested;
+    }
+
+    private static boolean readField(JsonParser parser, String field, ProductPrice item) throws IOException {
+        switch (field) {
+            case "id", "itemId", "item_id", "skuId", "sku_id", "platformProductId", "platform_product_id" ->
+                    item.setPlatformProductId(parser.getText());
+            case "price", "salePrice", "sale_price" -> item.setPrice(decimal(parser));
+            case "originalPrice", "original_price", "marketPrice", "market_price" -> item.setOriginalPrice(decimal(parser));
+            case "discount" -> item.setDiscount(parser.getText());
+            case "sales", "sold", "volume" -> item.setSales(integer(parser));
+            case "rating", "score" -> item.setRating(decimal(parser));
+            case "url", "productUrl", "product_url", "detailUrl", "detail_url" -> item.setProductUrl(parser.getText());
+            case "shopName", "shop_name" -> item.setShopName(parser.getText());
+            case "shopRating", "shop_rating" -> item.setShopRating(decimal(parser));
+            case "delivery" -> item.setDelivery(parser.getText());
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static ProductPrice newItem(String platformCode) {
+        LocalDateTime now = LocalDateTime.now();
+        ProductPrice item = new ProductPrice();
+        item.setPlatformCode(platformCode);
+        item.setCrawlTime(now);
+        item.setCreateTime(now);
+        item.setUpdateTime(now);
+        return item;
+    }
+
+    private static BigDecimal decimal(JsonParser parser) throws IOException {
+        if (parser.currentToken().isNumeric()) {
+            return parser.getDecimalValue();
+        }
+        String text = parser.getText().trim();
+        return text.isEmpty() ? null : new BigDecimal(text);
+    }
+
+    private static Integer integer(JsonParser parser) throws IOException {
+        if (parser.currentToken().isNumeric()) {
+            return parser.getValueAsInt();
+        }
+        String text = parser.getText().trim();
+        return text.isEmpty() ? null : Integer.valueOf(text);
+    }
+}
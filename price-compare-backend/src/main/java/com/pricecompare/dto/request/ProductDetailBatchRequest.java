@@ -0,0 +1,28 @@
+package com.pricecompare.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * 批量获取商品详情请求DTO
+ * 
+ * @author AutoValuePilot
+ */
+@Data
+@Schema(description = "批量获取商品详情请求")
+public class ProductDetailBatchRequest {
+
+    @NotBlank(message = "平台代码不能为空")
+    @Schema(description = "平台代码", example = "jd")
+    private String platformCode;
+
+    @NotEmpty(message = "商品ID列表不能为空")
+    @Size(max = 200, message = "单次最多查询200个商品")
+    @Schema(description = "平台商品ID列表")
+    private List<String> platformProductIds;
+}
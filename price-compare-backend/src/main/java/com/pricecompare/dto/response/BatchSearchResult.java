@@ -0,0 +1,56 @@
+package com.pricecompare.dto.response;
+
+import com.pricecompare.entity.ProductPrice;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 多平台批量搜索结果
+ * 
+ * @author AutoValuePilot
+ */
+@Data
+@Schema(description = "多平台批量搜索结果")
+public class BatchSearchResult {
+
+    @Schema(description = "搜索关键词")
+    private String keyword;
+
+    @Schema(description = "各平台搜索结果，按完成顺序排列")
+    private List<PlatformSearchResult> platforms;
+
+    @Schema(description = "商品总数")
+    private Integer totalCount;
+
+    @Schema(description = "是否存在未成功返回的平台")
+    private Boolean partial;
+
+    @Schema(description = "总耗时（毫秒）")
+    private Long elapsedMillis;
+
+    /**
+     * 合并所有平台的商品价格
+     */
+    public List<ProductPrice> mergeProducts() {
+        List<ProductPrice> products = new ArrayList<>(totalCount == null ? 0 : totalCount);
+        platforms.forEach(platform -> products.addAll(platform.getProducts()));
+        return products;
+    }
+
+    /**
+     * 不含商品明细的汇总结果，用于流式搜索的结束事件
+     */
+    public BatchSearchResult toSummary() {
+        BatchSearchResult summary = new BatchSearchResult();
+        summary.setKeyword(keyword);
+        summary.setPlatforms(platforms.stream().map(PlatformSearchResult::withoutProducts).collect(Collectors.toList()));
+        summary.setTotalCount(totalCount);
+        summary.setPartial(partial);
+        summary.setElapsedMillis(elapsedMillis);
+        return summary;
+    }
+}
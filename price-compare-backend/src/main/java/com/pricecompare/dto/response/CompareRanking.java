@@ -0,0 +1,75 @@
+package com.pricecompare.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 比价结果排名与统计
+ * 
+ * @author AutoValuePilot
+ */
+@Data
+@Schema(description = "比价结果排名与统计")
+public class CompareRanking {
+
+    @Schema(description = "最优选择：价格最低，同价时评分高、销量高者优先")
+    private CompareResultItem bestChoice;
+
+    @Schema(description = "价格最低的前N个商品，按价格升序")
+    private List<CompareResultItem> cheapest;
+
+    @Schema(description = "性价比（评分/价格）最高的前N个商品，按性价比降序")
+    private List<CompareResultItem> bestValue;
+
+    @Schema(description = "各平台的最低价商品，按平台代码排序")
+    private List<CompareResultItem> platformLowest;
+
+    @Schema(description = "价格分布")
+    private Distribution distribution;
+
+    @Schema(description = "图表数据：各平台的最低价、平均价和商品数")
+    private Chart chart;
+
+    @Data
+    @Schema(description = "价格分布")
+    public static class Distribution {
+
+        private BigDecimal min;
+
+        private BigDecimal max;
+
+        private BigDecimal avg;
+
+        private BigDecimal median;
+
+        @Schema(description = "等宽直方图")
+        private List<Bucket> buckets;
+    }
+
+    @Data
+    @Schema(description = "直方图区间")
+    public static class Bucket {
+
+        private BigDecimal from;
+
+        private BigDecimal to;
+
+        private Integer count;
+    }
+
+    @Data
+    @Schema(description = "图表数据")
+    public static class Chart {
+
+        private List<String> platforms;
+
+        private List<BigDecimal> minPrices;
+
+        private List<BigDecimal> avgPrices;
+
+        private List<Integer> counts;
+    }
+}
@@ -0,0 +1,77 @@
+package com.pricecompare.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.pricecompare.entity.ProductPrice;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 比价结果条目
+ * 
+ * @author AutoValuePilot
+ */
+@Data
+@Schema(description = "比价结果条目")
+public class CompareResultItem {
+
+    @Schema(description = "价格记录ID")
+    private Long id;
+
+    @Schema(description = "平台商品ID")
+    private String platformProductId;
+
+    @Schema(description = "平台代码")
+    private String platform;
+
+    @Schema(description = "价格")
+    private BigDecimal price;
+
+    @Schema(description = "原价")
+    private BigDecimal originalPrice;
+
+    @Schema(description = "折扣信息")
+    private String discount;
+
+    @Schema(description = "销量")
+    private Integer sales;
+
+    @Schema(description = "评分")
+    private BigDecimal rating;
+
+    @Schema(description = "店铺名称")
+    private String shopName;
+
+    @Schema(description = "店铺评分")
+    private BigDecimal shopRating;
+
+    @Schema(description = "配送信息")
+    private String delivery;
+
+    @JsonProperty("isLowest")
+    @Schema(description = "是否为任务结果中的最低价")
+    private boolean lowest;
+
+    @Schema(description = "抓取时间")
+    private LocalDateTime crawlTime;
+
+    public static CompareResultItem of(ProductPrice price, boolean lowest) {
+        CompareResultItem item = new CompareResultItem();
+        item.setId(price.getId());
+        item.setPlatformProductId(price.getPlatformProductId());
+        item.setPlatform(price.getPlatformCode());
+        item.setPrice(price.getPrice());
+        item.setOriginalPrice(price.getOriginalPrice());
+        item.setDiscount(price.getDiscount());
+        item.setSales(price.getSales());
+        item.setRating(price.getRating());
+        item.setShopName(price.getShopName());
+        item.setShopRating(price.getShopRating());
+        item.setDelivery(price.getDelivery());
+        item.setLowest(lowest);
+        item.setCrawlTime(price.getCrawlTime());
+        return item;
+    }
+}
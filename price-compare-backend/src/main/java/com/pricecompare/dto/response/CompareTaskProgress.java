@@ -0,0 +1,54 @@
+package com.pricecompare.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.pricecompare.entity.CompareTask;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+/**
+ * 比价任务进度
+ * 
+ * @author AutoValuePilot
+ */
+@Data
+@Schema(description = "比价任务进度")
+public class CompareTaskProgress {
+
+    @Schema(description = "比价任务ID")
+    private Long taskId;
+
+    @Schema(description = "任务状态：0-待处理，1-处理中，2-已完成，3-失败，4-超时，5-已取消")
+    private Integer status;
+
+    @Schema(description = "任务进度（0-100）")
+    private Integer progress;
+
+    @Schema(description = "已完成的平台数")
+    private Integer completedPlatforms;
+
+    @Schema(description = "失败的平台数")
+    private Integer failedPlatforms;
+
+    @Schema(description = "平台总数")
+    private Integer totalPlatforms;
+
+    @Schema(description = "已找到的结果数")
+    private Integer resultCount;
+
+    /**
+     * 是否已结束（完成、失败、超时或取消）
+     */
+    @JsonIgnore
+    public boolean isFinished() {
+        return status != null && status >= 2;
+    }
+
+    public static CompareTaskProgress of(CompareTask task) {
+        CompareTaskProgress progress = new CompareTaskProgress();
+        progress.setTaskId(task.getId());
+        progress.setStatus(task.getStatus());
+        progress.setProgress(task.getProgress());
+        progress.setResultCount(task.getResultCount());
+        return progress;
+    }
+}
@@ -0,0 +1,33 @@
+package com.pricecompare.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 键集分页结果
+ * 
+ * @author AutoValuePilot
+ */
+@Data
+@Schema(description = "键集分页结果")
+public class CursorPage<T> {
+
+    @Schema(description = "本页数据")
+    private List<T> items;
+
+    @Schema(description = "下一页游标，没有更多数据时为空")
+    private String nextCursor;
+
+    @Schema(description = "是否还有更多数据")
+    private Boolean hasMore;
+
+    public static <T> CursorPage<T> of(List<T> items, String nextCursor) {
+        CursorPage<T> page = new CursorPage<>();
+        page.setItems(items);
+        page.setNextCursor(nextCursor);
+        page.setHasMore(nextCursor != null);
+        return page;
+    }
+}
@@ -0,0 +1,26 @@
+package com.pricecompare.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+/**
+ * 平台自适应并发状态
+ * 
+ * @author AutoValuePilot
+ */
+@Data
+@Schema(description = "平台自适应并发状态")
+public class PlatformLimitStatus {
+
+    @Schema(description = "平台代码", example = "jd")
+    private String platformCode;
+
+    @Schema(description = "当前并发上限")
+    private Integer limit;
+
+    @Schema(description = "当前并发请求数")
+    private Integer inFlight;
+
+    @Schema(description = "平台延迟长期均值（毫秒）")
+    private Long rttMillis;
+}
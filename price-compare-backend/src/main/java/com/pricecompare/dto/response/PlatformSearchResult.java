@@ -0,0 +1,87 @@
+package com.pricecompare.dto.response;
+
+import com.pricecompare.entity.ProductPrice;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 单平台搜索结果
+ * 
+ * @author AutoValuePilot
+ */
+@Data
+@Schema(description = "单平台搜索结果")
+public class PlatformSearchResult {
+
+    /**
+     * 平台搜索状态
+     */
+    public enum Status {
+        /** 成功 */
+        SUCCESS,
+        /** 超过平台截止时间 */
+        TIMEOUT,
+        /** 超出平台请求配额 */
+        RATE_LIMITED,
+        /** 调用失败 */
+        FAILED,
+        /** 平台熔断中，未调用 */
+        CIRCUIT_OPEN,
+        /** 平台线程池已满，未执行 */
+        REJECTED,
+        /** 平台未配置或已禁用 */
+        DISABLED
+    }
+
+    @Schema(description = "平台代码", example = "jd")
+    private String platformCode;
+
+    @Schema(description = "搜索状态")
+    private Status status;
+
+    @Schema(description = "商品价格列表")
+    private List<ProductPrice> products;
+
+    @Schema(description = "结果数量")
+    private Integer resultCount;
+
+    @Schema(description = "耗时（毫秒）")
+    private Long elapsedMillis;
+
+    @Schema(description = "失败原因")
+    private String message;
+
+    public static PlatformSearchResult success(String platformCode, List<ProductPrice> products, long elapsedMillis) {
+        PlatformSearchResult result = of(platformCode, Status.SUCCESS, elapsedMillis, null);
+        result.setProducts(products);
+        result.setResultCount(products.size());
+        return result;
+    }
+
+    public static PlatformSearchResult failure(String platformCode, Status status, long elapsedMillis, String message) {
+        return of(platformCode, status, elapsedMillis, message);
+    }
+
+    /**
+     * 去掉商品明细的副本
+     */
+    public PlatformSearchResult withoutProducts() {
+        PlatformSearchResult copy = of(platformCode, status, elapsedMillis, message);
+        copy.setResultCount(resultCount);
+        return copy;
+    }
+
+    private static PlatformSearchResult of(String platformCode, Status status, long elapsedMillis, String message) {
+        PlatformSearchResult result = new PlatformSearchResult();
+        result.setPlatformCode(platformCode);
+        result.setStatus(status);
+        result.setProducts(Collections.emptyList());
+        result.setResultCount(0);
+        result.setElapsedMillis(elapsedMillis);
+        result.setMessage(message);
+        return result;
+    }
+}
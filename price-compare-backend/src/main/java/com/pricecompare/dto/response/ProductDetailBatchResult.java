@@ -0,0 +1,34 @@
+package com.pricecompare.dto.response;
+
+import com.pricecompare.entity.ProductPrice;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 批量获取商品详情结果
+ * 
+ * @author AutoValuePilot
+ */
+@Data
+@Schema(description = "批量获取商品详情结果")
+public class ProductDetailBatchResult {
+
+    @Schema(description = "平台商品ID到商品价格信息的映射，按请求顺序排列")
+    private Map<String, ProductPrice> details = new LinkedHashMap<>();
+
+    @Schema(description = "平台繁忙或截止前未能开始爬取的商品ID，可稍后重试")
+    private List<String> rejected = new ArrayList<>();
+
+    @Schema(description = "爬取失败或超时的商品ID")
+    private List<String> failed = new ArrayList<>();
+
+    @Schema(description = "是否存在未成功获取的商品")
+    public Boolean getPartial() {
+        return !rejected.isEmpty() || !failed.isEmpty();
+    }
+}
@@ -0,0 +1,41 @@
+package com.pricecompare.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * 相似商品推荐
+ * 
+ * @author AutoValuePilot
+ */
+@Data
+@Schema(description = "相似商品推荐")
+public class SimilarProduct {
+
+    public static final String TIER_UPGRADE = "upgrade";
+    public static final String TIER_ECONOMY = "economy";
+    public static final String TIER_SIMILAR = "similar";
+
+    @Schema(description = "商品ID")
+    private Long productId;
+
+    @Schema(description = "商品标题")
+    private String title;
+
+    @Schema(description = "品牌")
+    private String brand;
+
+    @Schema(description = "平台类型")
+    private String platform;
+
+    @Schema(description = "价格")
+    private BigDecimal price;
+
+    @Schema(description = "相似度（0-1）")
+    private Float score;
+
+    @Schema(description = "推荐类型：upgrade-升级版，economy-经济版，similar-同档次", example = "upgrade")
+    private String tier;
+}
@@ -1,6 +1,7 @@
 package com.pricecompare.entity;
 
 import com.baomidou.mybatisplus.annotation.*;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 
@@ -34,7 +35,7 @@ public class CompareTask {
     /** 商品名称 */
     private String productName;
     
-    /** 任务状态：0-待处理，1-处理中，2-已完成，3-失败 */
+    /** 任务状态：0-待处理，1-处理中，2-已完成，3-失败，4-超时，5-已取消 */
     private Integer status;
     
     /** 任务进度（0-100） */
@@ -46,7 +47,9 @@ public class CompareTask {
     /** 错误信息 */
     private String errorMessage;
     
-    /** 比价结果（JSON格式） */
+    /** 比价结果（gzip压缩后Base64编码的JSON），体积较大，默认不随实体查询和输出 */
+    @JsonIgnore
+    @TableField(select = false)
     private String compareResult;
     
     /** 相似商品推荐（JSON格式） */
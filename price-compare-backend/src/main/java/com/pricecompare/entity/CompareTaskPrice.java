@@ -0,0 +1,35 @@
+package com.pricecompare.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 比价任务结果实体类
+ * 
+ * @author AutoValuePilot
+ */
+@Data
+@EqualsAndHashCode(callSuper = false)
+@TableName("compare_task_price")
+public class CompareTaskPrice {
+    
+    @TableId(type = IdType.AUTO)
+    private Long id;
+    
+    /** 比价任务ID */
+    private Long taskId;
+    
+    /** 商品价格ID */
+    private Long priceId;
+    
+    /** 商品价格（冗余，用于分页排序） */
+    private BigDecimal price;
+    
+    /** 创建时间 */
+    @TableField(fill = FieldFill.INSERT)
+    private LocalDateTime createTime;
+}
@@ -43,7 +43,7 @@ public class PlatformConfig {
     /** 是否启用：0-禁用，1-启用 */
     private Integer enabled;
     
-    /** 请求频率限制（毫秒） */
+    /** 请求频率限制（次/秒），为空或0时不限流 */
     private Integer rateLimit;
     
     /** 创建时间 */
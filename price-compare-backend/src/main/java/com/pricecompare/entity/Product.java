@@ -62,6 +62,12 @@ public class Product {
     /** 商品特征（用于相似度匹配） */
     private String features;
     
+    /** 商品簇ID：同一商品在各平台的记录归为一簇，取簇内最小商品ID */
+    private Long clusterId;
+    
+    /** 匹配键：归一化的品牌|型号 */
+    private String matchKey;
+    
     /** 商品分类 */
     private String category;
     
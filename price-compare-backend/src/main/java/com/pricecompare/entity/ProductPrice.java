@@ -62,6 +62,9 @@ public class ProductPrice {
     /** 抓取时间 */
     private LocalDateTime crawlTime;
     
+    /** 最近观测时间，价格未变化的观测只更新此时间 */
+    private LocalDateTime lastSeenTime;
+    
     /** 创建时间 */
     @TableField(fill = FieldFill.INSERT)
     private LocalDateTime createTime;
@@ -0,0 +1,18 @@
+package com.pricecompare.exception;
+
+/**
+ * 平台熔断异常，熔断期间的调用直接失败，不会访问平台
+ * 
+ * @author AutoValuePilot
+ */
+public class CircuitOpenException extends PlatformAccessException {
+
+    public CircuitOpenException(String platformCode) {
+        super(503, platformCode, 0, "平台暂不可用（熔断中）：" + platformCode);
+    }
+
+    @Override
+    public boolean isRetryable() {
+        return false;
+    }
+}
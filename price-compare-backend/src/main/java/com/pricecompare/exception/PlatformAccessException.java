@@ -0,0 +1,52 @@
+package com.pricecompare.exception;
+
+/**
+ * 平台访问异常
+ * 
+ * @author AutoValuePilot
+ */
+public class PlatformAccessException extends BusinessException {
+
+    /** 平台代码 */
+    private final String platformCode;
+
+    /** 平台返回的HTTP状态码，非HTTP错误时为0 */
+    private final int statusCode;
+
+    public PlatformAccessException(String platformCode, int statusCode, String message) {
+        this(502, platformCode, statusCode, message);
+    }
+
+    protected PlatformAccessException(Integer code, String platformCode, int statusCode, String message) {
+        super(code, message);
+        this.platformCode = platformCode;
+        this.statusCode = statusCode;
+    }
+
+    public PlatformAccessException(String platformCode, String message, Throwable cause) {
+        this(platformCode, 0, message);
+        initCause(cause);
+    }
+
+    public String getPlatformCode() {
+        return platformCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * 平台是否在限流（429/503）
+     */
+    public boolean isThrottled() {
+        return statusCode == 429 || statusCode == 503;
+    }
+
+    /**
+     * 是否值得重试：网络错误、平台限流和5xx错误可重试，其余4xx错误重试也不会成功
+     */
+    public boolean isRetryable() {
+        return statusCode == 0 || statusCode == 429 || statusCode >= 500;
+    }
+}
@@ -0,0 +1,21 @@
+package com.pricecompare.exception;
+
+/**
+ * 限流异常
+ * 
+ * @author AutoValuePilot
+ */
+public class RateLimitExceededException extends BusinessException {
+
+    /** 建议的重试等待时间（毫秒） */
+    private final long retryAfterMillis;
+
+    public RateLimitExceededException(String message, long retryAfterMillis) {
+        super(429, message);
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
@@ -3,6 +3,9 @@ package com.pricecompare.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.pricecompare.entity.CompareTask;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
 
 /**
  * 比价任务数据访问接口
@@ -11,4 +14,16 @@ import org.apache.ibatis.annotations.Mapper;
  */
 @Mapper
 public interface CompareTaskMapper extends BaseMapper<CompareTask> {
+
+    /**
+     * 查询任务的比价结果快照（compare_result默认不随实体查询）
+     */
+    @Select("SELECT compare_result FROM compare_task WHERE id = #{id}")
+    String selectCompareResult(@Param("id") Long id);
+
+    /**
+     * 写入任务的比价结果快照，与任务状态分开更新
+     */
+    @Update("UPDATE compare_task SET compare_result = #{compareResult} WHERE id = #{id}")
+    int updateCompareResult(@Param("id") Long id, @Param("compareResult") String compareResult);
 }
\ No newline at end of file
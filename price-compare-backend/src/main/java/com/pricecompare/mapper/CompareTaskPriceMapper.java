@@ -0,0 +1,60 @@
+package com.pricecompare.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.pricecompare.entity.CompareTaskPrice;
+import com.pricecompare.entity.ProductPrice;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 比价任务结果数据访问接口
+ * 
+ * @author AutoValuePilot
+ */
+@Mapper
+public interface CompareTaskPriceMapper extends BaseMapper<CompareTaskPrice> {
+
+    /**
+     * 批量关联任务结果，重复投递的子任务不会产生重复关联
+     */
+    @Insert("<script>" +
+            "INSERT IGNORE INTO compare_task_price (task_id, price_id, price, create_time) VALUES " +
+            "<foreach collection='list' item='r' separator=','>" +
+            "(#{r.taskId}, #{r.priceId}, #{r.price}, NOW())" +
+            "</foreach>" +
+            "</script>")
+    int insertIgnoreBatch(@Param("list") List<CompareTaskPrice> links);
+
+    /**
+     * 按价格、价格ID键集分页查询任务结果，走idx_task_price索引，耗时与product_price表大小无关；
+     * 价格取关联时记录的价格，与分页游标的排序键一致
+     * @param afterPrice 上一页最后一条的价格，为空时从第一页开始
+     * @param afterId 上一页最后一条的价格ID
+     */
+    @Select("<script>" +
+            "SELECT pp.id, pp.product_id, pp.platform_code, pp.platform_product_id, ctp.price, pp.original_price, " +
+            "pp.discount, pp.sales, pp.rating, pp.product_url, pp.shop_name, pp.shop_rating, pp.delivery, pp.is_lowest, " +
+            "pp.crawl_time, pp.last_seen_time, pp.create_time, pp.update_time " +
+            "FROM compare_task_price ctp JOIN product_price pp ON pp.id = ctp.price_id " +
+            "WHERE ctp.task_id = #{taskId} " +
+            "<if test='afterPrice != null'>" +
+            "AND (ctp.price &gt; #{afterPrice} OR (ctp.price = #{afterPrice} AND ctp.price_id &gt; #{afterId})) " +
+            "</if>" +
+            "ORDER BY ctp.price, ctp.price_id LIMIT #{limit}" +
+            "</script>")
+    List<ProductPrice> selectTaskPage(@Param("taskId") Long taskId,
+                                      @Param("afterPrice") BigDecimal afterPrice,
+                                      @Param("afterId") Long afterId,
+                                      @Param("limit") int limit);
+
+    /**
+     * 查询任务结果中的最低价
+     */
+    @Select("SELECT MIN(price) FROM compare_task_price WHERE task_id = #{taskId}")
+    BigDecimal selectLowestPrice(@Param("taskId") Long taskId);
+}
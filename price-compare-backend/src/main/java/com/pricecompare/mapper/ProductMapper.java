@@ -3,6 +3,12 @@ package com.pricecompare.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.pricecompare.entity.Product;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.Collection;
+import java.util.List;
 
 /**
  * 商品数据访问接口
@@ -11,4 +17,57 @@ import org.apache.ibatis.annotations.Mapper;
  */
 @Mapper
 public interface ProductMapper extends BaseMapper<Product> {
+
+    /**
+     * 按ID顺序分批读取聚类所需字段
+     */
+    @Select("SELECT id, title, brand, model, cluster_id, match_key FROM product " +
+            "WHERE id > #{afterId} ORDER BY id LIMIT #{limit}")
+    List<Product> selectClusterBatch(@Param("afterId") long afterId, @Param("limit") int limit);
+
+    /**
+     * 读取尚未分配簇的商品
+     */
+    @Select("SELECT id, title, brand, model, cluster_id, match_key FROM product " +
+            "WHERE cluster_id IS NULL ORDER BY id LIMIT #{limit}")
+    List<Product> selectUnclustered(@Param("limit") int limit);
+
+    /**
+     * 按匹配键查询已有的簇ID
+     */
+    @Select("<script>" +
+            "SELECT match_key, MIN(cluster_id) AS cluster_id FROM product WHERE match_key IN " +
+            "<foreach collection='keys' item='key' open='(' separator=',' close=')'>#{key}</foreach>" +
+            " AND cluster_id IS NOT NULL GROUP BY match_key" +
+            "</script>")
+    List<Product> selectClusterIdsByMatchKeys(@Param("keys") Collection<String> matchKeys);
+
+    /**
+     * 批量写入簇ID，不改变更新时间
+     */
+    @Update("<script>" +
+            "UPDATE product SET cluster_id = CASE id " +
+            "<foreach collection='list' item='p'>WHEN #{p.id} THEN #{p.clusterId} </foreach>" +
+            "END, update_time = update_time WHERE id IN " +
+            "<foreach collection='list' item='p' open='(' separator=',' close=')'>#{p.id}</foreach>" +
+            "</script>")
+    int updateClusterIds(@Param("list") List<Product> products);
+
+    /**
+     * 批量写入匹配键，不改变更新时间
+     */
+    @Update("<script>" +
+            "UPDATE product SET match_key = CASE id " +
+            "<foreach collection='list' item='p'>WHEN #{p.id} THEN #{p.matchKey} </foreach>" +
+            "END, update_time = update_time WHERE id IN " +
+            "<foreach collection='list' item='p' open='(' separator=',' close=')'>#{p.id}</foreach>" +
+            "</script>")
+    int updateMatchKeys(@Param("list") List<Product> products);
+
+    /**
+     * 与指定商品同簇的全部商品（含该商品本身）
+     */
+    @Select("SELECT m.id, m.title, m.platform, m.platform_product_id, m.cluster_id FROM product p " +
+            "JOIN product m ON m.cluster_id = p.cluster_id WHERE p.id = #{productId}")
+    List<Product> selectClusterMembers(@Param("productId") Long productId);
 }
\ No newline at end of file
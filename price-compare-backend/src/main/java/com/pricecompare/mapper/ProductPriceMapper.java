@@ -1,8 +1,16 @@
 package com.pricecompare.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.pricecompare.entity.Product;
 import com.pricecompare.entity.ProductPrice;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * 商品价格Mapper接口
@@ -11,4 +19,86 @@ import org.apache.ibatis.annotations.Mapper;
  */
 @Mapper
 public interface ProductPriceMapper extends BaseMapper<ProductPrice> {
-}
\ No newline at end of file
+
+    /**
+     * 查询指定时间后观测过的平台商品及其最近抓取时间、最近观测时间
+     */
+    @Select("SELECT MAX(product_id) AS product_id, platform_code, platform_product_id, MAX(crawl_time) AS crawl_time, " +
+            "MAX(last_seen_time) AS last_seen_time " +
+            "FROM product_price WHERE last_seen_time >= #{since} GROUP BY platform_code, platform_product_id")
+    List<ProductPrice> selectLatestCrawls(@Param("since") LocalDateTime since);
+
+    /**
+     * 批量写入价格观测，同一平台商品同一抓取时间的记录已存在时更新价格字段
+     * @return 受影响行数（MySQL中新插入计1，更新计2）
+     */
+    @Insert("<script>" +
+            "INSERT INTO product_price (product_id, platform_code, platform_product_id, price, original_price, " +
+            "discount, sales, rating, product_url, shop_name, shop_rating, delivery, is_lowest, " +
+            "crawl_time, last_seen_time, create_time, update_time) VALUES " +
+            "<foreach collection='list' item='p' separator=','>" +
+            "(#{p.productId}, #{p.platformCode}, #{p.platformProductId}, #{p.price}, #{p.originalPrice}, " +
+            "#{p.discount}, #{p.sales}, #{p.rating}, #{p.productUrl}, #{p.shopName}, #{p.shopRating}, " +
+            "#{p.delivery}, #{p.isLowest}, #{p.crawlTime}, #{p.lastSeenTime}, #{p.createTime}, #{p.updateTime})" +
+            "</foreach>" +
+            " ON DUPLICATE KEY UPDATE price = VALUES(price), original_price = VALUES(original_price), " +
+            "discount = VALUES(discount), sales = VALUES(sales), rating = VALUES(rating), " +
+            "product_url = VALUES(product_url), shop_name = VALUES(shop_name), shop_rating = VALUES(shop_rating), " +
+            "delivery = VALUES(delivery), last_seen_time = VALUES(last_seen_time), update_time = VALUES(update_time)" +
+            "</script>")
+    int upsertBatch(@Param("list") List<ProductPrice> prices);
+
+    /**
+     * 按唯一键（平台代码、平台商品ID、抓取时间）查询记录ID，用于批量写入后回填主键
+     */
+    @Select("<script>" +
+            "SELECT id, platform_code, platform_product_id, crawl_time FROM product_price " +
+            "WHERE (platform_code, platform_product_id, crawl_time) IN " +
+            "<foreach collection='list' item='p' open='(' separator=',' close=')'>" +
+            "(#{p.platformCode}, #{p.platformProductId}, #{p.crawlTime})" +
+            "</foreach>" +
+            "</script>")
+    List<ProductPrice> selectIdsByUniqueKey(@Param("list") List<ProductPrice> prices);
+
+    /**
+     * 按平台代码和平台商品ID查询最近一条价格记录的ID，用于关联价格未变化（未重复写入）的观测
+     */
+    @Select("<script>" +
+            "SELECT MAX(id) AS id, platform_code, platform_product_id FROM product_price " +
+            "WHERE (platform_code, platform_product_id) IN " +
+            "<foreach collection='list' item='p' open='(' separator=',' close=')'>" +
+            "(#{p.platformCode}, #{p.platformProductId})" +
+            "</foreach>" +
+            " GROUP BY platform_code, platform_product_id" +
+            "</script>")
+    List<ProductPrice> selectLatestIds(@Param("list") List<ProductPrice> prices);
+
+    /**
+     * 把平台商品各自最近一条价格记录的最近观测时间更新为seenAt，用于价格未变化（未重复写入）的观测
+     * @return 更新的记录数
+     */
+    @Update("<script>" +
+            "UPDATE product_price pp JOIN (" +
+            "SELECT MAX(id) AS id FROM product_price WHERE (platform_code, platform_product_id) IN " +
+            "<foreach collection='list' item='p' open='(' separator=',' close=')'>" +
+            "(#{p.platformCode}, #{p.platformProductId})" +
+            "</foreach>" +
+            " GROUP BY platform_code, platform_product_id) latest ON pp.id = latest.id" +
+            " SET pp.last_seen_time = #{seenAt}" +
+            "</script>")
+    int touchLatest(@Param("list") List<ProductPrice> prices, @Param("seenAt") LocalDateTime seenAt);
+
+    /**
+     * 指定平台商品各自最近一条价格记录，只返回最近观测时间不早于since的记录
+     */
+    @Select("<script>" +
+            "SELECT pp.* FROM product_price pp JOIN (" +
+            "SELECT MAX(id) AS id FROM product_price WHERE (platform_code, platform_product_id) IN " +
+            "<foreach collection='list' item='p' open='(' separator=',' close=')'>" +
+            "(#{p.platform}, #{p.platformProductId})" +
+            "</foreach>" +
+            " GROUP BY platform_code, platform_product_id) latest ON pp.id = latest.id" +
+            " WHERE pp.last_seen_time &gt;= #{since}" +
+            "</script>")
+    List<ProductPrice> selectLatestSince(@Param("list") List<Product> products, @Param("since") LocalDateTime since);
+}
@@ -0,0 +1,133 @@
+package com.pricecompare.price;
+
+import com.pricecompare.entity.ProductPrice;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 价格变化检测
+ * 按(平台代码, 平台商品ID)在Redis哈希中保存最近一次观测的指纹（价格、销量、店铺等字段的64位哈希）；
+ * 指纹未变化的观测不再写入新的价格记录，由ProductPriceWriter只更新最近一条记录的最近观测时间。
+ * 
+ * @author AutoValuePilot
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PriceChangeDetector {
+
+    private static final String FINGERPRINT_PREFIX = "price:fingerprint:";
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 筛选出与上次观测不同的价格，没有指纹记录或Redis不可用时视为变化
+     */
+    public List<ProductPrice> filterChanged(Collection<ProductPrice> prices) {
+        // 同一批次中重复的商品只保留最后一次观测
+        Map<String, ProductPrice> latest = new LinkedHashMap<>();
+        List<ProductPrice> unkeyed = new ArrayList<>();
+        for (ProductPrice price : prices) {
+            if (price.getPlatformCode() == null || price.getPlatformProductId() == null) {
+                unkeyed.add(price);
+            } else {
+                latest.put(price.getPlatformCode() + ":" + price.getPlatformProductId(), price);
+            }
+        }
+        List<ProductPrice> candidates = new ArrayList<>(latest.values());
+        List<ProductPrice> changed = new ArrayList<>(unkeyed);
+        if (candidates.isEmpty()) {
+            return changed;
+        }
+
+        List<Object> previous;
+        try {
+            previous = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = (StringRedisConnection) connection;
+                candidates.forEach(price -> redis.hGet(FINGERPRINT_PREFIX + price.getPlatformCode(), price.getPlatformProductId()));
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("读取价格指纹失败，全部按变化处理：{}", e.getMessage());
+            changed.addAll(candidates);
+            return changed;
+        }
+
+        int unchanged = 0;
+        for (int i = 0; i < candidates.size(); i++) {
+            ProductPrice price = candidates.get(i);
+            if (fingerprint(price).equals(previous.get(i))) {
+                unchanged++;
+            } else {
+                changed.add(price);
+            }
+        }
+        log.debug("价格变化检测：共{}条，变化{}条，未变化{}条", prices.size(), changed.size(), unchanged);
+        return changed;
+    }
+
+    /**
+     * 记录已写入的观测指纹
+     */
+    public void remember(Collection<ProductPrice> prices) {
+        List<ProductPrice> keyed = prices.stream()
+                .filter(price -> price.getPlatformCode() != null && price.getPlatformProductId() != null)
+                .collect(Collectors.toList());
+        if (keyed.isEmpty()) {
+            return;
+        }
+        try {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = (StringRedisConnection) connection;
+                keyed.forEach(price -> redis.hSet(FINGERPRINT_PREFIX + price.getPlatformCode(),
+                        price.getPlatformProductId(), fingerprint(price)));
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("保存价格指纹失败，下次观测将重新写入：{}", e.getMessage());
+        }
+    }
+
+    /**
+     * 观测指纹：对价格相关字段做64位FNV-1a哈希，数值字段忽略末尾的0
+     */
+    static String fingerprint(ProductPrice price) {
+        StringBuilder canonical = new StringBuilder(128)
+                .append(price.getProductId()).append('\u0001')
+                .append(decimal(price.getPrice())).append('\u0001')
+                .append(decimal(price.getOriginalPrice())).append('\u0001')
+                .append(price.getDiscount()).append('\u0001')
+                .append(price.getSales()).append('\u0001')
+                .append(decimal(price.getRating())).append('\u0001')
+                .append(price.getProductUrl()).append('\u0001')
+                .append(price.getShopName()).append('\u0001')
+                .append(decimal(price.getShopRating())).append('\u0001')
+                .append(price.getDelivery());
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : canonical.toString().getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return Long.toHexString(hash);
+    }
+
+    private static String decimal(BigDecimal value) {
+        return value == null ? "null" : value.stripTrailingZeros().toPlainString();
+    }
+}
@@ -0,0 +1,229 @@
+package com.pricecompare.price;
+
+import com.pricecompare.entity.ProductPrice;
+import com.pricecompare.mapper.ProductPriceMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.RedisZSetCommands;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 价格刷新队列
+ * 每个平台一个Redis有序集合，成员为平台商品ID，分数为下次刷新时间：
+ * 下次刷新时间 = 上次观测时间 + 刷新间隔，刷新间隔随商品热度（访问次数）增加而缩短。
+ * 队列保存在Redis中，应用重启后从原进度继续。
+ * 访问次数定期按比例衰减并只保留最热门的一部分商品，热度反映近期访问且占用的内存有上限。
+ * 
+ * @author AutoValuePilot
+ */
+@Slf4j
+@Component
+public class PriceRefreshQueue {
+
+    private static final String QUEUE_PREFIX = "price:refresh:queue:";
+    private static final String POPULARITY_PREFIX = "price:refresh:popularity:";
+    private static final String PRODUCT_PREFIX = "price:refresh:product:";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ProductPriceMapper productPriceMapper;
+    private final DefaultRedisScript<List<String>> claimScript;
+    private final DefaultRedisScript<Long> decayScript;
+
+    @Value("${app.refresh.enabled:false}")
+    private boolean enabled;
+
+    /** 冷门商品的刷新间隔（毫秒） */
+    @Value("${app.refresh.max-interval:21600000}")
+    private long maxInterval;
+
+    /** 热门商品的最短刷新间隔（毫秒） */
+    @Value("${app.refresh.min-interval:600000}")
+    private long minInterval;
+
+    /** 每次衰减后保留的访问次数比例 */
+    @Value("${app.refresh.popularity-decay-factor:0.9}")
+    private double decayFactor;
+
+    /** 衰减后低于该值的商品移出热度集合，视为冷门商品 */
+    @Value("${app.refresh.popularity-min-score:0.5}")
+    private double minPopularity;
+
+    /** 每个平台最多记录热度的商品数 */
+    @Value("${app.refresh.popularity-max-size:10000}")
+    private long maxPopularitySize;
+
+    public PriceRefreshQueue(StringRedisTemplate stringRedisTemplate, ProductPriceMapper productPriceMapper) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.productPriceMapper = productPriceMapper;
+        this.claimScript = new DefaultRedisScript<>();
+        this.claimScript.setScriptSource(new ResourceScriptSource(new ClassPathResource("scripts/refresh_claim.lua")));
+        this.claimScript.setResultType(stringListType());
+        this.decayScript = new DefaultRedisScript<>();
+        this.decayScript.setScriptSource(new ResourceScriptSource(new ClassPathResource("scripts/popularity_decay.lua")));
+        this.decayScript.setResultType(Long.class);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 将抓取到的商品价格加入刷新队列，已在队列中的商品保持原进度
+     */
+    public void enqueue(Collection<ProductPrice> prices) {
+        if (!enabled || prices.isEmpty()) {
+            return;
+        }
+        try {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = (StringRedisConnection) connection;
+                for (ProductPrice price : prices) {
+                    if (price.getPlatformCode() == null || price.getPlatformProductId() == null) {
+                        continue;
+                    }
+                    long seenAt = toMillis(price.getLastSeenTime() != null ? price.getLastSeenTime() : price.getCrawlTime());
+                    redis.zAdd(QUEUE_PREFIX + price.getPlatformCode(), seenAt + maxInterval,
+                            price.getPlatformProductId(), RedisZSetCommands.ZAddArgs.ifNotExists());
+                    if (price.getProductId() != null) {
+                        redis.hSet(PRODUCT_PREFIX + price.getPlatformCode(), price.getPlatformProductId(),
+                                String.valueOf(price.getProductId()));
+                    }
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("加入价格刷新队列失败：{}", e.getMessage());
+        }
+    }
+
+    /**
+     * 记录商品访问，提高其刷新优先级：已在队列中的商品按新的热度把下次刷新时间提前（ZADD XX LT，只提前不推后），
+     * 新近变热的商品不必等到首次刷新之后才缩短刷新间隔
+     */
+    public void recordAccess(String platformCode, Collection<String> platformProductIds) {
+        if (!enabled || platformProductIds.isEmpty()) {
+            return;
+        }
+        try {
+            List<String> ids = List.copyOf(platformProductIds);
+            List<Object> popularity = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = (StringRedisConnection) connection;
+                ids.forEach(id -> redis.zIncrBy(POPULARITY_PREFIX + platformCode, 1, id));
+                return null;
+            });
+            long now = System.currentTimeMillis();
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = (StringRedisConnection) connection;
+                for (int i = 0; i < ids.size() && i < popularity.size(); i++) {
+                    if (popularity.get(i) instanceof Number score) {
+                        redis.zAdd(QUEUE_PREFIX + platformCode, now + refreshInterval(score.doubleValue()), ids.get(i),
+                                RedisZSetCommands.ZAddArgs.ifExists().lt());
+                    }
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("记录商品访问失败：{}", e.getMessage());
+        }
+    }
+
+    /**
+     * 领取到期的刷新任务，领取后在claimTimeout内不会被再次领取
+     */
+    public List<String> claim(String platformCode, int limit, long claimTimeout) {
+        long now = System.currentTimeMillis();
+        List<String> members = stringRedisTemplate.execute(claimScript,
+                Collections.singletonList(QUEUE_PREFIX + platformCode),
+                String.valueOf(now), String.valueOf(limit), String.valueOf(now + claimTimeout));
+        return members != null ? members : Collections.emptyList();
+    }
+
+    /**
+     * 衰减平台商品的访问次数，并把热度集合裁剪到maxPopularitySize
+     * @return 衰减后仍记录热度的商品数
+     */
+    public long decayPopularity(String platformCode) {
+        Long size = stringRedisTemplate.execute(decayScript,
+                Collections.singletonList(POPULARITY_PREFIX + platformCode),
+                String.valueOf(decayFactor), String.valueOf(minPopularity), String.valueOf(maxPopularitySize));
+        return size != null ? size : 0;
+    }
+
+    /**
+     * 刷新成功后按热度安排下一次刷新
+     */
+    public void reschedule(String platformCode, String platformProductId) {
+        Double popularity = stringRedisTemplate.opsForZSet().score(POPULARITY_PREFIX + platformCode, platformProductId);
+        long nextRefresh = System.currentTimeMillis() + refreshInterval(popularity == null ? 0 : popularity);
+        stringRedisTemplate.opsForZSet().add(QUEUE_PREFIX + platformCode, platformProductId, nextRefresh);
+    }
+
+    /**
+     * 刷新失败后延迟重试
+     */
+    public void retryLater(String platformCode, String platformProductId, long delay) {
+        stringRedisTemplate.opsForZSet().add(QUEUE_PREFIX + platformCode, platformProductId, System.currentTimeMillis() + delay);
+    }
+
+    /**
+     * 商品已下架，移出刷新队列
+     */
+    public void remove(String platformCode, String platformProductId) {
+        stringRedisTemplate.opsForZSet().remove(QUEUE_PREFIX + platformCode, platformProductId);
+        stringRedisTemplate.opsForZSet().remove(POPULARITY_PREFIX + platformCode, platformProductId);
+        stringRedisTemplate.opsForHash().delete(PRODUCT_PREFIX + platformCode, platformProductId);
+    }
+
+    /**
+     * 平台商品对应的商品ID
+     */
+    public Long getProductId(String platformCode, String platformProductId) {
+        Object productId = stringRedisTemplate.opsForHash().get(PRODUCT_PREFIX + platformCode, platformProductId);
+        return productId != null ? Long.valueOf(productId.toString()) : null;
+    }
+
+    public Long size(String platformCode) {
+        return stringRedisTemplate.opsForZSet().zCard(QUEUE_PREFIX + platformCode);
+    }
+
+    /**
+     * 从数据库补充近期观测过的商品，用于首次启用或Redis数据丢失后重建队列
+     */
+    public int seedFromDatabase(LocalDateTime since) {
+        if (!enabled) {
+            return 0;
+        }
+        List<ProductPrice> latestCrawls = productPriceMapper.selectLatestCrawls(since);
+        enqueue(latestCrawls);
+        return latestCrawls.size();
+    }
+
+    /**
+     * 刷新间隔：maxInterval / sqrt(1 + 访问次数)，不低于minInterval
+     */
+    long refreshInterval(double popularity) {
+        return Math.max(minInterval, (long) (maxInterval / Math.sqrt(1 + Math.max(0, popularity))));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Class<List<String>> stringListType() {
+        return (Class<List<String>>) (Class<?>) List.class;
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time == null ? System.currentTimeMillis()
+                : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
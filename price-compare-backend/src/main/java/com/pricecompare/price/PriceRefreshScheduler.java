@@ -0,0 +1,157 @@
+package com.pricecompare.price;
+
+import com.pricecompare.crawler.PlatformConfigRegistry;
+import com.pricecompare.crawler.PlatformExecutors;
+import com.pricecompare.crawler.limit.PlatformRateLimiter;
+import com.pricecompare.crawler.resilience.PlatformResilience;
+import com.pricecompare.entity.PlatformConfig;
+import com.pricecompare.entity.ProductPrice;
+import com.pricecompare.service.CrawlerService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 价格定时刷新
+ * 每个周期从各平台的刷新队列领取到期商品，按平台请求配额的一部分分批提交到平台线程池刷新，
+ * 价格有变化时写入product_price，并按热度安排下一次刷新。
+ * 
+ * @author AutoValuePilot
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PriceRefreshScheduler {
+
+    private final PriceRefreshQueue priceRefreshQueue;
+    private final PlatformConfigRegistry platformConfigRegistry;
+    private final PlatformExecutors platformExecutors;
+    private final PlatformResilience platformResilience;
+    private final CrawlerService crawlerService;
+    private final ProductPriceWriter productPriceWriter;
+
+    /** 调度周期（毫秒） */
+    @Value("${app.refresh.tick-interval:10000}")
+    private long tickInterval;
+
+    /** 每个周期每个平台最多刷新的商品数 */
+    @Value("${app.refresh.batch-size:20}")
+    private int batchSize;
+
+    /** 后台刷新最多占用平台请求配额的比例，其余留给用户请求 */
+    @Value("${app.refresh.rate-share:0.5}")
+    private double rateShare;
+
+    /** 领取超时（毫秒），节点崩溃时商品在超时后重新到期 */
+    @Value("${app.refresh.claim-timeout:300000}")
+    private long claimTimeout;
+
+    /** 刷新失败后的重试延迟（毫秒） */
+    @Value("${app.refresh.retry-delay:600000}")
+    private long retryDelay;
+
+    /** 从数据库补充队列时回溯的天数 */
+    @Value("${app.refresh.seed-days:7}")
+    private int seedDays;
+
+    @Scheduled(fixedDelayString = "${app.refresh.tick-interval:10000}", initialDelayString = "${app.refresh.tick-interval:10000}")
+    public void dispatch() {
+        if (!priceRefreshQueue.isEnabled()) {
+            return;
+        }
+        for (String platformCode : platformConfigRegistry.getEnabledPlatformCodes()) {
+            PlatformConfig platformConfig = platformConfigRegistry.get(platformCode);
+            if (platformConfig == null || !platformResilience.isAvailable(platformCode)) {
+                continue;
+            }
+            try {
+                dispatchPlatform(platformConfig);
+            } catch (Exception e) {
+                log.warn("平台{}价格刷新调度失败：{}", platformCode, e.getMessage());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.refresh.seed-interval:3600000}", initialDelayString = "${app.refresh.seed-initial-delay:60000}")
+    public void seed() {
+        if (!priceRefreshQueue.isEnabled()) {
+            return;
+        }
+        try {
+            int count = priceRefreshQueue.seedFromDatabase(LocalDateTime.now().minusDays(seedDays));
+            log.info("价格刷新队列补充完成，近{}天抓取过的商品：{}", seedDays, count);
+        } catch (Exception e) {
+            log.warn("价格刷新队列补充失败：{}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.refresh.popularity-decay-interval:3600000}",
+            initialDelayString = "${app.refresh.popularity-decay-interval:3600000}")
+    public void decayPopularity() {
+        if (!priceRefreshQueue.isEnabled()) {
+            return;
+        }
+        for (String platformCode : platformConfigRegistry.getEnabledPlatformCodes()) {
+            try {
+                long size = priceRefreshQueue.decayPopularity(platformCode);
+                log.debug("平台{}商品热度衰减完成，记录热度的商品：{}", platformCode, size);
+            } catch (Exception e) {
+                log.warn("平台{}商品热度衰减失败：{}", platformCode, e.getMessage());
+            }
+        }
+    }
+
+    private void dispatchPlatform(PlatformConfig platformConfig) {
+        String platformCode = platformConfig.getPlatformCode();
+        List<String> platformProductIds = priceRefreshQueue.claim(platformCode, budget(platformConfig), claimTimeout);
+        if (platformProductIds.isEmpty()) {
+            return;
+        }
+        log.debug("平台{}本周期刷新{}个商品", platformCode, platformProductIds.size());
+        for (String platformProductId : platformProductIds) {
+            try {
+                platformExecutors.get(platformCode).execute(() -> refresh(platformCode, platformProductId));
+            } catch (RejectedExecutionException e) {
+                priceRefreshQueue.retryLater(platformCode, platformProductId, tickInterval);
+            }
+        }
+    }
+
+    /**
+     * 本周期可刷新的商品数：周期内平台允许的请求数 × 后台占比，不超过批大小
+     */
+    int budget(PlatformConfig platformConfig) {
+        double permitsPerSecond = PlatformRateLimiter.permitsPerSecond(platformConfig);
+        if (permitsPerSecond <= 0) {
+            return batchSize;
+        }
+        long permits = (long) (tickInterval / 1000d * permitsPerSecond * rateShare);
+        return (int) Math.max(1, Math.min(batchSize, permits));
+    }
+
+    private void refresh(String platformCode, String platformProductId) {
+        try {
+            ProductPrice price = crawlerService.refreshProductDetail(platformProductId, platformCode);
+            if (price == null) {
+                log.info("商品已下架，移出刷新队列：{} {}", platformCode, platformProductId);
+                priceRefreshQueue.remove(platformCode, platformProductId);
+                return;
+            }
+            price.setId(null);
+            price.setProductId(priceRefreshQueue.getProductId(platformCode, platformProductId));
+            price.setCrawlTime(LocalDateTime.now());
+            productPriceWriter.write(Collections.singletonList(price));
+            priceRefreshQueue.reschedule(platformCode, platformProductId);
+        } catch (Exception e) {
+            log.warn("刷新商品价格失败：{} {}，原因：{}", platformCode, platformProductId, e.getMessage());
+            priceRefreshQueue.retryLater(platformCode, platformProductId, retryDelay);
+        }
+    }
+}
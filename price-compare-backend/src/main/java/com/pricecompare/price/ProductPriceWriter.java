@@ -0,0 +1,135 @@
+package com.pricecompare.price;
+
+import com.pricecompare.entity.ProductPrice;
+import com.pricecompare.mapper.ProductPriceMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 商品价格写入
+ * 所有写入product_price的路径统一经过这里：先做变化检测，只写入价格有变化的观测；
+ * 变化的观测按块批量写入（多行INSERT ... ON DUPLICATE KEY UPDATE），每块一个事务；
+ * 未变化的观测按块批量更新该平台商品最近一条记录的最近观测时间，按时间筛选价格时仍能选中价格稳定的商品；
+ * 指纹仍在但记录已不存在（如被过期数据清理删除）的观测按变化重新写入
+ * 
+ * @author AutoValuePilot
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductPriceWriter {
+
+    private final ProductPriceMapper productPriceMapper;
+    private final PriceChangeDetector priceChangeDetector;
+    private final TransactionTemplate transactionTemplate;
+
+    /** 每条批量INSERT语句包含的最大行数 */
+    @Value("${app.price.write-chunk-size:200}")
+    private int chunkSize;
+
+    /**
+     * 写入商品价格观测
+     * @return 实际写入的记录（已回填主键），未变化的观测不包含在内
+     */
+    public List<ProductPrice> write(Collection<ProductPrice> prices) {
+        if (prices.isEmpty()) {
+            return List.of();
+        }
+        List<ProductPrice> changed = new ArrayList<>(priceChangeDetector.filterChanged(prices));
+        // crawl_time是唯一键的一部分，列精度为秒，截断后回填主键时才能按唯一键匹配
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        List<ProductPrice> unchanged = unchanged(prices, changed);
+        List<ProductPrice> missing = touchLatest(unchanged, now);
+        if (!missing.isEmpty()) {
+            log.info("{}条未变化的观测没有价格记录，重新写入", missing.size());
+            changed.addAll(missing);
+        }
+        for (ProductPrice price : changed) {
+            price.setCrawlTime(price.getCrawlTime() == null ? now : price.getCrawlTime().truncatedTo(ChronoUnit.SECONDS));
+            price.setLastSeenTime(now);
+            price.setCreateTime(now);
+            price.setUpdateTime(now);
+        }
+        for (int from = 0; from < changed.size(); from += chunkSize) {
+            List<ProductPrice> chunk = changed.subList(from, Math.min(from + chunkSize, changed.size()));
+            transactionTemplate.executeWithoutResult(status -> writeChunk(chunk));
+        }
+        priceChangeDetector.remember(changed);
+        log.info("商品价格写入完成，观测{}条，写入{}条，更新观测时间{}条", prices.size(), changed.size(),
+                unchanged.size() - missing.size());
+        return changed;
+    }
+
+    /**
+     * 按块更新未变化观测的最近观测时间
+     * @return 没有任何价格记录的观测
+     */
+    private List<ProductPrice> touchLatest(List<ProductPrice> unchanged, LocalDateTime now) {
+        List<ProductPrice> missing = new ArrayList<>();
+        for (int from = 0; from < unchanged.size(); from += chunkSize) {
+            List<ProductPrice> chunk = unchanged.subList(from, Math.min(from + chunkSize, unchanged.size()));
+            if (productPriceMapper.touchLatest(chunk, now) >= chunk.size()) {
+                continue;
+            }
+            // 更新行数不足时按平台商品回查，区分记录已被删除和观测时间未变
+            Set<String> existing = new HashSet<>(chunk.size() * 2);
+            productPriceMapper.selectLatestIds(chunk).forEach(row -> existing.add(platformKey(row)));
+            for (ProductPrice price : chunk) {
+                if (!existing.contains(platformKey(price))) {
+                    missing.add(price);
+                }
+            }
+        }
+        return missing;
+    }
+
+    private void writeChunk(List<ProductPrice> chunk) {
+        productPriceMapper.upsertBatch(chunk);
+        // 多行INSERT ... ON DUPLICATE KEY UPDATE返回的自增ID不可靠，按唯一键回查
+        Map<String, Long> ids = new HashMap<>(chunk.size() * 2);
+        for (ProductPrice row : productPriceMapper.selectIdsByUniqueKey(chunk)) {
+            ids.put(uniqueKey(row), row.getId());
+        }
+        for (ProductPrice price : chunk) {
+            price.setId(ids.get(uniqueKey(price)));
+        }
+    }
+
+    /**
+     * 未变化的平台商品，每个平台商品只保留一条
+     */
+    private static List<ProductPrice> unchanged(Collection<ProductPrice> prices, List<ProductPrice> changed) {
+        Set<String> changedKeys = new HashSet<>(changed.size() * 2);
+        changed.forEach(price -> changedKeys.add(platformKey(price)));
+        Map<String, ProductPrice> unchanged = new LinkedHashMap<>();
+        for (ProductPrice price : prices) {
+            if (price.getPlatformCode() != null && price.getPlatformProductId() != null
+                    && !changedKeys.contains(platformKey(price))) {
+                unchanged.putIfAbsent(platformKey(price), price);
+            }
+        }
+        return new ArrayList<>(unchanged.values());
+    }
+
+    private static String platformKey(ProductPrice price) {
+        return price.getPlatformCode() + ':' + price.getPlatformProductId();
+    }
+
+    private static String uniqueKey(ProductPrice price) {
+        return price.getPlatformCode() + ':' + price.getPlatformProductId() + ':' + price.getCrawlTime();
+    }
+}
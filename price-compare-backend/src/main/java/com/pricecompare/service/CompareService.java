@@ -1,5 +1,7 @@
 package com.pricecompare.service;
 
+import com.pricecompare.dto.response.CompareResultItem;
+import com.pricecompare.dto.response.CursorPage;
 import com.pricecompare.entity.CompareTask;
 
 import java.util.List;
@@ -16,6 +18,12 @@ public interface CompareService {
      */
     CompareTask startCompareTask(String productName);
     
+    /**
+     * 启动比价任务
+     * @param sourceProductId 源商品ID，已分配商品簇时同簇商品有有效价格的平台直接使用这些价格
+     */
+    CompareTask startCompareTask(String productName, Long sourceProductId);
+    
     /**
      * 获取比价任务列表
      */
@@ -27,12 +35,20 @@ public interface CompareService {
     CompareTask getCompareTaskById(Long taskId);
     
     /**
-     * 获取比价结果
+     * 获取比价结果，按价格升序键集分页
+     * @param cursor 上一页返回的游标，为空时查询第一页
+     * @param limit 每页条数，超过服务端上限时按上限返回
+     */
+    CursorPage<CompareResultItem> getCompareResults(Long taskId, String cursor, Integer limit);
+    
+    /**
+     * 取消比价任务：正在执行的平台调用被中断，任务以已写入的部分结果结束；任务已结束时不做处理
+     * @return 取消后的任务
      */
-    List<Object> getCompareResults(Long taskId);
+    CompareTask cancelCompareTask(Long taskId);
     
     /**
-     * 删除比价任务
+     * 删除比价任务，正在执行的任务先停止执行
      */
     void deleteCompareTask(Long taskId);
 }
\ No newline at end of file
@@ -1,8 +1,13 @@
 package com.pricecompare.service;
 
+import com.pricecompare.dto.response.BatchSearchResult;
+import com.pricecompare.dto.response.PlatformSearchResult;
+import com.pricecompare.dto.response.ProductDetailBatchResult;
 import com.pricecompare.entity.ProductPrice;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * 爬虫服务接口
@@ -27,6 +32,22 @@ public interface CrawlerService {
      */
     ProductPrice getProductDetail(String platformProductId, String platformCode);
     
+    /**
+     * 批量获取同一平台的商品详情：一次读取全部缓存，只并发爬取未命中的商品，再一次写回缓存
+     * @param platformProductIds 平台商品ID列表
+     * @param platformCode 平台代码
+     * @return 按请求顺序排列的商品详情，以及未能开始爬取和爬取失败的商品ID
+     */
+    ProductDetailBatchResult getProductDetails(List<String> platformProductIds, String platformCode);
+    
+    /**
+     * 忽略缓存重新爬取商品详情并更新缓存，用于后台价格刷新
+     * @param platformProductId 平台商品ID
+     * @param platformCode 平台代码
+     * @return 商品价格信息，商品不存在或平台不可用时返回null
+     */
+    ProductPrice refreshProductDetail(String platformProductId, String platformCode);
+    
     /**
      * 批量搜索商品（多平台）
      * @param keyword 搜索关键词
@@ -35,6 +56,34 @@ public interface CrawlerService {
      */
     List<ProductPrice> batchSearchProducts(String keyword, List<String> platformCodes);
     
+    /**
+     * 并发批量搜索商品（多平台），每个平台按自身超时时间截止，超时平台在结果中单独标记
+     * @param keyword 搜索关键词
+     * @param platformCodes 平台代码列表
+     * @return 各平台搜索结果
+     */
+    BatchSearchResult batchSearch(String keyword, List<String> platformCodes);
+    
+    /**
+     * 在截止时间前并发批量搜索商品，每个平台的超时时间不超过截止时间；
+     * 调用线程被中断时中断进行中的平台调用并抛出CancellationException
+     * @param keyword 搜索关键词
+     * @param platformCodes 平台代码列表
+     * @param deadline 截止时间（毫秒时间戳）
+     * @return 各平台搜索结果
+     */
+    BatchSearchResult batchSearch(String keyword, List<String> platformCodes, long deadline);
+    
+    /**
+     * 异步并发批量搜索商品，每个平台完成后立即回调，全部平台完成（或超时）后返回汇总结果
+     * @param keyword 搜索关键词
+     * @param platformCodes 平台代码列表
+     * @param listener 单个平台结果回调，在平台完成的线程上执行
+     * @return 各平台搜索结果
+     */
+    CompletableFuture<BatchSearchResult> batchSearchAsync(String keyword, List<String> platformCodes,
+                                                          Consumer<PlatformSearchResult> listener);
+    
     /**
      * 检查平台是否可用
      * @param platformCode 平台代码
@@ -1,5 +1,6 @@
 package com.pricecompare.service;
 
+import com.pricecompare.dto.response.SimilarProduct;
 import com.pricecompare.entity.Product;
 
 import java.util.List;
@@ -60,4 +61,13 @@ public interface ProductService {
      * @param products 商品列表
      */
     void batchSaveProducts(List<Product> products);
-}
\ No newline at end of file
+
+    /**
+     * 获取相似商品推荐（升级版/经济版/同档次）
+     * 
+     * @param id 商品ID
+     * @param limit 限制数量
+     * @return 按相似度降序排列的相似商品
+     */
+    List<SimilarProduct> getSimilarProducts(Long id, Integer limit);
+}
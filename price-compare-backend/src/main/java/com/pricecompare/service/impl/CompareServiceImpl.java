@@ -3,18 +3,28 @@ package com.pricecompare.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.pricecompare.cluster.ProductClusterLookup;
+import com.pricecompare.compare.CompareResultSnapshot;
+import com.pricecompare.compare.CompareResultStore;
+import com.pricecompare.compare.CompareTaskDeduplicator;
+import com.pricecompare.compare.CompareTaskDispatcher;
+import com.pricecompare.compare.CompareTaskMessage;
+import com.pricecompare.compare.CompareTaskRunner;
+import com.pricecompare.dto.response.CompareResultItem;
+import com.pricecompare.dto.response.CursorPage;
 import com.pricecompare.entity.CompareTask;
 import com.pricecompare.entity.Product;
 import com.pricecompare.entity.ProductPrice;
+import com.pricecompare.exception.BusinessException;
+import com.pricecompare.exception.RateLimitExceededException;
 import com.pricecompare.mapper.CompareTaskMapper;
-import com.pricecompare.mapper.ProductPriceMapper;
 import com.pricecompare.service.CompareService;
 import com.pricecompare.service.CrawlerService;
 import com.pricecompare.service.ProductService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -35,71 +45,119 @@ public class CompareServiceImpl extends ServiceImpl<CompareTaskMapper, CompareTa
 
     private final ProductService productService;
     private final CrawlerService crawlerService;
-    private final ProductPriceMapper productPriceMapper;
     private final RedisTemplate<String, Object> redisTemplate;
+    private final CompareTaskRunner compareTaskRunner;
+    private final CompareTaskDispatcher compareTaskDispatcher;
+    private final CompareResultStore compareResultStore;
+    private final CompareResultSnapshot compareResultSnapshot;
+    private final ProductClusterLookup productClusterLookup;
+    private final CompareTaskDeduplicator compareTaskDeduplicator;
+
+    /** 任务最长执行时间（毫秒），超过后任务以已有结果结束为超时 */
+    @Value("${app.compare.timeout:300000}")
+    private long taskTimeout;
 
     @Override
     public CompareTask startCompareTask(String productName) {
+        return startCompareTask(productName, null);
+    }
+
+    @Override
+    public CompareTask startCompareTask(String productName, Long sourceProductId) {
+        // 等价任务（名称、源商品和平台集合相同）正在执行或刚完成时直接返回该任务
+        List<String> supportedPlatforms = crawlerService.getSupportedPlatforms();
+        String dedupeKey = compareTaskDeduplicator.key(productName, sourceProductId, supportedPlatforms);
+        CompareTask existing = findEquivalentTask(dedupeKey, compareTaskDeduplicator.find(dedupeKey));
+        if (existing != null) {
+            return existing;
+        }
+
+        // 同簇商品已有有效价格的平台直接使用，在创建任务之前查询，查询失败时全部平台重新搜索
+        Map<String, List<ProductPrice>> clusterPrices = freshClusterPrices(sourceProductId);
+
         // 创建比价任务
         CompareTask task = new CompareTask();
         task.setProductName(productName);
-        task.setStatus(1); // 处理中
+        task.setSourceProductId(sourceProductId);
+        task.setStatus(0); // 待处理
+        task.setProgress(0);
         task.setStartTime(LocalDateTime.now());
         this.save(task);
 
-        // 异步执行比价任务
-        executeCompareTaskAsync(task.getId(), productName);
+        // 并发请求同时创建了任务时，只有登记成功的任务执行，其余删除并返回登记的任务
+        Long claimedBy = compareTaskDeduplicator.claim(dedupeKey, task.getId());
+        if (claimedBy != null) {
+            existing = findEquivalentTask(dedupeKey, claimedBy);
+            if (existing == null) {
+                // 登记的任务已被删除，清除后重新登记；期间又被其他请求登记时同样返回该任务
+                existing = findEquivalentTask(dedupeKey, compareTaskDeduplicator.claim(dedupeKey, task.getId()));
+            }
+            if (existing != null) {
+                this.removeById(task.getId());
+                return existing;
+            }
+        }
+
+        // 没有同簇价格的平台拆分子任务投递到工作队列，由消费者并行执行
+        List<CompareTaskMessage> messages = new ArrayList<>(supportedPlatforms.size());
+        List<CompareTaskMessage> resolved = new ArrayList<>();
+        long deadline = System.currentTimeMillis() + taskTimeout;
+        for (String platformCode : supportedPlatforms) {
+            CompareTaskMessage message = new CompareTaskMessage(task.getId(), productName, platformCode, deadline);
+            (clusterPrices.containsKey(platformCode) ? resolved : messages).add(message);
+        }
+        compareTaskRunner.begin(task.getId(), supportedPlatforms.size());
+        try {
+            if (!messages.isEmpty()) {
+                compareTaskDispatcher.dispatch(messages);
+            }
+        } catch (RateLimitExceededException e) {
+            // 队列已满，任务不执行也不保留，由客户端按Retry-After重试
+            compareTaskRunner.abandon(task.getId());
+            compareTaskDeduplicator.release(task.getId());
+            this.removeById(task.getId());
+            throw e;
+        }
+        // 任务已开始，写入同簇价格失败时该平台子任务记为失败，任务照常结束
+        for (CompareTaskMessage message : resolved) {
+            try {
+                compareTaskRunner.resolve(message, clusterPrices.get(message.getPlatformCode()));
+            } catch (RuntimeException e) {
+                compareTaskRunner.fail(message, e);
+            }
+        }
+        log.info("比价任务已提交: {}, 商品名称: {}, 平台: {}, 使用同簇价格的平台: {}", task.getId(), productName,
+                supportedPlatforms, clusterPrices.keySet());
 
         return task;
     }
 
-    @Async
-    public void executeCompareTaskAsync(Long taskId, String productName) {
+    private Map<String, List<ProductPrice>> freshClusterPrices(Long sourceProductId) {
         try {
-            log.info("开始执行比价任务: {}, 商品名称: {}", taskId, productName);
-            
-            // 获取支持的平台列表
-            List<String> supportedPlatforms = crawlerService.getSupportedPlatforms();
-            log.info("支持的平台: {}", supportedPlatforms);
-            
-            // 使用爬虫服务搜索商品
-            List<ProductPrice> searchResults = crawlerService.batchSearchProducts(productName, supportedPlatforms);
-            log.info("搜索到 {} 个商品", searchResults.size());
-            
-            // 保存商品价格信息到数据库
-            if (!searchResults.isEmpty()) {
-                for (ProductPrice price : searchResults) {
-                    price.setCreateTime(LocalDateTime.now());
-                    price.setUpdateTime(LocalDateTime.now());
-                    productPriceMapper.insert(price);
-                }
-                log.info("保存了 {} 个商品价格记录", searchResults.size());
-            }
-            
-            // 更新任务状态为完成
-            CompareTask task = this.getById(taskId);
-            if (task != null) {
-                task.setStatus(2); // 已完成
-                task.setEndTime(LocalDateTime.now());
-                task.setResultCount(searchResults.size());
-                this.updateById(task);
-                
-                log.info("比价任务完成: {}, 找到 {} 个结果", taskId, searchResults.size());
-            }
-        } catch (Exception e) {
-            log.error("比价任务执行失败: {}", taskId, e);
-            
-            // 更新任务状态为失败
-            CompareTask task = this.getById(taskId);
-            if (task != null) {
-                task.setStatus(3); // 失败
-                task.setEndTime(LocalDateTime.now());
-                task.setErrorMessage(e.getMessage());
-                this.updateById(task);
-            }
+            return productClusterLookup.freshPrices(sourceProductId);
+        } catch (RuntimeException e) {
+            log.warn("查询同簇商品价格失败，全部平台重新搜索：{}，原因：{}", sourceProductId, e.getMessage());
+            return Map.of();
         }
     }
 
+    /**
+     * 查询登记的等价任务，任务已被删除时清除登记
+     */
+    private CompareTask findEquivalentTask(String dedupeKey, Long taskId) {
+        if (taskId == null) {
+            return null;
+        }
+        CompareTask task = getCompareTaskById(taskId);
+        if (task == null) {
+            compareTaskDeduplicator.evictStale(dedupeKey, taskId);
+            return null;
+        }
+        compareTaskDeduplicator.recordHit();
+        log.info("合并到等价的比价任务: {}, 商品名称: {}", taskId, task.getProductName());
+        return task;
+    }
+
     @Override
     public List<CompareTask> getCompareTasks(Integer page, Integer pageSize) {
         String cacheKey = "compare:tasks:" + page + ":" + pageSize;
@@ -147,67 +205,50 @@ public class CompareServiceImpl extends ServiceImpl<CompareTaskMapper, CompareTa
     }
 
     @Override
-    public List<Object> getCompareResults(Long taskId) {
-        String cacheKey = "compare:results:" + taskId;
-        
-        // 尝试从缓存获取
-        List<Object> cachedResults = (List<Object>) redisTemplate.opsForValue().get(cacheKey);
-        if (cachedResults != null) {
-            return cachedResults;
-        }
-
+    public CursorPage<CompareResultItem> getCompareResults(Long taskId, String cursor, Integer limit) {
         // 获取比价任务
         CompareTask task = this.getById(taskId);
         if (task == null) {
             throw new RuntimeException("比价任务不存在: " + taskId);
         }
 
-        // 从数据库获取比价结果
-        LambdaQueryWrapper<ProductPrice> queryWrapper = new LambdaQueryWrapper<>();
-        queryWrapper.orderByAsc(ProductPrice::getPrice); // 按价格升序排列
-        List<ProductPrice> productPrices = productPriceMapper.selectList(queryWrapper);
+        // 从数据库获取本任务的比价结果，按价格升序分页
+        CursorPage<ProductPrice> page = compareResultStore.page(taskId, cursor, limit);
         
         // 找到最低价格
-        BigDecimal lowestPrice = productPrices.stream()
-                .map(ProductPrice::getPrice)
-                .min(BigDecimal::compareTo)
-                .orElse(BigDecimal.ZERO);
+        BigDecimal lowestPrice = page.getItems().isEmpty() ? null : compareResultStore.lowestPrice(taskId);
         
         // 转换为比价结果格式
-        List<Object> results = productPrices.stream()
-                .map(price -> {
-                    // 标记是否为最低价
-                    boolean isLowest = price.getPrice().compareTo(lowestPrice) == 0;
-                    
-                    // 创建Map来存储结果，避免匿名内部类的字段访问问题
-                    Map<String, Object> result = new HashMap<>();
-                    result.put("id", price.getId());
-                    result.put("platformProductId", price.getPlatformProductId());
-                    result.put("platform", price.getPlatformCode());
-                    result.put("price", price.getPrice());
-                    result.put("originalPrice", price.getOriginalPrice());
-                    result.put("discount", price.getDiscount());
-                    result.put("sales", price.getSales());
-                    result.put("rating", price.getRating());
-                    result.put("shopName", price.getShopName());
-                    result.put("shopRating", price.getShopRating());
-                    result.put("delivery", price.getDelivery());
-                    result.put("isLowest", isLowest);
-                    result.put("crawlTime", price.getCrawlTime());
-                    
-                    return result;
-                })
+        List<CompareResultItem> results = page.getItems().stream()
+                .map(price -> CompareResultStore.toResultItem(price, lowestPrice))
                 .collect(java.util.stream.Collectors.toList());
 
-        // 缓存结果，有效期15分钟
-        redisTemplate.opsForValue().set(cacheKey, results, 15, TimeUnit.MINUTES);
-        
-        return results;
+        return CursorPage.of(results, page.getNextCursor());
+    }
+
+    @Override
+    public CompareTask cancelCompareTask(Long taskId) {
+        CompareTask task = this.getById(taskId);
+        if (task == null) {
+            throw new BusinessException(404, "比价任务不存在: " + taskId);
+        }
+        if (task.getStatus() != null && task.getStatus() >= 2) {
+            return task;
+        }
+        if (compareTaskRunner.cancel(taskId)) {
+            log.info("比价任务已取消: {}", taskId);
+        }
+        clearCompareCache(taskId);
+        return this.getById(taskId);
     }
 
     @Override
     public void deleteCompareTask(Long taskId) {
-        // 删除任务
+        // 停止正在执行的子任务，再删除任务及其结果关联、结果快照、去重登记
+        compareTaskRunner.discard(taskId);
+        compareTaskDeduplicator.release(taskId);
+        compareResultStore.delete(taskId);
+        compareResultSnapshot.evict(taskId);
         this.removeById(taskId);
         
         // 清除相关缓存
@@ -221,9 +262,6 @@ public class CompareServiceImpl extends ServiceImpl<CompareTaskMapper, CompareTa
         // 清除任务缓存
         redisTemplate.delete("compare:task:" + taskId);
         
-        // 清除结果缓存
-        redisTemplate.delete("compare:results:" + taskId);
-        
         // 清除任务列表缓存（模糊匹配）
         redisTemplate.keys("compare:tasks:*").forEach(redisTemplate::delete);
     }
@@ -1,21 +1,58 @@
 package com.pricecompare.service.impl;
 
-import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.pricecompare.crawler.CachedSearch;
+import com.pricecompare.crawler.CrawlLease;
+import com.pricecompare.crawler.PlatformConfigRegistry;
+import com.pricecompare.crawler.PlatformExecutors;
+import com.pricecompare.crawler.SingleFlight;
+import com.pricecompare.crawler.limit.PlatformConcurrencyLimiter;
+import com.pricecompare.crawler.limit.PlatformRateLimiter;
+import com.pricecompare.crawler.resilience.PlatformHedging;
+import com.pricecompare.crawler.resilience.PlatformResilience;
+import com.pricecompare.crawler.spi.PlatformCrawler;
+import com.pricecompare.crawler.spi.PlatformCrawlerRegistry;
+import com.pricecompare.dto.response.BatchSearchResult;
+import com.pricecompare.dto.response.PlatformSearchResult;
+import com.pricecompare.dto.response.ProductDetailBatchResult;
 import com.pricecompare.entity.PlatformConfig;
 import com.pricecompare.entity.ProductPrice;
-import com.pricecompare.mapper.PlatformConfigMapper;
+import com.pricecompare.exception.CircuitOpenException;
+import com.pricecompare.exception.RateLimitExceededException;
 import com.pricecompare.mapper.ProductPriceMapper;
+import com.pricecompare.price.PriceRefreshQueue;
 import com.pricecompare.service.CrawlerService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Pattern;
 
 /**
  * 爬虫服务实现类
@@ -27,9 +64,41 @@ import java.util.concurrent.TimeUnit;
 @RequiredArgsConstructor
 public class CrawlerServiceImpl implements CrawlerService {
 
-    private final PlatformConfigMapper platformConfigMapper;
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    /** 商品详情缓存有效期（分钟） */
+    private static final long DETAIL_CACHE_MINUTES = 30;
+
+    private final PlatformConfigRegistry platformConfigRegistry;
     private final ProductPriceMapper productPriceMapper;
     private final RedisTemplate<String, Object> redisTemplate;
+    private final PlatformExecutors platformExecutors;
+    private final PlatformRateLimiter platformRateLimiter;
+    private final PlatformCrawlerRegistry platformCrawlerRegistry;
+    private final PlatformResilience platformResilience;
+    private final PlatformHedging platformHedging;
+    private final CrawlLease crawlLease;
+    private final Environment environment;
+    private final PriceRefreshQueue priceRefreshQueue;
+    private final PlatformConcurrencyLimiter platformConcurrencyLimiter;
+    private final SingleFlight<String, List<ProductPrice>> searchFlight = new SingleFlight<>();
+
+    /** 正在后台刷新的搜索，同一搜索同时只刷新一次 */
+    private final Set<String> refreshingSearches = ConcurrentHashMap.newKeySet();
+
+    @Value("${app.crawler.timeout:10000}")
+    private long defaultTimeout;
+
+    /** 是否通过Redis租约在多个节点间合并相同的搜索 */
+    @Value("${app.crawler.single-flight.redis-lease:false}")
+    private boolean redisLeaseEnabled;
+
+    @Value("${app.crawler.single-flight.poll-interval:50}")
+    private long leasePollInterval;
+
+    /** 一次批量获取详情最多同时占用的平台线程数 */
+    @Value("${app.crawler.detail-batch-concurrency:2}")
+    private int detailBatchConcurrency;
 
     @Override
     public List<ProductPrice> searchProducts(String keyword, String platformCode) {
@@ -43,21 +112,132 @@ public class CrawlerServiceImpl implements CrawlerService {
         }
 
         // 检查缓存
-        String cacheKey = "crawler:search:" + platformCode + ":" + keyword;
-        List<ProductPrice> cachedResult = (List<ProductPrice>) redisTemplate.opsForValue().get(cacheKey);
-        if (cachedResult != null) {
+        String normalizedKeyword = normalizeKeyword(keyword);
+        String flightKey = platformCode + ":" + normalizedKeyword;
+        String cacheKey = "crawler:search:" + flightKey;
+        CachedSearch cachedSearch = readSearchCache(cacheKey);
+        if (cachedSearch != null) {
+            // 超过软过期时间：先返回旧结果，再在后台刷新
+            if (cachedSearch.isStale(resolveSearchCacheTtl(platformCode, "soft-ttl", 300000L))) {
+                refreshSearchAsync(platformConfig, keyword, flightKey, cacheKey);
+            }
             log.info("从缓存获取搜索结果，关键词：{}，平台：{}", keyword, platformCode);
-            return cachedResult;
+            return cachedSearch.getProducts();
         }
 
-        // 模拟爬取数据（实际项目中应调用真实API）
-        List<ProductPrice> result = mockCrawlData(keyword, platformCode);
-        
-        // 缓存结果，有效期10分钟
-        redisTemplate.opsForValue().set(cacheKey, result, 10, TimeUnit.MINUTES);
+        // 同一平台、同一关键词同时只爬取一次，并发请求共享结果（返回副本，避免调用方相互修改）
+        List<ProductPrice> result = searchFlight.execute(flightKey,
+                () -> loadSearch(platformConfig, keyword, flightKey, cacheKey, false));
+        return copyProducts(result);
+    }
+
+    /**
+     * 在平台线程池中后台刷新搜索缓存，本节点同一搜索同时只有一个刷新任务
+     */
+    private void refreshSearchAsync(PlatformConfig platformConfig, String keyword, String flightKey, String cacheKey) {
+        if (!refreshingSearches.add(flightKey)) {
+            return;
+        }
+        try {
+            platformExecutors.get(platformConfig.getPlatformCode()).execute(() -> {
+                try {
+                    searchFlight.execute(flightKey, () -> loadSearch(platformConfig, keyword, flightKey, cacheKey, true));
+                } catch (RuntimeException e) {
+                    log.warn("后台刷新搜索缓存失败，关键词：{}，平台：{}，原因：{}",
+                            keyword, platformConfig.getPlatformCode(), e.getMessage());
+                } finally {
+                    refreshingSearches.remove(flightKey);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // 平台繁忙时放弃本次刷新，下次命中旧缓存时再尝试
+            refreshingSearches.remove(flightKey);
+        }
+    }
+
+    /**
+     * 爬取搜索结果并写入缓存，开启Redis租约时多个节点间也只有一个节点爬取
+     * 
+     * @param refresh 是否为刷新：刷新时忽略已有缓存，直接爬取
+     */
+    private List<ProductPrice> loadSearch(PlatformConfig platformConfig, String keyword, String flightKey,
+                                          String cacheKey, boolean refresh) {
+        String platformCode = platformConfig.getPlatformCode();
         
-        log.info("搜索完成，找到{}个商品，关键词：{}，平台：{}", result.size(), keyword, platformCode);
-        return result;
+        // 等待合并期间可能已有结果写入缓存
+        if (!refresh) {
+            CachedSearch cachedSearch = readSearchCache(cacheKey);
+            if (cachedSearch != null) {
+                return cachedSearch.getProducts();
+            }
+        }
+
+        String leaseToken = null;
+        if (redisLeaseEnabled) {
+            long leaseMillis = resolveTimeout(platformConfig);
+            leaseToken = crawlLease.tryAcquire("search:" + flightKey, leaseMillis);
+            if (leaseToken == null) {
+                // 其他节点正在爬取，等待其写入缓存，租约过期仍无结果时自行爬取
+                List<ProductPrice> cachedResult = awaitCachedSearch(cacheKey, leaseMillis);
+                if (cachedResult != null) {
+                    log.info("共享其他节点的搜索结果，关键词：{}，平台：{}", keyword, platformCode);
+                    return cachedResult;
+                }
+            }
+        }
+
+        try {
+            // 调用平台连接器爬取数据
+            List<ProductPrice> result = invokePlatform(platformConfig, crawler -> crawler.search(platformConfig, keyword));
+            
+            // 缓存结果，超过硬过期时间后删除
+            redisTemplate.opsForValue().set(cacheKey, CachedSearch.of(result),
+                    resolveSearchCacheTtl(platformCode, "hard-ttl", 600000L), TimeUnit.MILLISECONDS);
+            
+            log.info("搜索完成，找到{}个商品，关键词：{}，平台：{}", result.size(), keyword, platformCode);
+            return result;
+        } finally {
+            if (leaseToken != null) {
+                crawlLease.release("search:" + flightKey, leaseToken);
+            }
+        }
+    }
+
+    /**
+     * 轮询等待其他节点写入的搜索缓存
+     * @throws CancellationException 等待期间被中断，不再自行爬取
+     */
+    private List<ProductPrice> awaitCachedSearch(String cacheKey, long waitMillis) {
+        long deadline = System.currentTimeMillis() + waitMillis;
+        while (System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(leasePollInterval);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("等待其他节点的搜索结果被中断");
+            }
+            CachedSearch cachedSearch = readSearchCache(cacheKey);
+            if (cachedSearch != null) {
+                return cachedSearch.getProducts();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 读取搜索缓存，旧版本直接缓存的商品列表视为未命中
+     */
+    private CachedSearch readSearchCache(String cacheKey) {
+        Object cached = redisTemplate.opsForValue().get(cacheKey);
+        return cached instanceof CachedSearch ? (CachedSearch) cached : null;
+    }
+
+    /**
+     * 搜索缓存过期时间（毫秒），可通过 app.crawler.search-cache.{平台代码}.xxx 按平台覆盖
+     */
+    private long resolveSearchCacheTtl(String platformCode, String name, long defaultValue) {
+        Long ttl = environment.getProperty("app.crawler.search-cache." + platformCode + "." + name, Long.class);
+        return ttl != null ? ttl : environment.getProperty("app.crawler.search-cache." + name, Long.class, defaultValue);
     }
 
     @Override
@@ -70,21 +250,23 @@ public class CrawlerServiceImpl implements CrawlerService {
             log.warn("平台未配置或已禁用：{}", platformCode);
             return null;
         }
+        priceRefreshQueue.recordAccess(platformCode, Collections.singletonList(platformProductId));
 
         // 检查缓存
-        String cacheKey = "crawler:detail:" + platformCode + ":" + platformProductId;
+        String cacheKey = detailCacheKey(platformCode, platformProductId);
         ProductPrice cachedResult = (ProductPrice) redisTemplate.opsForValue().get(cacheKey);
         if (cachedResult != null) {
             log.info("从缓存获取商品详情，商品ID：{}，平台：{}", platformProductId, platformCode);
             return cachedResult;
         }
 
-        // 模拟爬取数据（实际项目中应调用真实API）
-        ProductPrice result = mockCrawlDetail(platformProductId, platformCode);
+        // 调用平台连接器爬取数据，慢请求按平台配置发起对冲；对冲延迟样本只记录连接器调用本身
+        ProductPrice result = platformHedging.execute(platformConfig, () -> invokePlatform(platformConfig,
+                crawler -> platformHedging.measure(platformCode, () -> crawler.getDetail(platformConfig, platformProductId))));
         
         if (result != null) {
             // 缓存结果，有效期30分钟
-            redisTemplate.opsForValue().set(cacheKey, result, 30, TimeUnit.MINUTES);
+            redisTemplate.opsForValue().set(cacheKey, result, DETAIL_CACHE_MINUTES, TimeUnit.MINUTES);
         }
         
         log.info("商品详情获取完成，商品ID：{}，平台：{}", platformProductId, platformCode);
@@ -92,235 +274,338 @@ public class CrawlerServiceImpl implements CrawlerService {
     }
 
     @Override
-    public List<ProductPrice> batchSearchProducts(String keyword, List<String> platformCodes) {
-        log.info("批量搜索商品，关键词：{}，平台：{}", keyword, platformCodes);
+    public ProductDetailBatchResult getProductDetails(List<String> platformProductIds, String platformCode) {
+        log.info("批量获取商品详情，商品数：{}，平台：{}", platformProductIds.size(), platformCode);
+        
+        ProductDetailBatchResult result = new ProductDetailBatchResult();
+        PlatformConfig platformConfig = getPlatformConfig(platformCode);
+        if (platformConfig == null || platformConfig.getEnabled() == 0) {
+            log.warn("平台未配置或已禁用：{}", platformCode);
+            return result;
+        }
         
-        List<ProductPrice> allResults = new ArrayList<>();
+        // 一次MGET读取全部缓存
+        List<String> ids = new ArrayList<>(new LinkedHashSet<>(platformProductIds));
+        priceRefreshQueue.recordAccess(platformCode, ids);
+        List<String> cacheKeys = ids.stream().map(id -> detailCacheKey(platformCode, id)).toList();
+        List<Object> cachedValues = redisTemplate.opsForValue().multiGet(cacheKeys);
         
-        for (String platformCode : platformCodes) {
-            try {
-                List<ProductPrice> platformResults = searchProducts(keyword, platformCode);
-                allResults.addAll(platformResults);
-                
-                // 添加平台间延迟，避免请求过快
-                Thread.sleep(100);
-            } catch (Exception e) {
-                log.error("平台{}搜索失败：{}", platformCode, e.getMessage());
+        Map<String, ProductPrice> details = result.getDetails();
+        List<String> misses = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            Object cached = cachedValues != null ? cachedValues.get(i) : null;
+            details.put(ids.get(i), (ProductPrice) cached);
+            if (cached == null) {
+                misses.add(ids.get(i));
             }
         }
         
-        log.info("批量搜索完成，共找到{}个商品，关键词：{}", allResults.size(), keyword);
-        return allResults;
+        if (!misses.isEmpty()) {
+            Map<String, ProductPrice> fetched = fetchDetails(platformConfig, misses, result);
+            details.putAll(fetched);
+            cacheDetails(platformCode, fetched);
+        }
+        details.values().removeIf(Objects::isNull);
+        
+        log.info("批量商品详情获取完成，命中缓存：{}，爬取：{}，未开始：{}，失败：{}，平台：{}",
+                ids.size() - misses.size(), misses.size(), result.getRejected().size(),
+                result.getFailed().size(), platformCode);
+        return result;
     }
 
     @Override
-    public boolean checkPlatformAvailability(String platformCode) {
+    public ProductPrice refreshProductDetail(String platformProductId, String platformCode) {
         PlatformConfig platformConfig = getPlatformConfig(platformCode);
-        return platformConfig != null && platformConfig.getEnabled() == 1;
+        if (platformConfig == null || platformConfig.getEnabled() == 0) {
+            return null;
+        }
+        ProductPrice result = invokePlatform(platformConfig, crawler -> crawler.getDetail(platformConfig, platformProductId));
+        if (result != null) {
+            redisTemplate.opsForValue().set(detailCacheKey(platformCode, platformProductId), result,
+                    DETAIL_CACHE_MINUTES, TimeUnit.MINUTES);
+        }
+        return result;
     }
 
-    @Override
-    public List<String> getSupportedPlatforms() {
-        QueryWrapper<PlatformConfig> queryWrapper = new QueryWrapper<>();
-        queryWrapper.eq("enabled", 1);
-        List<PlatformConfig> configs = platformConfigMapper.selectList(queryWrapper);
+    /**
+     * 在平台线程池中并发爬取商品详情，同时占用的平台线程不超过detailBatchConcurrency，
+     * 其余线程留给搜索；线程池拒绝或截止前未能开始的商品记入rejected，失败或超时的商品记入failed
+     */
+    private Map<String, ProductPrice> fetchDetails(PlatformConfig platformConfig, List<String> platformProductIds,
+                                                   ProductDetailBatchResult result) {
+        String platformCode = platformConfig.getPlatformCode();
+        long deadline = System.currentTimeMillis() + resolveTimeout(platformConfig);
+        Semaphore permits = new Semaphore(Math.max(1, detailBatchConcurrency));
+        Map<String, CompletableFuture<ProductPrice>> futures = new LinkedHashMap<>();
+        List<Future<?>> tasks = new ArrayList<>();
+        try {
+            for (String platformProductId : platformProductIds) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0 || !permits.tryAcquire(remaining, TimeUnit.MILLISECONDS)) {
+                    result.getRejected().add(platformProductId);
+                    continue;
+                }
+                CompletableFuture<ProductPrice> future = new CompletableFuture<>();
+                try {
+                    tasks.add(platformExecutors.get(platformCode).submit(() -> {
+                        try {
+                            future.complete(invokePlatform(platformConfig,
+                                    crawler -> crawler.getDetail(platformConfig, platformProductId)));
+                        } catch (Throwable e) {
+                            future.completeExceptionally(e);
+                        } finally {
+                            permits.release();
+                        }
+                    }));
+                } catch (RejectedExecutionException e) {
+                    permits.release();
+                    result.getRejected().add(platformProductId);
+                    continue;
+                }
+                futures.put(platformProductId, future);
+            }
+            
+            CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0]))
+                    .get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("平台{}批量获取商品详情超时，未完成的商品将被放弃", platformCode);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // 单个商品失败不影响其他商品，结果在下面逐个收集
+        } finally {
+            tasks.forEach(task -> task.cancel(true));
+        }
+        if (!result.getRejected().isEmpty()) {
+            log.warn("平台{}繁忙，{}个商品未能开始爬取", platformCode, result.getRejected().size());
+        }
         
-        return configs.stream()
-                .map(PlatformConfig::getPlatformCode)
-                .toList();
+        Map<String, ProductPrice> fetched = new LinkedHashMap<>();
+        futures.forEach((platformProductId, future) -> {
+            if (!future.isDone()) {
+                result.getFailed().add(platformProductId);
+                return;
+            }
+            try {
+                ProductPrice product = future.join();
+                if (product != null) {
+                    fetched.put(platformProductId, product);
+                }
+            } catch (CompletionException e) {
+                result.getFailed().add(platformProductId);
+                log.warn("获取商品详情失败，商品ID：{}，平台：{}，原因：{}",
+                        platformProductId, platformCode, e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+            }
+        });
+        return fetched;
     }
 
     /**
-     * 获取平台配置
+     * 通过一次管道批量写回商品详情缓存
      */
-    private PlatformConfig getPlatformConfig(String platformCode) {
-        QueryWrapper<PlatformConfig> queryWrapper = new QueryWrapper<>();
-        queryWrapper.eq("platform_code", platformCode);
-        return platformConfigMapper.selectOne(queryWrapper);
+    @SuppressWarnings("unchecked")
+    private void cacheDetails(String platformCode, Map<String, ProductPrice> details) {
+        if (details.isEmpty()) {
+            return;
+        }
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> redisOperations = (RedisOperations<String, Object>) operations;
+                details.forEach((platformProductId, product) -> redisOperations.opsForValue()
+                        .set(detailCacheKey(platformCode, platformProductId), product, DETAIL_CACHE_MINUTES, TimeUnit.MINUTES));
+                return null;
+            }
+        });
+    }
+
+    @Override
+    public List<ProductPrice> batchSearchProducts(String keyword, List<String> platformCodes) {
+        return batchSearch(keyword, platformCodes).mergeProducts();
+    }
+
+    @Override
+    public BatchSearchResult batchSearch(String keyword, List<String> platformCodes) {
+        return batchSearchAsync(keyword, platformCodes, platformResult -> { }).join();
+    }
+
+    @Override
+    public BatchSearchResult batchSearch(String keyword, List<String> platformCodes, long deadline) {
+        List<Future<?>> calls = new ArrayList<>();
+        CompletableFuture<BatchSearchResult> result = searchAll(keyword, platformCodes, platformResult -> { }, deadline, calls);
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            // 调用方被中断（任务取消），进行中的平台调用一并中断，平台线程立即释放
+            calls.forEach(call -> call.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new CancellationException("搜索已取消，关键词：" + keyword);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new CompletionException(e.getCause());
+        }
+    }
+
+    @Override
+    public CompletableFuture<BatchSearchResult> batchSearchAsync(String keyword, List<String> platformCodes,
+                                                                 Consumer<PlatformSearchResult> listener) {
+        return searchAll(keyword, platformCodes, listener, Long.MAX_VALUE, new ArrayList<>());
     }
 
     /**
-     * 模拟爬取搜索数据
+     * 各平台并发搜索，已提交的平台调用记录到calls中，供调用方中断
      */
-    private List<ProductPrice> mockCrawlData(String keyword, String platformCode) {
-        List<ProductPrice> results = new ArrayList<>();
+    private CompletableFuture<BatchSearchResult> searchAll(String keyword, List<String> platformCodes,
+                                                           Consumer<PlatformSearchResult> listener,
+                                                           long deadline, List<Future<?>> calls) {
+        log.info("批量搜索商品，关键词：{}，平台：{}", keyword, platformCodes);
+        long startTime = System.currentTimeMillis();
         
-        // 模拟不同平台的数据
-        switch (platformCode) {
-            case "taobao":
-                results.addAll(mockTaobaoData(keyword));
-                break;
-            case "jd":
-                results.addAll(mockJdData(keyword));
-                break;
-            case "pdd":
-                results.addAll(mockPddData(keyword));
-                break;
-            case "suning":
-                results.addAll(mockSuningData(keyword));
-                break;
-            case "vip":
-                results.addAll(mockVipData(keyword));
-                break;
-            default:
-                log.warn("不支持的平台：{}", platformCode);
-        }
+        // 各平台并发执行，结果按完成顺序合并，每个平台完成后立即回调
+        List<PlatformSearchResult> platformResults = Collections.synchronizedList(new ArrayList<>());
+        CompletableFuture<?>[] futures = platformCodes.stream()
+                .map(platformCode -> searchPlatformAsync(keyword, platformCode, deadline, calls).thenAccept(platformResult -> {
+                    platformResults.add(platformResult);
+                    notifyListener(listener, platformResult);
+                }))
+                .toArray(CompletableFuture[]::new);
         
-        return results;
+        return CompletableFuture.allOf(futures).thenApply(ignored -> {
+            BatchSearchResult result = new BatchSearchResult();
+            result.setKeyword(keyword);
+            result.setPlatforms(new ArrayList<>(platformResults));
+            result.setTotalCount(result.getPlatforms().stream().mapToInt(PlatformSearchResult::getResultCount).sum());
+            result.setPartial(result.getPlatforms().stream()
+                    .anyMatch(platform -> platform.getStatus() != PlatformSearchResult.Status.SUCCESS));
+            result.setElapsedMillis(System.currentTimeMillis() - startTime);
+            
+            log.info("批量搜索完成，共找到{}个商品，关键词：{}，耗时：{}ms", result.getTotalCount(), keyword, result.getElapsedMillis());
+            return result;
+        });
     }
 
     /**
-     * 模拟爬取商品详情
+     * 回调异常只记录日志，不影响其他平台及汇总结果
      */
-    private ProductPrice mockCrawlDetail(String platformProductId, String platformCode) {
-        // 模拟商品详情数据
-        ProductPrice detail = new ProductPrice();
-        detail.setPlatformProductId(platformProductId);
-        detail.setPlatformCode(platformCode);
-        detail.setCrawlTime(LocalDateTime.now());
-        detail.setCreateTime(LocalDateTime.now());
-        detail.setUpdateTime(LocalDateTime.now());
-        detail.setProductUrl("https://" + platformCode + ".com/product/" + platformProductId);
-        
-        // 根据平台设置不同的价格和详情
-        switch (platformCode) {
-            case "taobao":
-                detail.setPrice(new BigDecimal("299.00"));
-                detail.setOriginalPrice(new BigDecimal("399.00"));
-                detail.setDiscount("7.5折");
-                detail.setSales(1500);
-                detail.setRating(new BigDecimal("4.8"));
-                detail.setShopName("天猫旗舰店");
-                detail.setShopRating(new BigDecimal("4.9"));
-                detail.setDelivery("快递 免运费");
-                break;
-            case "jd":
-                detail.setPrice(new BigDecimal("289.00"));
-                detail.setOriginalPrice(new BigDecimal("389.00"));
-                detail.setDiscount("7.4折");
-                detail.setSales(2000);
-                detail.setRating(new BigDecimal("4.9"));
-                detail.setShopName("京东自营");
-                detail.setShopRating(new BigDecimal("4.8"));
-                detail.setDelivery("京东物流 次日达");
-                break;
-            case "pdd":
-                detail.setPrice(new BigDecimal("259.00"));
-                detail.setOriginalPrice(new BigDecimal("359.00"));
-                detail.setDiscount("7.2折");
-                detail.setSales(5000);
-                detail.setRating(new BigDecimal("4.7"));
-                detail.setShopName("拼多多官方店");
-                detail.setShopRating(new BigDecimal("4.6"));
-                detail.setDelivery("快递 免运费");
-                break;
-            case "suning":
-                detail.setPrice(new BigDecimal("299.00"));
-                detail.setSales(1000);
-                detail.setRating(new BigDecimal("4.5"));
-                detail.setShopName("苏宁易购官方店");
-                detail.setDelivery("快递");
-                break;
-            case "vip":
-                detail.setPrice(new BigDecimal("299.00"));
-                detail.setSales(1000);
-                detail.setRating(new BigDecimal("4.5"));
-                detail.setShopName("唯品会官方店");
-                detail.setDelivery("快递");
-                break;
-            default:
-                detail.setPrice(new BigDecimal("299.00"));
-                detail.setSales(1000);
-                detail.setRating(new BigDecimal("4.5"));
-                detail.setShopName("官方旗舰店");
-                detail.setDelivery("快递");
+    private static void notifyListener(Consumer<PlatformSearchResult> listener, PlatformSearchResult platformResult) {
+        try {
+            listener.accept(platformResult);
+        } catch (RuntimeException e) {
+            log.warn("平台{}搜索结果回调失败：{}", platformResult.getPlatformCode(), e.getMessage());
         }
-        
-        return detail;
     }
 
-    // 模拟各平台数据的方法
-    private List<ProductPrice> mockTaobaoData(String keyword) {
-        List<ProductPrice> results = new ArrayList<>();
-        for (int i = 1; i <= 5; i++) {
-            ProductPrice item = createMockProduct(keyword, "taobao", i);
-            item.setPrice(new BigDecimal(299 + i * 10));
-            item.setSales(1000 + i * 200);
-            results.add(item);
-        }
-        return results;
+    @Override
+    public boolean checkPlatformAvailability(String platformCode) {
+        PlatformConfig platformConfig = getPlatformConfig(platformCode);
+        return platformConfig != null && platformConfig.getEnabled() == 1
+                && platformResilience.isAvailable(platformCode);
     }
 
-    private List<ProductPrice> mockJdData(String keyword) {
-        List<ProductPrice> results = new ArrayList<>();
-        for (int i = 1; i <= 5; i++) {
-            ProductPrice item = createMockProduct(keyword, "jd", i);
-            item.setPrice(new BigDecimal(289 + i * 15));
-            item.setSales(1500 + i * 300);
-            results.add(item);
-        }
-        return results;
+    @Override
+    public List<String> getSupportedPlatforms() {
+        return platformConfigRegistry.getEnabledPlatformCodes();
     }
 
-    private List<ProductPrice> mockPddData(String keyword) {
-        List<ProductPrice> results = new ArrayList<>();
-        for (int i = 1; i <= 5; i++) {
-            ProductPrice item = createMockProduct(keyword, "pdd", i);
-            item.setPrice(new BigDecimal(259 + i * 8));
-            item.setSales(2000 + i * 500);
-            results.add(item);
+    /**
+     * 在平台线程池中异步搜索，超过平台超时时间或截止时间后中断爬取并标记为超时
+     */
+    private CompletableFuture<PlatformSearchResult> searchPlatformAsync(String keyword, String platformCode,
+                                                                        long deadline, List<Future<?>> calls) {
+        long startTime = System.currentTimeMillis();
+        
+        PlatformConfig platformConfig = getPlatformConfig(platformCode);
+        if (platformConfig == null || platformConfig.getEnabled() == 0) {
+            return CompletableFuture.completedFuture(PlatformSearchResult.failure(
+                    platformCode, PlatformSearchResult.Status.DISABLED, 0, "平台未配置或已禁用"));
+        }
+        long timeout = Math.min(resolveTimeout(platformConfig), deadline - startTime);
+        if (timeout <= 0) {
+            return CompletableFuture.completedFuture(PlatformSearchResult.failure(
+                    platformCode, PlatformSearchResult.Status.TIMEOUT, 0, "已超过截止时间"));
+        }
+        
+        CompletableFuture<List<ProductPrice>> future = new CompletableFuture<>();
+        Future<?> task;
+        try {
+            task = platformExecutors.get(platformCode).submit(() -> {
+                try {
+                    future.complete(searchProducts(keyword, platformCode));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("平台{}爬取线程池已满，跳过本次搜索", platformCode);
+            return CompletableFuture.completedFuture(PlatformSearchResult.failure(
+                    platformCode, PlatformSearchResult.Status.REJECTED, 0, "平台繁忙"));
         }
-        return results;
+        calls.add(task);
+        
+        return future.orTimeout(timeout, TimeUnit.MILLISECONDS).handle((products, error) -> {
+            long elapsed = System.currentTimeMillis() - startTime;
+            if (error == null) {
+                return PlatformSearchResult.success(platformCode, products, elapsed);
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause instanceof TimeoutException) {
+                task.cancel(true);
+                log.warn("平台{}搜索超时，超时时间：{}ms，关键词：{}", platformCode, timeout, keyword);
+                return PlatformSearchResult.failure(platformCode, PlatformSearchResult.Status.TIMEOUT, elapsed, "搜索超时");
+            }
+            if (cause instanceof CircuitOpenException) {
+                return PlatformSearchResult.failure(platformCode, PlatformSearchResult.Status.CIRCUIT_OPEN, elapsed, cause.getMessage());
+            }
+            if (cause instanceof RateLimitExceededException) {
+                return PlatformSearchResult.failure(platformCode, PlatformSearchResult.Status.RATE_LIMITED, elapsed, cause.getMessage());
+            }
+            log.error("平台{}搜索失败：{}", platformCode, cause.getMessage());
+            return PlatformSearchResult.failure(platformCode, PlatformSearchResult.Status.FAILED, elapsed, cause.getMessage());
+        });
     }
 
-    private List<ProductPrice> mockSuningData(String keyword) {
-        List<ProductPrice> results = new ArrayList<>();
-        for (int i = 1; i <= 4; i++) {
-            ProductPrice item = createMockProduct(keyword, "suning", i);
-            item.setPrice(new BigDecimal(279 + i * 12));
-            item.setSales(800 + i * 150);
-            results.add(item);
-        }
-        return results;
+    /**
+     * 所有平台调用的统一入口：熔断与重试在外层，每次尝试都先按平台配额限流，再受自适应并发上限约束
+     */
+    private <T> T invokePlatform(PlatformConfig platformConfig, Function<PlatformCrawler, T> call) {
+        PlatformCrawler crawler = platformCrawlerRegistry.resolve(platformConfig);
+        return platformResilience.execute(platformConfig, () -> {
+            platformRateLimiter.acquire(platformConfig);
+            return platformConcurrencyLimiter.execute(platformConfig.getPlatformCode(), () -> call.apply(crawler));
+        });
     }
 
-    private List<ProductPrice> mockVipData(String keyword) {
-        List<ProductPrice> results = new ArrayList<>();
-        for (int i = 1; i <= 3; i++) {
-            ProductPrice item = createMockProduct(keyword, "vip", i);
-            item.setPrice(new BigDecimal(269 + i * 20));
-            item.setSales(600 + i * 100);
-            results.add(item);
-        }
-        return results;
+    private static String detailCacheKey(String platformCode, String platformProductId) {
+        return "crawler:detail:" + platformCode + ":" + platformProductId;
     }
 
-    private ProductPrice createMockProduct(String keyword, String platform, int index) {
-        ProductPrice item = new ProductPrice();
-        item.setPlatformProductId(platform + "_" + keyword.hashCode() + "_" + index);
-        item.setPlatformCode(platform);
-        item.setCrawlTime(LocalDateTime.now());
-        item.setCreateTime(LocalDateTime.now());
-        item.setUpdateTime(LocalDateTime.now());
-        item.setRating(new BigDecimal("4." + (5 + index % 5)));
-        item.setShopName(getMockShopName(platform, index));
-        item.setShopRating(new BigDecimal("4." + (6 + index % 4)));
-        item.setDelivery(getMockDelivery(platform));
-        item.setProductUrl("https://" + platform + ".com/product/" + keyword.hashCode() + "_" + index);
-        return item;
+    /**
+     * 平台请求超时时间（毫秒）
+     */
+    private long resolveTimeout(PlatformConfig platformConfig) {
+        return platformConfig.getTimeout() != null ? platformConfig.getTimeout() : defaultTimeout;
     }
 
-    private String getMockShopName(String platform, int index) {
-        String[] shops = {"官方旗舰店", "品牌专卖店", "优质商家", "金牌卖家", "认证店铺"};
-        return platform.toUpperCase() + " " + shops[index % shops.length];
+    /**
+     * 归一化搜索关键词：去除首尾空白、合并连续空白、统一小写
+     */
+    private static String normalizeKeyword(String keyword) {
+        return WHITESPACE.matcher(keyword.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
     }
 
-    private String getMockDelivery(String platform) {
-        switch (platform) {
-            case "jd": return "京东物流 次日达";
-            case "taobao": return "快递 免运费";
-            case "pdd": return "快递 包邮";
-            default: return "快递";
+    private static List<ProductPrice> copyProducts(List<ProductPrice> products) {
+        List<ProductPrice> copies = new ArrayList<>(products.size());
+        for (ProductPrice product : products) {
+            ProductPrice copy = new ProductPrice();
+            BeanUtils.copyProperties(product, copy);
+            copies.add(copy);
         }
+        return copies;
+    }
+
+    /**
+     * 获取平台配置
+     */
+    private PlatformConfig getPlatformConfig(String platformCode) {
+        return platformConfigRegistry.get(platformCode);
     }
-}
\ No newline at end of file
+}
@@ -3,9 +3,11 @@ package com.pricecompare.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.pricecompare.dto.response.SimilarProduct;
 import com.pricecompare.entity.Product;
 import com.pricecompare.mapper.ProductMapper;
 import com.pricecompare.service.ProductService;
+import com.pricecompare.similar.SimilarProductIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.core.RedisTemplate;
@@ -24,7 +26,11 @@ import java.util.concurrent.TimeUnit;
 @RequiredArgsConstructor
 public class ProductServiceImpl extends ServiceImpl<ProductMapper, Product> implements ProductService {
 
+    /** 相似商品推荐最大数量 */
+    private static final int MAX_SIMILAR_LIMIT = 50;
+
     private final RedisTemplate<String, Object> redisTemplate;
+    private final SimilarProductIndex similarProductIndex;
 
     @Override
     public List<Product> searchProducts(String keyword, Integer page, Integer pageSize) {
@@ -131,6 +137,9 @@ public class ProductServiceImpl extends ServiceImpl<ProductMapper, Product> impl
     public void saveProduct(Product product) {
         this.saveOrUpdate(product);
         
+        // 更新相似商品索引
+        similarProductIndex.add(product);
+        
         // 清除相关缓存
         clearProductCache(product);
     }
@@ -139,10 +148,18 @@ public class ProductServiceImpl extends ServiceImpl<ProductMapper, Product> impl
     public void batchSaveProducts(List<Product> products) {
         this.saveOrUpdateBatch(products);
         
+        // 更新相似商品索引
+        similarProductIndex.addAll(products);
+        
         // 批量清除缓存
         products.forEach(this::clearProductCache);
     }
 
+    @Override
+    public List<SimilarProduct> getSimilarProducts(Long id, Integer limit) {
+        return similarProductIndex.recommend(id, Math.max(1, Math.min(limit, MAX_SIMILAR_LIMIT)));
+    }
+
     /**
      * 清除商品相关缓存
      */
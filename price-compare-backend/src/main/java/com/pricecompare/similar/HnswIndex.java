@@ -0,0 +1,489 @@
+package com.pricecompare.similar;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * HNSW近似最近邻索引
+ * 向量须已做L2归一化，距离为1-余弦相似度。向量、邻接表全部存放在基本类型数组中：
+ * 向量按页分配，扩容时不复制已有向量；第0层每个节点最多2M个邻居，上层最多M个。
+ * 同一外部ID重复写入时旧节点标记删除，查询时跳过。写入串行，查询可并发。
+ * 
+ * @author AutoValuePilot
+ */
+public class HnswIndex {
+
+    /** 每页向量数 */
+    private static final int PAGE_NODES = 4096;
+
+    private final int dimension;
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final Random random;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ThreadLocal<Visited> visited = ThreadLocal.withInitial(Visited::new);
+
+    private float[][] vectorPages = new float[0][];
+    private long[] ids = new long[0];
+    private byte[] levels = new byte[0];
+    /** 第0层邻接表：[节点][0]为邻居数，其后为邻居节点 */
+    private int[][] layer0 = new int[0][];
+    /** 上层邻接表：[节点][层-1][0]为邻居数，第0层节点为null */
+    private int[][][] upperLayers = new int[0][][];
+    private final BitSet deleted = new BitSet();
+    private final Map<Long, Integer> nodeById = new HashMap<>();
+
+    private int size;
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    public HnswIndex(int dimension, int m, int efConstruction, long seed) {
+        this.dimension = dimension;
+        this.m = m;
+        this.maxM0 = m * 2;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1 / Math.log(m);
+        this.random = new Random(seed);
+    }
+
+    /**
+     * 写入或替换向量
+     */
+    public void add(long id, float[] vector) {
+        if (vector.length != dimension) {
+            throw new IllegalArgumentException("向量维度应为" + dimension + "，实际为" + vector.length);
+        }
+        lock.writeLock().lock();
+        try {
+            Integer previous = nodeById.get(id);
+            if (previous != null) {
+                deleted.set(previous);
+            }
+            int node = allocate(id, vector);
+            nodeById.put(id, node);
+            connect(node, vector);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 删除向量（标记删除）
+     */
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            Integer node = nodeById.remove(id);
+            if (node != null) {
+                deleted.set(node);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 获取已索引的向量副本
+     * @return 不存在时返回null
+     */
+    public float[] getVector(long id) {
+        lock.readLock().lock();
+        try {
+            Integer node = nodeById.get(id);
+            if (node == null) {
+                return null;
+            }
+            return vectorOf(node);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 查询最相似的k个向量
+     * @param ef 搜索宽度，越大召回率越高、耗时越长
+     * @return 按相似度降序排列的结果
+     */
+    public List<Neighbor> search(float[] query, int k, int ef) {
+        lock.readLock().lock();
+        try {
+            if (entryPoint < 0 || k <= 0) {
+                return List.of();
+            }
+            int current = entryPoint;
+            float currentDistance = distance(query, current);
+            for (int level = maxLevel; level > 0; level--) {
+                current = greedy(query, current, currentDistance, level);
+                currentDistance = distance(query, current);
+            }
+            NodeHeap results = searchLayer(query, current, Math.max(ef, k), 0);
+            int count = results.size();
+            int[] nodes = new int[count];
+            float[] distances = new float[count];
+            for (int i = count - 1; i >= 0; i--) {
+                distances[i] = results.peekDistance();
+                nodes[i] = results.pop();
+            }
+            List<Neighbor> neighbors = new ArrayList<>(Math.min(k, count));
+            for (int i = 0; i < count && neighbors.size() < k; i++) {
+                if (!deleted.get(nodes[i])) {
+                    neighbors.add(new Neighbor(ids[nodes[i]], 1 - distances[i]));
+                }
+            }
+            return neighbors;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 有效（未删除）的向量数
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return nodeById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getDimension() {
+        return dimension;
+    }
+
+    private int allocate(long id, float[] vector) {
+        int node = size;
+        if (node == ids.length) {
+            int capacity = Math.max(PAGE_NODES, ids.length * 2);
+            ids = Arrays.copyOf(ids, capacity);
+            levels = Arrays.copyOf(levels, capacity);
+            layer0 = Arrays.copyOf(layer0, capacity);
+            upperLayers = Arrays.copyOf(upperLayers, capacity);
+        }
+        int page = node / PAGE_NODES;
+        if (page == vectorPages.length) {
+            vectorPages = Arrays.copyOf(vectorPages, page + 1);
+            vectorPages[page] = new float[PAGE_NODES * dimension];
+        }
+        System.arraycopy(vector, 0, vectorPages[page], (node % PAGE_NODES) * dimension, dimension);
+
+        int level = Math.min((int) (-Math.log(1 - random.nextDouble()) * levelMultiplier), Byte.MAX_VALUE);
+        ids[node] = id;
+        levels[node] = (byte) level;
+        layer0[node] = new int[maxM0 + 1];
+        if (level > 0) {
+            upperLayers[node] = new int[level][m + 1];
+        }
+        size++;
+        return node;
+    }
+
+    private void connect(int node, float[] vector) {
+        int level = levels[node];
+        if (entryPoint < 0) {
+            entryPoint = node;
+            maxLevel = level;
+            return;
+        }
+        int current = entryPoint;
+        float currentDistance = distance(vector, current);
+        for (int l = maxLevel; l > level; l--) {
+            current = greedy(vector, current, currentDistance, l);
+            currentDistance = distance(vector, current);
+        }
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            NodeHeap candidates = searchLayer(vector, current, efConstruction, l);
+            int count = candidates.size();
+            int[] sorted = new int[count];
+            float[] sortedDistances = new float[count];
+            for (int i = count - 1; i >= 0; i--) {
+                sortedDistances[i] = candidates.peekDistance();
+                sorted[i] = candidates.pop();
+            }
+            current = sorted[0];
+            int maxConnections = l == 0 ? maxM0 : m;
+            int[] selected = selectNeighbors(sorted, sortedDistances, count, maxConnections);
+            int[] links = neighbors(node, l);
+            links[0] = selected.length;
+            System.arraycopy(selected, 0, links, 1, selected.length);
+            for (int neighbor : selected) {
+                addLink(neighbor, node, l, maxConnections);
+            }
+        }
+        if (level > maxLevel) {
+            entryPoint = node;
+            maxLevel = level;
+        }
+    }
+
+    private void addLink(int node, int newNeighbor, int level, int maxConnections) {
+        int[] links = neighbors(node, level);
+        int count = links[0];
+        if (count < maxConnections) {
+            links[++links[0]] = newNeighbor;
+            return;
+        }
+        // 邻居已满时新邻居替换最远的邻居；只在新节点选邻居时做启发式选择，避免每次反向连接都重算邻居间距离
+        int farthest = -1;
+        float farthestDistance = distanceBetween(node, newNeighbor);
+        for (int i = 1; i <= count; i++) {
+            float d = distanceBetween(node, links[i]);
+            if (d > farthestDistance) {
+                farthestDistance = d;
+                farthest = i;
+            }
+        }
+        if (farthest > 0) {
+            links[farthest] = newNeighbor;
+        }
+    }
+
+    /**
+     * 启发式邻居选择：只保留比已选邻居更靠近基准点的候选，使邻居分布在不同方向；不足时用剩余最近候选补齐
+     * @param candidates 按距离升序排列的候选
+     */
+    private int[] selectNeighbors(int[] candidates, float[] distances, int count, int maxConnections) {
+        int[] selected = new int[Math.min(count, maxConnections)];
+        int selectedCount = 0;
+        boolean[] used = new boolean[count];
+        for (int i = 0; i < count && selectedCount < selected.length; i++) {
+            boolean keep = true;
+            for (int j = 0; j < selectedCount; j++) {
+                if (distanceBetween(candidates[i], selected[j]) < distances[i]) {
+                    keep = false;
+                    break;
+                }
+            }
+            if (keep) {
+                selected[selectedCount++] = candidates[i];
+                used[i] = true;
+            }
+        }
+        for (int i = 0; i < count && selectedCount < selected.length; i++) {
+            if (!used[i]) {
+                selected[selectedCount++] = candidates[i];
+            }
+        }
+        return selected;
+    }
+
+    private int greedy(float[] query, int start, float startDistance, int level) {
+        int current = start;
+        float currentDistance = startDistance;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            int[] links = neighbors(current, level);
+            for (int i = 1; i <= links[0]; i++) {
+                float d = distance(query, links[i]);
+                if (d < currentDistance) {
+                    currentDistance = d;
+                    current = links[i];
+                    changed = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 在单层内做best-first搜索
+     * @return 最多ef个最近节点组成的大顶堆
+     */
+    private NodeHeap searchLayer(float[] query, int entry, int ef, int level) {
+        Visited seen = visited.get();
+        seen.reset(size);
+        NodeHeap candidates = new NodeHeap(ef * 2, false);
+        NodeHeap results = new NodeHeap(ef + 1, true);
+        float entryDistance = distance(query, entry);
+        seen.mark(entry);
+        candidates.push(entry, entryDistance);
+        results.push(entry, entryDistance);
+        while (candidates.size() > 0) {
+            float candidateDistance = candidates.peekDistance();
+            if (results.size() >= ef && candidateDistance > results.peekDistance()) {
+                break;
+            }
+            int candidate = candidates.pop();
+            int[] links = neighbors(candidate, level);
+            for (int i = 1; i <= links[0]; i++) {
+                int neighbor = links[i];
+                if (!seen.mark(neighbor)) {
+                    continue;
+                }
+                float d = distance(query, neighbor);
+                if (results.size() < ef || d < results.peekDistance()) {
+                    candidates.push(neighbor, d);
+                    results.push(neighbor, d);
+                    if (results.size() > ef) {
+                        results.pop();
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    private int[] neighbors(int node, int level) {
+        return level == 0 ? layer0[node] : upperLayers[node][level - 1];
+    }
+
+    private float[] vectorOf(int node) {
+        float[] vector = new float[dimension];
+        System.arraycopy(vectorPages[node / PAGE_NODES], (node % PAGE_NODES) * dimension, vector, 0, dimension);
+        return vector;
+    }
+
+    private float distance(float[] query, int node) {
+        return 1 - dot(query, 0, vectorPages[node / PAGE_NODES], (node % PAGE_NODES) * dimension);
+    }
+
+    private float distanceBetween(int a, int b) {
+        return 1 - dot(vectorPages[a / PAGE_NODES], (a % PAGE_NODES) * dimension,
+                vectorPages[b / PAGE_NODES], (b % PAGE_NODES) * dimension);
+    }
+
+    /**
+     * 点积，四路累加减少浮点加法的依赖链
+     */
+    private float dot(float[] a, int offsetA, float[] b, int offsetB) {
+        float s0 = 0;
+        float s1 = 0;
+        float s2 = 0;
+        float s3 = 0;
+        int i = 0;
+        for (int bound = dimension - 3; i < bound; i += 4) {
+            s0 += a[offsetA + i] * b[offsetB + i];
+            s1 += a[offsetA + i + 1] * b[offsetB + i + 1];
+            s2 += a[offsetA + i + 2] * b[offsetB + i + 2];
+            s3 += a[offsetA + i + 3] * b[offsetB + i + 3];
+        }
+        for (; i < dimension; i++) {
+            s0 += a[offsetA + i] * b[offsetB + i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    /**
+     * 查询结果
+     * @param id 外部ID
+     * @param score 余弦相似度
+     */
+    public record Neighbor(long id, float score) {
+    }
+
+    /**
+     * 基于数组的二叉堆，max为true时为大顶堆
+     */
+    private static final class NodeHeap {
+
+        private int[] nodes;
+        private float[] distances;
+        private int size;
+        private final boolean max;
+
+        NodeHeap(int capacity, boolean max) {
+            this.nodes = new int[Math.max(capacity, 4)];
+            this.distances = new float[nodes.length];
+            this.max = max;
+        }
+
+        int size() {
+            return size;
+        }
+
+        float peekDistance() {
+            return distances[0];
+        }
+
+        void push(int node, float distance) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+                distances = Arrays.copyOf(distances, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!before(distance, distances[parent])) {
+                    break;
+                }
+                nodes[i] = nodes[parent];
+                distances[i] = distances[parent];
+                i = parent;
+            }
+            nodes[i] = node;
+            distances[i] = distance;
+        }
+
+        int pop() {
+            int top = nodes[0];
+            size--;
+            int lastNode = nodes[size];
+            float lastDistance = distances[size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && before(distances[child + 1], distances[child])) {
+                    child++;
+                }
+                if (!before(distances[child], lastDistance)) {
+                    break;
+                }
+                nodes[i] = nodes[child];
+                distances[i] = distances[child];
+                i = child;
+            }
+            nodes[i] = lastNode;
+            distances[i] = lastDistance;
+            return top;
+        }
+
+        private boolean before(float a, float b) {
+            return max ? a > b : a < b;
+        }
+    }
+
+    /**
+     * 访问标记，按代数复用数组，避免每次查询清零
+     */
+    private static final class Visited {
+
+        private int[] marks = new int[0];
+        private int generation;
+
+        void reset(int capacity) {
+            if (marks.length < capacity) {
+                marks = new int[Math.max(capacity, marks.length * 2)];
+                generation = 0;
+            }
+            generation++;
+            if (generation == Integer.MAX_VALUE) {
+                Arrays.fill(marks, 0);
+                generation = 1;
+            }
+        }
+
+        /**
+         * @return 首次访问时返回true
+         */
+        boolean mark(int node) {
+            if (marks[node] == generation) {
+                return false;
+            }
+            marks[node] = generation;
+            return true;
+        }
+    }
+}
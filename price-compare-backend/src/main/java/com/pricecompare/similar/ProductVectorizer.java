@@ -0,0 +1,208 @@
+package com.pricecompare.similar;
+
+import com.pricecompare.entity.Product;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 商品向量化
+ * 把标题、品牌、型号、分类、特征和规格参数切分为词项（英文数字按词、中文按二元组），
+ * 用特征哈希映射到固定维度，按哈希桶维护文档频率计算TF-IDF，最后做L2归一化。
+ * 品牌、型号带字段前缀并加权，避免与标题中的同名词项混在一起。
+ * 文档频率按商品ID记录已计入的哈希桶：同一商品再次写入时先扣除旧桶再计入新桶，商品移除时扣除，
+ * 重复保存或更新商品不会使文档数和文档频率累加。
+ * 
+ * @author AutoValuePilot
+ */
+public class ProductVectorizer {
+
+    private static final float TITLE_WEIGHT = 1.0f;
+    private static final float BRAND_WEIGHT = 3.0f;
+    private static final float MODEL_WEIGHT = 3.0f;
+    private static final float CATEGORY_WEIGHT = 2.0f;
+    private static final float FEATURE_WEIGHT = 1.0f;
+    private static final float SPECIFICATION_WEIGHT = 0.5f;
+
+    private final int dimension;
+    private final AtomicIntegerArray documentFrequency;
+    private final AtomicLong documents = new AtomicLong();
+    /** 每个商品计入文档频率的哈希桶 */
+    private final Map<Long, int[]> countedBuckets = new ConcurrentHashMap<>();
+
+    public ProductVectorizer(int dimension) {
+        if (dimension <= 0) {
+            throw new IllegalArgumentException("向量维度必须大于0: " + dimension);
+        }
+        this.dimension = dimension;
+        this.documentFrequency = new AtomicIntegerArray(dimension);
+    }
+
+    /**
+     * 商品向量，同时把该商品计入文档频率；同一商品ID只计为一个文档，以最近一次写入的内容为准
+     * @return 没有任何词项时返回null，此时该商品不再计入文档频率
+     */
+    public float[] vectorize(Product product) {
+        float[] termFrequency = new float[dimension];
+        addText(termFrequency, product.getTitle(), "", TITLE_WEIGHT);
+        addText(termFrequency, product.getBrand(), "b:", BRAND_WEIGHT);
+        addText(termFrequency, product.getModel(), "m:", MODEL_WEIGHT);
+        addText(termFrequency, product.getCategory(), "c:", CATEGORY_WEIGHT);
+        addText(termFrequency, product.getFeatures(), "", FEATURE_WEIGHT);
+        addText(termFrequency, product.getSpecifications(), "", SPECIFICATION_WEIGHT);
+
+        int[] buckets = nonZeroBuckets(termFrequency);
+        if (product.getId() != null) {
+            countedBuckets.compute(product.getId(), (id, previous) -> {
+                if (previous != null) {
+                    uncount(previous);
+                }
+                if (buckets.length == 0) {
+                    return null;
+                }
+                for (int bucket : buckets) {
+                    documentFrequency.incrementAndGet(bucket);
+                }
+                documents.incrementAndGet();
+                return buckets;
+            });
+        }
+        if (buckets.length == 0) {
+            return null;
+        }
+        return weightAndNormalize(termFrequency);
+    }
+
+    /**
+     * 把商品从文档频率中扣除
+     */
+    public void remove(Long productId) {
+        countedBuckets.computeIfPresent(productId, (id, previous) -> {
+            uncount(previous);
+            return null;
+        });
+    }
+
+    /**
+     * 查询文本向量，不计入文档频率
+     * @return 没有任何词项时返回null
+     */
+    public float[] vectorize(String text) {
+        float[] termFrequency = new float[dimension];
+        addText(termFrequency, text, "", TITLE_WEIGHT);
+        return weightAndNormalize(termFrequency);
+    }
+
+    private int[] nonZeroBuckets(float[] termFrequency) {
+        int count = 0;
+        for (float value : termFrequency) {
+            if (value != 0) {
+                count++;
+            }
+        }
+        int[] buckets = new int[count];
+        for (int i = 0, j = 0; i < dimension; i++) {
+            if (termFrequency[i] != 0) {
+                buckets[j++] = i;
+            }
+        }
+        return buckets;
+    }
+
+    private void uncount(int[] buckets) {
+        for (int bucket : buckets) {
+            documentFrequency.decrementAndGet(bucket);
+        }
+        documents.decrementAndGet();
+    }
+
+    private float[] weightAndNormalize(float[] vector) {
+        long n = documents.get();
+        double norm = 0;
+        for (int i = 0; i < dimension; i++) {
+            if (vector[i] != 0) {
+                double idf = Math.log((n + 1.0) / (documentFrequency.get(i) + 1.0)) + 1;
+                vector[i] = (float) (vector[i] * idf);
+                norm += vector[i] * vector[i];
+            }
+        }
+        if (norm == 0) {
+            return null;
+        }
+        float scale = (float) (1 / Math.sqrt(norm));
+        for (int i = 0; i < dimension; i++) {
+            vector[i] *= scale;
+        }
+        return vector;
+    }
+
+    private void addText(float[] vector, String text, String prefix, float weight) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        String normalized = text.toLowerCase(Locale.ROOT);
+        int length = normalized.length();
+        int i = 0;
+        while (i < length) {
+            char c = normalized.charAt(i);
+            if (isWordChar(c)) {
+                int start = i;
+                while (i < length && isWordChar(normalized.charAt(i))) {
+                    i++;
+                }
+                addTerm(vector, prefix + normalized.substring(start, i), weight);
+            } else if (Character.isIdeographic(c)) {
+                int start = i;
+                while (i < length && Character.isIdeographic(normalized.charAt(i))) {
+                    i++;
+                }
+                if (i - start == 1) {
+                    addTerm(vector, prefix + c, weight);
+                }
+                for (int j = start; j + 1 < i; j++) {
+                    addTerm(vector, prefix + normalized.substring(j, j + 2), weight);
+                }
+            } else {
+                i++;
+            }
+        }
+    }
+
+    private void addTerm(float[] vector, String term, float weight) {
+        int hash = mix(term.hashCode());
+        int index = Math.floorMod(hash, dimension);
+        // 用哈希的最高位决定符号，抵消哈希冲突带来的偏差
+        vector[index] += hash < 0 ? -weight : weight;
+    }
+
+    private static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9');
+    }
+
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    public int getDimension() {
+        return dimension;
+    }
+
+    /**
+     * 计入文档频率的商品数
+     */
+    public long getDocuments() {
+        return documents.get();
+    }
+
+    int getDocumentFrequency(int bucket) {
+        return documentFrequency.get(bucket);
+    }
+}
@@ -0,0 +1,203 @@
+package com.pricecompare.similar;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.pricecompare.dto.response.SimilarProduct;
+import com.pricecompare.entity.Product;
+import com.pricecompare.mapper.ProductMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 相似商品索引
+ * 在进程内维护全部商品的TF-IDF向量和HNSW近似最近邻索引：启动后在后台从product表全量加载，
+ * 之后随ProductService保存商品增量更新。查询只在索引内完成，再按ID批量读取候选商品的价格，
+ * 按与参考价的差距分为升级版、经济版和同档次
+ * 
+ * @author AutoValuePilot
+ */
+@Slf4j
+@Component
+public class SimilarProductIndex {
+
+    private final ProductMapper productMapper;
+    private final ProductVectorizer vectorizer;
+    private final HnswIndex index;
+
+    @Value("${app.similar.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.similar.ef-search:64}")
+    private int efSearch;
+
+    @Value("${app.similar.load-batch-size:1000}")
+    private int loadBatchSize;
+
+    /** 价格高于参考价该比例以上为升级版，低于该比例以上为经济版 */
+    @Value("${app.similar.tier-margin:0.1}")
+    private double tierMargin;
+
+    private volatile boolean loaded;
+
+    public SimilarProductIndex(ProductMapper productMapper,
+                               @Value("${app.similar.dimension:128}") int dimension,
+                               @Value("${app.similar.m:16}") int m,
+                               @Value("${app.similar.ef-construction:100}") int efConstruction) {
+        this.productMapper = productMapper;
+        this.vectorizer = new ProductVectorizer(dimension);
+        this.index = new HnswIndex(dimension, m, efConstruction, 42);
+    }
+
+    /**
+     * 应用启动后在后台线程按ID顺序分批加载全部商品，不阻塞启动
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadAsync() {
+        if (!enabled) {
+            return;
+        }
+        Thread loader = new Thread(this::load, "similar-index-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    void load() {
+        long start = System.currentTimeMillis();
+        long lastId = 0;
+        try {
+            while (true) {
+                List<Product> batch = productMapper.selectList(new LambdaQueryWrapper<Product>()
+                        .gt(Product::getId, lastId)
+                        .orderByAsc(Product::getId)
+                        .last("LIMIT " + loadBatchSize));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                addAll(batch);
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+            loaded = true;
+            log.info("相似商品索引加载完成，商品数：{}，耗时：{}ms", index.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("相似商品索引加载失败，已加载{}个商品", index.size(), e);
+        }
+    }
+
+    /**
+     * 写入或更新商品向量
+     */
+    public void add(Product product) {
+        if (!enabled || product.getId() == null) {
+            return;
+        }
+        float[] vector = vectorizer.vectorize(product);
+        if (vector == null) {
+            index.remove(product.getId());
+            return;
+        }
+        index.add(product.getId(), vector);
+    }
+
+    public void addAll(Collection<Product> products) {
+        products.forEach(this::add);
+    }
+
+    /**
+     * 移除商品向量，并从文档频率中扣除
+     */
+    public void remove(Long productId) {
+        if (!enabled || productId == null) {
+            return;
+        }
+        vectorizer.remove(productId);
+        index.remove(productId);
+    }
+
+    /**
+     * 与指定商品相似的商品，以该商品价格为参考价
+     */
+    public List<SimilarProduct> recommend(Long productId, int limit) {
+        float[] vector = enabled ? index.getVector(productId) : null;
+        if (vector == null) {
+            return List.of();
+        }
+        Product source = productMapper.selectById(productId);
+        return recommend(vector, productId, source != null ? source.getPrice() : null, limit);
+    }
+
+    /**
+     * 与商品名称相似的商品
+     * @param referencePrice 参考价，为空时全部归为同档次
+     */
+    public List<SimilarProduct> recommend(String productName, BigDecimal referencePrice, int limit) {
+        float[] vector = enabled ? vectorizer.vectorize(productName) : null;
+        if (vector == null) {
+            return List.of();
+        }
+        return recommend(vector, null, referencePrice, limit);
+    }
+
+    private List<SimilarProduct> recommend(float[] vector, Long excludeId, BigDecimal referencePrice, int limit) {
+        List<HnswIndex.Neighbor> neighbors = index.search(vector, limit + 1, efSearch);
+        List<Long> ids = neighbors.stream()
+                .map(HnswIndex.Neighbor::id)
+                .filter(id -> !id.equals(excludeId))
+                .limit(limit)
+                .collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Product> products = productMapper.selectBatchIds(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        List<SimilarProduct> results = new ArrayList<>(ids.size());
+        for (HnswIndex.Neighbor neighbor : neighbors) {
+            Product product = products.get(neighbor.id());
+            if (product == null || results.size() >= limit) {
+                continue;
+            }
+            SimilarProduct similar = new SimilarProduct();
+            similar.setProductId(product.getId());
+            similar.setTitle(product.getTitle());
+            similar.setBrand(product.getBrand());
+            similar.setPlatform(product.getPlatform());
+            similar.setPrice(product.getPrice());
+            similar.setScore(neighbor.score());
+            similar.setTier(tier(product.getPrice(), referencePrice));
+            results.add(similar);
+        }
+        return results;
+    }
+
+    private String tier(BigDecimal price, BigDecimal referencePrice) {
+        if (price == null || referencePrice == null || referencePrice.signum() <= 0) {
+            return SimilarProduct.TIER_SIMILAR;
+        }
+        double ratio = price.doubleValue() / referencePrice.doubleValue();
+        if (ratio > 1 + tierMargin) {
+            return SimilarProduct.TIER_UPGRADE;
+        }
+        if (ratio < 1 - tierMargin) {
+            return SimilarProduct.TIER_ECONOMY;
+        }
+        return SimilarProduct.TIER_SIMILAR;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public int size() {
+        return index.size();
+    }
+}
@@ -34,7 +34,7 @@ CREATE TABLE IF NOT EXISTS `platform_config` (
     `timeout` int(11) DEFAULT 5000 COMMENT '请求超时时间（毫秒）',
     `max_retries` int(11) DEFAULT 3 COMMENT '最大重试次数',
     `enabled` int(1) DEFAULT 1 COMMENT '是否启用：0-禁用，1-启用',
-    `rate_limit` int(11) DEFAULT 1000 COMMENT '请求频率限制（毫秒）',
+    `rate_limit` int(11) DEFAULT 1000 COMMENT '请求频率限制（次/秒）',
     `create_time` datetime DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
     `update_time` datetime DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
     PRIMARY KEY (`id`),
@@ -68,6 +68,9 @@ CREATE TABLE IF NOT EXISTS `product` (
     `description` text COMMENT '商品描述',
     `category` varchar(100) DEFAULT NULL COMMENT '商品分类',
     `brand` varchar(100) DEFAULT NULL COMMENT '品牌',
+    `model` varchar(100) DEFAULT NULL COMMENT '型号',
+    `match_key` varchar(191) DEFAULT NULL COMMENT '匹配键：归一化的品牌|型号',
+    `cluster_id` bigint(20) DEFAULT NULL COMMENT '商品簇ID：同一商品在各平台的记录归为一簇',
     `price` decimal(10,2) DEFAULT NULL COMMENT '价格',
     `original_price` decimal(10,2) DEFAULT NULL COMMENT '原价',
     `discount` varchar(50) DEFAULT NULL COMMENT '折扣信息',
@@ -91,7 +94,9 @@ CREATE TABLE IF NOT EXISTS `product` (
     KEY `idx_platform` (`platform`),
     KEY `idx_price` (`price`),
     KEY `idx_sales` (`sales`),
-    KEY `idx_crawl_time` (`crawl_time`)
+    KEY `idx_crawl_time` (`crawl_time`),
+    KEY `idx_cluster_id` (`cluster_id`),
+    KEY `idx_match_key` (`match_key`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='商品表';
 
 -- 创建商品价格表
@@ -111,6 +116,7 @@ CREATE TABLE IF NOT EXISTS `product_price` (
     `delivery` varchar(100) DEFAULT NULL COMMENT '配送信息',
     `is_lowest` tinyint(1) DEFAULT 0 COMMENT '是否是最低价',
     `crawl_time` datetime DEFAULT CURRENT_TIMESTAMP COMMENT '抓取时间',
+    `last_seen_time` datetime DEFAULT CURRENT_TIMESTAMP COMMENT '最近观测时间：价格未变化的观测只更新此列',
     `create_time` datetime DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
     `update_time` datetime DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
     PRIMARY KEY (`id`),
@@ -119,6 +125,7 @@ CREATE TABLE IF NOT EXISTS `product_price` (
     KEY `idx_platform_code` (`platform_code`),
     KEY `idx_price` (`price`),
     KEY `idx_crawl_time` (`crawl_time`),
+    KEY `idx_last_seen_time` (`last_seen_time`),
     KEY `idx_is_lowest` (`is_lowest`),
     FOREIGN KEY (`product_id`) REFERENCES `product`(`id`) ON DELETE SET NULL
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='商品价格表';
@@ -131,12 +138,12 @@ CREATE TABLE IF NOT EXISTS `compare_task` (
     `source_product_id` bigint(20) DEFAULT NULL COMMENT '源商品ID',
     `source_platform` varchar(20) DEFAULT NULL COMMENT '源平台',
     `product_name` varchar(255) NOT NULL COMMENT '商品名称',
-    `status` int(1) DEFAULT 0 COMMENT '任务状态：0-待处理，1-处理中，2-已完成，3-失败',
+    `status` int(1) DEFAULT 0 COMMENT '任务状态：0-待处理，1-处理中，2-已完成，3-失败，4-超时，5-已取消',
     `progress` int(3) DEFAULT 0 COMMENT '任务进度（0-100）',
     `result_count` int(11) DEFAULT 0 COMMENT '比价结果数量',
     `end_time` datetime DEFAULT NULL COMMENT '任务结束时间',
     `error_message` text COMMENT '错误信息',
-    `compare_result` text COMMENT '比价结果（JSON格式）',
+    `compare_result` mediumtext COMMENT '比价结果快照（gzip压缩后Base64编码的JSON，任务结束后单独写入）',
     `similar_products` text COMMENT '相似商品推荐（JSON格式）',
     `chart_data` text COMMENT '图表数据（JSON格式）',
     `start_time` datetime DEFAULT NULL COMMENT '任务开始时间',
@@ -153,6 +160,34 @@ CREATE TABLE IF NOT EXISTS `compare_task` (
     FOREIGN KEY (`source_product_id`) REFERENCES `product`(`id`) ON DELETE SET NULL
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='比价任务表';
 
+-- 创建比价任务结果表：任务与抓取到的价格记录关联，冗余价格用于按价格键集分页
+CREATE TABLE IF NOT EXISTS `compare_task_price` (
+    `id` bigint(20) NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+    `task_id` bigint(20) NOT NULL COMMENT '比价任务ID',
+    `price_id` bigint(20) NOT NULL COMMENT '商品价格ID',
+    `price` decimal(10,2) NOT NULL COMMENT '商品价格',
+    `create_time` datetime DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `uk_task_price_id` (`task_id`, `price_id`),
+    KEY `idx_task_price` (`task_id`, `price`, `price_id`),
+    FOREIGN KEY (`task_id`) REFERENCES `compare_task`(`id`) ON DELETE CASCADE,
+    FOREIGN KEY (`price_id`) REFERENCES `product_price`(`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='比价任务结果表';
+
+-- 升级已有数据库：CREATE TABLE IF NOT EXISTS不会给已存在的表补列，以下语句补齐新增的列和索引；
+-- 重复执行时已存在的列、索引报错并被跳过（continue-on-error），其余语句可重复执行。
+-- 新增的last_seen_time先不带默认值，用抓取时间回填，避免已有价格被当作刚观测过
+ALTER TABLE `product` ADD COLUMN `model` varchar(100) DEFAULT NULL COMMENT '型号' AFTER `brand`;
+ALTER TABLE `product` ADD COLUMN `match_key` varchar(191) DEFAULT NULL COMMENT '匹配键：归一化的品牌|型号' AFTER `model`;
+ALTER TABLE `product` ADD COLUMN `cluster_id` bigint(20) DEFAULT NULL COMMENT '商品簇ID：同一商品在各平台的记录归为一簇' AFTER `match_key`;
+ALTER TABLE `product` ADD KEY `idx_cluster_id` (`cluster_id`);
+ALTER TABLE `product` ADD KEY `idx_match_key` (`match_key`);
+ALTER TABLE `product_price` ADD COLUMN `last_seen_time` datetime DEFAULT NULL COMMENT '最近观测时间：价格未变化的观测只更新此列' AFTER `crawl_time`;
+UPDATE `product_price` SET `last_seen_time` = `crawl_time` WHERE `last_seen_time` IS NULL;
+ALTER TABLE `product_price` ALTER COLUMN `last_seen_time` SET DEFAULT CURRENT_TIMESTAMP;
+ALTER TABLE `product_price` ADD KEY `idx_last_seen_time` (`last_seen_time`);
+ALTER TABLE `compare_task` MODIFY COLUMN `compare_result` mediumtext COMMENT '比价结果快照（gzip压缩后Base64编码的JSON，任务结束后单独写入）';
+
 -- 插入平台配置数据
 INSERT IGNORE INTO `platform_config` (`platform_name`, `platform_code`, `api_base_url`, `search_api_path`, `detail_api_path`, `timeout`, `max_retries`, `enabled`, `rate_limit`) VALUES
 ('淘宝', 'taobao', 'https://api.taobao.com', '/router/rest', '/router/rest', 5000, 3, 1, 1000),
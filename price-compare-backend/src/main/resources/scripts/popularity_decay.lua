@@ -0,0 +1,14 @@
+-- 商品热度衰减：只保留热度最高的N个成员，其余成员的分数乘以衰减系数，
+-- 衰减后低于下限的成员移除，长期不再访问的商品逐渐回到冷门刷新间隔
+-- KEYS[1] 热度有序集合
+-- ARGV[1] 衰减系数
+-- ARGV[2] 分数下限
+-- ARGV[3] 最多保留成员数
+redis.call('ZREMRANGEBYRANK', KEYS[1], 0, -(tonumber(ARGV[3]) + 1))
+local factor = tonumber(ARGV[1])
+local entries = redis.call('ZRANGE', KEYS[1], 0, -1, 'WITHSCORES')
+for i = 1, #entries, 2 do
+    redis.call('ZADD', KEYS[1], 'XX', tonumber(entries[i + 1]) * factor, entries[i])
+end
+redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', '(' .. ARGV[2])
+return redis.call('ZCARD', KEYS[1])
@@ -0,0 +1,11 @@
+-- 领取到期的刷新任务：取出最多N个到期成员，并把它们的分数推迟到领取超时时间，
+-- 避免其他节点重复领取；节点崩溃时成员在领取超时后重新到期
+-- KEYS[1] 刷新队列
+-- ARGV[1] 当前时间戳（毫秒）
+-- ARGV[2] 最多领取数量
+-- ARGV[3] 领取超时时间戳（毫秒）
+local members = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, tonumber(ARGV[2]))
+for _, member in ipairs(members) do
+    redis.call('ZADD', KEYS[1], 'XX', ARGV[3], member)
+end
+return members
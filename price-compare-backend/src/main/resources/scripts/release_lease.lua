@@ -0,0 +1,7 @@
+-- 仅当租约仍由当前持有者持有时删除
+-- KEYS[1] 租约key
+-- ARGV[1] 持有者令牌
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+    return redis.call('DEL', KEYS[1])
+end
+return 0
@@ -0,0 +1,33 @@
+-- 令牌桶限流脚本（需要Redis 5+，使用服务端时间避免节点间时钟偏差）
+-- KEYS[1] 令牌桶key
+-- ARGV[1] 每毫秒产生的令牌数
+-- ARGV[2] 令牌桶容量
+-- ARGV[3] key过期时间（毫秒）
+-- 返回0表示获取成功，否则为需要等待的毫秒数
+local rate = tonumber(ARGV[1])
+local burst = tonumber(ARGV[2])
+local ttl = tonumber(ARGV[3])
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+local bucket = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+local tokens = tonumber(bucket[1])
+local ts = tonumber(bucket[2])
+if tokens == nil or ts == nil then
+    tokens = burst
+    ts = now
+end
+
+tokens = math.min(burst, tokens + math.max(0, now - ts) * rate)
+
+local wait = 0
+if tokens >= 1 then
+    tokens = tokens - 1
+else
+    wait = math.max(1, math.ceil((1 - tokens) / rate))
+end
+
+redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', tostring(now))
+redis.call('PEXPIRE', KEYS[1], ttl)
+return wait
@@ -0,0 +1,98 @@
+package com.pricecompare.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 商品聚类单元测试
+ * 
+ * @author AutoValuePilot
+ */
+class ProductClusterBuilderTest {
+
+    private final MinHashLsh lsh = new MinHashLsh(32, 8, 42);
+
+    @Test
+    void testNormalizeMatchKey() {
+        assertEquals("apple|iphone15128gb", ProductKeyNormalizer.matchKey("Apple/苹果", "iPhone 15 128GB"));
+        assertEquals("apple|iphone15128gb", ProductKeyNormalizer.matchKey("苹果", "Ａｐｐｌｅ iPhone１５ (128GB)"));
+        assertEquals("huawei|mate60pro", ProductKeyNormalizer.matchKey("华为（HUAWEI）", "Mate 60 Pro"));
+        assertEquals("huawei|mate60pro", ProductKeyNormalizer.matchKey("华为", "MATE-60-PRO"));
+        assertNull(ProductKeyNormalizer.matchKey("Apple", " "));
+        assertNull(ProductKeyNormalizer.matchKey(null, "iPhone 15"));
+    }
+
+    @Test
+    void testSimilarityEstimatesJaccard() {
+        int[] signatures = new int[3 * 32];
+        assertTrue(lsh.signature(ProductKeyNormalizer.normalizeText("Apple iPhone 15 128GB 黑色 5G手机"), signatures, 0));
+        assertTrue(lsh.signature(ProductKeyNormalizer.normalizeText("【官方正品】Apple iPhone 15 128GB 黑色 5G手机"), signatures, 32));
+        assertTrue(lsh.signature(ProductKeyNormalizer.normalizeText("戴森 V12 Detect Slim 无绳吸尘器"), signatures, 64));
+        assertFalse(lsh.signature("ab", signatures, 0));
+
+        assertTrue(lsh.similarity(signatures, 0, 32) >= 0.7);
+        assertTrue(lsh.similarity(signatures, 0, 64) < 0.2);
+        assertEquals(1.0, lsh.similarity(signatures, 32, 32));
+    }
+
+    @Test
+    void testClusterByMatchKeyAcrossPlatforms() {
+        ProductClusterBuilder builder = new ProductClusterBuilder(lsh, 0.7);
+        Map<Long, Integer> index = new HashMap<>();
+        index.put(10L, add(builder, 10, "Apple iPhone 15 128GB 黑色", "Apple", "iPhone 15 128GB"));
+        index.put(11L, add(builder, 11, "Apple iPhone 15 Pro Max 256GB", "Apple", "iPhone 15 Pro Max 256GB"));
+        index.put(20L, add(builder, 20, "苹果手机 15 标准版 128G 全网通", "苹果", "iPhone15 128GB"));
+        index.put(30L, add(builder, 30, "戴森 V12 无绳吸尘器", "Dyson", "V12"));
+        builder.build();
+
+        // 标题差别很大，但品牌、型号归一化后相同
+        assertEquals(10L, builder.getClusterId(index.get(20L)));
+        assertEquals(10L, builder.getClusterId(index.get(10L)));
+        assertEquals(11L, builder.getClusterId(index.get(11L)));
+        assertEquals(30L, builder.getClusterId(index.get(30L)));
+    }
+
+    @Test
+    void testClusterBySimilarTitleWithoutModel() {
+        ProductClusterBuilder builder = new ProductClusterBuilder(lsh, 0.7);
+        int first = add(builder, 1, "小米 Redmi K70 16GB+512GB 墨羽 第二代骁龙8 5G手机", "小米", null);
+        int second = add(builder, 2, "小米 Redmi K70 16GB+512GB 墨羽 第二代骁龙8 5G手机 官方标配", null, null);
+        int otherBrand = add(builder, 3, "小米 Redmi K70 16GB+512GB 墨羽 第二代骁龙8 5G手机", "华为", null);
+        int unrelated = add(builder, 4, "联想 ThinkPad X1 Carbon 14英寸笔记本电脑", "联想", null);
+        builder.build();
+
+        assertEquals(1L, builder.getClusterId(first));
+        assertEquals(1L, builder.getClusterId(second));
+        assertEquals(3L, builder.getClusterId(otherBrand));
+        assertEquals(4L, builder.getClusterId(unrelated));
+    }
+
+    @Test
+    void testTitleMatchDoesNotBridgeDifferentModels() {
+        ProductClusterBuilder builder = new ProductClusterBuilder(lsh, 0.7);
+        int standard = add(builder, 1, "Apple iPhone 15 128GB 黑色 5G手机", "Apple", "iPhone 15");
+        int noModel = add(builder, 2, "Apple iPhone 15 128GB 黑色 5G手机", "Apple", null);
+        int plus = add(builder, 3, "Apple iPhone 15 128GB 黑色 5G手机", "Apple", "iPhone 15 Plus");
+        builder.build();
+
+        assertEquals(1L, builder.getClusterId(standard));
+        assertEquals(1L, builder.getClusterId(noModel));
+        assertEquals(3L, builder.getClusterId(plus));
+    }
+
+    @Test
+    void testIdsMustIncrease() {
+        ProductClusterBuilder builder = new ProductClusterBuilder(lsh, 0.7);
+        add(builder, 5, "Apple iPhone 15", "Apple", "iPhone 15");
+        assertThrows(IllegalArgumentException.class, () -> add(builder, 5, "Apple iPhone 15", "Apple", "iPhone 15"));
+        assertThrows(IllegalStateException.class, () -> builder.getClusterId(0));
+    }
+
+    private int add(ProductClusterBuilder builder, long id, String title, String brand, String model) {
+        return builder.add(id, title, brand, ProductKeyNormalizer.matchKey(brand, model));
+    }
+}
@@ -0,0 +1,135 @@
+package com.pricecompare.cluster;
+
+import com.pricecompare.crawler.CrawlLease;
+import com.pricecompare.entity.Product;
+import com.pricecompare.mapper.ProductMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 商品聚类任务单元测试
+ * 
+ * @author AutoValuePilot
+ */
+class ProductClusterJobTest {
+
+    private ProductMapper productMapper;
+    private CrawlLease crawlLease;
+    private ProductClusterJob job;
+
+    @BeforeEach
+    void setUp() {
+        productMapper = mock(ProductMapper.class);
+        crawlLease = mock(CrawlLease.class);
+        job = new ProductClusterJob(productMapper, crawlLease, 32, 8);
+        ReflectionTestUtils.setField(job, "enabled", true);
+        ReflectionTestUtils.setField(job, "batchSize", 2);
+        ReflectionTestUtils.setField(job, "threshold", 0.7);
+        ReflectionTestUtils.setField(job, "rebuildLease", 60000L);
+    }
+
+    @Test
+    void testRebuildWritesOnlyChangedRows() {
+        Product first = product(1L, "Apple iPhone 15 128GB 黑色", "Apple", "iPhone 15", 1L, "apple|iphone15");
+        Product second = product(2L, "苹果 iPhone15 全网通", "苹果", "iPhone15", null, null);
+        Product third = product(3L, "戴森 V12 无绳吸尘器", "Dyson", "V12", 3L, "dyson|v12");
+        when(productMapper.selectClusterBatch(0L, 2)).thenReturn(List.of(first, second));
+        when(productMapper.selectClusterBatch(2L, 2)).thenReturn(List.of(third));
+        when(productMapper.selectClusterBatch(3L, 2)).thenReturn(List.of());
+        List<List<Product>> clusterUpdates = captureUpdates(true);
+        List<List<Product>> keyUpdates = captureUpdates(false);
+
+        assertEquals(1, job.rebuild());
+
+        assertEquals(1, keyUpdates.size());
+        assertEquals(2L, keyUpdates.get(0).get(0).getId());
+        assertEquals("apple|iphone15", keyUpdates.get(0).get(0).getMatchKey());
+        assertEquals(1, clusterUpdates.size());
+        assertEquals(1, clusterUpdates.get(0).size());
+        assertEquals(2L, clusterUpdates.get(0).get(0).getId());
+        assertEquals(1L, clusterUpdates.get(0).get(0).getClusterId());
+    }
+
+    @Test
+    void testAssignUnclusteredByMatchKey() {
+        Product known = product(7L, "Apple iPhone 15", "Apple", "iPhone 15", null, null);
+        Product newModel = product(8L, "华为 Mate 60 Pro", "华为", "Mate 60 Pro", null, null);
+        Product sameBatch = product(9L, "HUAWEI Mate60 Pro 12+512", "HUAWEI", "Mate60Pro", null, null);
+        Product noModel = product(10L, "不知名充电宝", null, null, null, null);
+        when(productMapper.selectUnclustered(2)).thenReturn(List.of(known, newModel), List.of(sameBatch, noModel), List.of());
+        when(productMapper.selectClusterIdsByMatchKeys(anyCollection())).thenAnswer(invocation -> {
+            List<Product> rows = new ArrayList<>();
+            if (invocation.<Collection<String>>getArgument(0).contains("apple|iphone15")) {
+                rows.add(product(null, null, null, null, 3L, "apple|iphone15"));
+            }
+            if (invocation.<Collection<String>>getArgument(0).contains("huawei|mate60pro") && newModel.getClusterId() != null) {
+                rows.add(product(null, null, null, null, newModel.getClusterId(), "huawei|mate60pro"));
+            }
+            return rows;
+        });
+
+        assertEquals(4, job.assignUnclustered());
+
+        Map<Long, Long> clusters = new HashMap<>();
+        for (Product product : List.of(known, newModel, sameBatch, noModel)) {
+            clusters.put(product.getId(), product.getClusterId());
+        }
+        assertEquals(3L, clusters.get(7L));
+        assertEquals(8L, clusters.get(8L));
+        assertEquals(8L, clusters.get(9L));
+        assertEquals(10L, clusters.get(10L));
+        verify(productMapper, times(2)).updateClusterIds(anyList());
+        verify(productMapper, times(2)).updateMatchKeys(anyList());
+    }
+
+    @Test
+    void testScheduledRebuildSkipsWithoutLease() {
+        when(crawlLease.tryAcquire(anyString(), anyLong())).thenReturn(null);
+
+        job.scheduledRebuild();
+
+        verify(productMapper, never()).selectClusterBatch(anyLong(), anyInt());
+        verify(crawlLease, never()).release(anyString(), anyString());
+    }
+
+    /**
+     * 记录每次批量更新的参数副本（调用方会复用列表）
+     */
+    private List<List<Product>> captureUpdates(boolean clusterIds) {
+        List<List<Product>> updates = new ArrayList<>();
+        if (clusterIds) {
+            when(productMapper.updateClusterIds(anyList())).thenAnswer(invocation -> {
+                updates.add(new ArrayList<>(invocation.<List<Product>>getArgument(0)));
+                return 1;
+            });
+        } else {
+            when(productMapper.updateMatchKeys(anyList())).thenAnswer(invocation -> {
+                updates.add(new ArrayList<>(invocation.<List<Product>>getArgument(0)));
+                return 1;
+            });
+        }
+        return updates;
+    }
+
+    private Product product(Long id, String title, String brand, String model, Long clusterId, String matchKey) {
+        Product product = new Product();
+        product.setId(id);
+        product.setTitle(title);
+        product.setBrand(brand);
+        product.setModel(model);
+        product.setClusterId(clusterId);
+        product.setMatchKey(matchKey);
+        return product;
+    }
+}
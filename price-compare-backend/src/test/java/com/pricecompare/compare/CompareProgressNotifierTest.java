@@ -0,0 +1,89 @@
+package com.pricecompare.compare;
+
+import com.pricecompare.dto.response.CompareTaskProgress;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 比价任务进度通知单元测试
+ * 
+ * @author AutoValuePilot
+ */
+class CompareProgressNotifierTest {
+
+    private StringRedisTemplate stringRedisTemplate;
+    private CompareProgressNotifier notifier;
+
+    @BeforeEach
+    void setUp() {
+        stringRedisTemplate = mock(StringRedisTemplate.class);
+        notifier = new CompareProgressNotifier(stringRedisTemplate, mock(RedisMessageListenerContainer.class));
+    }
+
+    @Test
+    void testDeliversPublishedProgressToTaskSubscribers() {
+        List<CompareTaskProgress> received = new ArrayList<>();
+        List<CompareTaskProgress> otherTask = new ArrayList<>();
+        notifier.subscribe(1L, received::add);
+        notifier.subscribe(2L, otherTask::add);
+
+        notifier.publish(progress(1L, 1, 40));
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(stringRedisTemplate).convertAndSend(eq(CompareProgressNotifier.PROGRESS_CHANNEL), payload.capture());
+        notifier.onMessage(message(payload.getValue()), null);
+
+        assertEquals(1, received.size());
+        assertEquals(40, received.get(0).getProgress());
+        assertEquals(5, received.get(0).getTotalPlatforms());
+        assertFalse(received.get(0).isFinished());
+        assertTrue(otherTask.isEmpty());
+    }
+
+    @Test
+    void testUnsubscribeStopsDelivery() {
+        List<CompareTaskProgress> received = new ArrayList<>();
+        Runnable unsubscribe = notifier.subscribe(1L, received::add);
+        unsubscribe.run();
+
+        notifier.onMessage(message("{\"taskId\":1,\"status\":2,\"progress\":100}"), null);
+
+        assertTrue(received.isEmpty());
+    }
+
+    @Test
+    void testIgnoresMalformedMessage() {
+        List<CompareTaskProgress> received = new ArrayList<>();
+        notifier.subscribe(1L, received::add);
+
+        notifier.onMessage(message("not json"), null);
+
+        assertTrue(received.isEmpty());
+    }
+
+    private static CompareTaskProgress progress(Long taskId, int status, int progress) {
+        CompareTaskProgress event = new CompareTaskProgress();
+        event.setTaskId(taskId);
+        event.setStatus(status);
+        event.setProgress(progress);
+        event.setCompletedPlatforms(2);
+        event.setTotalPlatforms(5);
+        return event;
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(CompareProgressNotifier.PROGRESS_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+}
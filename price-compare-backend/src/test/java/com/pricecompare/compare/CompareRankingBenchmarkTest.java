@@ -0,0 +1,207 @@
+package com.pricecompare.compare;
+
+import com.pricecompare.dto.response.CompareRanking;
+import com.pricecompare.dto.response.CompareResultItem;
+import com.pricecompare.entity.ProductPrice;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 比价结果排名基准测试（JMH）
+ * 对比原有的逐条转换为Map、BigDecimal流式统计的做法与PriceRanking：
+ * mapping - 原做法：每条结果一个HashMap，再用流求最优选择、价格分布和各平台统计；
+ * ranking - 只计算排名与统计（最低价前10、性价比前10、最优选择、各平台最低价、价格分布）；
+ * rankingWithItems - 排名与统计，并把全部结果转换为结果条目（与结果快照的实际工作量相同）。
+ * 默认不执行，运行方式：mvn test -Dtest=CompareRankingBenchmarkTest -Dbenchmark=true
+ *
+ * @author AutoValuePilot
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class CompareRankingBenchmarkTest {
+
+    private static final int TOP_N = 10;
+    private static final int HISTOGRAM_BUCKETS = 10;
+    private static final String[] PLATFORMS = {"taobao", "jd", "pdd", "suning", "vip"};
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    private List<ProductPrice> prices;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        prices = new ArrayList<>(rows);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < rows; i++) {
+            ProductPrice price = new ProductPrice();
+            price.setId((long) i + 1);
+            price.setPlatformCode(PLATFORMS[random.nextInt(PLATFORMS.length)]);
+            price.setPlatformProductId("p" + i);
+            price.setPrice(BigDecimal.valueOf(1000 + random.nextInt(900_000), 2));
+            price.setOriginalPrice(price.getPrice().add(BigDecimal.TEN));
+            price.setRating(BigDecimal.valueOf(300 + random.nextInt(200), 2));
+            price.setSales(random.nextInt(100_000));
+            price.setShopName("shop" + random.nextInt(1000));
+            price.setCrawlTime(now);
+            prices.add(price);
+        }
+        // 与结果快照一致，输入按价格升序
+        prices.sort(Comparator.comparing(ProductPrice::getPrice).thenComparing(ProductPrice::getId));
+    }
+
+    @Benchmark
+    public Object mapping() {
+        BigDecimal lowestPrice = prices.get(0).getPrice();
+        List<Map<String, Object>> items = new ArrayList<>(prices.size());
+        for (ProductPrice price : prices) {
+            items.add(toMap(price, lowestPrice));
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("bestChoice", bestChoice(prices, lowestPrice));
+        result.put("priceDistribution", distribution(prices));
+        result.put("chartData", chart(prices));
+        result.put("items", items);
+        return result;
+    }
+
+    @Benchmark
+    public CompareRanking ranking() {
+        return PriceRanking.of(prices).rank(TOP_N);
+    }
+
+    @Benchmark
+    public Object rankingWithItems() {
+        CompareRanking ranking = PriceRanking.of(prices).rank(TOP_N);
+        BigDecimal lowestPrice = prices.get(0).getPrice();
+        List<CompareResultItem> items = new ArrayList<>(prices.size());
+        for (ProductPrice price : prices) {
+            items.add(CompareResultStore.toResultItem(price, lowestPrice));
+        }
+        return new Object[]{ranking, items};
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void runBenchmark() throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CompareRankingBenchmarkTest.class.getName() + "\\.")
+                .build()).run();
+    }
+
+    // 以下为原有做法，与改为PriceRanking之前的结果快照实现相同
+
+    private static Map<String, Object> toMap(ProductPrice price, BigDecimal lowestPrice) {
+        boolean isLowest = lowestPrice != null && price.getPrice().compareTo(lowestPrice) == 0;
+        Map<String, Object> result = new HashMap<>();
+        result.put("id", price.getId());
+        result.put("platformProductId", price.getPlatformProductId());
+        result.put("platform", price.getPlatformCode());
+        result.put("price", price.getPrice());
+        result.put("originalPrice", price.getOriginalPrice());
+        result.put("discount", price.getDiscount());
+        result.put("sales", price.getSales());
+        result.put("rating", price.getRating());
+        result.put("shopName", price.getShopName());
+        result.put("shopRating", price.getShopRating());
+        result.put("delivery", price.getDelivery());
+        result.put("isLowest", isLowest);
+        result.put("crawlTime", price.getCrawlTime());
+        return result;
+    }
+
+    private static Map<String, Object> bestChoice(List<ProductPrice> prices, BigDecimal lowestPrice) {
+        return prices.stream()
+                .filter(price -> price.getPrice().compareTo(lowestPrice) == 0)
+                .max(Comparator.comparing((ProductPrice price) -> price.getRating() == null ? BigDecimal.ZERO : price.getRating())
+                        .thenComparing(price -> price.getSales() == null ? 0 : price.getSales()))
+                .map(price -> toMap(price, lowestPrice))
+                .orElse(null);
+    }
+
+    private static Map<String, Object> distribution(List<ProductPrice> prices) {
+        Map<String, Object> distribution = new LinkedHashMap<>();
+        BigDecimal min = prices.get(0).getPrice();
+        BigDecimal max = prices.get(prices.size() - 1).getPrice();
+        BigDecimal sum = prices.stream().map(ProductPrice::getPrice).reduce(BigDecimal.ZERO, BigDecimal::add);
+        distribution.put("min", min);
+        distribution.put("max", max);
+        distribution.put("avg", sum.divide(BigDecimal.valueOf(prices.size()), 2, RoundingMode.HALF_UP));
+        distribution.put("median", prices.get(prices.size() / 2).getPrice());
+        int bucketCount = min.compareTo(max) == 0 ? 1 : HISTOGRAM_BUCKETS;
+        BigDecimal width = max.subtract(min).divide(BigDecimal.valueOf(bucketCount), 2, RoundingMode.CEILING);
+        int[] counts = new int[bucketCount];
+        for (ProductPrice price : prices) {
+            int bucket = width.signum() == 0 ? 0
+                    : price.getPrice().subtract(min).divide(width, 0, RoundingMode.FLOOR).intValue();
+            counts[Math.min(bucket, bucketCount - 1)]++;
+        }
+        List<Map<String, Object>> buckets = new ArrayList<>(bucketCount);
+        for (int i = 0; i < bucketCount; i++) {
+            Map<String, Object> bucket = new LinkedHashMap<>();
+            bucket.put("from", min.add(width.multiply(BigDecimal.valueOf(i))));
+            bucket.put("to", i == bucketCount - 1 ? max : min.add(width.multiply(BigDecimal.valueOf(i + 1))));
+            bucket.put("count", counts[i]);
+            buckets.add(bucket);
+        }
+        distribution.put("buckets", buckets);
+        return distribution;
+    }
+
+    private static Map<String, Object> chart(List<ProductPrice> prices) {
+        Map<String, List<BigDecimal>> byPlatform = new TreeMap<>();
+        for (ProductPrice price : prices) {
+            byPlatform.computeIfAbsent(price.getPlatformCode(), code -> new ArrayList<>()).add(price.getPrice());
+        }
+        List<String> platforms = new ArrayList<>();
+        List<BigDecimal> minPrices = new ArrayList<>();
+        List<BigDecimal> avgPrices = new ArrayList<>();
+        List<Integer> counts = new ArrayList<>();
+        byPlatform.forEach((platform, platformPrices) -> {
+            platforms.add(platform);
+            minPrices.add(platformPrices.get(0));
+            BigDecimal sum = platformPrices.stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+            avgPrices.add(sum.divide(BigDecimal.valueOf(platformPrices.size()), 2, RoundingMode.HALF_UP));
+            counts.add(platformPrices.size());
+        });
+        Map<String, Object> chart = new LinkedHashMap<>();
+        chart.put("platforms", platforms);
+        chart.put("minPrices", minPrices);
+        chart.put("avgPrices", avgPrices);
+        chart.put("counts", counts);
+        return chart;
+    }
+}
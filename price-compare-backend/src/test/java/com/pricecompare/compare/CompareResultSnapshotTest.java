@@ -0,0 +1,181 @@
+package com.pricecompare.compare;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pricecompare.dto.response.SimilarProduct;
+import com.pricecompare.entity.CompareTask;
+import com.pricecompare.entity.ProductPrice;
+import com.pricecompare.exception.BusinessException;
+import com.pricecompare.mapper.CompareTaskMapper;
+import com.pricecompare.similar.SimilarProductIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * 比价结果快照单元测试
+ * 
+ * @author AutoValuePilot
+ */
+class CompareResultSnapshotTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private CompareResultStore compareResultStore;
+    private CompareTaskMapper compareTaskMapper;
+    private StringRedisTemplate stringRedisTemplate;
+    private SimilarProductIndex similarProductIndex;
+    private CompareResultSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        compareResultStore = mock(CompareResultStore.class);
+        compareTaskMapper = mock(CompareTaskMapper.class);
+        stringRedisTemplate = mock(StringRedisTemplate.class);
+        similarProductIndex = mock(SimilarProductIndex.class);
+        snapshot = new CompareResultSnapshot(compareResultStore, compareTaskMapper, stringRedisTemplate, objectMapper,
+                similarProductIndex);
+        ReflectionTestUtils.setField(snapshot, "similarSize", 5);
+        ReflectionTestUtils.setField(snapshot, "maxItems", 100);
+        ReflectionTestUtils.setField(snapshot, "maxBytes", 1 << 20);
+        when(compareResultStore.listAll(1L)).thenReturn(List.of(
+                price(11L, "jd", "99.00", "4.5", 100),
+                price(12L, "taobao", "99.00", "4.9", 50),
+                price(13L, "jd", "149.00", "4.8", 10),
+                price(14L, "pdd", "199.00", "4.0", 5)));
+    }
+
+    @Test
+    void testBuildsCompressedResponseAndChartData() throws Exception {
+        CompareTask task = task(2);
+
+        byte[] compressed = snapshot.build(task);
+
+        JsonNode response = objectMapper.readTree(CompareResultSnapshot.gunzip(compressed));
+        assertEquals(200, response.get("code").asInt());
+        JsonNode data = response.get("data");
+        assertEquals(4, data.get("resultCount").asInt());
+        assertEquals(12L, data.get("bestChoice").get("id").asLong());
+        assertEquals(4, data.get("items").size());
+        assertTrue(data.get("items").get(0).get("isLowest").asBoolean());
+        assertFalse(data.get("items").get(3).get("isLowest").asBoolean());
+
+        JsonNode distribution = data.get("priceDistribution");
+        assertEquals(0, new BigDecimal("99.00").compareTo(distribution.get("min").decimalValue()));
+        assertEquals(0, new BigDecimal("199.00").compareTo(distribution.get("max").decimalValue()));
+        assertEquals(0, new BigDecimal("136.50").compareTo(distribution.get("avg").decimalValue()));
+        int bucketTotal = 0;
+        for (JsonNode bucket : distribution.get("buckets")) {
+            bucketTotal += bucket.get("count").asInt();
+        }
+        assertEquals(4, bucketTotal);
+
+        JsonNode chart = objectMapper.readTree(task.getChartData());
+        assertEquals("[\"jd\",\"pdd\",\"taobao\"]", chart.get("platforms").toString());
+        assertEquals(0, new BigDecimal("124.00").compareTo(chart.get("avgPrices").get(0).decimalValue()));
+        // 快照不随任务状态写入
+        assertNull(task.getCompareResult());
+    }
+
+    @Test
+    void testCapsItemsButKeepsFullCount() throws Exception {
+        ReflectionTestUtils.setField(snapshot, "maxItems", 2);
+
+        JsonNode data = objectMapper.readTree(CompareResultSnapshot.gunzip(snapshot.build(task(2)))).get("data");
+
+        assertEquals(4, data.get("resultCount").asInt());
+        assertEquals(2, data.get("items").size());
+        assertTrue(data.get("truncated").asBoolean());
+        assertEquals(0, new BigDecimal("199.00").compareTo(data.get("priceDistribution").get("max").decimalValue()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSaveWritesSnapshotSeparately() {
+        byte[] compressed = snapshot.build(task(2));
+
+        snapshot.save(1L, compressed);
+
+        verify(compareTaskMapper).updateCompareResult(1L, Base64.getEncoder().encodeToString(compressed));
+        verify(stringRedisTemplate).execute(any(RedisCallback.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSaveSkipsDatabaseForOversizedOrFailedWrites() {
+        byte[] compressed = snapshot.build(task(2));
+        ReflectionTestUtils.setField(snapshot, "maxBytes", compressed.length - 1);
+
+        snapshot.save(1L, compressed);
+        verify(compareTaskMapper, never()).updateCompareResult(any(), any());
+
+        ReflectionTestUtils.setField(snapshot, "maxBytes", 1 << 20);
+        when(compareTaskMapper.updateCompareResult(any(), any())).thenThrow(new IllegalStateException("packet too large"));
+        assertDoesNotThrow(() -> snapshot.save(1L, compressed));
+        // 两次都仍然缓存到Redis
+        verify(stringRedisTemplate, times(2)).execute(any(RedisCallback.class));
+    }
+
+    @Test
+    void testIncludesSimilarProductsAroundMedianPrice() throws Exception {
+        SimilarProduct similar = new SimilarProduct();
+        similar.setProductId(99L);
+        similar.setTier(SimilarProduct.TIER_UPGRADE);
+        when(similarProductIndex.recommend("iPhone 15", new BigDecimal("149.00"), 5)).thenReturn(List.of(similar));
+        CompareTask task = task(2);
+
+        JsonNode data = objectMapper.readTree(CompareResultSnapshot.gunzip(snapshot.build(task))).get("data");
+
+        assertEquals(99L, data.get("similarProducts").get(0).get("productId").asLong());
+        assertEquals("upgrade", objectMapper.readTree(task.getSimilarProducts()).get(0).get("tier").asText());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetFallsBackToStoredSnapshot() {
+        byte[] compressed = snapshot.build(task(2));
+        when(compareTaskMapper.selectCompareResult(1L)).thenReturn(Base64.getEncoder().encodeToString(compressed));
+
+        assertArrayEquals(compressed, snapshot.get(1L));
+        verify(compareTaskMapper, never()).selectById(any());
+        // 未命中Redis时读取一次，回填一次
+        verify(stringRedisTemplate, times(2)).execute(any(RedisCallback.class));
+    }
+
+    @Test
+    void testGetRejectsUnfinishedTask() {
+        when(compareTaskMapper.selectById(1L)).thenReturn(task(1));
+
+        BusinessException e = assertThrows(BusinessException.class, () -> snapshot.get(1L));
+        assertEquals(409, e.getCode());
+    }
+
+    private static CompareTask task(int status) {
+        CompareTask task = new CompareTask();
+        task.setId(1L);
+        task.setProductName("iPhone 15");
+        task.setStatus(status);
+        return task;
+    }
+
+    private static ProductPrice price(Long id, String platformCode, String price, String rating, int sales) {
+        ProductPrice productPrice = new ProductPrice();
+        productPrice.setId(id);
+        productPrice.setPlatformCode(platformCode);
+        productPrice.setPlatformProductId(platformCode + "_" + id);
+        productPrice.setPrice(new BigDecimal(price));
+        productPrice.setRating(new BigDecimal(rating));
+        productPrice.setSales(sales);
+        return productPrice;
+    }
+}
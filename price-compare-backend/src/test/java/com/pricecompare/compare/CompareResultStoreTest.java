@@ -0,0 +1,128 @@
+package com.pricecompare.compare;
+
+import com.pricecompare.dto.response.CursorPage;
+import com.pricecompare.entity.CompareTaskPrice;
+import com.pricecompare.entity.ProductPrice;
+import com.pricecompare.exception.BusinessException;
+import com.pricecompare.mapper.CompareTaskPriceMapper;
+import com.pricecompare.mapper.ProductPriceMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 比价任务结果单元测试
+ * 
+ * @author AutoValuePilot
+ */
+class CompareResultStoreTest {
+
+    private CompareTaskPriceMapper compareTaskPriceMapper;
+    private ProductPriceMapper productPriceMapper;
+    private CompareResultStore store;
+
+    @BeforeEach
+    void setUp() {
+        compareTaskPriceMapper = mock(CompareTaskPriceMapper.class);
+        productPriceMapper = mock(ProductPriceMapper.class);
+        store = new CompareResultStore(compareTaskPriceMapper, productPriceMapper);
+        ReflectionTestUtils.setField(store, "maxLimit", 3);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testLinkResolvesUnchangedObservations() {
+        ProductPrice written = price(10L, "jd_1", "99.00");
+        ProductPrice unchanged = price(null, "jd_2", "199.00");
+        when(productPriceMapper.selectLatestIds(anyList())).thenReturn(List.of(price(7L, "jd_2", "199.00")));
+
+        store.link(1L, List.of(written, unchanged));
+
+        ArgumentCaptor<List<CompareTaskPrice>> captor = ArgumentCaptor.forClass(List.class);
+        verify(compareTaskPriceMapper).insertIgnoreBatch(captor.capture());
+        List<CompareTaskPrice> links = captor.getValue();
+        assertEquals(2, links.size());
+        assertEquals(10L, links.get(0).getPriceId());
+        assertEquals(7L, links.get(1).getPriceId());
+        assertEquals(new BigDecimal("199.00"), links.get(1).getPrice());
+        assertEquals(1L, links.get(1).getTaskId());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testLinkSkipsObservationsWithoutPrice() {
+        ProductPrice priced = price(10L, "jd_1", "99.00");
+        ProductPrice writtenWithoutPrice = price(11L, "jd_2", "1.00");
+        writtenWithoutPrice.setPrice(null);
+        ProductPrice unchangedWithoutPrice = price(null, "jd_3", "1.00");
+        unchangedWithoutPrice.setPrice(null);
+
+        store.link(1L, List.of(priced, writtenWithoutPrice, unchangedWithoutPrice));
+
+        ArgumentCaptor<List<CompareTaskPrice>> captor = ArgumentCaptor.forClass(List.class);
+        verify(compareTaskPriceMapper).insertIgnoreBatch(captor.capture());
+        assertEquals(1, captor.getValue().size());
+        assertEquals(10L, captor.getValue().get(0).getPriceId());
+        verify(productPriceMapper, never()).selectLatestIds(anyList());
+    }
+
+    @Test
+    void testLinkWithoutPricesDoesNothing() {
+        ProductPrice unpriced = price(10L, "jd_1", "1.00");
+        unpriced.setPrice(null);
+
+        store.link(1L, List.of(unpriced));
+
+        verifyNoInteractions(compareTaskPriceMapper, productPriceMapper);
+    }
+
+    @Test
+    void testPageReturnsCursorWhenMoreRows() {
+        List<ProductPrice> rows = new ArrayList<>();
+        for (long id = 1; id <= 4; id++) {
+            rows.add(price(id, "jd_" + id, "10" + id + ".50"));
+        }
+        when(compareTaskPriceMapper.selectTaskPage(1L, null, null, 4)).thenReturn(rows);
+
+        CursorPage<ProductPrice> page = store.page(1L, null, 50);
+
+        assertEquals(3, page.getItems().size());
+        assertTrue(page.getHasMore());
+        assertEquals("103.50_3", page.getNextCursor());
+    }
+
+    @Test
+    void testPageContinuesFromCursor() {
+        when(compareTaskPriceMapper.selectTaskPage(1L, new BigDecimal("103.50"), 3L, 3))
+                .thenReturn(List.of(price(4L, "jd_4", "104.50")));
+
+        CursorPage<ProductPrice> page = store.page(1L, "103.50_3", 2);
+
+        assertEquals(1, page.getItems().size());
+        assertFalse(page.getHasMore());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testRejectsMalformedCursor() {
+        assertThrows(BusinessException.class, () -> store.page(1L, "abc", 10));
+    }
+
+    private static ProductPrice price(Long id, String platformProductId, String price) {
+        ProductPrice productPrice = new ProductPrice();
+        productPrice.setId(id);
+        productPrice.setPlatformCode("jd");
+        productPrice.setPlatformProductId(platformProductId);
+        productPrice.setPrice(new BigDecimal(price));
+        return productPrice;
+    }
+}
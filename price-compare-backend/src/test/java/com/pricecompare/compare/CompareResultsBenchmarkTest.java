@@ -0,0 +1,189 @@
+package com.pricecompare.compare;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 比价结果查询基准测试
+ * 分别在product_price为100万、1000万行时，对比按任务键集分页查询与原来整表按价格排序查询的延迟。
+ * 需要一个可随意清空的MySQL库（会重建product_price和compare_task_price表），默认跳过，运行方式：
+ * mvn test -Dtest=CompareResultsBenchmarkTest -Dbenchmark=true
+ *   -Dbenchmark.jdbc-url="jdbc:mysql://localhost:3306/price_compare_bench?rewriteBatchedStatements=true"
+ *   [-Dbenchmark.rows=1000000,10000000 -Dbenchmark.legacy-max-rows=1000000]
+ * 
+ * @author AutoValuePilot
+ */
+@EnabledIfSystemProperty(named = "benchmark.jdbc-url", matches = ".+")
+class CompareResultsBenchmarkTest {
+
+    private static final String[] PLATFORMS = {"taobao", "jd", "pdd", "suning", "vip"};
+    private static final int RESULTS_PER_TASK = 25;
+    private static final int PAGE_SIZE = 10;
+    private static final int QUERIES = 200;
+
+    private static final String PAGE_SQL = "SELECT pp.id, pp.product_id, pp.platform_code, pp.platform_product_id, ctp.price, " +
+            "pp.original_price, pp.discount, pp.sales, pp.rating, pp.product_url, pp.shop_name, pp.shop_rating, pp.delivery, " +
+            "pp.is_lowest, pp.crawl_time, pp.last_seen_time, pp.create_time, pp.update_time " +
+            "FROM compare_task_price ctp JOIN product_price pp ON pp.id = ctp.price_id " +
+            "WHERE ctp.task_id = ? AND (ctp.price > ? OR (ctp.price = ? AND ctp.price_id > ?)) " +
+            "ORDER BY ctp.price, ctp.price_id LIMIT ?";
+    private static final String LEGACY_SQL = "SELECT * FROM product_price ORDER BY price";
+
+    private final String url = System.getProperty("benchmark.jdbc-url");
+    private final String user = System.getProperty("benchmark.jdbc-user", "root");
+    private final String password = System.getProperty("benchmark.jdbc-password", "root");
+    private final List<Integer> sizes = Arrays.stream(System.getProperty("benchmark.rows", "1000000,10000000").split(","))
+            .map(String::trim).map(Integer::parseInt).sorted().collect(Collectors.toList());
+    private final int legacyMaxRows = Integer.getInteger("benchmark.legacy-max-rows", 1_000_000);
+
+    private final Random random = new Random(42);
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmark() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url, user, password)) {
+            createTables(connection);
+            int rows = 0;
+            long tasks = 0;
+            for (int size : sizes) {
+                tasks = seed(connection, rows, size, tasks);
+                rows = size;
+
+                long[] keyset = measureKeyset(connection, tasks);
+                String legacy = rows <= legacyMaxRows ? formatMillis(measureLegacy(connection)) : "跳过";
+                System.out.printf("product_price=%,d 任务数=%,d | 键集分页 P50=%.2fms P99=%.2fms | 整表排序 %s%n",
+                        rows, tasks, keyset[0] / 1e6, keyset[1] / 1e6, legacy);
+            }
+        }
+    }
+
+    private void createTables(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS compare_task_price");
+            statement.execute("DROP TABLE IF EXISTS product_price");
+            statement.execute("CREATE TABLE product_price (" +
+                    "id bigint NOT NULL AUTO_INCREMENT, product_id bigint DEFAULT NULL, " +
+                    "platform_code varchar(20) NOT NULL, platform_product_id varchar(100) NOT NULL, " +
+                    "price decimal(10,2) NOT NULL, original_price decimal(10,2) DEFAULT NULL, discount varchar(50) DEFAULT NULL, " +
+                    "sales int DEFAULT 0, rating decimal(3,2) DEFAULT 0.00, product_url varchar(500) DEFAULT NULL, " +
+                    "shop_name varchar(200) DEFAULT NULL, shop_rating decimal(3,2) DEFAULT 0.00, delivery varchar(100) DEFAULT NULL, " +
+                    "is_lowest tinyint(1) DEFAULT 0, crawl_time datetime DEFAULT CURRENT_TIMESTAMP, " +
+                    "last_seen_time datetime DEFAULT CURRENT_TIMESTAMP, create_time datetime DEFAULT CURRENT_TIMESTAMP, update_time datetime DEFAULT CURRENT_TIMESTAMP, " +
+                    "PRIMARY KEY (id), UNIQUE KEY uk_platform_product_price (platform_code, platform_product_id, crawl_time), " +
+                    "KEY idx_price (price)) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4");
+            statement.execute("CREATE TABLE compare_task_price (" +
+                    "id bigint NOT NULL AUTO_INCREMENT, task_id bigint NOT NULL, price_id bigint NOT NULL, " +
+                    "price decimal(10,2) NOT NULL, create_time datetime DEFAULT CURRENT_TIMESTAMP, " +
+                    "PRIMARY KEY (id), UNIQUE KEY uk_task_price_id (task_id, price_id), " +
+                    "KEY idx_task_price (task_id, price, price_id)) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4");
+        }
+    }
+
+    /**
+     * 写入价格记录直到表中有target行；每RESULTS_PER_TASK行作为一个任务的结果
+     * @return 累计任务数
+     */
+    private long seed(Connection connection, int from, int target, long tasks) throws SQLException {
+        connection.setAutoCommit(false);
+        Timestamp crawlTime = new Timestamp(System.currentTimeMillis() / 1000 * 1000);
+        try (PreparedStatement prices = connection.prepareStatement(
+                "INSERT INTO product_price (id, platform_code, platform_product_id, price, shop_name, crawl_time) VALUES (?, ?, ?, ?, ?, ?)");
+             PreparedStatement links = connection.prepareStatement(
+                     "INSERT INTO compare_task_price (task_id, price_id, price) VALUES (?, ?, ?)")) {
+            for (int id = from + 1; id <= target; id++) {
+                BigDecimal price = BigDecimal.valueOf(100 + random.nextInt(900_000), 2);
+                prices.setLong(1, id);
+                prices.setString(2, PLATFORMS[id % PLATFORMS.length]);
+                prices.setString(3, "item_" + id);
+                prices.setBigDecimal(4, price);
+                prices.setString(5, "shop_" + (id % 1000));
+                prices.setTimestamp(6, crawlTime);
+                prices.addBatch();
+
+                long taskId = (id - 1) / RESULTS_PER_TASK + 1;
+                links.setLong(1, taskId);
+                links.setLong(2, id);
+                links.setBigDecimal(3, price);
+                links.addBatch();
+                tasks = Math.max(tasks, taskId);
+
+                if (id % 10_000 == 0 || id == target) {
+                    prices.executeBatch();
+                    links.executeBatch();
+                    connection.commit();
+                }
+            }
+        } finally {
+            connection.setAutoCommit(true);
+        }
+        return tasks;
+    }
+
+    /**
+     * 随机任务的第一页和第二页
+     * @return P50、P99（纳秒）
+     */
+    private long[] measureKeyset(Connection connection, long tasks) throws SQLException {
+        long[] samples = new long[QUERIES];
+        try (PreparedStatement statement = connection.prepareStatement(PAGE_SQL)) {
+            for (int i = 0; i < QUERIES; i++) {
+                long taskId = 1 + (long) (random.nextDouble() * tasks);
+                long start = System.nanoTime();
+                BigDecimal lastPrice = BigDecimal.valueOf(-1);
+                long lastId = 0;
+                int total = 0;
+                for (int page = 0; page < 2; page++) {
+                    statement.setLong(1, taskId);
+                    statement.setBigDecimal(2, lastPrice);
+                    statement.setBigDecimal(3, lastPrice);
+                    statement.setLong(4, lastId);
+                    statement.setInt(5, PAGE_SIZE);
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        while (resultSet.next()) {
+                            lastPrice = resultSet.getBigDecimal("price");
+                            lastId = resultSet.getLong("id");
+                            total++;
+                        }
+                    }
+                }
+                samples[i] = System.nanoTime() - start;
+                assertEquals(2 * PAGE_SIZE, total);
+            }
+        }
+        Arrays.sort(samples);
+        return new long[]{samples[QUERIES / 2], samples[QUERIES * 99 / 100]};
+    }
+
+    private long measureLegacy(Connection connection) throws SQLException {
+        long start = System.nanoTime();
+        try (Statement statement = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            // 流式读取，避免测试本身占满内存
+            statement.setFetchSize(Integer.MIN_VALUE);
+            try (ResultSet resultSet = statement.executeQuery(LEGACY_SQL)) {
+                while (resultSet.next()) {
+                    resultSet.getBigDecimal("price");
+                }
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.format("%.0fms", nanos / 1e6);
+    }
+}
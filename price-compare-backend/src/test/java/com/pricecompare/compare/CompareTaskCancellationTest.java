@@ -0,0 +1,117 @@
+package com.pricecompare.compare;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 比价任务中断单元测试
+ *
+ * @author AutoValuePilot
+ */
+class CompareTaskCancellationTest {
+
+    private StringRedisTemplate stringRedisTemplate;
+    private CompareTaskCancellation cancellation;
+
+    @BeforeEach
+    void setUp() {
+        stringRedisTemplate = mock(StringRedisTemplate.class);
+        cancellation = new CompareTaskCancellation(stringRedisTemplate, mock(RedisMessageListenerContainer.class));
+    }
+
+    @Test
+    void testCancelMessageInterruptsRunningSubtask() throws InterruptedException {
+        CountDownLatch registered = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        AtomicBoolean clearedAfterClose = new AtomicBoolean();
+        Thread worker = new Thread(() -> {
+            try (CompareTaskCancellation.Registration registration = cancellation.register(1L)) {
+                registered.countDown();
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    interrupted.set(registration.isInterrupted());
+                    Thread.currentThread().interrupt();
+                }
+            }
+            clearedAfterClose.set(!Thread.currentThread().isInterrupted());
+        });
+        worker.start();
+        assertTrue(registered.await(5, TimeUnit.SECONDS));
+
+        cancellation.onMessage(message("1"), null);
+        worker.join(5000);
+
+        assertFalse(worker.isAlive());
+        assertTrue(interrupted.get());
+        // 执行线程回到线程池时不再带有中断标记
+        assertTrue(clearedAfterClose.get());
+    }
+
+    @Test
+    void testOnlyInterruptsRegisteredThreadsOfTask() {
+        try (CompareTaskCancellation.Registration registration = cancellation.register(1L)) {
+            assertEquals(0, cancellation.interruptLocal(2L));
+            assertFalse(registration.isInterrupted());
+            assertFalse(Thread.currentThread().isInterrupted());
+        }
+
+        // 注销之后不再被中断
+        assertEquals(0, cancellation.interruptLocal(1L));
+        assertFalse(Thread.currentThread().isInterrupted());
+    }
+
+    @Test
+    void testCloseClearsInterruptOfCurrentThread() {
+        CompareTaskCancellation.Registration registration = cancellation.register(1L);
+        assertEquals(1, cancellation.interruptLocal(1L));
+        assertTrue(Thread.currentThread().isInterrupted());
+
+        registration.close();
+
+        assertTrue(registration.isInterrupted());
+        assertFalse(Thread.currentThread().isInterrupted());
+    }
+
+    @Test
+    void testInterruptPublishesToAllNodes() {
+        cancellation.interrupt(1L);
+
+        verify(stringRedisTemplate).convertAndSend(eq(CompareTaskCancellation.CANCEL_CHANNEL), eq("1"));
+    }
+
+    @Test
+    void testInterruptsLocallyWhenPublishFails() {
+        when(stringRedisTemplate.convertAndSend(anyString(), anyString())).thenThrow(new IllegalStateException("redis down"));
+        CompareTaskCancellation.Registration registration = cancellation.register(1L);
+
+        cancellation.interrupt(1L);
+
+        assertTrue(registration.isInterrupted());
+        registration.close();
+        assertFalse(Thread.currentThread().isInterrupted());
+    }
+
+    @Test
+    void testIgnoresMalformedMessage() {
+        assertDoesNotThrow(() -> cancellation.onMessage(message("not a task"), null));
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(CompareTaskCancellation.CANCEL_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+}
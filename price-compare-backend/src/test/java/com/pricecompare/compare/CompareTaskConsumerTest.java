@@ -0,0 +1,93 @@
+package com.pricecompare.compare;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pricecompare.crawler.PlatformConfigRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageListener;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.support.ListenerExecutionFailedException;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * RabbitMQ比价任务消费单元测试
+ *
+ * @author AutoValuePilot
+ */
+class CompareTaskConsumerTest {
+
+    private CompareTaskRunner runner;
+    private SimpleMeterRegistry meterRegistry;
+    private CompareTaskConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        runner = mock(CompareTaskRunner.class);
+        meterRegistry = new SimpleMeterRegistry();
+        consumer = new CompareTaskConsumer(mock(ConnectionFactory.class), mock(CompareTaskQueues.class), runner,
+                mock(PlatformConfigRegistry.class), meterRegistry);
+        ReflectionTestUtils.setField(consumer, "maxRetries", 2);
+        ReflectionTestUtils.setField(consumer, "retryInitialInterval", 1L);
+        ReflectionTestUtils.setField(consumer, "retryMultiplier", 2.0);
+        ReflectionTestUtils.setField(consumer, "retryMaxInterval", 2L);
+    }
+
+    @Test
+    void testRetriesThenRejectsToDeadLetterQueue() throws Throwable {
+        IllegalStateException failure = new IllegalStateException("boom");
+        doThrow(failure).when(runner).run(any());
+        Message message = message(new CompareTaskMessage(1L, "iPhone 15", "jd"));
+
+        ListenerExecutionFailedException e = assertThrows(ListenerExecutionFailedException.class,
+                () -> consumer.retryInterceptor().invoke(invocation("jd", message)));
+
+        // 共执行1+2次，重试耗尽后记为失败，并拒绝消息且不重新入队，由队列转入死信队列
+        verify(runner, times(3)).run(any());
+        verify(runner).fail(argThat(task -> task.getTaskId() == 1L && "jd".equals(task.getPlatformCode())), eq(failure));
+        assertInstanceOf(AmqpRejectAndDontRequeueException.class, e.getCause());
+    }
+
+    @Test
+    void testRetrySucceedsWithoutDeadLetter() throws Throwable {
+        doThrow(new IllegalStateException("boom")).doNothing().when(runner).run(any());
+        CompareTaskMessage task = new CompareTaskMessage(1L, "iPhone 15", "jd");
+        task.setDispatchedAt(System.currentTimeMillis());
+
+        consumer.retryInterceptor().invoke(invocation("jd", message(task)));
+
+        verify(runner, times(2)).run(any());
+        verify(runner, never()).fail(any(), any());
+        // 排队等待时间只在首次投递时记录
+        assertEquals(1L, meterRegistry.get("compare.task.wait").tag("platform", "jd").timer().count());
+    }
+
+    /**
+     * 模拟监听容器对监听器的一次调用，重试拦截器每次尝试都重新执行handle
+     */
+    private ProxyMethodInvocation invocation(String platformCode, Message message) throws Throwable {
+        ProxyMethodInvocation invocation = mock(ProxyMethodInvocation.class);
+        when(invocation.invocableClone()).thenReturn(invocation);
+        when(invocation.getMethod()).thenReturn(MessageListener.class.getMethod("onMessage", Message.class));
+        when(invocation.getArguments()).thenReturn(new Object[]{null, message});
+        when(invocation.proceed()).thenAnswer(call -> {
+            consumer.handle(platformCode, message);
+            return null;
+        });
+        return invocation;
+    }
+
+    private static Message message(CompareTaskMessage task) throws Exception {
+        return new Message(new ObjectMapper().writeValueAsBytes(task), new MessageProperties());
+    }
+}
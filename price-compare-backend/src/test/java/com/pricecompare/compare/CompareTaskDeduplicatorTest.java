@@ -0,0 +1,150 @@
+package com.pricecompare.compare;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 比价任务去重单元测试
+ *
+ * @author AutoValuePilot
+ */
+class CompareTaskDeduplicatorTest {
+
+    /** 模拟的Redis字符串数据 */
+    private final Map<String, String> redis = new HashMap<>();
+    private final Map<String, Duration> ttls = new HashMap<>();
+    private StringRedisTemplate stringRedisTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private CompareTaskDeduplicator deduplicator;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        stringRedisTemplate = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> valueOps = mock(ValueOperations.class);
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOps);
+        when(valueOps.get(anyString())).thenAnswer(invocation -> redis.get(invocation.<String>getArgument(0)));
+        when(valueOps.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenAnswer(invocation -> {
+            String key = invocation.getArgument(0);
+            ttls.put(key, invocation.getArgument(2));
+            return redis.putIfAbsent(key, invocation.getArgument(1)) == null;
+        });
+        doAnswer(invocation -> {
+            redis.put(invocation.getArgument(0), invocation.getArgument(1));
+            ttls.put(invocation.getArgument(0), invocation.getArgument(2));
+            return null;
+        }).when(valueOps).set(anyString(), anyString(), any(Duration.class));
+        when(stringRedisTemplate.expire(anyString(), any(Duration.class))).thenAnswer(invocation -> {
+            ttls.put(invocation.getArgument(0), invocation.getArgument(1));
+            return true;
+        });
+        when(stringRedisTemplate.delete(anyString())).thenAnswer(invocation -> redis.remove(invocation.<String>getArgument(0)) != null);
+        // 释放脚本：值仍为该任务ID时删除
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), any())).thenAnswer(invocation -> {
+            String key = invocation.<List<String>>getArgument(1).get(0);
+            String taskId = invocation.getArgument(2);
+            return taskId.equals(redis.get(key)) && redis.remove(key) != null ? 1L : 0L;
+        });
+
+        meterRegistry = new SimpleMeterRegistry();
+        deduplicator = new CompareTaskDeduplicator(stringRedisTemplate, meterRegistry);
+        ReflectionTestUtils.setField(deduplicator, "enabled", true);
+        ReflectionTestUtils.setField(deduplicator, "freshWindow", 60000L);
+        ReflectionTestUtils.setField(deduplicator, "taskTimeout", 300000L);
+    }
+
+    @Test
+    void testKeyNormalizesNameAndPlatformOrder() {
+        String key = deduplicator.key("iPhone 15 Pro", null, List.of("taobao", "jd"));
+
+        assertEquals(key, deduplicator.key("  IPHONE１５ pro!", null, List.of("jd", "taobao")));
+        assertNotEquals(key, deduplicator.key("iPhone 15 Pro", null, List.of("jd")));
+        assertNull(deduplicator.key("  ", null, List.of("jd")));
+        // 源商品不同的请求复用的同簇价格不同，不是等价任务
+        String sourceKey = deduplicator.key("iPhone 15 Pro", 7L, List.of("taobao", "jd"));
+        assertNotEquals(key, sourceKey);
+        assertNotEquals(sourceKey, deduplicator.key("iPhone 15 Pro", 8L, List.of("taobao", "jd")));
+        assertEquals(sourceKey, deduplicator.key("iphone 15 pro", 7L, List.of("jd", "taobao")));
+
+        ReflectionTestUtils.setField(deduplicator, "enabled", false);
+        assertNull(deduplicator.key("iPhone 15 Pro", null, List.of("jd")));
+    }
+
+    @Test
+    void testSecondClaimReturnsFirstTask() {
+        String key = deduplicator.key("iPhone 15", null, List.of("jd"));
+
+        assertNull(deduplicator.claim(key, 1L));
+        assertEquals(1L, deduplicator.claim(key, 2L));
+        assertEquals(1L, deduplicator.find(key));
+        assertEquals(Duration.ofMillis(360000), ttls.get(key));
+    }
+
+    @Test
+    void testSuccessKeepsClaimForFreshWindow() {
+        String key = deduplicator.key("iPhone 15", null, List.of("jd"));
+        deduplicator.claim(key, 1L);
+
+        deduplicator.finished(1L, true);
+
+        assertEquals(1L, deduplicator.find(key));
+        assertEquals(Duration.ofMillis(60000), ttls.get(key));
+    }
+
+    @Test
+    void testFailureAndDeleteReleaseClaim() {
+        String key = deduplicator.key("iPhone 15", null, List.of("jd"));
+        deduplicator.claim(key, 1L);
+        deduplicator.finished(1L, false);
+        assertNull(deduplicator.find(key));
+
+        deduplicator.claim(key, 2L);
+        deduplicator.release(2L);
+        assertNull(deduplicator.find(key));
+        assertNull(deduplicator.claim(key, 3L));
+    }
+
+    @Test
+    void testReleaseDoesNotRemoveOtherTasksClaim() {
+        String key = deduplicator.key("iPhone 15", null, List.of("jd"));
+        deduplicator.claim(key, 1L);
+        deduplicator.evictStale(key, 1L);
+        deduplicator.claim(key, 2L);
+
+        deduplicator.release(1L);
+
+        assertEquals(2L, deduplicator.find(key));
+    }
+
+    @Test
+    void testRedisUnavailableDisablesDeduplication() {
+        when(stringRedisTemplate.opsForValue()).thenThrow(new IllegalStateException("redis down"));
+        String key = deduplicator.key("iPhone 15", null, List.of("jd"));
+
+        assertNull(deduplicator.find(key));
+        assertNull(deduplicator.claim(key, 1L));
+        assertDoesNotThrow(() -> deduplicator.finished(1L, true));
+    }
+
+    @Test
+    void testRecordHit() {
+        deduplicator.recordHit();
+        deduplicator.recordHit();
+
+        assertEquals(2.0, meterRegistry.counter("compare.task.deduplicated").count());
+    }
+}
@@ -0,0 +1,227 @@
+package com.pricecompare.compare;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.pricecompare.dto.response.BatchSearchResult;
+import com.pricecompare.dto.response.CompareTaskProgress;
+import com.pricecompare.dto.response.PlatformSearchResult;
+import com.pricecompare.entity.CompareTask;
+import com.pricecompare.entity.ProductPrice;
+import com.pricecompare.mapper.CompareTaskMapper;
+import com.pricecompare.price.PriceRefreshQueue;
+import com.pricecompare.price.ProductPriceWriter;
+import com.pricecompare.service.CrawlerService;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 比价任务执行单元测试，Redis哈希用内存Map模拟
+ *
+ * @author AutoValuePilot
+ */
+class CompareTaskRunnerTest {
+
+    private static final String STATE_KEY = "compare:task:state:1";
+
+    private final Map<String, Map<Object, Object>> hashes = new ConcurrentHashMap<>();
+
+    /** 下一次累加done之前执行，用于模拟平台并发完成的交错 */
+    private Runnable beforeDoneIncrement;
+
+    private CrawlerService crawlerService;
+    private CompareResultStore compareResultStore;
+    private CompareProgressNotifier compareProgressNotifier;
+    private CompareResultSnapshot compareResultSnapshot;
+    private CompareTaskDeduplicator compareTaskDeduplicator;
+    private CompareTaskCancellation compareTaskCancellation;
+    private CompareTaskMapper compareTaskMapper;
+    private CompareTaskRunner runner;
+
+    @BeforeAll
+    static void initTableInfo() {
+        // LambdaWrapper按实体表信息解析列名
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), CompareTask.class);
+    }
+
+    @BeforeEach
+    void setUp() {
+        crawlerService = mock(CrawlerService.class);
+        compareResultStore = mock(CompareResultStore.class);
+        compareProgressNotifier = mock(CompareProgressNotifier.class);
+        compareResultSnapshot = mock(CompareResultSnapshot.class);
+        compareTaskDeduplicator = mock(CompareTaskDeduplicator.class);
+        compareTaskCancellation = spy(new CompareTaskCancellation(mock(StringRedisTemplate.class),
+                mock(RedisMessageListenerContainer.class)));
+        compareTaskMapper = mock(CompareTaskMapper.class);
+        HashOperations<String, Object, Object> hashOps = hashOperations();
+        StringRedisTemplate stringRedisTemplate = mock(StringRedisTemplate.class);
+        when(stringRedisTemplate.<Object, Object>opsForHash()).thenReturn(hashOps);
+        when(compareTaskMapper.update(any(), any())).thenReturn(1);
+        when(compareResultSnapshot.build(any())).thenReturn(new byte[]{1});
+
+        runner = new CompareTaskRunner(crawlerService, mock(ProductPriceWriter.class), compareResultStore,
+                compareProgressNotifier, compareResultSnapshot, compareTaskDeduplicator, compareTaskCancellation,
+                mock(PriceRefreshQueue.class), compareTaskMapper, stringRedisTemplate);
+        ReflectionTestUtils.setField(runner, "taskTimeout", 300000L);
+    }
+
+    @Test
+    void testDeadlinePassedBeforeSearchExpiresTask() {
+        runner.begin(1L, 2);
+
+        runner.run(new CompareTaskMessage(1L, "iPhone 15", "jd", System.currentTimeMillis() - 1));
+
+        verifyNoInteractions(crawlerService);
+        assertEquals(CompareTaskRunner.STATUS_TIMEOUT, finishedStatus());
+        verify(compareTaskCancellation).interrupt(1L);
+        assertEquals(String.valueOf(CompareTaskRunner.STATUS_TIMEOUT), hashes.get(STATE_KEY).get("terminated"));
+    }
+
+    @Test
+    void testDeadlinePassedDuringSearchExpiresInsteadOfRetrying() {
+        runner.begin(1L, 2);
+        long deadline = System.currentTimeMillis() + 50;
+        when(crawlerService.batchSearch(eq("iPhone 15"), eq(List.of("jd")), eq(deadline))).thenAnswer(invocation -> {
+            Thread.sleep(100);
+            return searchResult(PlatformSearchResult.failure("jd", PlatformSearchResult.Status.TIMEOUT, 100, "超时"));
+        });
+
+        assertDoesNotThrow(() -> runner.run(new CompareTaskMessage(1L, "iPhone 15", "jd", deadline)));
+
+        assertEquals(CompareTaskRunner.STATUS_TIMEOUT, finishedStatus());
+        verify(compareTaskDeduplicator).finished(1L, false);
+    }
+
+    @Test
+    void testTerminatedTaskSkipsQueuedSubtasks() {
+        runner.begin(1L, 2);
+        assertTrue(runner.cancel(1L));
+        clearInvocations(compareTaskMapper, compareResultSnapshot);
+
+        runner.run(new CompareTaskMessage(1L, "iPhone 15", "jd", System.currentTimeMillis() + 60000));
+
+        verifyNoInteractions(crawlerService, compareResultStore, compareResultSnapshot);
+        verify(compareTaskMapper, never()).update(any(), any());
+        assertFalse(hashes.get(STATE_KEY).containsKey("platform:jd"));
+        // 已经结束的任务再次取消不生效
+        assertFalse(runner.cancel(1L));
+    }
+
+    @Test
+    void testFinishDoesNotOverwriteTerminalStatus() {
+        runner.begin(1L, 1);
+        List<ProductPrice> prices = List.of(new ProductPrice());
+        // 其他节点已把任务结束为超时：条件更新不再匹配
+        when(compareTaskMapper.update(argThat(task -> task != null && task.getStatus() != null), any())).thenReturn(0);
+
+        runner.resolve(new CompareTaskMessage(1L, "iPhone 15", "jd"), prices);
+
+        assertEquals(CompareTaskRunner.STATUS_SUCCEEDED, finishedStatus());
+        verify(compareResultSnapshot, never()).save(any(), any());
+        verify(compareTaskDeduplicator, never()).finished(any(), anyBoolean());
+        verify(compareProgressNotifier, never()).publish(any(CompareTaskProgress.class));
+    }
+
+    @Test
+    void testExpireOverdueTasksTerminatesEachTaskOnce() {
+        CompareTask overdue = new CompareTask();
+        overdue.setId(1L);
+        CompareTask alreadyFinished = new CompareTask();
+        alreadyFinished.setId(2L);
+        CompareTask broken = new CompareTask();
+        broken.setId(3L);
+        hashes.computeIfAbsent("compare:task:state:2", key -> new HashMap<>()).put("terminated", "5");
+        doThrow(new IllegalStateException("redis down")).when(compareTaskCancellation).interrupt(3L);
+        when(compareTaskMapper.selectList(any())).thenReturn(List.of(broken, alreadyFinished, overdue));
+
+        runner.expireOverdueTasks();
+
+        ArgumentCaptor<CompareTask> finished = ArgumentCaptor.forClass(CompareTask.class);
+        verify(compareTaskMapper).update(finished.capture(), any());
+        assertEquals(1L, finished.getValue().getId());
+        assertEquals(CompareTaskRunner.STATUS_TIMEOUT, finished.getValue().getStatus());
+        verify(compareResultSnapshot).save(eq(1L), any());
+        verify(compareTaskCancellation, never()).interrupt(2L);
+    }
+
+    @Test
+    void testConcurrentFailuresFinishTaskAsFailed() {
+        runner.begin(1L, 2);
+        // jd累加失败数后、累加done之前，tb完整地失败一次
+        beforeDoneIncrement = () -> runner.fail(new CompareTaskMessage(1L, "iPhone 15", "tb"),
+                new IllegalStateException("tb down"));
+
+        runner.fail(new CompareTaskMessage(1L, "iPhone 15", "jd"), new IllegalStateException("jd down"));
+
+        assertEquals(CompareTaskRunner.STATUS_FAILED, finishedStatus());
+        verify(compareTaskDeduplicator).finished(1L, false);
+    }
+
+    /**
+     * 结束任务时写入的状态
+     */
+    private int finishedStatus() {
+        ArgumentCaptor<CompareTask> task = ArgumentCaptor.forClass(CompareTask.class);
+        verify(compareTaskMapper, atLeastOnce()).update(task.capture(), any());
+        return task.getAllValues().stream()
+                .filter(value -> value != null && value.getStatus() != null)
+                .reduce((first, second) -> second)
+                .orElseThrow()
+                .getStatus();
+    }
+
+    private static BatchSearchResult searchResult(PlatformSearchResult platform) {
+        BatchSearchResult result = new BatchSearchResult();
+        result.setPlatforms(List.of(platform));
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private HashOperations<String, Object, Object> hashOperations() {
+        HashOperations<String, Object, Object> hashOps = mock(HashOperations.class);
+        doAnswer(invocation -> {
+            hash(invocation.getArgument(0)).put(invocation.getArgument(1), invocation.getArgument(2));
+            return null;
+        }).when(hashOps).put(anyString(), any(), any());
+        when(hashOps.putIfAbsent(anyString(), any(), any())).thenAnswer(invocation ->
+                hash(invocation.getArgument(0)).putIfAbsent(invocation.getArgument(1), invocation.getArgument(2)) == null);
+        when(hashOps.hasKey(anyString(), any())).thenAnswer(invocation ->
+                hash(invocation.getArgument(0)).containsKey(invocation.getArgument(1)));
+        when(hashOps.get(anyString(), any())).thenAnswer(invocation ->
+                hash(invocation.getArgument(0)).get(invocation.getArgument(1)));
+        when(hashOps.increment(anyString(), any(), anyLong())).thenAnswer(invocation -> {
+            if ("done".equals(invocation.getArgument(1)) && beforeDoneIncrement != null) {
+                Runnable interleaved = beforeDoneIncrement;
+                beforeDoneIncrement = null;
+                interleaved.run();
+            }
+            return Long.parseLong((String) hash(invocation.getArgument(0)).merge(invocation.getArgument(1),
+                    String.valueOf((long) invocation.getArgument(2)),
+                    (current, delta) -> String.valueOf(Long.parseLong((String) current) + Long.parseLong((String) delta))));
+        });
+        return hashOps;
+    }
+
+    private Map<Object, Object> hash(String key) {
+        return hashes.computeIfAbsent(key, k -> new ConcurrentHashMap<>());
+    }
+}
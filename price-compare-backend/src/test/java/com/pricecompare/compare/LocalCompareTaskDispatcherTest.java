@@ -0,0 +1,157 @@
+package com.pricecompare.compare;
+
+import com.pricecompare.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 本机比价任务分发单元测试
+ * 
+ * @author AutoValuePilot
+ */
+class LocalCompareTaskDispatcherTest {
+
+    private CompareTaskRunner runner;
+    private SimpleMeterRegistry meterRegistry;
+    private LocalCompareTaskDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        runner = mock(CompareTaskRunner.class);
+        meterRegistry = new SimpleMeterRegistry();
+        dispatcher = new LocalCompareTaskDispatcher(runner, meterRegistry);
+        ReflectionTestUtils.setField(dispatcher, "concurrency", 1);
+        ReflectionTestUtils.setField(dispatcher, "queueCapacity", 1);
+        ReflectionTestUtils.setField(dispatcher, "retryAfterMillis", 3000L);
+        ReflectionTestUtils.setField(dispatcher, "maxRetries", 2);
+        ReflectionTestUtils.setField(dispatcher, "retryInitialInterval", 10L);
+        ReflectionTestUtils.setField(dispatcher, "retryMultiplier", 2.0);
+        ReflectionTestUtils.setField(dispatcher, "retryMaxInterval", 15L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void testRunsEachPlatformSubTask() {
+        CompareTaskMessage jd = new CompareTaskMessage(1L, "iPhone 15", "jd");
+        CompareTaskMessage taobao = new CompareTaskMessage(1L, "iPhone 15", "taobao");
+
+        dispatcher.dispatch(List.of(jd, taobao));
+
+        verify(runner, timeout(2000)).run(jd);
+        verify(runner, timeout(2000)).run(taobao);
+        verify(runner, never()).fail(any(), any());
+    }
+
+    @Test
+    void testRetriesThenFails() {
+        CompareTaskMessage message = new CompareTaskMessage(1L, "iPhone 15", "jd");
+        doThrow(new IllegalStateException("boom")).when(runner).run(message);
+
+        dispatcher.dispatch(List.of(message));
+
+        verify(runner, timeout(2000)).fail(eq(message), any(IllegalStateException.class));
+        verify(runner, times(3)).run(message);
+    }
+
+    @Test
+    void testRetryDelay_BacksOffUpToMaxInterval() {
+        ReflectionTestUtils.setField(dispatcher, "retryInitialInterval", 1000L);
+        ReflectionTestUtils.setField(dispatcher, "retryMaxInterval", 10000L);
+
+        assertEquals(1000L, dispatcher.retryDelay(0));
+        assertEquals(2000L, dispatcher.retryDelay(1));
+        assertEquals(4000L, dispatcher.retryDelay(2));
+        assertEquals(8000L, dispatcher.retryDelay(3));
+        assertEquals(10000L, dispatcher.retryDelay(4));
+    }
+
+    @Test
+    void testRetriesAfterBackoff() {
+        CompareTaskMessage message = new CompareTaskMessage(1L, "iPhone 15", "jd");
+        long[] attempts = new long[3];
+        int[] count = new int[1];
+        doAnswer(invocation -> {
+            attempts[count[0]++] = System.nanoTime();
+            throw new IllegalStateException("boom");
+        }).when(runner).run(message);
+
+        dispatcher.dispatch(List.of(message));
+
+        verify(runner, timeout(2000)).fail(eq(message), any(IllegalStateException.class));
+        // 两次重试前分别等待10毫秒和15毫秒（20毫秒被max-interval截断）
+        assertTrue(attempts[1] - attempts[0] >= TimeUnit.MILLISECONDS.toNanos(10));
+        assertTrue(attempts[2] - attempts[1] >= TimeUnit.MILLISECONDS.toNanos(15));
+    }
+
+    @Test
+    void testRetrySucceeds() {
+        CompareTaskMessage message = new CompareTaskMessage(1L, "iPhone 15", "jd");
+        doThrow(new IllegalStateException("boom")).doNothing().when(runner).run(message);
+
+        dispatcher.dispatch(List.of(message));
+
+        verify(runner, timeout(2000).times(2)).run(message);
+        verify(runner, never()).fail(any(), any());
+    }
+
+    @Test
+    void testRejectsWholeTaskWhenPlatformQueueIsFull() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            started.countDown();
+            release.await(2, TimeUnit.SECONDS);
+            return null;
+        }).when(runner).run(any());
+
+        CompareTaskMessage first = new CompareTaskMessage(1L, "a", "jd");
+        dispatcher.dispatch(List.of(first));
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+        CompareTaskMessage queued = new CompareTaskMessage(2L, "b", "jd");
+        dispatcher.dispatch(List.of(queued));
+        assertEquals(1.0, meterRegistry.get("compare.executor.queue.size").tag("platform", "jd").gauge().value());
+        assertEquals(1.0, meterRegistry.get("compare.executor.active").tag("platform", "jd").gauge().value());
+
+        CompareTaskMessage otherPlatform = new CompareTaskMessage(3L, "c", "taobao");
+        CompareTaskMessage rejected = new CompareTaskMessage(3L, "c", "jd");
+        RateLimitExceededException e = assertThrows(RateLimitExceededException.class,
+                () -> dispatcher.dispatch(List.of(otherPlatform, rejected)));
+        assertEquals(3000L, e.getRetryAfterMillis());
+        assertEquals(1.0, meterRegistry.get("compare.executor.rejected").counter().count());
+
+        release.countDown();
+        verify(runner, timeout(2000)).run(queued);
+        verify(runner, never()).run(otherPlatform);
+        verify(runner, never()).fail(any(), any());
+    }
+
+    @Test
+    void testRecordsWaitTime() {
+        CompareTaskMessage message = new CompareTaskMessage(1L, "iPhone 15", "jd");
+
+        dispatcher.dispatch(List.of(message));
+
+        verify(runner, timeout(2000)).run(message);
+        assertNotNull(message.getDispatchedAt());
+        assertEquals(1L, meterRegistry.get("compare.task.wait").tag("platform", "jd").timer().count());
+    }
+}
@@ -0,0 +1,119 @@
+package com.pricecompare.compare;
+
+import com.pricecompare.dto.response.CompareRanking;
+import com.pricecompare.dto.response.CompareResultItem;
+import com.pricecompare.entity.ProductPrice;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 比价结果排名单元测试
+ *
+ * @author AutoValuePilot
+ */
+class PriceRankingTest {
+
+    private static final Comparator<ProductPrice> CHEAPEST = Comparator.comparing(ProductPrice::getPrice)
+            .thenComparing(ProductPrice::getRating, Comparator.reverseOrder())
+            .thenComparing(ProductPrice::getSales, Comparator.reverseOrder())
+            .thenComparing(ProductPrice::getId);
+
+    @Test
+    void testRankMatchesFullSort() {
+        Random random = new Random(7);
+        List<ProductPrice> prices = new ArrayList<>();
+        String[] platforms = {"taobao", "jd", "pdd", "suning"};
+        for (long id = 1; id <= 2000; id++) {
+            // 价格取值较少，制造大量同价记录
+            prices.add(price(id, platforms[random.nextInt(platforms.length)],
+                    BigDecimal.valueOf(1000 + random.nextInt(300), 1),
+                    BigDecimal.valueOf(random.nextInt(6) * 100, 2), random.nextInt(50)));
+        }
+
+        CompareRanking ranking = PriceRanking.of(prices).rank(20);
+
+        List<ProductPrice> sorted = prices.stream().sorted(CHEAPEST).collect(Collectors.toList());
+        assertEquals(ids(sorted.subList(0, 20)), itemIds(ranking.getCheapest()));
+        assertEquals(sorted.get(0).getId(), ranking.getBestChoice().getId());
+        assertTrue(ranking.getBestChoice().isLowest());
+
+        List<ProductPrice> byValue = prices.stream()
+                .filter(price -> price.getRating().signum() > 0)
+                .sorted(Comparator.comparing((ProductPrice price) -> price.getRating().movePointRight(2).longValue()
+                                * 1_000_000_000L / price.getPrice().movePointRight(2).longValue()).reversed()
+                        .thenComparing(CHEAPEST))
+                .collect(Collectors.toList());
+        assertEquals(ids(byValue.subList(0, 20)), itemIds(ranking.getBestValue()));
+
+        List<String> platformCodes = prices.stream().map(ProductPrice::getPlatformCode).distinct().sorted()
+                .collect(Collectors.toList());
+        assertEquals(platformCodes, ranking.getChart().getPlatforms());
+        for (int i = 0; i < platformCodes.size(); i++) {
+            String platform = platformCodes.get(i);
+            List<ProductPrice> platformPrices = sorted.stream()
+                    .filter(price -> price.getPlatformCode().equals(platform)).collect(Collectors.toList());
+            assertEquals(platformPrices.get(0).getId(), ranking.getPlatformLowest().get(i).getId());
+            assertEquals(0, platformPrices.get(0).getPrice().compareTo(ranking.getChart().getMinPrices().get(i)));
+            assertEquals(platformPrices.size(), ranking.getChart().getCounts().get(i));
+        }
+
+        CompareRanking.Distribution distribution = ranking.getDistribution();
+        assertEquals(0, sorted.get(0).getPrice().compareTo(distribution.getMin()));
+        assertEquals(0, sorted.get(sorted.size() - 1).getPrice().compareTo(distribution.getMax()));
+        assertEquals(0, sorted.get(sorted.size() / 2).getPrice().compareTo(distribution.getMedian()));
+        assertEquals(prices.size(), distribution.getBuckets().stream().mapToInt(CompareRanking.Bucket::getCount).sum());
+        assertEquals(10, distribution.getBuckets().size());
+    }
+
+    @Test
+    void testTopNLargerThanResults() {
+        List<ProductPrice> prices = List.of(
+                price(1L, "jd", new BigDecimal("20.00"), null, null),
+                price(2L, "jd", new BigDecimal("10.00"), new BigDecimal("4.50"), 3));
+
+        CompareRanking ranking = PriceRanking.of(prices).rank(10);
+
+        assertEquals(List.of(2L, 1L), itemIds(ranking.getCheapest()));
+        // 没有评分的商品不参与性价比排名
+        assertEquals(List.of(2L), itemIds(ranking.getBestValue()));
+        assertEquals(10, ranking.getDistribution().getBuckets().size());
+        assertEquals(new BigDecimal("15.00"), ranking.getDistribution().getAvg());
+    }
+
+    @Test
+    void testEmptyResults() {
+        CompareRanking ranking = PriceRanking.of(List.of()).rank(10);
+
+        assertNull(ranking.getBestChoice());
+        assertNull(ranking.getDistribution());
+        assertTrue(ranking.getCheapest().isEmpty());
+        assertTrue(ranking.getChart().getPlatforms().isEmpty());
+    }
+
+    private static List<Long> ids(List<ProductPrice> prices) {
+        return prices.stream().map(ProductPrice::getId).collect(Collectors.toList());
+    }
+
+    private static List<Long> itemIds(List<CompareResultItem> items) {
+        return items.stream().map(CompareResultItem::getId).collect(Collectors.toList());
+    }
+
+    private static ProductPrice price(Long id, String platform, BigDecimal value, BigDecimal rating, Integer sales) {
+        ProductPrice price = new ProductPrice();
+        price.setId(id);
+        price.setPlatformCode(platform);
+        price.setPlatformProductId("p" + id);
+        price.setPrice(value);
+        price.setRating(rating);
+        price.setSales(sales);
+        return price;
+    }
+}
@@ -0,0 +1,121 @@
+package com.pricecompare.controller;
+
+import com.pricecompare.compare.CompareProgressNotifier;
+import com.pricecompare.compare.CompareResultSnapshot;
+import com.pricecompare.dto.response.CompareTaskProgress;
+import com.pricecompare.entity.CompareTask;
+import com.pricecompare.service.CompareService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 比价任务控制器单元测试
+ *
+ * @author AutoValuePilot
+ */
+class CompareControllerTest {
+
+    private CompareService compareService;
+    private CompareProgressNotifier compareProgressNotifier;
+    private CompareResultSnapshot compareResultSnapshot;
+    private CompareController compareController;
+
+    @BeforeEach
+    void setUp() {
+        compareService = mock(CompareService.class);
+        compareProgressNotifier = mock(CompareProgressNotifier.class);
+        compareResultSnapshot = mock(CompareResultSnapshot.class);
+        compareController = new CompareController(compareService, compareProgressNotifier, compareResultSnapshot);
+        ReflectionTestUtils.setField(compareController, "streamTimeout", 10_000L);
+        ReflectionTestUtils.setField(compareController, "resultThreads", 1);
+        ReflectionTestUtils.setField(compareController, "resultQueueCapacity", 10);
+        compareController.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        compareController.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testResultIsQueriedOffTheNotifierThread() throws Exception {
+        when(compareService.getCompareTaskById(1L)).thenReturn(task(1));
+        when(compareProgressNotifier.subscribe(eq(1L), any())).thenReturn(() -> { });
+        CompletableFuture<String> queryThread = new CompletableFuture<>();
+        when(compareService.getCompareResults(1L, null, 50)).thenAnswer(invocation -> {
+            queryThread.complete(Thread.currentThread().getName());
+            return null;
+        });
+
+        compareController.streamCompareTask(1L);
+        ArgumentCaptor<Consumer<CompareTaskProgress>> listener = ArgumentCaptor.forClass(Consumer.class);
+        verify(compareProgressNotifier).subscribe(eq(1L), listener.capture());
+
+        // 模拟Redis订阅线程分发任务结束的进度
+        listener.getValue().accept(CompareTaskProgress.of(task(2)));
+
+        String thread = queryThread.get(5, TimeUnit.SECONDS);
+        assertNotEquals(Thread.currentThread().getName(), thread);
+        assertTrue(thread.startsWith("compare-stream-"));
+    }
+
+    @Test
+    void testAcceptsGzipHonoursQValues() {
+        assertTrue(CompareController.acceptsGzip("gzip"));
+        assertTrue(CompareController.acceptsGzip("deflate, GZIP;q=0.5"));
+        assertTrue(CompareController.acceptsGzip("br;q=1.0, *;q=0.1"));
+        assertFalse(CompareController.acceptsGzip(null));
+        assertFalse(CompareController.acceptsGzip("gzip;q=0"));
+        assertFalse(CompareController.acceptsGzip("gzip; q=0.000, *"));
+        assertFalse(CompareController.acceptsGzip("x-gzip"));
+        assertFalse(CompareController.acceptsGzip("*;q=0"));
+        assertFalse(CompareController.acceptsGzip("identity"));
+    }
+
+    @Test
+    void testSnapshotIsCompressedOnlyWhenGzipAccepted() throws IOException {
+        byte[] json = "{\"taskId\":1}".getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(json);
+        }
+        when(compareResultSnapshot.get(1L)).thenReturn(compressed.toByteArray());
+
+        ResponseEntity<byte[]> gzip = compareController.getCompareResultSnapshot(1L, "gzip, deflate");
+        assertEquals("gzip", gzip.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, gzip.getHeaders().getFirst(HttpHeaders.VARY));
+        assertArrayEquals(compressed.toByteArray(), gzip.getBody());
+
+        ResponseEntity<byte[]> plain = compareController.getCompareResultSnapshot(1L, "gzip;q=0, identity");
+        assertNull(plain.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, plain.getHeaders().getFirst(HttpHeaders.VARY));
+        assertArrayEquals(json, plain.getBody());
+    }
+
+    private static CompareTask task(int status) {
+        CompareTask task = new CompareTask();
+        task.setId(1L);
+        task.setStatus(status);
+        task.setProgress(status >= 2 ? 100 : 0);
+        return task;
+    }
+}
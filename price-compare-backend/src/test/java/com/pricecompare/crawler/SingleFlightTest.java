@@ -0,0 +1,123 @@
+package com.pricecompare.crawler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 单飞请求合并单元测试
+ * 
+ * @author AutoValuePilot
+ */
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+    @Test
+    void testExecute_ConcurrentCallsShareOneLoad() throws Exception {
+        int callers = 8;
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(executor.submit(() -> singleFlight.execute("jd:iphone", () -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                await(release);
+                return "result";
+            })));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+            for (int i = 1; i < callers; i++) {
+                results.add(executor.submit(() -> singleFlight.execute("jd:iphone", () -> {
+                    loads.incrementAndGet();
+                    return "duplicate";
+                })));
+            }
+            // 等待其余调用方进入等待状态
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("result", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+            assertEquals(0, singleFlight.inFlightCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testExecute_InterruptedWaiterRestoresInterruptFlag() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> leader = executor.submit(() -> singleFlight.execute("jd:iphone", () -> {
+                loading.countDown();
+                await(release);
+                return "result";
+            }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+            // 等待方被中断：抛出CancellationException并保留中断标记，领导者的加载不受影响
+            Future<Boolean> waiter = executor.submit(() -> {
+                Thread.currentThread().interrupt();
+                try {
+                    singleFlight.execute("jd:iphone", () -> "unexpected");
+                    return false;
+                } catch (CancellationException e) {
+                    return Thread.currentThread().isInterrupted();
+                }
+            });
+            assertTrue(waiter.get(5, TimeUnit.SECONDS));
+
+            release.countDown();
+            assertEquals("result", leader.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testExecute_SequentialCallsLoadAgain() {
+        AtomicInteger loads = new AtomicInteger();
+
+        singleFlight.execute("taobao:iphone", () -> "v" + loads.incrementAndGet());
+        String second = singleFlight.execute("taobao:iphone", () -> "v" + loads.incrementAndGet());
+
+        assertEquals("v2", second);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testExecute_FailureIsPropagatedAndNotRetained() {
+        assertThrows(IllegalStateException.class, () -> singleFlight.execute("pdd:iphone", () -> {
+            throw new IllegalStateException("平台异常");
+        }));
+
+        assertEquals(0, singleFlight.inFlightCount());
+        assertEquals("ok", singleFlight.execute("pdd:iphone", () -> "ok"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.pricecompare.crawler.limit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 自适应并发上限单元测试
+ * 
+ * @author AutoValuePilot
+ */
+class AdaptiveConcurrencyLimitTest {
+
+    @Test
+    void testAcquire_RejectsAboveLimit() throws Exception {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, 2.0, 0.5);
+
+        assertTrue(limit.tryAcquire(0));
+        assertTrue(limit.tryAcquire(0));
+        assertFalse(limit.tryAcquire(0));
+
+        limit.onIgnored();
+        assertTrue(limit.tryAcquire(0));
+    }
+
+    @Test
+    void testIncrease_WhenLatencyStableAndSaturated() throws Exception {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 1, 10, 2.0, 0.5);
+        for (int round = 0; round < 20; round++) {
+            int current = limit.getLimit();
+            for (int i = 0; i < current; i++) {
+                assertTrue(limit.tryAcquire(0));
+            }
+            for (int i = 0; i < current; i++) {
+                limit.onSuccess(100);
+            }
+        }
+        assertTrue(limit.getLimit() > 4);
+        assertTrue(limit.getLimit() <= 10);
+    }
+
+    @Test
+    void testNoIncrease_WhenIdle() throws Exception {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(8, 1, 100, 2.0, 0.5);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limit.tryAcquire(0));
+            limit.onSuccess(100);
+        }
+        assertEquals(8, limit.getLimit());
+    }
+
+    @Test
+    void testDecrease_OnDrop() throws Exception {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(8, 1, 100, 2.0, 0.5);
+        assertTrue(limit.tryAcquire(0));
+        limit.onSuccess(100);
+
+        assertTrue(limit.tryAcquire(0));
+        limit.onDropped();
+        assertEquals(4, limit.getLimit());
+    }
+
+    @Test
+    void testNoDecrease_OnSingleSlowResponse() throws Exception {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(8, 1, 100, 2.0, 0.5);
+        for (int i = 0; i < 20; i++) {
+            assertTrue(limit.tryAcquire(0));
+            limit.onSuccess(100);
+        }
+
+        assertTrue(limit.tryAcquire(0));
+        limit.onSuccess(1000);
+        for (int i = 0; i < 20; i++) {
+            assertTrue(limit.tryAcquire(0));
+            limit.onSuccess(100);
+        }
+        assertEquals(8, limit.getLimit());
+    }
+
+    @Test
+    void testDecrease_OncePerRoundOnSustainedLatency() throws Exception {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(8, 1, 100, 2.0, 0.5);
+        for (int i = 0; i < 20; i++) {
+            assertTrue(limit.tryAcquire(0));
+            limit.onSuccess(100);
+        }
+
+        // 近期均值超过阈值后下调一次（8 -> 7.2），之后一轮（8个）请求内不再下调
+        int slow = 0;
+        while (limit.getLimit() == 8) {
+            assertTrue(limit.tryAcquire(0));
+            limit.onSuccess(1000);
+            slow++;
+        }
+        assertTrue(slow > 1);
+        assertEquals(7, limit.getLimit());
+        for (int i = 0; i < 7; i++) {
+            assertTrue(limit.tryAcquire(0));
+            limit.onSuccess(1000);
+        }
+        assertEquals(7, limit.getLimit());
+        assertTrue(limit.tryAcquire(0));
+        limit.onSuccess(1000);
+        assertEquals(6, limit.getLimit());
+    }
+
+    @Test
+    void testDecrease_NotBelowMinLimit() throws Exception {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 100, 2.0, 0.5);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limit.tryAcquire(0));
+            limit.onDropped();
+        }
+        assertEquals(1, limit.getLimit());
+    }
+}
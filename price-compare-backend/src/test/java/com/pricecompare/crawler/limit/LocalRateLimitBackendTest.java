@@ -0,0 +1,66 @@
+package com.pricecompare.crawler.limit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 本地令牌桶单元测试
+ * 
+ * @author AutoValuePilot
+ */
+class LocalRateLimitBackendTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private LocalRateLimitBackend backend;
+
+    @BeforeEach
+    void setUp() {
+        backend = new LocalRateLimitBackend(clock::get);
+    }
+
+    @Test
+    void testAcquire_WithinBurst() {
+        // 令牌桶初始为满
+        assertEquals(0, backend.tryAcquire("jd", 1, 3));
+        assertEquals(0, backend.tryAcquire("jd", 1, 3));
+        assertEquals(0, backend.tryAcquire("jd", 1, 3));
+        assertTrue(backend.tryAcquire("jd", 1, 3) > 0);
+    }
+
+    @Test
+    void testAcquire_ReturnsWaitTime() {
+        // 每秒2个令牌，取完后需要等待500ms
+        assertEquals(0, backend.tryAcquire("taobao", 2, 1));
+        assertEquals(500, backend.tryAcquire("taobao", 2, 1));
+
+        clock.addAndGet(200_000_000L);
+        assertEquals(300, backend.tryAcquire("taobao", 2, 1));
+
+        clock.addAndGet(300_000_000L);
+        assertEquals(0, backend.tryAcquire("taobao", 2, 1));
+    }
+
+    @Test
+    void testAcquire_RefillCappedByBurst() {
+        assertEquals(0, backend.tryAcquire("pdd", 10, 2));
+        assertEquals(0, backend.tryAcquire("pdd", 10, 2));
+
+        // 长时间空闲后最多只积累burst个令牌
+        clock.addAndGet(60_000_000_000L);
+        assertEquals(0, backend.tryAcquire("pdd", 10, 2));
+        assertEquals(0, backend.tryAcquire("pdd", 10, 2));
+        assertTrue(backend.tryAcquire("pdd", 10, 2) > 0);
+    }
+
+    @Test
+    void testAcquire_PlatformsAreIndependent() {
+        assertEquals(0, backend.tryAcquire("jd", 1, 1));
+        assertTrue(backend.tryAcquire("jd", 1, 1) > 0);
+        assertEquals(0, backend.tryAcquire("vip", 1, 1));
+    }
+}
@@ -0,0 +1,74 @@
+package com.pricecompare.crawler.limit;
+
+import com.pricecompare.crawler.PlatformExecutors;
+import com.pricecompare.exception.PlatformAccessException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 平台自适应并发控制单元测试
+ *
+ * @author AutoValuePilot
+ */
+class PlatformConcurrencyLimiterTest {
+
+    private PlatformExecutors platformExecutors;
+    private PlatformConcurrencyLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        platformExecutors = new PlatformExecutors();
+        ReflectionTestUtils.setField(platformExecutors, "poolSize", 4);
+        ReflectionTestUtils.setField(platformExecutors, "queueCapacity", 100);
+        limiter = new PlatformConcurrencyLimiter(new SimpleMeterRegistry(), platformExecutors);
+        ReflectionTestUtils.setField(limiter, "enabled", true);
+        ReflectionTestUtils.setField(limiter, "initialLimit", 8);
+        ReflectionTestUtils.setField(limiter, "minLimit", 1);
+        ReflectionTestUtils.setField(limiter, "maxLimit", 32);
+        ReflectionTestUtils.setField(limiter, "latencyTolerance", 2.0);
+        ReflectionTestUtils.setField(limiter, "backoffRatio", 0.5);
+        ReflectionTestUtils.setField(limiter, "maxWaitMillis", 0L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        platformExecutors.shutdown();
+    }
+
+    @Test
+    void testPoolSizeFollowsLimit() {
+        assertEquals("ok", limiter.execute("jd", () -> "ok"));
+        assertEquals(8, pool("jd").getMaximumPoolSize());
+        assertEquals(8, pool("jd").getCorePoolSize());
+
+        assertThrows(PlatformAccessException.class, () -> limiter.execute("jd", () -> {
+            throw new PlatformAccessException("jd", 429, "请求过于频繁");
+        }));
+
+        assertEquals(4, limiter.getStatuses().get("jd").getLimit());
+        assertEquals(4, pool("jd").getMaximumPoolSize());
+        assertEquals(4, pool("jd").getCorePoolSize());
+    }
+
+    @Test
+    void testOtherErrorsKeepPoolSize() {
+        limiter.execute("jd", () -> "ok");
+
+        assertThrows(PlatformAccessException.class, () -> limiter.execute("jd", () -> {
+            throw new PlatformAccessException("jd", 404, "商品不存在");
+        }));
+
+        assertEquals(8, pool("jd").getCorePoolSize());
+    }
+
+    private ThreadPoolExecutor pool(String platformCode) {
+        return (ThreadPoolExecutor) platformExecutors.get(platformCode);
+    }
+}
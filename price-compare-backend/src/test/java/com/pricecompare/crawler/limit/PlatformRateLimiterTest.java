@@ -0,0 +1,93 @@
+package com.pricecompare.crawler.limit;
+
+import com.pricecompare.crawler.PlatformExecutors;
+import com.pricecompare.entity.PlatformConfig;
+import com.pricecompare.exception.RateLimitExceededException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 平台请求限流器单元测试
+ *
+ * @author AutoValuePilot
+ */
+class PlatformRateLimiterTest {
+
+    private RateLimitBackend backend;
+    private PlatformRateLimiter limiter;
+    private PlatformExecutors platformExecutors;
+
+    @BeforeEach
+    void setUp() {
+        backend = mock(RateLimitBackend.class);
+        limiter = new PlatformRateLimiter(backend);
+        ReflectionTestUtils.setField(limiter, "mode", "queue");
+        ReflectionTestUtils.setField(limiter, "maxWaitMillis", 2000L);
+        ReflectionTestUtils.setField(limiter, "burst", 1);
+        platformExecutors = new PlatformExecutors();
+        ReflectionTestUtils.setField(platformExecutors, "poolSize", 1);
+        ReflectionTestUtils.setField(platformExecutors, "queueCapacity", 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        platformExecutors.shutdown();
+    }
+
+    @Test
+    void testRateLimitIsRequestsPerSecond() {
+        when(backend.tryAcquire(eq("jd"), anyDouble(), anyInt())).thenReturn(0L);
+
+        limiter.acquire(config("jd", 20));
+
+        verify(backend).tryAcquire("jd", 20d, 1);
+        assertEquals(0, PlatformRateLimiter.permitsPerSecond(config("jd", 0)));
+        assertEquals(0, PlatformRateLimiter.permitsPerSecond(config("jd", null)));
+    }
+
+    @Test
+    void testRequestThreadFailsFast() {
+        when(backend.tryAcquire(eq("jd"), anyDouble(), anyInt())).thenReturn(50L);
+
+        // 非平台爬取线程，即使线程名以crawler-开头也不排队
+        String name = Thread.currentThread().getName();
+        Thread.currentThread().setName("crawler-jd-1");
+        try {
+            assertFalse(PlatformExecutors.isWorkerThread());
+            assertThrows(RateLimitExceededException.class, () -> limiter.acquire(config("jd", 20)));
+        } finally {
+            Thread.currentThread().setName(name);
+        }
+        verify(backend, times(1)).tryAcquire(eq("jd"), anyDouble(), anyInt());
+    }
+
+    @Test
+    void testWorkerThreadQueues() throws Exception {
+        when(backend.tryAcquire(eq("jd"), anyDouble(), anyInt())).thenReturn(10L, 0L);
+
+        Boolean worker = platformExecutors.get("jd").submit(() -> {
+            limiter.acquire(config("jd", 20));
+            return PlatformExecutors.isWorkerThread();
+        }).get(5, TimeUnit.SECONDS);
+
+        assertTrue(worker);
+        verify(backend, times(2)).tryAcquire(eq("jd"), anyDouble(), anyInt());
+    }
+
+    private static PlatformConfig config(String platformCode, Integer rateLimit) {
+        PlatformConfig config = new PlatformConfig();
+        config.setPlatformCode(platformCode);
+        config.setRateLimit(rateLimit);
+        return config;
+    }
+}
@@ -0,0 +1,98 @@
+package com.pricecompare.crawler.resilience;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 平台熔断器单元测试
+ * 
+ * @author AutoValuePilot
+ */
+class CircuitBreakerTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private CircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        // 窗口10次，至少4次调用，失败率50%熔断，熔断1秒，半开放行1个探测
+        breaker = new CircuitBreaker(10, 4, 0.5, 1000, 1, clock::get);
+    }
+
+    @Test
+    void testOpen_WhenFailureRateExceeded() {
+        call(false);
+        call(true);
+        call(false);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        call(true);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void testStayClosed_BelowMinimumCalls() {
+        call(true);
+        call(true);
+        call(true);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void testHalfOpen_ProbeSuccessCloses() {
+        tripOpen();
+        clock.addAndGet(1000);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        // 半开期间只放行一个探测
+        assertTrue(breaker.tryAcquirePermission());
+        assertFalse(breaker.tryAcquirePermission());
+
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void testHalfOpen_ProbeFailureReopens() {
+        tripOpen();
+        clock.addAndGet(1000);
+        assertTrue(breaker.tryAcquirePermission());
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void testHalfOpen_IgnoredProbeReleasesPermission() {
+        tripOpen();
+        clock.addAndGet(1000);
+        assertTrue(breaker.tryAcquirePermission());
+        breaker.onIgnored();
+
+        assertTrue(breaker.tryAcquirePermission());
+    }
+
+    private void tripOpen() {
+        for (int i = 0; i < 4; i++) {
+            call(true);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    private void call(boolean failure) {
+        assertTrue(breaker.tryAcquirePermission());
+        if (failure) {
+            breaker.onFailure();
+        } else {
+            breaker.onSuccess();
+        }
+    }
+}
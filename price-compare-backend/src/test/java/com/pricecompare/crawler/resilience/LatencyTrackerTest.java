@@ -0,0 +1,45 @@
+package com.pricecompare.crawler.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 平台延迟统计单元测试
+ * 
+ * @author AutoValuePilot
+ */
+class LatencyTrackerTest {
+
+    @Test
+    void testPercentile_NotEnoughSamples() {
+        LatencyTracker tracker = new LatencyTracker(100);
+        tracker.record(10);
+        assertEquals(-1, tracker.percentile(0.95, 2));
+    }
+
+    @Test
+    void testPercentile_P95() {
+        LatencyTracker tracker = new LatencyTracker(100);
+        for (int i = 1; i <= 100; i++) {
+            tracker.record(i);
+        }
+        assertEquals(95, tracker.percentile(0.95, 20));
+        assertEquals(50, tracker.percentile(0.5, 20));
+        assertEquals(100, tracker.percentile(1.0, 20));
+    }
+
+    @Test
+    void testPercentile_KeepsRecentWindow() {
+        LatencyTracker tracker = new LatencyTracker(20);
+        for (int i = 0; i < 20; i++) {
+            tracker.record(1000);
+        }
+        // 窗口内的旧样本被新样本完全替换
+        for (int i = 0; i < 20; i++) {
+            tracker.record(10);
+        }
+        assertEquals(20, tracker.getSampleCount());
+        assertEquals(10, tracker.percentile(0.95, 20));
+    }
+}
@@ -0,0 +1,80 @@
+package com.pricecompare.crawler.resilience;
+
+import com.pricecompare.entity.PlatformConfig;
+import com.pricecompare.exception.PlatformAccessException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CancellationException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 平台调用容错单元测试
+ *
+ * @author AutoValuePilot
+ */
+class PlatformResilienceTest {
+
+    private PlatformResilience resilience;
+    private PlatformConfig config;
+
+    @BeforeEach
+    void setUp() {
+        // 窗口4次，至少2次调用，失败率50%熔断，熔断期为0（下一次调用即半开探测）
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("app.crawler.circuit-breaker.window-size", "4")
+                .withProperty("app.crawler.circuit-breaker.minimum-calls", "2")
+                .withProperty("app.crawler.circuit-breaker.open-duration", "0");
+        resilience = new PlatformResilience(environment);
+        ReflectionTestUtils.setField(resilience, "retryBaseDelay", 1L);
+        ReflectionTestUtils.setField(resilience, "retryMaxDelay", 1L);
+        config = new PlatformConfig();
+        config.setPlatformCode("jd");
+        config.setMaxRetries(2);
+    }
+
+    @Test
+    void testCancellationIsNotCountedOrRetried() {
+        int[] calls = new int[1];
+        for (int i = 0; i < 5; i++) {
+            assertThrows(CancellationException.class, () -> resilience.execute(config, () -> {
+                calls[0]++;
+                throw new CancellationException("cancelled");
+            }));
+        }
+
+        assertEquals(5, calls[0]);
+        assertEquals(CircuitBreaker.State.CLOSED, resilience.getStates().get("jd"));
+    }
+
+    @Test
+    void testInterruptedCallIsNotCounted() {
+        for (int i = 0; i < 3; i++) {
+            assertThrows(PlatformAccessException.class, () -> resilience.execute(config, () -> {
+                throw new PlatformAccessException("jd", "请求被中断", new InterruptedException());
+            }));
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, resilience.getStates().get("jd"));
+    }
+
+    @Test
+    void testErrorReleasesHalfOpenProbe() {
+        config.setMaxRetries(0);
+        for (int i = 0; i < 2; i++) {
+            assertThrows(PlatformAccessException.class, () -> resilience.execute(config, () -> {
+                throw new PlatformAccessException("jd", 500, "服务器错误");
+            }));
+        }
+
+        // 半开探测抛出Error后归还许可，下一次探测仍可执行
+        assertThrows(AssertionError.class, () -> resilience.execute(config, () -> {
+            throw new AssertionError("boom");
+        }));
+        assertEquals("ok", resilience.execute(config, () -> "ok"));
+        assertEquals(CircuitBreaker.State.CLOSED, resilience.getStates().get("jd"));
+    }
+}
@@ -0,0 +1,225 @@
+package com.pricecompare.crawler.sim;
+
+import com.pricecompare.crawler.CrawlLease;
+import com.pricecompare.crawler.PlatformConfigRegistry;
+import com.pricecompare.crawler.PlatformExecutors;
+import com.pricecompare.crawler.limit.LocalRateLimitBackend;
+import com.pricecompare.crawler.limit.PlatformConcurrencyLimiter;
+import com.pricecompare.crawler.limit.PlatformRateLimiter;
+import com.pricecompare.crawler.resilience.PlatformHedging;
+import com.pricecompare.crawler.resilience.PlatformResilience;
+import com.pricecompare.crawler.spi.HttpPlatformCrawler;
+import com.pricecompare.crawler.spi.PlatformCrawlerRegistry;
+import com.pricecompare.mapper.ProductPriceMapper;
+import com.pricecompare.price.PriceRefreshQueue;
+import com.pricecompare.service.CrawlerService;
+import com.pricecompare.service.impl.CrawlerServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * 爬虫吞吐量基准测试
+ * 通过本地平台模拟器驱动CrawlerService（缓存始终未命中），以固定并发统计吞吐量与P50/P99/P999延迟。
+ * 不访问外部网络，默认跳过，运行方式：
+ * mvn test -Dtest=CrawlerBenchmarkTest -Dbenchmark=true [-Dbenchmark.concurrency=32 -Dbenchmark.requests=2000]
+ * 
+ * @author AutoValuePilot
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CrawlerBenchmarkTest {
+
+    private static final List<String> PLATFORMS = Arrays.asList("taobao", "jd", "pdd", "suning", "vip");
+
+    private final int concurrency = Integer.getInteger("benchmark.concurrency", 32);
+    private final int requests = Integer.getInteger("benchmark.requests", 2000);
+
+    private PlatformSimulator simulator;
+    private PlatformExecutors platformExecutors;
+    private CrawlerService crawlerService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        simulator = new PlatformSimulator();
+        MockEnvironment environment = new MockEnvironment().withProperty("app.crawler.connector", HttpPlatformCrawler.NAME);
+
+        PlatformConfigRegistry platformConfigRegistry = mock(PlatformConfigRegistry.class);
+        for (String platformCode : PLATFORMS) {
+            when(platformConfigRegistry.get(platformCode)).thenReturn(simulator.platformConfig(platformCode));
+        }
+        RedisTemplate<String, Object> redisTemplate = mock(RedisTemplate.class);
+        ValueOperations<String, Object> valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(anyString())).thenReturn(null);
+
+        platformExecutors = new PlatformExecutors();
+        ReflectionTestUtils.setField(platformExecutors, "poolSize", concurrency);
+        ReflectionTestUtils.setField(platformExecutors, "queueCapacity", requests);
+
+        PlatformRateLimiter platformRateLimiter = new PlatformRateLimiter(new LocalRateLimitBackend());
+        ReflectionTestUtils.setField(platformRateLimiter, "mode", "queue");
+        ReflectionTestUtils.setField(platformRateLimiter, "maxWaitMillis", 2000L);
+        ReflectionTestUtils.setField(platformRateLimiter, "burst", 1);
+
+        HttpPlatformCrawler httpPlatformCrawler = new HttpPlatformCrawler();
+        ReflectionTestUtils.setField(httpPlatformCrawler, "userAgent", "crawler-benchmark");
+        ReflectionTestUtils.setField(httpPlatformCrawler, "defaultTimeout", 10000L);
+
+        PlatformResilience platformResilience = new PlatformResilience(environment);
+        ReflectionTestUtils.setField(platformResilience, "retryBaseDelay", 100L);
+        ReflectionTestUtils.setField(platformResilience, "retryMaxDelay", 2000L);
+
+        PlatformConcurrencyLimiter platformConcurrencyLimiter = new PlatformConcurrencyLimiter(new SimpleMeterRegistry(), platformExecutors);
+        ReflectionTestUtils.setField(platformConcurrencyLimiter, "enabled", Boolean.parseBoolean(
+                System.getProperty("benchmark.adaptive-concurrency", "true")));
+        ReflectionTestUtils.setField(platformConcurrencyLimiter, "initialLimit", concurrency);
+        ReflectionTestUtils.setField(platformConcurrencyLimiter, "minLimit", 1);
+        ReflectionTestUtils.setField(platformConcurrencyLimiter, "maxLimit", 100);
+        ReflectionTestUtils.setField(platformConcurrencyLimiter, "latencyTolerance", 2.0);
+        ReflectionTestUtils.setField(platformConcurrencyLimiter, "backoffRatio", 0.5);
+        ReflectionTestUtils.setField(platformConcurrencyLimiter, "maxWaitMillis", 2000L);
+
+        PlatformHedging platformHedging = new PlatformHedging(environment, platformExecutors, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(platformHedging, "quantile", 0.95);
+        ReflectionTestUtils.setField(platformHedging, "minSamples", 20);
+        ReflectionTestUtils.setField(platformHedging, "minDelay", 10L);
+        ReflectionTestUtils.setField(platformHedging, "budgetRatio", 0.05);
+        ReflectionTestUtils.setField(platformHedging, "maxBurst", 10.0);
+        ReflectionTestUtils.setField(platformHedging, "windowSize", 512);
+
+        crawlerService = new CrawlerServiceImpl(platformConfigRegistry, mock(ProductPriceMapper.class), redisTemplate,
+                platformExecutors, platformRateLimiter,
+                new PlatformCrawlerRegistry(List.of(httpPlatformCrawler), environment),
+                platformResilience, platformHedging, mock(CrawlLease.class), environment, mock(PriceRefreshQueue.class), platformConcurrencyLimiter);
+        ReflectionTestUtils.setField(crawlerService, "defaultTimeout", 10000L);
+        ReflectionTestUtils.setField(crawlerService, "leasePollInterval", 50L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        platformExecutors.shutdown();
+        simulator.close();
+    }
+
+    @Test
+    void benchmarkSearch() throws Exception {
+        Result result = run("search", requests, index -> crawlerService.searchProducts(
+                "benchmark keyword " + index, PLATFORMS.get(index % PLATFORMS.size())));
+        assertTrue(result.successCount() > 0);
+    }
+
+    @Test
+    void benchmarkDetail() throws Exception {
+        Result result = run("detail", requests, index -> crawlerService.getProductDetail(
+                "item_" + index, PLATFORMS.get(index % PLATFORMS.size())));
+        assertTrue(result.successCount() > 0);
+    }
+
+    @Test
+    void benchmarkBatchSearch() throws Exception {
+        // 每次请求并发访问全部平台，请求数按平台数缩减
+        Result result = run("batch-search", Math.max(1, requests / PLATFORMS.size()),
+                index -> crawlerService.batchSearch("benchmark keyword " + index, PLATFORMS));
+        assertTrue(result.successCount() > 0);
+    }
+
+    private Result run(String scenario, int total, Call call) throws Exception {
+        // 预热：建立连接并积累延迟样本
+        int warmup = Math.min(total / 10, 200);
+        execute(warmup, -warmup, call);
+
+        long startTime = System.nanoTime();
+        Result result = execute(total, 0, call);
+        double elapsedSeconds = (System.nanoTime() - startTime) / 1e9;
+
+        long[] latencies = result.latencies();
+        Arrays.sort(latencies);
+        System.out.printf("%n[%s] concurrency=%d requests=%d success=%d elapsed=%.2fs throughput=%.1f req/s%n",
+                scenario, concurrency, total, result.successCount(), elapsedSeconds, total / elapsedSeconds);
+        System.out.printf("[%s] p50=%.1fms p99=%.1fms p999=%.1fms max=%.1fms%n", scenario,
+                percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 0.999),
+                latencies.length == 0 ? 0 : latencies[latencies.length - 1] / 1e6);
+        if (!result.errors().isEmpty()) {
+            System.out.printf("[%s] errors=%s%n", scenario, result.errors());
+        }
+        return result;
+    }
+
+    private Result execute(int total, int offset, Call call) throws InterruptedException {
+        long[] latencies = new long[total];
+        AtomicInteger next = new AtomicInteger();
+        LongAdder successCount = new LongAdder();
+        Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            clients.execute(() -> {
+                int index;
+                while ((index = next.getAndIncrement()) < total) {
+                    long startTime = System.nanoTime();
+                    try {
+                        call.invoke(index + offset);
+                        successCount.increment();
+                    } catch (Exception e) {
+                        errors.computeIfAbsent(e.getClass().getSimpleName(), key -> new LongAdder()).increment();
+                    }
+                    latencies[index] = System.nanoTime() - startTime;
+                }
+            });
+        }
+        clients.shutdown();
+        assertTrue(clients.awaitTermination(10, TimeUnit.MINUTES), "benchmark did not finish");
+
+        Map<String, Long> errorCounts = new TreeMap<>();
+        errors.forEach((name, count) -> errorCounts.put(name, count.sum()));
+        return new Result(latencies, successCount.sum(), errorCounts);
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank))] / 1e6;
+    }
+
+    @FunctionalInterface
+    private interface Call {
+        void invoke(int index) throws Exception;
+    }
+
+    private record Result(long[] latencies, long successCount, Map<String, Long> errors) {
+
+        Result {
+            latencies = latencies.clone();
+        }
+
+        @Override
+        public long[] latencies() {
+            return latencies.clone();
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.pricecompare.crawler.sim;
+
+import com.pricecompare.entity.PlatformConfig;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 本地电商平台模拟器
+ * 基于JDK内置HttpServer，只监听回环地址。每个平台可配置延迟分布（对数正态）、错误率、限流率和响应大小，
+ * 接口格式与HttpPlatformCrawler一致：/{平台代码}/search?keyword=xxx、/{平台代码}/detail?id=xxx
+ * 
+ * @author AutoValuePilot
+ */
+public class PlatformSimulator implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, Profile> profiles = new ConcurrentHashMap<>();
+    private final AtomicLong requestCount = new AtomicLong();
+
+    public PlatformSimulator() throws IOException {
+        this(defaultProfiles());
+    }
+
+    public PlatformSimulator(Map<String, Profile> profiles) throws IOException {
+        this.profiles.putAll(profiles);
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.executor = Executors.newCachedThreadPool();
+        this.server.setExecutor(executor);
+        this.server.createContext("/", this::handle);
+        this.server.start();
+    }
+
+    /**
+     * 主流平台的默认模拟参数
+     */
+    public static Map<String, Profile> defaultProfiles() {
+        Map<String, Profile> profiles = new LinkedHashMap<>();
+        profiles.put("taobao", new Profile().medianLatency(80).latencySigma(0.5).errorRate(0.01).throttleRate(0.02).items(40));
+        profiles.put("jd", new Profile().medianLatency(60).latencySigma(0.4).errorRate(0.005).throttleRate(0.01).items(30));
+        profiles.put("pdd", new Profile().medianLatency(120).latencySigma(0.8).errorRate(0.03).throttleRate(0.05).items(20));
+        profiles.put("suning", new Profile().medianLatency(150).latencySigma(0.6).errorRate(0.02).throttleRate(0.01).items(20));
+        profiles.put("vip", new Profile().medianLatency(100).latencySigma(0.5).errorRate(0.01).throttleRate(0.02).items(25));
+        return profiles;
+    }
+
+    /**
+     * 运行中替换平台模拟参数
+     */
+    public void setProfile(String platformCode, Profile profile) {
+        profiles.put(platformCode, profile);
+    }
+
+    public String getBaseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * 指向模拟器的平台配置，不限流、不重试
+     */
+    public PlatformConfig platformConfig(String platformCode) {
+        PlatformConfig config = new PlatformConfig();
+        config.setId((long) platformCode.hashCode());
+        config.setPlatformCode(platformCode);
+        config.setPlatformName(platformCode);
+        config.setApiBaseUrl(getBaseUrl() + "/" + platformCode);
+        config.setSearchApiPath("/search");
+        config.setDetailApiPath("/detail");
+        config.setTimeout(5000);
+        config.setMaxRetries(0);
+        config.setEnabled(1);
+        config.setRateLimit(0);
+        return config;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        try (exchange) {
+            String[] segments = exchange.getRequestURI().getPath().split("/");
+            Profile profile = segments.length == 3 ? profiles.get(segments[1]) : null;
+            if (profile == null) {
+                send(exchange, 404, "{}");
+                return;
+            }
+            String platformCode = segments[1];
+            String query = exchange.getRequestURI().getRawQuery();
+
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            sleep(profile.sampleLatency(random));
+            if (random.nextDouble() < profile.throttleRate) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                send(exchange, 429, "{\"error\":\"too many requests\"}");
+                return;
+            }
+            if (random.nextDouble() < profile.errorRate) {
+                send(exchange, 500, "{\"error\":\"internal error\"}");
+                return;
+            }
+
+            switch (segments[2]) {
+                case "search" -> send(exchange, 200, searchBody(platformCode, param(query, "keyword"), profile));
+                case "detail" -> send(exchange, 200, detailBody(platformCode, param(query, "id"), profile));
+                default -> send(exchange, 404, "{}");
+            }
+        }
+    }
+
+    private static String searchBody(String platformCode, String keyword, Profile profile) {
+        StringBuilder body = new StringBuilder(profile.items * (160 + profile.paddingBytes)).append("{\"items\":[");
+        for (int i = 0; i < profile.items; i++) {
+            if (i > 0) {
+                body.append(',');
+            }
+            appendItem(body, platformCode, platformCode + "_" + Math.abs((keyword + i).hashCode()), profile);
+        }
+        return body.append("]}").toString();
+    }
+
+    private static String detailBody(String platformCode, String id, Profile profile) {
+        StringBuilder body = new StringBuilder(200 + profile.paddingBytes).append("{\"item\":");
+        appendItem(body, platformCode, id, profile);
+        return body.append('}').toString();
+    }
+
+    private static void appendItem(StringBuilder body, String platformCode, String id, Profile profile) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int cents = 100_00 + random.nextInt(900_000);
+        body.append("{\"id\":\"").append(id)
+                .append("\",\"price\":").append(cents / 100).append('.').append(String.format("%02d", cents % 100))
+                .append(",\"originalPrice\":").append(cents / 100 + 100)
+                .append(",\"sales\":").append(random.nextInt(100_000))
+                .append(",\"rating\":4.").append(random.nextInt(10))
+                .append(",\"shopName\":\"").append(platformCode).append("旗舰店\"")
+                .append(",\"url\":\"https://").append(platformCode).append(".example.com/item/").append(id).append('"');
+        if (profile.paddingBytes > 0) {
+            body.append(",\"description\":\"").append("x".repeat(profile.paddingBytes)).append('"');
+        }
+        body.append('}');
+    }
+
+    private static String param(String query, String name) {
+        if (query == null) {
+            return "";
+        }
+        for (String pair : query.split("&")) {
+            int index = pair.indexOf('=');
+            if (index > 0 && pair.substring(0, index).equals(name)) {
+                return URLDecoder.decode(pair.substring(index + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return "";
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json;charset=UTF-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 单个平台的模拟参数
+     */
+    public static final class Profile {
+
+        private long medianLatency;
+        private double latencySigma;
+        private double errorRate;
+        private double throttleRate;
+        private int items = 20;
+        private int paddingBytes;
+
+        /** 延迟中位数（毫秒） */
+        public Profile medianLatency(long millis) {
+            this.medianLatency = millis;
+            return this;
+        }
+
+        /** 对数正态分布的sigma，越大长尾越明显，0表示固定延迟 */
+        public Profile latencySigma(double sigma) {
+            this.latencySigma = sigma;
+            return this;
+        }
+
+        /** 返回500的概率 */
+        public Profile errorRate(double rate) {
+            this.errorRate = rate;
+            return this;
+        }
+
+        /** 返回429的概率 */
+        public Profile throttleRate(double rate) {
+            this.throttleRate = rate;
+            return this;
+        }
+
+        /** 每次搜索返回的商品数 */
+        public Profile items(int count) {
+            this.items = count;
+            return this;
+        }
+
+        /** 每个商品附加的描述字节数，用于模拟大响应体 */
+        public Profile paddingBytes(int bytes) {
+            this.paddingBytes = bytes;
+            return this;
+        }
+
+        long sampleLatency(ThreadLocalRandom random) {
+            if (medianLatency <= 0) {
+                return 0;
+            }
+            return Math.round(medianLatency * Math.exp(latencySigma * random.nextGaussian()));
+        }
+    }
+}
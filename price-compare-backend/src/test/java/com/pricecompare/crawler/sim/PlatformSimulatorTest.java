@@ -0,0 +1,78 @@
+package com.pricecompare.crawler.sim;
+
+import com.pricecompare.crawler.spi.HttpPlatformCrawler;
+import com.pricecompare.entity.PlatformConfig;
+import com.pricecompare.entity.ProductPrice;
+import com.pricecompare.exception.PlatformAccessException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 平台模拟器单元测试，同时验证HTTP平台连接器对模拟器响应的处理
+ * 
+ * @author AutoValuePilot
+ */
+class PlatformSimulatorTest {
+
+    private PlatformSimulator simulator;
+
+    private HttpPlatformCrawler crawler;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        simulator = new PlatformSimulator(Map.of(
+                "jd", new PlatformSimulator.Profile().items(5).paddingBytes(64),
+                "pdd", new PlatformSimulator.Profile().errorRate(1.0),
+                "vip", new PlatformSimulator.Profile().throttleRate(1.0)));
+        crawler = new HttpPlatformCrawler();
+        ReflectionTestUtils.setField(crawler, "userAgent", "simulator-test");
+        ReflectionTestUtils.setField(crawler, "defaultTimeout", 5000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        simulator.close();
+    }
+
+    @Test
+    void testSearch_ReturnsConfiguredItems() {
+        List<ProductPrice> products = crawler.search(simulator.platformConfig("jd"), "iPhone 15");
+
+        assertEquals(5, products.size());
+        assertTrue(products.stream().allMatch(product -> "jd".equals(product.getPlatformCode())));
+        assertTrue(products.stream().allMatch(product -> product.getPrice() != null));
+    }
+
+    @Test
+    void testDetail_ReturnsRequestedId() {
+        ProductPrice detail = crawler.getDetail(simulator.platformConfig("jd"), "jd_001");
+
+        assertNotNull(detail);
+        assertEquals("jd_001", detail.getPlatformProductId());
+    }
+
+    @Test
+    void testErrorAndThrottle() {
+        PlatformAccessException error = assertThrows(PlatformAccessException.class,
+                () -> crawler.search(simulator.platformConfig("pdd"), "iPhone"));
+        assertEquals(500, error.getStatusCode());
+
+        PlatformAccessException throttled = assertThrows(PlatformAccessException.class,
+                () -> crawler.search(simulator.platformConfig("vip"), "iPhone"));
+        assertTrue(throttled.isThrottled());
+    }
+
+    @Test
+    void testUnknownPlatform() {
+        PlatformConfig config = simulator.platformConfig("unknown");
+        assertNull(crawler.getDetail(config, "1"));
+        assertEquals(1, simulator.getRequestCount());
+    }
+}
@@ -0,0 +1,80 @@
+package com.pricecompare.crawler.spi;
+
+import com.pricecompare.entity.ProductPrice;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 平台响应流式解析单元测试
+ * 
+ * @author AutoValuePilot
+ */
+class ProductPriceJsonReaderTest {
+
+    @Test
+    void testReadList_WrappedItems() throws IOException {
+        String json = "{\"code\":0,\"data\":{\"total\":2,\"tags\":[\"a\"],\"items\":["
+                + "{\"item_id\":\"jd_001\",\"price\":\"5999.00\",\"original_price\":6499,\"sales\":1500,"
+                + "\"shop_name\":\"京东自营\",\"extra\":{\"skip\":[1,2,3]}},"
+                + "{\"itemId\":\"jd_002\",\"price\":5899.5,\"rating\":4.9,\"url\":\"https://jd.com/2\"}"
+                + "]}}";
+
+        List<ProductPrice> results = ProductPriceJsonReader.readList(stream(json), "jd");
+
+        assertEquals(2, results.size());
+        ProductPrice first = results.get(0);
+        assertEquals("jd", first.getPlatformCode());
+        assertEquals("jd_001", first.getPlatformProductId());
+        assertEquals(0, new BigDecimal("5999").compareTo(first.getPrice()));
+        assertEquals(0, new BigDecimal("6499").compareTo(first.getOriginalPrice()));
+        assertEquals(1500, first.getSales());
+        assertEquals("京东自营", first.getShopName());
+        assertNotNull(first.getCrawlTime());
+
+        ProductPrice second = results.get(1);
+        assertEquals("jd_002", second.getPlatformProductId());
+        assertEquals(0, new BigDecimal("5899.5").compareTo(second.getPrice()));
+        assertEquals("https://jd.com/2", second.getProductUrl());
+    }
+
+    @Test
+    void testReadList_TopLevelArray() throws IOException {
+        List<ProductPrice> results = ProductPriceJsonReader.readList(
+                stream("[{\"id\":\"1\",\"price\":1},{\"id\":\"2\",\"price\":2}]"), "pdd");
+
+        assertEquals(2, results.size());
+        assertEquals("2", results.get(1).getPlatformProductId());
+    }
+
+    @Test
+    void testReadList_NoItems() throws IOException {
+        assertTrue(ProductPriceJsonReader.readList(stream("{\"code\":500,\"message\":\"error\"}"), "vip").isEmpty());
+    }
+
+    @Test
+    void testReadOne_WrappedDetail() throws IOException {
+        ProductPrice detail = ProductPriceJsonReader.readOne(
+                stream("{\"success\":true,\"result\":{\"id\":\"tb_1\",\"price\":299,\"delivery\":\"快递 免运费\"}}"), "taobao");
+
+        assertNotNull(detail);
+        assertEquals("tb_1", detail.getPlatformProductId());
+        assertEquals("快递 免运费", detail.getDelivery());
+    }
+
+    @Test
+    void testReadOne_NotFound() throws IOException {
+        assertNull(ProductPriceJsonReader.readOne(stream("{\"success\":false}"), "taobao"));
+    }
+
+    private InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
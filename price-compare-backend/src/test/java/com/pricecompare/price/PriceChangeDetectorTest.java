@@ -0,0 +1,116 @@
+package com.pricecompare.price;
+
+import com.pricecompare.entity.ProductPrice;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * 价格变化检测单元测试
+ * 
+ * @author AutoValuePilot
+ */
+class PriceChangeDetectorTest {
+
+    private StringRedisTemplate stringRedisTemplate;
+    private PriceChangeDetector detector;
+
+    @BeforeEach
+    void setUp() {
+        stringRedisTemplate = mock(StringRedisTemplate.class);
+        detector = new PriceChangeDetector(stringRedisTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFilterChanged_KeepsChangedAndUnseenObservations() {
+        ProductPrice unchanged = price("5999.00", 1200);
+        ProductPrice changed = price("5899.00", 1200);
+        changed.setPlatformProductId("jd_002");
+        ProductPrice unseen = price("5999.00", 1200);
+        unseen.setPlatformProductId("jd_003");
+        ProductPrice unkeyed = price("5999.00", 1200);
+        unkeyed.setPlatformProductId(null);
+        // 指纹缓存未命中（null）的商品按变化处理
+        when(stringRedisTemplate.executePipelined(any(RedisCallback.class))).thenReturn(Arrays.asList(
+                PriceChangeDetector.fingerprint(unchanged), PriceChangeDetector.fingerprint(price("5999.00", 1200)), null));
+
+        List<ProductPrice> result = detector.filterChanged(List.of(unchanged, changed, unseen, unkeyed));
+
+        assertEquals(List.of(unkeyed, changed, unseen), result);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFilterChanged_KeepsLastObservationOfDuplicates() {
+        ProductPrice first = price("5999.00", 1200);
+        ProductPrice last = price("5899.00", 1200);
+        when(stringRedisTemplate.executePipelined(any(RedisCallback.class)))
+                .thenReturn(Arrays.asList(PriceChangeDetector.fingerprint(first)));
+
+        assertEquals(List.of(last), detector.filterChanged(List.of(first, last)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFilterChanged_RedisUnavailableTreatsAllAsChanged() {
+        when(stringRedisTemplate.executePipelined(any(RedisCallback.class)))
+                .thenThrow(new RedisConnectionFailureException("redis down"));
+        ProductPrice first = price("5999.00", 1200);
+        ProductPrice second = price("5999.00", 1200);
+        second.setPlatformProductId("jd_002");
+
+        assertEquals(List.of(first, second), detector.filterChanged(List.of(first, second)));
+    }
+
+    @Test
+    void testFingerprint_IgnoresCrawlMetadata() {
+        ProductPrice first = price("5999.00", 1200);
+        ProductPrice second = price("5999", 1200);
+        second.setId(100L);
+        second.setCrawlTime(LocalDateTime.now().plusHours(1));
+
+        assertEquals(PriceChangeDetector.fingerprint(first), PriceChangeDetector.fingerprint(second));
+    }
+
+    @Test
+    void testFingerprint_DetectsPriceAndSalesChange() {
+        String base = PriceChangeDetector.fingerprint(price("5999.00", 1200));
+
+        assertNotEquals(base, PriceChangeDetector.fingerprint(price("5899.00", 1200)));
+        assertNotEquals(base, PriceChangeDetector.fingerprint(price("5999.00", 1201)));
+    }
+
+    @Test
+    void testFingerprint_DetectsShopChange() {
+        ProductPrice changed = price("5999.00", 1200);
+        changed.setShopName("其他店铺");
+
+        assertNotEquals(PriceChangeDetector.fingerprint(price("5999.00", 1200)), PriceChangeDetector.fingerprint(changed));
+    }
+
+    private static ProductPrice price(String price, int sales) {
+        ProductPrice productPrice = new ProductPrice();
+        productPrice.setPlatformCode("jd");
+        productPrice.setPlatformProductId("jd_001");
+        productPrice.setPrice(new BigDecimal(price));
+        productPrice.setOriginalPrice(new BigDecimal("6999.00"));
+        productPrice.setSales(sales);
+        productPrice.setRating(new BigDecimal("4.8"));
+        productPrice.setShopName("京东自营");
+        productPrice.setDelivery("京东物流");
+        productPrice.setCrawlTime(LocalDateTime.now());
+        return productPrice;
+    }
+}
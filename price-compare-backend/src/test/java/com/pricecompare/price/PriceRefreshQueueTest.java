@@ -0,0 +1,190 @@
+package com.pricecompare.price;
+
+import com.pricecompare.entity.ProductPrice;
+import com.pricecompare.mapper.ProductPriceMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.RedisZSetCommands;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 价格刷新队列单元测试
+ * 
+ * @author AutoValuePilot
+ */
+class PriceRefreshQueueTest {
+
+    private StringRedisTemplate stringRedisTemplate;
+    private ProductPriceMapper productPriceMapper;
+    private PriceRefreshQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        stringRedisTemplate = mock(StringRedisTemplate.class);
+        productPriceMapper = mock(ProductPriceMapper.class);
+        queue = new PriceRefreshQueue(stringRedisTemplate, productPriceMapper);
+        ReflectionTestUtils.setField(queue, "enabled", true);
+        ReflectionTestUtils.setField(queue, "maxInterval", 21600000L);
+        ReflectionTestUtils.setField(queue, "minInterval", 600000L);
+        ReflectionTestUtils.setField(queue, "decayFactor", 0.9);
+        ReflectionTestUtils.setField(queue, "minPopularity", 0.5);
+        ReflectionTestUtils.setField(queue, "maxPopularitySize", 10000L);
+    }
+
+    @Test
+    void testRefreshInterval_ColdProductUsesMaxInterval() {
+        assertEquals(21600000L, queue.refreshInterval(0));
+    }
+
+    @Test
+    void testRefreshInterval_ShrinksWithPopularity() {
+        long warm = queue.refreshInterval(10);
+        long hot = queue.refreshInterval(1000);
+        assertTrue(warm < 21600000L);
+        assertTrue(hot < warm);
+    }
+
+    @Test
+    void testRefreshInterval_NotBelowMinInterval() {
+        assertEquals(600000L, queue.refreshInterval(10000));
+    }
+
+    @Test
+    void testSeedFromDatabase_EarlierCrawlIsDueFirst() {
+        LocalDateTime since = LocalDateTime.now().minusDays(7);
+        LocalDateTime older = LocalDateTime.now().minusHours(3);
+        LocalDateTime newer = LocalDateTime.now().minusMinutes(5);
+        when(productPriceMapper.selectLatestCrawls(since)).thenReturn(List.of(
+                price("B", newer, null), price("A", older, 7L), price(null, newer, null)));
+        StringRedisConnection connection = pipelineConnection();
+
+        assertEquals(3, queue.seedFromDatabase(since));
+
+        // 已在队列中的商品保持原进度（ZADD NX），缺少平台商品ID的记录跳过
+        ArgumentCaptor<Double> scores = ArgumentCaptor.forClass(Double.class);
+        verify(connection).zAdd(eq("price:refresh:queue:jd"), scores.capture(), eq("A"), any(RedisZSetCommands.ZAddArgs.class));
+        verify(connection).zAdd(eq("price:refresh:queue:jd"), scores.capture(), eq("B"), any(RedisZSetCommands.ZAddArgs.class));
+        verify(connection, times(2)).zAdd(anyString(), anyDouble(), anyString(), any(RedisZSetCommands.ZAddArgs.class));
+        assertEquals(toMillis(older) + 21600000L, scores.getAllValues().get(0).longValue());
+        assertTrue(scores.getAllValues().get(0) < scores.getAllValues().get(1));
+        verify(connection).hSet("price:refresh:product:jd", "A", "7");
+    }
+
+    @Test
+    void testSeedFromDatabase_Disabled() {
+        ReflectionTestUtils.setField(queue, "enabled", false);
+
+        assertEquals(0, queue.seedFromDatabase(LocalDateTime.now()));
+
+        verifyNoInteractions(productPriceMapper, stringRedisTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testClaim_ReturnsDueMembersInScriptOrder() {
+        when(stringRedisTemplate.execute(any(RedisScript.class), eq(List.of("price:refresh:queue:jd")),
+                anyString(), eq("5"), anyString())).thenReturn(List.of("A", "B"));
+
+        long before = System.currentTimeMillis();
+        assertEquals(List.of("A", "B"), queue.claim("jd", 5, 300000L));
+
+        ArgumentCaptor<String> now = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<String> claimedUntil = ArgumentCaptor.forClass(String.class);
+        verify(stringRedisTemplate).execute(any(RedisScript.class), anyList(), now.capture(), eq("5"), claimedUntil.capture());
+        assertTrue(Long.parseLong(now.getValue()) >= before);
+        assertEquals(Long.parseLong(now.getValue()) + 300000L, Long.parseLong(claimedUntil.getValue()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testReschedule_HotProductIsDueBeforeColdProduct() {
+        ZSetOperations<String, String> zSetOperations = mock(ZSetOperations.class);
+        when(stringRedisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(zSetOperations.score("price:refresh:popularity:jd", "hot")).thenReturn(100d);
+        when(zSetOperations.score("price:refresh:popularity:jd", "cold")).thenReturn(null);
+
+        queue.reschedule("jd", "hot");
+        queue.reschedule("jd", "cold");
+
+        ArgumentCaptor<Double> hot = ArgumentCaptor.forClass(Double.class);
+        ArgumentCaptor<Double> cold = ArgumentCaptor.forClass(Double.class);
+        verify(zSetOperations).add(eq("price:refresh:queue:jd"), eq("hot"), hot.capture());
+        verify(zSetOperations).add(eq("price:refresh:queue:jd"), eq("cold"), cold.capture());
+        assertTrue(hot.getValue() < cold.getValue());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRecordAccess_PullsAccessedProductForward() {
+        StringRedisConnection connection = mock(StringRedisConnection.class);
+        when(stringRedisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            invocation.getArgument(0, RedisCallback.class).doInRedis(connection);
+            return List.of(100d);
+        }).thenAnswer(invocation -> {
+            invocation.getArgument(0, RedisCallback.class).doInRedis(connection);
+            return List.of();
+        });
+        LocalDateTime seenAt = LocalDateTime.now();
+        long unaccessedDue = toMillis(seenAt) + 21600000L;
+
+        queue.recordAccess("jd", List.of("hot"));
+
+        verify(connection).zIncrBy("price:refresh:popularity:jd", 1, "hot");
+        // 只提前已在队列中的商品（XX），不推后已安排得更早的刷新（LT）
+        ArgumentCaptor<Double> score = ArgumentCaptor.forClass(Double.class);
+        verify(connection).zAdd(eq("price:refresh:queue:jd"), score.capture(), eq("hot"),
+                eq(RedisZSetCommands.ZAddArgs.ifExists().lt()));
+        assertTrue(score.getValue() < unaccessedDue);
+        assertTrue(score.getValue() <= System.currentTimeMillis() + queue.refreshInterval(100));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testDecayPopularity_PassesFactorFloorAndSize() {
+        when(stringRedisTemplate.execute(any(RedisScript.class), eq(List.of("price:refresh:popularity:jd")),
+                eq("0.9"), eq("0.5"), eq("10000"))).thenReturn(42L);
+
+        assertEquals(42L, queue.decayPopularity("jd"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private StringRedisConnection pipelineConnection() {
+        StringRedisConnection connection = mock(StringRedisConnection.class);
+        when(stringRedisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            invocation.getArgument(0, RedisCallback.class).doInRedis(connection);
+            return List.of();
+        });
+        return connection;
+    }
+
+    private static ProductPrice price(String platformProductId, LocalDateTime crawlTime, Long productId) {
+        ProductPrice price = new ProductPrice();
+        price.setPlatformCode("jd");
+        price.setPlatformProductId(platformProductId);
+        price.setCrawlTime(crawlTime);
+        price.setProductId(productId);
+        return price;
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,150 @@
+package com.pricecompare.price;
+
+import com.pricecompare.entity.ProductPrice;
+import com.pricecompare.mapper.ProductPriceMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 商品价格写入单元测试
+ * 
+ * @author AutoValuePilot
+ */
+class ProductPriceWriterTest {
+
+    private ProductPriceMapper mapper;
+    private PriceChangeDetector detector;
+    private PlatformTransactionManager transactionManager;
+    private ProductPriceWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        mapper = mock(ProductPriceMapper.class);
+        detector = mock(PriceChangeDetector.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        writer = new ProductPriceWriter(mapper, detector, new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(writer, "chunkSize", 2);
+        when(detector.filterChanged(anyList())).thenAnswer(invocation -> new ArrayList<>(invocation.<List<ProductPrice>>getArgument(0)));
+        when(mapper.touchLatest(anyList(), any())).thenAnswer(invocation -> invocation.<List<ProductPrice>>getArgument(0).size());
+        when(mapper.selectIdsByUniqueKey(anyList())).thenAnswer(invocation -> {
+            List<ProductPrice> rows = new ArrayList<>();
+            for (ProductPrice price : invocation.<List<ProductPrice>>getArgument(0)) {
+                ProductPrice row = new ProductPrice();
+                row.setId(Long.parseLong(price.getPlatformProductId().substring(3)));
+                row.setPlatformCode(price.getPlatformCode());
+                row.setPlatformProductId(price.getPlatformProductId());
+                row.setCrawlTime(price.getCrawlTime());
+                rows.add(row);
+            }
+            return rows;
+        });
+    }
+
+    @Test
+    void testWritesInChunksWithOneTransactionEach() {
+        List<ProductPrice> prices = List.of(price("jd_1"), price("jd_2"), price("jd_3"), price("jd_4"), price("jd_5"));
+
+        List<ProductPrice> written = writer.write(prices);
+
+        assertEquals(5, written.size());
+        verify(mapper, times(3)).upsertBatch(anyList());
+        verify(mapper, never()).insert(any(ProductPrice.class));
+        verify(transactionManager, times(3)).getTransaction(any());
+        verify(transactionManager, times(3)).commit(any());
+        verify(detector).remember(written);
+    }
+
+    @Test
+    void testBackfillsIdsAndTruncatesCrawlTime() {
+        ProductPrice price = price("jd_42");
+        price.setCrawlTime(LocalDateTime.of(2024, 5, 1, 10, 30, 15, 123_456_789));
+
+        writer.write(List.of(price));
+
+        assertEquals(42L, price.getId());
+        assertEquals(LocalDateTime.of(2024, 5, 1, 10, 30, 15), price.getCrawlTime());
+        assertNotNull(price.getCreateTime());
+    }
+
+    @Test
+    void testSkipsUnchangedObservations() {
+        when(detector.filterChanged(anyList())).thenReturn(new ArrayList<>());
+
+        assertTrue(writer.write(List.of(price("jd_1"))).isEmpty());
+        verify(mapper, never()).upsertBatch(anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testTouchesLastSeenOfUnchangedObservationsInChunks() {
+        ProductPrice changed = price("jd_1");
+        when(detector.filterChanged(anyList())).thenReturn(new ArrayList<>(List.of(changed)));
+        List<ProductPrice> prices = List.of(changed, price("jd_2"), price("jd_3"), price("jd_2"), price("jd_4"));
+
+        writer.write(prices);
+
+        // 变化的观测写入时带上最近观测时间，未变化的观测去重后按块更新最近观测时间
+        assertNotNull(changed.getLastSeenTime());
+        ArgumentCaptor<List<ProductPrice>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(mapper, times(2)).touchLatest(chunks.capture(), eq(changed.getLastSeenTime()));
+        assertEquals(List.of("jd_2", "jd_3", "jd_4"), chunks.getAllValues().stream()
+                .flatMap(List::stream).map(ProductPrice::getPlatformProductId).toList());
+    }
+
+    @Test
+    void testRewritesUnchangedObservationWhoseRowWasDeleted() {
+        ProductPrice first = price("jd_7");
+        writer.write(List.of(first));
+        verify(mapper).upsertBatch(List.of(first));
+        clearInvocations(mapper, detector);
+
+        // 过期清理删除了唯一一条记录，指纹仍在：同样的价格再次观测时重新写入
+        when(detector.filterChanged(anyList())).thenReturn(new ArrayList<>());
+        when(mapper.touchLatest(anyList(), any())).thenReturn(0);
+        when(mapper.selectLatestIds(anyList())).thenReturn(List.of());
+        ProductPrice again = price("jd_7");
+
+        List<ProductPrice> written = writer.write(List.of(again));
+
+        assertEquals(List.of(again), written);
+        assertEquals(7L, again.getId());
+        assertNotNull(again.getLastSeenTime());
+        verify(mapper).upsertBatch(List.of(again));
+        verify(detector).remember(written);
+    }
+
+    @Test
+    void testDoesNotRewriteWhenTouchedRowAlreadyCurrent() {
+        when(detector.filterChanged(anyList())).thenReturn(new ArrayList<>());
+        // 受影响行数不足但记录仍在（最近观测时间未变）
+        when(mapper.touchLatest(anyList(), any())).thenReturn(0);
+        ProductPrice row = price("jd_8");
+        when(mapper.selectLatestIds(anyList())).thenReturn(List.of(row));
+
+        assertTrue(writer.write(List.of(price("jd_8"))).isEmpty());
+        verify(mapper, never()).upsertBatch(anyList());
+    }
+
+    private static ProductPrice price(String platformProductId) {
+        ProductPrice price = new ProductPrice();
+        price.setPlatformCode("jd");
+        price.setPlatformProductId(platformProductId);
+        price.setPrice(new BigDecimal("5999.00"));
+        return price;
+    }
+}
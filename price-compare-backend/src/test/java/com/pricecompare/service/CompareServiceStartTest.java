@@ -0,0 +1,148 @@
+package com.pricecompare.service;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.pricecompare.cluster.ProductClusterLookup;
+import com.pricecompare.compare.CompareResultSnapshot;
+import com.pricecompare.compare.CompareResultStore;
+import com.pricecompare.compare.CompareTaskDeduplicator;
+import com.pricecompare.compare.CompareTaskDispatcher;
+import com.pricecompare.compare.CompareTaskMessage;
+import com.pricecompare.compare.CompareTaskRunner;
+import com.pricecompare.entity.CompareTask;
+import com.pricecompare.entity.ProductPrice;
+import com.pricecompare.mapper.CompareTaskMapper;
+import com.pricecompare.service.impl.CompareServiceImpl;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 启动比价任务单元测试
+ *
+ * @author AutoValuePilot
+ */
+class CompareServiceStartTest {
+
+    private static final String DEDUPE_KEY = "compare:dedupe:iphone";
+
+    private CrawlerService crawlerService;
+    private RedisTemplate<String, Object> redisTemplate;
+    private ValueOperations<String, Object> valueOperations;
+    private CompareTaskRunner compareTaskRunner;
+    private CompareTaskDispatcher compareTaskDispatcher;
+    private ProductClusterLookup productClusterLookup;
+    private CompareTaskDeduplicator compareTaskDeduplicator;
+    private CompareTaskMapper compareTaskMapper;
+    private CompareServiceImpl compareService;
+
+    @BeforeAll
+    static void initTableInfo() {
+        // removeById按实体表信息判断是否逻辑删除
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), CompareTask.class);
+    }
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        crawlerService = mock(CrawlerService.class);
+        redisTemplate = mock(RedisTemplate.class);
+        valueOperations = mock(ValueOperations.class);
+        compareTaskRunner = mock(CompareTaskRunner.class);
+        compareTaskDispatcher = mock(CompareTaskDispatcher.class);
+        productClusterLookup = mock(ProductClusterLookup.class);
+        compareTaskDeduplicator = mock(CompareTaskDeduplicator.class);
+        compareTaskMapper = mock(CompareTaskMapper.class);
+        compareService = new CompareServiceImpl(mock(ProductService.class), crawlerService, redisTemplate,
+                compareTaskRunner, compareTaskDispatcher, mock(CompareResultStore.class),
+                mock(CompareResultSnapshot.class), productClusterLookup, compareTaskDeduplicator);
+        ReflectionTestUtils.setField(compareService, "baseMapper", compareTaskMapper);
+        ReflectionTestUtils.setField(compareService, "taskTimeout", 300000L);
+
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(crawlerService.getSupportedPlatforms()).thenReturn(List.of("jd", "taobao"));
+        when(compareTaskDeduplicator.key(eq("iPhone 15"), any(), anyList())).thenReturn(DEDUPE_KEY);
+        when(compareTaskMapper.insert(any(CompareTask.class))).thenAnswer(invocation -> {
+            invocation.<CompareTask>getArgument(0).setId(10L);
+            return 1;
+        });
+        when(productClusterLookup.freshPrices(any())).thenReturn(Map.of());
+    }
+
+    @Test
+    void testReturnsTaskThatWonSecondClaim() {
+        CompareTask winner = new CompareTask();
+        winner.setId(12L);
+        winner.setProductName("iPhone 15");
+        // 第一次登记指向已删除的任务11，重新登记时任务12已抢先登记
+        when(compareTaskDeduplicator.claim(DEDUPE_KEY, 10L)).thenReturn(11L, 12L);
+        when(compareTaskMapper.selectById(12L)).thenReturn(winner);
+
+        CompareTask task = compareService.startCompareTask("iPhone 15", null);
+
+        assertSame(winner, task);
+        verify(compareTaskDeduplicator).evictStale(DEDUPE_KEY, 11L);
+        verify(compareTaskMapper).deleteById(10L);
+        verify(compareTaskRunner, never()).begin(any(), anyInt());
+        verify(compareTaskDispatcher, never()).dispatch(any());
+    }
+
+    @Test
+    void testRunsNewTaskWhenSecondClaimSucceeds() {
+        when(compareTaskDeduplicator.claim(DEDUPE_KEY, 10L)).thenReturn(11L, (Long) null);
+
+        CompareTask task = compareService.startCompareTask("iPhone 15", null);
+
+        assertEquals(10L, task.getId());
+        verify(compareTaskMapper, never()).deleteById(any(java.io.Serializable.class));
+        verify(compareTaskRunner).begin(10L, 2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFailsClusterPlatformWhenResolveThrows() {
+        List<ProductPrice> jdPrices = List.of(new ProductPrice());
+        when(productClusterLookup.freshPrices(1L)).thenReturn(Map.of("jd", jdPrices));
+        IllegalStateException error = new IllegalStateException("db down");
+        doThrow(error).when(compareTaskRunner).resolve(any(), eq(jdPrices));
+
+        CompareTask task = compareService.startCompareTask("iPhone 15", 1L);
+
+        assertEquals(10L, task.getId());
+        ArgumentCaptor<CompareTaskMessage> failed = ArgumentCaptor.forClass(CompareTaskMessage.class);
+        verify(compareTaskRunner).fail(failed.capture(), eq(error));
+        assertEquals("jd", failed.getValue().getPlatformCode());
+        ArgumentCaptor<List<CompareTaskMessage>> dispatched = ArgumentCaptor.forClass(List.class);
+        verify(compareTaskDispatcher).dispatch(dispatched.capture());
+        assertEquals("taobao", dispatched.getValue().get(0).getPlatformCode());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSearchesAllPlatformsWhenClusterLookupFails() {
+        when(productClusterLookup.freshPrices(1L)).thenThrow(new IllegalStateException("db down"));
+
+        compareService.startCompareTask("iPhone 15", 1L);
+
+        verify(compareTaskRunner).begin(10L, 2);
+        ArgumentCaptor<List<CompareTaskMessage>> dispatched = ArgumentCaptor.forClass(List.class);
+        verify(compareTaskDispatcher).dispatch(dispatched.capture());
+        assertEquals(2, dispatched.getValue().size());
+        verify(compareTaskRunner, never()).resolve(any(), any());
+    }
+}
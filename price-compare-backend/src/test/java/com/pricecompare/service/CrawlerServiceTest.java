@@ -1,27 +1,50 @@
 package com.pricecompare.service;
 
+import com.pricecompare.crawler.CrawlLease;
+import com.pricecompare.crawler.PlatformConfigRegistry;
+import com.pricecompare.crawler.PlatformExecutors;
+import com.pricecompare.crawler.limit.LocalRateLimitBackend;
+import com.pricecompare.crawler.limit.PlatformConcurrencyLimiter;
+import com.pricecompare.crawler.limit.PlatformRateLimiter;
+import com.pricecompare.crawler.resilience.PlatformHedging;
+import com.pricecompare.crawler.resilience.PlatformResilience;
+import com.pricecompare.crawler.spi.MockPlatformCrawler;
+import com.pricecompare.crawler.spi.PlatformCrawlerRegistry;
+import com.pricecompare.dto.response.BatchSearchResult;
+import com.pricecompare.dto.response.PlatformSearchResult;
+import com.pricecompare.dto.response.ProductDetailBatchResult;
 import com.pricecompare.entity.ProductPrice;
 import com.pricecompare.entity.PlatformConfig;
-import com.pricecompare.mapper.PlatformConfigMapper;
 import com.pricecompare.mapper.ProductPriceMapper;
+import com.pricecompare.price.PriceRefreshQueue;
 import com.pricecompare.service.impl.CrawlerServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 /**
@@ -33,7 +56,7 @@ import static org.mockito.Mockito.*;
 class CrawlerServiceTest {
 
     @Mock
-    private PlatformConfigMapper platformConfigMapper;
+    private PlatformConfigRegistry platformConfigRegistry;
 
     @Mock
     private ProductPriceMapper productPriceMapper;
@@ -44,7 +67,14 @@ class CrawlerServiceTest {
     @Mock
     private ValueOperations<String, Object> valueOperations;
 
-    @InjectMocks
+    @Mock
+    private CrawlLease crawlLease;
+
+    @Mock
+    private PriceRefreshQueue priceRefreshQueue;
+
+    private PlatformExecutors platformExecutors;
+
     private CrawlerServiceImpl crawlerService;
 
     private PlatformConfig mockPlatformConfig;
@@ -64,12 +94,47 @@ class CrawlerServiceTest {
         mockPlatformConfig.setRateLimit(1000);
         mockPlatformConfig.setCreateTime(LocalDateTime.now());
         mockPlatformConfig.setUpdateTime(LocalDateTime.now());
+
+        // 平台调用链上的组件使用真实实现（模拟连接器），配置取默认值
+        MockEnvironment environment = new MockEnvironment();
+        platformExecutors = new PlatformExecutors();
+        ReflectionTestUtils.setField(platformExecutors, "poolSize", 4);
+        ReflectionTestUtils.setField(platformExecutors, "queueCapacity", 100);
+
+        PlatformRateLimiter platformRateLimiter = new PlatformRateLimiter(new LocalRateLimitBackend());
+        ReflectionTestUtils.setField(platformRateLimiter, "mode", "queue");
+        ReflectionTestUtils.setField(platformRateLimiter, "maxWaitMillis", 2000L);
+        ReflectionTestUtils.setField(platformRateLimiter, "burst", 1);
+
+        PlatformResilience platformResilience = new PlatformResilience(environment);
+        ReflectionTestUtils.setField(platformResilience, "retryBaseDelay", 100L);
+        ReflectionTestUtils.setField(platformResilience, "retryMaxDelay", 2000L);
+
+        PlatformConcurrencyLimiter platformConcurrencyLimiter = new PlatformConcurrencyLimiter(new SimpleMeterRegistry(), platformExecutors);
+
+        PlatformHedging platformHedging = new PlatformHedging(environment, platformExecutors, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(platformHedging, "quantile", 0.95);
+        ReflectionTestUtils.setField(platformHedging, "minSamples", 20);
+        ReflectionTestUtils.setField(platformHedging, "windowSize", 512);
+
+        crawlerService = new CrawlerServiceImpl(platformConfigRegistry, productPriceMapper, redisTemplate,
+                platformExecutors, platformRateLimiter,
+                new PlatformCrawlerRegistry(List.of(new MockPlatformCrawler()), environment),
+                platformResilience, platformHedging, crawlLease, environment, priceRefreshQueue, platformConcurrencyLimiter);
+        ReflectionTestUtils.setField(crawlerService, "defaultTimeout", 10000L);
+        ReflectionTestUtils.setField(crawlerService, "leasePollInterval", 50L);
+        ReflectionTestUtils.setField(crawlerService, "detailBatchConcurrency", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        platformExecutors.shutdown();
     }
 
     @Test
     void testBatchSearchProducts() {
         // 模拟平台配置查询
-        when(platformConfigMapper.selectOne(any())).thenReturn(mockPlatformConfig);
+        when(platformConfigRegistry.get("jd")).thenReturn(mockPlatformConfig);
         // 模拟RedisTemplate操作（缓存未命中）
         when(redisTemplate.opsForValue()).thenReturn(valueOperations);
         when(valueOperations.get(anyString())).thenReturn(null);
@@ -89,10 +154,79 @@ class CrawlerServiceTest {
 
 
 
+    @Test
+    void testBatchSearchIsCappedByDeadline() throws Exception {
+        when(platformConfigRegistry.get("jd")).thenReturn(mockPlatformConfig);
+        // 平台线程池只有一个线程且被占用，搜索在队列中等待，平台超时5秒，任务截止时间200毫秒
+        ReflectionTestUtils.setField(platformExecutors, "poolSize", 1);
+        CountDownLatch release = new CountDownLatch(1);
+        platformExecutors.get("jd").submit(() -> {
+            release.await();
+            return null;
+        });
+
+        long start = System.currentTimeMillis();
+        BatchSearchResult result = crawlerService.batchSearch("iPhone 15", List.of("jd"), start + 200);
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertEquals(PlatformSearchResult.Status.TIMEOUT, result.getPlatforms().get(0).getStatus());
+        assertTrue(result.getPartial());
+        assertTrue(elapsed < 2000, "未按截止时间结束：" + elapsed + "ms");
+
+        // 已超过截止时间的搜索不再提交
+        PlatformSearchResult expired = crawlerService.batchSearch("iPhone 15", List.of("jd"), start).getPlatforms().get(0);
+        assertEquals(PlatformSearchResult.Status.TIMEOUT, expired.getStatus());
+        assertEquals("已超过截止时间", expired.getMessage());
+
+        // 超时的平台调用已被取消，线程空闲后不会再执行
+        release.countDown();
+        platformExecutors.get("jd").submit(() -> { }).get(5, TimeUnit.SECONDS);
+        verify(redisTemplate, never()).opsForValue();
+    }
+
+    @Test
+    void testInterruptedBatchSearchCancelsPlatformCalls() throws Exception {
+        when(platformConfigRegistry.get("jd")).thenReturn(mockPlatformConfig);
+        ReflectionTestUtils.setField(platformExecutors, "poolSize", 1);
+        CountDownLatch release = new CountDownLatch(1);
+        platformExecutors.get("jd").submit(() -> {
+            release.await();
+            return null;
+        });
+
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        AtomicBoolean interruptRestored = new AtomicBoolean();
+        Thread caller = new Thread(() -> {
+            try {
+                crawlerService.batchSearch("iPhone 15", List.of("jd"), System.currentTimeMillis() + 60000);
+            } catch (Throwable e) {
+                error.set(e);
+                interruptRestored.set(Thread.currentThread().isInterrupted());
+            }
+        });
+        caller.start();
+        // 等待搜索提交到平台线程池的队列
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) platformExecutors.get("jd");
+        long waitUntil = System.currentTimeMillis() + 5000;
+        while (executor.getQueue().isEmpty() && System.currentTimeMillis() < waitUntil) {
+            Thread.sleep(10);
+        }
+        caller.interrupt();
+        caller.join(5000);
+
+        assertFalse(caller.isAlive());
+        assertInstanceOf(CancellationException.class, error.get());
+        assertTrue(interruptRestored.get());
+
+        release.countDown();
+        executor.submit(() -> { }).get(5, TimeUnit.SECONDS);
+        verify(redisTemplate, never()).opsForValue();
+    }
+
     @Test
     void testGetProductDetail() {
         // 模拟平台配置查询
-        when(platformConfigMapper.selectOne(any())).thenReturn(mockPlatformConfig);
+        when(platformConfigRegistry.get("jd")).thenReturn(mockPlatformConfig);
         // 模拟RedisTemplate操作（缓存未命中）
         when(redisTemplate.opsForValue()).thenReturn(valueOperations);
         when(valueOperations.get(anyString())).thenReturn(null);
@@ -125,7 +259,7 @@ class CrawlerServiceTest {
     @Test
     void testSearchProducts_SinglePlatform() {
         // 模拟平台配置查询
-        when(platformConfigMapper.selectOne(any())).thenReturn(mockPlatformConfig);
+        when(platformConfigRegistry.get("jd")).thenReturn(mockPlatformConfig);
         // 模拟RedisTemplate操作（缓存未命中）
         when(redisTemplate.opsForValue()).thenReturn(valueOperations);
         when(valueOperations.get(anyString())).thenReturn(null);
@@ -143,10 +277,41 @@ class CrawlerServiceTest {
         assertNotNull(product.getProductUrl());
     }
 
+    @Test
+    void testGetProductDetails() {
+        when(platformConfigRegistry.get("jd")).thenReturn(mockPlatformConfig);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.multiGet(anyList())).thenReturn(Arrays.asList(null, null, null, null, null));
+
+        // 同时最多占用2个平台线程，全部商品仍在截止时间前完成
+        ProductDetailBatchResult result = crawlerService.getProductDetails(
+                Arrays.asList("1", "2", "3", "4", "5"), "jd");
+
+        assertEquals(List.of("1", "2", "3", "4", "5"), List.copyOf(result.getDetails().keySet()));
+        assertTrue(result.getRejected().isEmpty());
+        assertTrue(result.getFailed().isEmpty());
+        assertFalse(result.getPartial());
+    }
+
+    @Test
+    void testGetProductDetails_ReportsRejected() {
+        when(platformConfigRegistry.get("jd")).thenReturn(mockPlatformConfig);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.multiGet(anyList())).thenReturn(Arrays.asList(null, null));
+        // 线程池拒绝提交
+        platformExecutors.get("jd").shutdown();
+
+        ProductDetailBatchResult result = crawlerService.getProductDetails(Arrays.asList("1", "2"), "jd");
+
+        assertTrue(result.getDetails().isEmpty());
+        assertEquals(List.of("1", "2"), result.getRejected());
+        assertTrue(result.getPartial());
+    }
+
     @Test
     void testCheckPlatformAvailability() {
         // 模拟平台配置查询
-        when(platformConfigMapper.selectOne(any())).thenReturn(mockPlatformConfig);
+        when(platformConfigRegistry.get("jd")).thenReturn(mockPlatformConfig);
 
         // 测试平台可用性检查
         String platformCode = "jd";
@@ -156,7 +321,6 @@ class CrawlerServiceTest {
         assertTrue(result);
 
         // 测试不可用平台
-        when(platformConfigMapper.selectOne(any())).thenReturn(null);
         boolean unavailableResult = crawlerService.checkPlatformAvailability("invalid_platform");
         assertFalse(unavailableResult);
     }
@@ -176,8 +340,9 @@ class CrawlerServiceTest {
         pddConfig.setPlatformCode("pdd");
         pddConfig.setEnabled(1);
         
-        List<PlatformConfig> configs = Arrays.asList(taobaoConfig, jdConfig, pddConfig);
-        when(platformConfigMapper.selectList(any())).thenReturn(configs);
+        List<String> configs = Arrays.asList(taobaoConfig.getPlatformCode(), jdConfig.getPlatformCode(),
+                pddConfig.getPlatformCode());
+        when(platformConfigRegistry.getEnabledPlatformCodes()).thenReturn(configs);
 
         // 测试获取支持的平台列表
         List<String> platforms = crawlerService.getSupportedPlatforms();
@@ -0,0 +1,130 @@
+package com.pricecompare.similar;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * HNSW近似最近邻索引单元测试
+ * 
+ * @author AutoValuePilot
+ */
+class HnswIndexTest {
+
+    private static final int DIMENSION = 32;
+
+    @Test
+    void testRecallAgainstBruteForce() {
+        Random random = new Random(7);
+        HnswIndex index = new HnswIndex(DIMENSION, 16, 100, 42);
+        List<float[]> vectors = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            float[] vector = randomVector(random);
+            vectors.add(vector);
+            index.add(i, vector);
+        }
+
+        int k = 10;
+        int hits = 0;
+        int queries = 100;
+        for (int q = 0; q < queries; q++) {
+            float[] query = randomVector(random);
+            Set<Long> expected = bruteForce(vectors, query, k);
+            for (HnswIndex.Neighbor neighbor : index.search(query, k, 64)) {
+                if (expected.contains(neighbor.id())) {
+                    hits++;
+                }
+            }
+        }
+        double recall = hits / (double) (queries * k);
+        assertTrue(recall >= 0.9, "召回率过低：" + recall);
+    }
+
+    @Test
+    void testResultsSortedBySimilarity() {
+        Random random = new Random(3);
+        HnswIndex index = new HnswIndex(DIMENSION, 8, 50, 42);
+        for (int i = 0; i < 500; i++) {
+            index.add(i, randomVector(random));
+        }
+        float[] query = index.getVector(123);
+
+        List<HnswIndex.Neighbor> neighbors = index.search(query, 5, 32);
+
+        assertEquals(5, neighbors.size());
+        assertEquals(123L, neighbors.get(0).id());
+        assertEquals(1.0f, neighbors.get(0).score(), 1e-4);
+        for (int i = 1; i < neighbors.size(); i++) {
+            assertTrue(neighbors.get(i - 1).score() >= neighbors.get(i).score());
+        }
+    }
+
+    @Test
+    void testReplaceAndRemove() {
+        Random random = new Random(5);
+        HnswIndex index = new HnswIndex(DIMENSION, 8, 50, 42);
+        for (int i = 0; i < 200; i++) {
+            index.add(i, randomVector(random));
+        }
+        float[] replacement = randomVector(random);
+        index.add(10, replacement);
+
+        assertEquals(200, index.size());
+        assertArrayEquals(replacement, index.getVector(10));
+        assertEquals(10L, index.search(replacement, 1, 32).get(0).id());
+
+        index.remove(10);
+        assertEquals(199, index.size());
+        assertNull(index.getVector(10));
+        assertTrue(index.search(replacement, 10, 32).stream().noneMatch(neighbor -> neighbor.id() == 10));
+    }
+
+    @Test
+    void testEmptyIndexAndDimensionCheck() {
+        HnswIndex index = new HnswIndex(DIMENSION, 8, 50, 42);
+
+        assertTrue(index.search(new float[DIMENSION], 5, 32).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> index.add(1, new float[DIMENSION + 1]));
+    }
+
+    private static Set<Long> bruteForce(List<float[]> vectors, float[] query, int k) {
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < vectors.size(); i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.comparingDouble(i -> -dot(vectors.get(i), query)));
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < k; i++) {
+            ids.add((long) order.get(i));
+        }
+        return ids;
+    }
+
+    private static float dot(float[] a, float[] b) {
+        float dot = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+        }
+        return dot;
+    }
+
+    static float[] randomVector(Random random) {
+        float[] vector = new float[DIMENSION];
+        double norm = 0;
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) random.nextGaussian();
+            norm += vector[i] * vector[i];
+        }
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] /= (float) Math.sqrt(norm);
+        }
+        return vector;
+    }
+}
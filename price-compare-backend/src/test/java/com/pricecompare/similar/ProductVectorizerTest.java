@@ -0,0 +1,122 @@
+package com.pricecompare.similar;
+
+import com.pricecompare.entity.Product;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 商品向量化单元测试
+ * 
+ * @author AutoValuePilot
+ */
+class ProductVectorizerTest {
+
+    private final ProductVectorizer vectorizer = new ProductVectorizer(256);
+
+    @Test
+    void testVectorsAreNormalized() {
+        float[] vector = vectorizer.vectorize(product("Apple iPhone 15 Pro 256GB 黑色钛金属", "Apple", "iPhone 15 Pro"));
+
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        assertEquals(1.0, norm, 1e-4);
+    }
+
+    @Test
+    void testSameModelIsCloserThanOtherCategory() {
+        float[] iphone = vectorizer.vectorize(product("Apple iPhone 15 Pro 256GB 黑色钛金属", "Apple", "iPhone 15 Pro"));
+        float[] sameModel = vectorizer.vectorize(product("苹果 iPhone 15 Pro 256G 5G手机 白色", "Apple", "iPhone 15 Pro"));
+        float[] laptop = vectorizer.vectorize(product("联想 ThinkPad X1 Carbon 14英寸笔记本电脑", "Lenovo", "X1 Carbon"));
+
+        assertTrue(dot(iphone, sameModel) > dot(iphone, laptop));
+        assertTrue(dot(vectorizer.vectorize("iPhone 15 Pro 手机"), sameModel) > dot(vectorizer.vectorize("iPhone 15 Pro 手机"), laptop));
+    }
+
+    @Test
+    void testEmptyProductHasNoVector() {
+        assertNull(vectorizer.vectorize(new Product()));
+        assertNull(vectorizer.vectorize("   "));
+    }
+
+    @Test
+    void testSameProductIsCountedOnce() {
+        Product product = product(1L, "Apple iPhone 15 Pro 256GB", "Apple", "iPhone 15 Pro");
+        float[] first = vectorizer.vectorize(product);
+        int[] frequency = frequencies();
+
+        float[] again = vectorizer.vectorize(product);
+
+        assertEquals(1, vectorizer.getDocuments());
+        assertArrayEquals(frequency, frequencies());
+        assertArrayEquals(first, again, 1e-6f);
+    }
+
+    @Test
+    void testReplacementMovesFrequencyAndRemoveUncounts() {
+        vectorizer.vectorize(product(1L, "Apple iPhone 15 Pro 256GB", "Apple", "iPhone 15 Pro"));
+        vectorizer.vectorize(product(2L, "联想 ThinkPad X1 Carbon", "Lenovo", "X1 Carbon"));
+        ProductVectorizer single = new ProductVectorizer(256);
+        single.vectorize(product(2L, "联想 ThinkPad X1 Carbon", "Lenovo", "X1 Carbon"));
+        int[] laptopOnly = frequencies(single);
+
+        // 商品1更新为与商品2相同的内容：旧桶扣除，新桶计入，文档数不变
+        vectorizer.vectorize(product(1L, "联想 ThinkPad X1 Carbon", "Lenovo", "X1 Carbon"));
+        assertEquals(2, vectorizer.getDocuments());
+        int[] frequency = frequencies();
+        for (int i = 0; i < frequency.length; i++) {
+            assertEquals(laptopOnly[i] * 2, frequency[i]);
+        }
+
+        vectorizer.remove(1L);
+        vectorizer.remove(1L);
+        assertEquals(1, vectorizer.getDocuments());
+        assertArrayEquals(laptopOnly, frequencies());
+
+        // 更新为空内容等同于移除
+        assertNull(vectorizer.vectorize(product(2L, null, null, null)));
+        assertEquals(0, vectorizer.getDocuments());
+        assertArrayEquals(new int[256], frequencies());
+    }
+
+    @Test
+    void testRejectsNonPositiveDimension() {
+        assertThrows(IllegalArgumentException.class, () -> new ProductVectorizer(0));
+    }
+
+    private int[] frequencies() {
+        return frequencies(vectorizer);
+    }
+
+    private static int[] frequencies(ProductVectorizer vectorizer) {
+        int[] frequency = new int[vectorizer.getDimension()];
+        for (int i = 0; i < frequency.length; i++) {
+            frequency[i] = vectorizer.getDocumentFrequency(i);
+        }
+        return frequency;
+    }
+
+    private static Product product(Long id, String title, String brand, String model) {
+        Product product = product(title, brand, model);
+        product.setId(id);
+        return product;
+    }
+
+    private static Product product(String title, String brand, String model) {
+        Product product = new Product();
+        product.setTitle(title);
+        product.setBrand(brand);
+        product.setModel(model);
+        return product;
+    }
+
+    private static float dot(float[] a, float[] b) {
+        float dot = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+        }
+        return dot;
+    }
+}
@@ -0,0 +1,72 @@
+package com.pricecompare.similar;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * 相似商品索引基准测试
+ * 构建含指定数量商品的HNSW索引（向量围绕若干"品类"中心聚集，接近真实商品的分布），统计top-k查询的P50/P99延迟。
+ * 默认跳过，100万商品需要约1GB堆，运行方式：
+ * mvn test -Dtest=SimilarProductBenchmarkTest -Dbenchmark=true [-Dbenchmark.products=1000000 -Dbenchmark.dimension=128]
+ * 
+ * @author AutoValuePilot
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class SimilarProductBenchmarkTest {
+
+    private final int products = Integer.getInteger("benchmark.products", 1_000_000);
+    private final int dimension = Integer.getInteger("benchmark.dimension", 128);
+    private final int queries = Integer.getInteger("benchmark.queries", 2000);
+
+    @Test
+    void benchmark() {
+        Random random = new Random(42);
+        float[][] centers = new float[1000][];
+        for (int i = 0; i < centers.length; i++) {
+            centers[i] = randomVector(random, null, 0);
+        }
+
+        HnswIndex index = new HnswIndex(dimension, 16, 100, 42);
+        long buildStart = System.nanoTime();
+        for (int i = 0; i < products; i++) {
+            index.add(i, randomVector(random, centers[random.nextInt(centers.length)], 0.5f));
+            if ((i + 1) % 100_000 == 0) {
+                System.out.printf("已写入%,d个商品，耗时%.1fs%n", i + 1, (System.nanoTime() - buildStart) / 1e9);
+            }
+        }
+        double buildSeconds = (System.nanoTime() - buildStart) / 1e9;
+
+        // 预热
+        for (int i = 0; i < 200; i++) {
+            index.search(randomVector(random, centers[random.nextInt(centers.length)], 0.5f), 10, 64);
+        }
+        long[] samples = new long[queries];
+        for (int i = 0; i < queries; i++) {
+            float[] query = randomVector(random, centers[random.nextInt(centers.length)], 0.5f);
+            long start = System.nanoTime();
+            index.search(query, 10, 64);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        System.out.printf("商品数=%,d 维度=%d 构建=%.1fs (%.0f个/s) | top10查询 P50=%.3fms P99=%.3fms P999=%.3fms%n",
+                products, dimension, buildSeconds, products / buildSeconds,
+                samples[queries / 2] / 1e6, samples[queries * 99 / 100] / 1e6, samples[queries * 999 / 1000] / 1e6);
+    }
+
+    private float[] randomVector(Random random, float[] center, float noise) {
+        float[] vector = new float[dimension];
+        double norm = 0;
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = (center == null ? 0 : center[i]) + (float) random.nextGaussian() * (center == null ? 1 : noise / (float) Math.sqrt(dimension));
+            norm += vector[i] * vector[i];
+        }
+        float scale = (float) (1 / Math.sqrt(norm));
+        for (int i = 0; i < dimension; i++) {
+            vector[i] *= scale;
+        }
+        return vector;
+    }
+}
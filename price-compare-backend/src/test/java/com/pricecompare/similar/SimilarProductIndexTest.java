@@ -0,0 +1,97 @@
+package com.pricecompare.similar;
+
+import com.pricecompare.dto.response.SimilarProduct;
+import com.pricecompare.entity.Product;
+import com.pricecompare.mapper.ProductMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * 相似商品索引单元测试
+ * 
+ * @author AutoValuePilot
+ */
+class SimilarProductIndexTest {
+
+    private final Map<Long, Product> catalog = new HashMap<>();
+    private SimilarProductIndex index;
+
+    @BeforeEach
+    void setUp() {
+        ProductMapper productMapper = mock(ProductMapper.class);
+        when(productMapper.selectById(anyLong())).thenAnswer(invocation -> catalog.get(invocation.<Long>getArgument(0)));
+        when(productMapper.selectBatchIds(anyCollection())).thenAnswer(invocation -> {
+            List<Product> products = new ArrayList<>();
+            for (Object id : invocation.<Collection<?>>getArgument(0)) {
+                products.add(catalog.get((Long) id));
+            }
+            return products;
+        });
+        index = new SimilarProductIndex(productMapper, 256, 8, 50);
+        ReflectionTestUtils.setField(index, "enabled", true);
+        ReflectionTestUtils.setField(index, "efSearch", 32);
+        ReflectionTestUtils.setField(index, "tierMargin", 0.1);
+
+        add(1L, "Apple iPhone 15 128GB 5G手机", "Apple", "iPhone 15", "5999");
+        add(2L, "Apple iPhone 15 Pro Max 256GB 5G手机", "Apple", "iPhone 15 Pro Max", "9999");
+        add(3L, "Apple iPhone 14 128GB 5G手机", "Apple", "iPhone 14", "4599");
+        add(4L, "Apple iPhone 15 128GB 手机 官方正品", "Apple", "iPhone 15", "6099");
+        add(5L, "联想 ThinkPad X1 Carbon 14英寸笔记本电脑", "Lenovo", "X1 Carbon", "9999");
+        add(6L, "戴森 V12 无绳吸尘器", "Dyson", "V12", "3999");
+    }
+
+    @Test
+    void testRecommendByProductExcludesItselfAndAssignsTiers() {
+        List<SimilarProduct> similar = index.recommend(1L, 3);
+
+        assertEquals(3, similar.size());
+        assertTrue(similar.stream().noneMatch(product -> product.getProductId() == 1L));
+        assertTrue(similar.stream().allMatch(product -> "Apple".equals(product.getBrand())));
+        Map<Long, String> tiers = new HashMap<>();
+        similar.forEach(product -> tiers.put(product.getProductId(), product.getTier()));
+        assertEquals(SimilarProduct.TIER_UPGRADE, tiers.get(2L));
+        assertEquals(SimilarProduct.TIER_ECONOMY, tiers.get(3L));
+        assertEquals(SimilarProduct.TIER_SIMILAR, tiers.get(4L));
+    }
+
+    @Test
+    void testRecommendByName() {
+        List<SimilarProduct> similar = index.recommend("ThinkPad 笔记本电脑", null, 1);
+
+        assertEquals(1, similar.size());
+        assertEquals(5L, similar.get(0).getProductId());
+        assertEquals(SimilarProduct.TIER_SIMILAR, similar.get(0).getTier());
+    }
+
+    @Test
+    void testUnknownProductAndDisabledIndex() {
+        assertTrue(index.recommend(99L, 5).isEmpty());
+
+        ReflectionTestUtils.setField(index, "enabled", false);
+        assertTrue(index.recommend(1L, 5).isEmpty());
+    }
+
+    private void add(Long id, String title, String brand, String model, String price) {
+        Product product = new Product();
+        product.setId(id);
+        product.setTitle(title);
+        product.setBrand(brand);
+        product.setModel(model);
+        product.setPlatform("jd");
+        product.setPrice(new BigDecimal(price));
+        catalog.put(id, product);
+        index.add(product);
+    }
+}